@@ -0,0 +1,31 @@
+-- Side table for non-numeric (String) metric values. sensor_data keeps a row with a NULL
+-- metric_value for every such sample; the value itself is stored here under the same key.
+
+CREATE TABLE IF NOT EXISTS sensor_data_text (
+    time TIMESTAMPTZ NOT NULL,
+    community_id INT NOT NULL,
+    device_id TEXT NOT NULL,
+    metric_name TEXT NOT NULL,
+    metric_value TEXT NOT NULL,
+    metric_version INT,
+    ingestion_time TIMESTAMPTZ DEFAULT NOW(),
+    quality SMALLINT DEFAULT 0,
+    PRIMARY KEY (time, device_id, metric_name, community_id)
+);
+
+SELECT create_hypertable('sensor_data_text', 'time', if_not_exists => TRUE);
+
+CREATE INDEX IF NOT EXISTS idx_sensor_data_text_device_time ON sensor_data_text (device_id, time DESC);
+
+-- Add table comment
+COMMENT ON TABLE sensor_data_text IS 'Non-numeric (String) sensor values; the matching sensor_data row has a NULL metric_value.';
+
+-- Add column comments
+COMMENT ON COLUMN sensor_data_text.time IS 'The timestamp when the sensor data was generated (from Sparkplug B payload), in UTC timezone.';
+COMMENT ON COLUMN sensor_data_text.community_id IS 'Tenant identifier for multi-tenant isolation.';
+COMMENT ON COLUMN sensor_data_text.device_id IS 'Unique identifier of the device that produced the metric.';
+COMMENT ON COLUMN sensor_data_text.metric_name IS 'Name of the measured metric.';
+COMMENT ON COLUMN sensor_data_text.metric_value IS 'String value of the metric, truncated to ingestion.text.max-length characters.';
+COMMENT ON COLUMN sensor_data_text.metric_version IS 'Version reference to metric_definitions.version.';
+COMMENT ON COLUMN sensor_data_text.ingestion_time IS 'Timestamp when the record was inserted into the database.';
+COMMENT ON COLUMN sensor_data_text.quality IS 'Quality indicator of the data point: 0=Good, 1=Uncertain, 2=Bad.';
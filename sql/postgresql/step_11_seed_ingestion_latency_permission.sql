@@ -0,0 +1,14 @@
+-- Permission for the ingestion latency endpoints (/api/v1/ingestion/latency/**), checked with
+-- @ss.hasPerm('sys:ingestion:latency'). ROOT passes every check; the button is granted to ADMIN.
+-- Role permissions are cached in Redis, so restart the application (or refresh the role
+-- permission cache) after running this script.
+
+INSERT INTO sys_menu (parent_id, tree_path, name, type, route_name, route_path, component, perm, always_show, keep_alive, visible, sort, icon, redirect, create_time, update_time, params)
+SELECT 117, '0,1,117', '匯入延遲查詢', 4, NULL, '', NULL, 'sys:ingestion:latency', 0, 0, 1, 1, '', NULL, NOW(), NOW(), NULL
+WHERE NOT EXISTS (SELECT 1 FROM sys_menu WHERE perm = 'sys:ingestion:latency');
+
+INSERT INTO sys_role_menu (role_id, menu_id)
+SELECT r.id, m.id
+FROM sys_role r, sys_menu m
+WHERE r.code = 'ADMIN' AND m.perm = 'sys:ingestion:latency'
+ON CONFLICT (role_id, menu_id) DO NOTHING;
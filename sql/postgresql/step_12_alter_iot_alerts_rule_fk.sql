@@ -0,0 +1,7 @@
+-- Alert rules are soft-deleted (is_active = false), so alert history must never be
+-- removed with a rule. Replace the cascading foreign key with a restricting one.
+
+ALTER TABLE iot_alerts DROP CONSTRAINT IF EXISTS iot_alerts_rule_id_fkey;
+
+ALTER TABLE iot_alerts
+    ADD CONSTRAINT iot_alerts_rule_id_fkey FOREIGN KEY (rule_id) REFERENCES iot_alert_rules(id) ON DELETE RESTRICT;
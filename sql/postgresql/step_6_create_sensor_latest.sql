@@ -0,0 +1,26 @@
+CREATE TABLE IF NOT EXISTS sensor_latest (
+    device_id TEXT NOT NULL,
+    metric_name TEXT NOT NULL,
+    community_id INT NOT NULL,
+    time TIMESTAMPTZ NOT NULL,
+    metric_value DOUBLE PRECISION,
+    metric_version INT,
+    quality SMALLINT DEFAULT 0,
+    updated_at TIMESTAMPTZ DEFAULT NOW(),
+    PRIMARY KEY (device_id, metric_name)
+);
+
+CREATE INDEX IF NOT EXISTS idx_sensor_latest_community ON sensor_latest (community_id);
+
+-- Add table comment
+COMMENT ON TABLE sensor_latest IS 'Newest value of every device metric. Upserted in batches from the in-memory latest-value store and used to restore it after a restart.';
+
+-- Add column comments
+COMMENT ON COLUMN sensor_latest.device_id IS 'Unique identifier of the device that produced the metric (same format as sensor_data.device_id).';
+COMMENT ON COLUMN sensor_latest.metric_name IS 'Name of the measured metric.';
+COMMENT ON COLUMN sensor_latest.community_id IS 'Tenant identifier of the device at the time of the sample.';
+COMMENT ON COLUMN sensor_latest.time IS 'Timestamp of the newest sample, in UTC timezone.';
+COMMENT ON COLUMN sensor_latest.metric_value IS 'Numeric value of the newest sample. NULL if the metric is non-numeric.';
+COMMENT ON COLUMN sensor_latest.metric_version IS 'Version reference to metric_definitions.version of the newest sample.';
+COMMENT ON COLUMN sensor_latest.quality IS 'Quality indicator of the newest sample: 0=Good, 1=Uncertain, 2=Bad.';
+COMMENT ON COLUMN sensor_latest.updated_at IS 'Timestamp when the row was last written by the backend.';
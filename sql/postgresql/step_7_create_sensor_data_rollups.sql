@@ -0,0 +1,88 @@
+-- Continuous aggregates of sensor_data at 1 minute, 1 hour and 1 day (TimescaleDB 2.9+).
+-- The hourly rollup is built on the minute rollup and the daily rollup on the hourly one,
+-- so each refresh reads at most 60 (or 24) rows per bucket instead of raw samples.
+-- Averages are stored as sum and count so they can be re-aggregated exactly; the last
+-- value is carried together with its timestamp for the same reason.
+
+CREATE MATERIALIZED VIEW IF NOT EXISTS sensor_data_1m
+WITH (timescaledb.continuous, timescaledb.materialized_only = false) AS
+SELECT time_bucket(INTERVAL '1 minute', time) AS bucket,
+       community_id,
+       device_id,
+       metric_name,
+       min(metric_value) AS min_value,
+       max(metric_value) AS max_value,
+       sum(metric_value) AS sum_value,
+       count(metric_value) AS sample_count,
+       last(metric_value, time) AS last_value,
+       max(time) AS last_time
+FROM sensor_data
+GROUP BY time_bucket(INTERVAL '1 minute', time), community_id, device_id, metric_name
+WITH NO DATA;
+
+CREATE MATERIALIZED VIEW IF NOT EXISTS sensor_data_1h
+WITH (timescaledb.continuous, timescaledb.materialized_only = false) AS
+SELECT time_bucket(INTERVAL '1 hour', bucket) AS bucket,
+       community_id,
+       device_id,
+       metric_name,
+       min(min_value) AS min_value,
+       max(max_value) AS max_value,
+       sum(sum_value) AS sum_value,
+       sum(sample_count)::BIGINT AS sample_count,
+       last(last_value, last_time) AS last_value,
+       max(last_time) AS last_time
+FROM sensor_data_1m
+GROUP BY time_bucket(INTERVAL '1 hour', bucket), community_id, device_id, metric_name
+WITH NO DATA;
+
+CREATE MATERIALIZED VIEW IF NOT EXISTS sensor_data_1d
+WITH (timescaledb.continuous, timescaledb.materialized_only = false) AS
+SELECT time_bucket(INTERVAL '1 day', bucket) AS bucket,
+       community_id,
+       device_id,
+       metric_name,
+       min(min_value) AS min_value,
+       max(max_value) AS max_value,
+       sum(sum_value) AS sum_value,
+       sum(sample_count)::BIGINT AS sample_count,
+       last(last_value, last_time) AS last_value,
+       max(last_time) AS last_time
+FROM sensor_data_1h
+GROUP BY time_bucket(INTERVAL '1 day', bucket), community_id, device_id, metric_name
+WITH NO DATA;
+
+-- Series queries filter by device and metric over a bucket range
+CREATE INDEX IF NOT EXISTS idx_sensor_data_1m_series ON sensor_data_1m (device_id, metric_name, bucket DESC);
+CREATE INDEX IF NOT EXISTS idx_sensor_data_1h_series ON sensor_data_1h (device_id, metric_name, bucket DESC);
+CREATE INDEX IF NOT EXISTS idx_sensor_data_1d_series ON sensor_data_1d (device_id, metric_name, bucket DESC);
+
+-- Refresh policies. Each window covers the reordering delay of ingestion; older late samples
+-- written by the backfill writer are refreshed by the backend (sensor-data.rollup.refresh-interval-ms).
+SELECT add_continuous_aggregate_policy('sensor_data_1m',
+    start_offset => INTERVAL '2 hours',
+    end_offset => INTERVAL '1 minute',
+    schedule_interval => INTERVAL '1 minute',
+    if_not_exists => true);
+
+SELECT add_continuous_aggregate_policy('sensor_data_1h',
+    start_offset => INTERVAL '1 day',
+    end_offset => INTERVAL '1 hour',
+    schedule_interval => INTERVAL '15 minutes',
+    if_not_exists => true);
+
+SELECT add_continuous_aggregate_policy('sensor_data_1d',
+    start_offset => INTERVAL '7 days',
+    end_offset => INTERVAL '1 day',
+    schedule_interval => INTERVAL '1 hour',
+    if_not_exists => true);
+
+-- Materialize existing history once (may take a while on large tables)
+CALL refresh_continuous_aggregate('sensor_data_1m', NULL, NOW() - INTERVAL '1 minute');
+CALL refresh_continuous_aggregate('sensor_data_1h', NULL, NOW() - INTERVAL '1 hour');
+CALL refresh_continuous_aggregate('sensor_data_1d', NULL, NOW() - INTERVAL '1 day');
+
+-- Add view comments
+COMMENT ON MATERIALIZED VIEW sensor_data_1m IS '1-minute rollup of sensor_data per device and metric: min, max, sum, count and last value.';
+COMMENT ON MATERIALIZED VIEW sensor_data_1h IS '1-hour rollup of sensor_data, aggregated from sensor_data_1m.';
+COMMENT ON MATERIALIZED VIEW sensor_data_1d IS '1-day rollup of sensor_data (UTC days), aggregated from sensor_data_1h.';
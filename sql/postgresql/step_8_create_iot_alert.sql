@@ -0,0 +1,55 @@
+-- Threshold alert rules and the alerts they raise.
+-- Rules are evaluated in memory against every ingested sample; only state changes
+-- (raised, cleared) are written here.
+
+CREATE TABLE IF NOT EXISTS iot_alert_rules (
+    id BIGSERIAL PRIMARY KEY,
+    dept_id BIGINT NOT NULL REFERENCES sys_dept(id) ON DELETE CASCADE,
+    metric_definition_id INT NOT NULL REFERENCES iot_metric_definitions(id) ON DELETE CASCADE,
+    name TEXT NOT NULL,
+    operator TEXT NOT NULL CHECK (operator IN ('ABOVE', 'BELOW')),
+    threshold DOUBLE PRECISION NOT NULL,
+    clear_threshold DOUBLE PRECISION,
+    duration_seconds INT NOT NULL DEFAULT 0 CHECK (duration_seconds >= 0),
+    clear_duration_seconds INT NOT NULL DEFAULT 0 CHECK (clear_duration_seconds >= 0),
+    severity TEXT NOT NULL DEFAULT 'WARNING' CHECK (severity IN ('INFO', 'WARNING', 'CRITICAL')),
+    is_active BOOLEAN NOT NULL DEFAULT TRUE,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX IF NOT EXISTS idx_alert_rules_dept ON iot_alert_rules (dept_id);
+
+CREATE TABLE IF NOT EXISTS iot_alerts (
+    id BIGSERIAL PRIMARY KEY,
+    rule_id BIGINT NOT NULL REFERENCES iot_alert_rules(id) ON DELETE CASCADE,
+    dept_id BIGINT NOT NULL,
+    device_id TEXT NOT NULL,
+    metric_name TEXT NOT NULL,
+    severity TEXT NOT NULL,
+    threshold DOUBLE PRECISION NOT NULL,
+    raised_at TIMESTAMPTZ NOT NULL,
+    raised_value DOUBLE PRECISION,
+    cleared_at TIMESTAMPTZ,
+    cleared_value DOUBLE PRECISION,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+
+-- At most one open alert per rule and device
+CREATE UNIQUE INDEX IF NOT EXISTS uq_alerts_open ON iot_alerts (rule_id, device_id) WHERE cleared_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_alerts_dept_raised ON iot_alerts (dept_id, raised_at DESC);
+
+-- Add table comments
+COMMENT ON TABLE iot_alert_rules IS 'Per-community threshold rules on a metric definition, with hysteresis (clear_threshold) and debounce (duration_seconds, clear_duration_seconds).';
+COMMENT ON TABLE iot_alerts IS 'Alerts raised by iot_alert_rules, one row per occurrence; open while cleared_at is NULL.';
+
+-- Add column comments
+COMMENT ON COLUMN iot_alert_rules.metric_definition_id IS 'Metric the rule watches; the rule follows renames of the definition.';
+COMMENT ON COLUMN iot_alert_rules.operator IS 'ABOVE raises when the value exceeds threshold, BELOW when it falls under it.';
+COMMENT ON COLUMN iot_alert_rules.threshold IS 'Value at which the alert condition holds, in the unit of the metric definition.';
+COMMENT ON COLUMN iot_alert_rules.clear_threshold IS 'Value the metric must return past before the alert clears; NULL means threshold (no hysteresis).';
+COMMENT ON COLUMN iot_alert_rules.duration_seconds IS 'How long the condition must hold before the alert is raised.';
+COMMENT ON COLUMN iot_alert_rules.clear_duration_seconds IS 'How long the clear condition must hold before the alert is cleared.';
+COMMENT ON COLUMN iot_alerts.device_id IS 'Device identifier (same format as sensor_data.device_id).';
+COMMENT ON COLUMN iot_alerts.raised_at IS 'Sample time at which the alert was raised, in UTC timezone.';
+COMMENT ON COLUMN iot_alerts.cleared_at IS 'Sample time at which the alert cleared, in UTC timezone; NULL while open.';
@@ -0,0 +1,15 @@
+-- Rules on sliding-window statistics (e.g. water level rise per 10 minutes).
+-- The statistics are maintained in memory per series; window_seconds must be one of
+-- ingestion.windows.window-seconds.
+
+ALTER TABLE iot_alert_rules
+    ADD COLUMN IF NOT EXISTS window_statistic TEXT CHECK (window_statistic IN ('MEAN', 'MIN', 'MAX', 'RATE')),
+    ADD COLUMN IF NOT EXISTS window_seconds INT CHECK (window_seconds > 0);
+
+ALTER TABLE iot_alert_rules DROP CONSTRAINT IF EXISTS chk_alert_rules_window;
+ALTER TABLE iot_alert_rules ADD CONSTRAINT chk_alert_rules_window
+    CHECK ((window_statistic IS NULL) = (window_seconds IS NULL));
+
+-- Add column comments
+COMMENT ON COLUMN iot_alert_rules.window_statistic IS 'Statistic compared instead of the raw value: MEAN, MIN, MAX or RATE (change per window length, from the least-squares slope); NULL for the raw value.';
+COMMENT ON COLUMN iot_alert_rules.window_seconds IS 'Length of the sliding window of window_statistic in seconds.';
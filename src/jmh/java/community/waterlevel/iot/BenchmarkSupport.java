@@ -0,0 +1,149 @@
+package community.waterlevel.iot;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import community.waterlevel.iot.core.security.model.SysUserDetails;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextImpl;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Array;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Shared setup for benchmarks that exercise application services outside the Spring context.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+public final class BenchmarkSupport {
+
+    private static final Map<Class<?>, Object> DEEP_STUBS = new ConcurrentHashMap<>();
+    private static PrintStream originalOut;
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Raises the root log level to WARN. Outside Spring Boot logback starts at DEBUG and
+     * console output would dominate the scores; statements below WARN still pay for the
+     * level check and their arguments.
+     */
+    public static void quietLogging() {
+        if (LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME) instanceof Logger root) {
+            root.setLevel(Level.WARN);
+        }
+    }
+
+    /**
+     * Discards {@code System.out} until {@link #restoreStdout()}, for code paths that
+     * print unconditionally. String building still happens; terminal I/O does not.
+     */
+    public static synchronized void discardStdout() {
+        if (originalOut == null) {
+            originalOut = System.out;
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        }
+    }
+
+    public static synchronized void restoreStdout() {
+        if (originalOut != null) {
+            System.setOut(originalOut);
+            originalOut = null;
+        }
+    }
+
+    /**
+     * Installs an authenticated user in a global security context visible to all
+     * benchmark threads.
+     *
+     * @param userId      the user id
+     * @param deptId      the user's department
+     * @param dataScope   the user's data scope (1 all, 2 dept and sub, 3 dept, 4 self)
+     * @param authorities granted authorities; roles carry the {@code ROLE_} prefix
+     * @return the user details
+     */
+    public static SysUserDetails authenticate(Long userId, Long deptId, Integer dataScope, String... authorities) {
+        SysUserDetails user = new SysUserDetails();
+        user.setUserId(userId);
+        user.setUsername("bench-user-" + userId);
+        user.setDeptId(deptId);
+        user.setDataScope(dataScope);
+        user.setEnabled(true);
+        Set<SimpleGrantedAuthority> granted = Arrays.stream(authorities)
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toSet());
+        user.setAuthorities(granted);
+        SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_GLOBAL);
+        SecurityContextHolder.setContext(new SecurityContextImpl(
+                new UsernamePasswordAuthenticationToken(user, "", granted)));
+        return user;
+    }
+
+    /**
+     * Implements an interface, typically a Spring Data repository, with the given answers
+     * keyed by method name; any other method throws.
+     *
+     * @param type    the interface
+     * @param answers method name to answer, receiving the call arguments
+     * @return the stub
+     */
+    public static <T> T stub(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return objectMethod(proxy, method.getName(), args);
+            }
+            Function<Object[], Object> answer = answers.get(method.getName());
+            if (answer == null) {
+                throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+            }
+            return answer.apply(args);
+        }));
+    }
+
+    /**
+     * Implements an interface whose methods return shared stubs of their interface return
+     * types (recursively) and default values otherwise. Stands in for JPA criteria objects
+     * when only the caller's cost is of interest.
+     *
+     * @param type the interface
+     * @return the shared stub
+     */
+    public static <T> T deepStub(Class<T> type) {
+        return type.cast(DEEP_STUBS.computeIfAbsent(type, t ->
+                Proxy.newProxyInstance(t.getClassLoader(), new Class<?>[]{t}, (proxy, method, args) -> {
+                    if (method.getDeclaringClass() == Object.class) {
+                        return objectMethod(proxy, method.getName(), args);
+                    }
+                    Class<?> returnType = method.getReturnType();
+                    if (returnType.isInterface()) {
+                        return deepStub(returnType);
+                    }
+                    if (returnType.isPrimitive() && returnType != void.class) {
+                        return Array.get(Array.newInstance(returnType, 1), 0);
+                    }
+                    return null;
+                })));
+    }
+
+    private static Object objectMethod(Object proxy, String name, Object[] args) {
+        switch (name) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            default:
+                return proxy.getClass().getInterfaces()[0].getSimpleName() + "Stub";
+        }
+    }
+}
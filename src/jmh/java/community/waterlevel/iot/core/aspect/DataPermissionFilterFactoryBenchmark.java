@@ -0,0 +1,115 @@
+package community.waterlevel.iot.core.aspect;
+
+import community.waterlevel.iot.BenchmarkSupport;
+import community.waterlevel.iot.common.annotation.DataPermission;
+import community.waterlevel.iot.module.device.model.entity.IotDeviceJpa;
+import community.waterlevel.iot.system.model.entity.DeptJpa;
+import community.waterlevel.iot.system.repository.DeptJpaRepository;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the data permission filter built for every JPA query on a
+ * {@code @DataPermission} entity, and of the permitted-department lookup used by JDBC
+ * queries.
+ *
+ * <p>The department table holds {@code deptCount} departments in a tree with fan-out 8;
+ * the user belongs to department 2, a first-level branch. The repository is an in-memory
+ * stand-in returning the same entities, and the JPA criteria objects are no-op stubs, so
+ * scores cover the factory's own work: security context lookups, logging and the
+ * sub-department scan of the DEPT_AND_SUB scope, which reads every department per call.
+ *
+ * <p>Run: {@code mvn -Pjmh test-compile exec:exec -Djmh.includes=DataPermissionFilterFactoryBenchmark}
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DataPermissionFilterFactoryBenchmark {
+
+    private static final int FAN_OUT = 8;
+
+    /**
+     * Data scope of the user: 2 dept and sub-departments, 3 dept only, 4 self.
+     */
+    @Param({"2", "3", "4"})
+    public int dataScope;
+
+    @Param({"1000", "10000"})
+    public int deptCount;
+
+    private DataPermissionFilterFactory factory;
+    private Root<?> root;
+    private CriteriaBuilder criteriaBuilder;
+    private DataPermission dataPermission;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkSupport.quietLogging();
+        List<DeptJpa> depts = new ArrayList<>(deptCount);
+        Map<Long, DeptJpa> byId = new HashMap<>();
+        for (long id = 1; id <= deptCount; id++) {
+            DeptJpa dept = new DeptJpa();
+            dept.setId(id);
+            dept.setName("Community " + id);
+            if (id == 1) {
+                dept.setParentId(0L);
+                dept.setTreePath("0");
+            } else {
+                DeptJpa parent = byId.get((id - 2) / FAN_OUT + 1);
+                dept.setParentId(parent.getId());
+                dept.setTreePath(parent.getTreePath() + "," + parent.getId());
+            }
+            depts.add(dept);
+            byId.put(id, dept);
+        }
+        DeptJpaRepository repository = BenchmarkSupport.stub(DeptJpaRepository.class, Map.of(
+                "findById", args -> Optional.ofNullable(byId.get((Long) args[0])),
+                "findAll", args -> depts));
+
+        factory = new DataPermissionFilterFactory(repository);
+        root = BenchmarkSupport.deepStub(Root.class);
+        criteriaBuilder = BenchmarkSupport.deepStub(CriteriaBuilder.class);
+        dataPermission = IotDeviceJpa.class.getAnnotation(DataPermission.class);
+        BenchmarkSupport.authenticate(42L, 2L, dataScope, "ROLE_OPERATOR");
+    }
+
+    @Benchmark
+    public Predicate createDataPermissionFilter() {
+        return factory.createDataPermissionFilter(root, criteriaBuilder, dataPermission, dataScope);
+    }
+
+    /**
+     * Permitted departments for JDBC queries; DEPT_AND_SUB lists are cached for 30 s.
+     */
+    @Benchmark
+    public Set<Long> getPermittedDeptIds() {
+        return factory.getPermittedDeptIds();
+    }
+}
@@ -0,0 +1,98 @@
+package community.waterlevel.iot.core.security;
+
+import community.waterlevel.iot.BenchmarkSupport;
+import community.waterlevel.iot.config.property.SecurityProperties;
+import community.waterlevel.iot.core.security.model.SysUserDetails;
+import community.waterlevel.iot.core.security.token.JwtTokenManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of JWT handling done by the authentication filter on every request.
+ *
+ * <p>{@link JwtTokenManager#validateToken} parses and verifies the HS256 signature and
+ * checks the blacklist; {@link JwtTokenManager#parseToken} rebuilds the authentication
+ * from the claims. The Redis blacklist lookup is replaced by an in-memory miss, so
+ * scores exclude the Redis round trip. Console output printed per authority is
+ * discarded.
+ *
+ * <p>Run: {@code mvn -Pjmh test-compile exec:exec -Djmh.includes=JwtTokenManagerBenchmark}
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtTokenManagerBenchmark {
+
+    private JwtTokenManager tokenManager;
+    private Authentication authentication;
+    private String accessToken;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkSupport.quietLogging();
+        BenchmarkSupport.discardStdout();
+
+        SecurityProperties properties = new SecurityProperties();
+        SecurityProperties.SessionConfig session = new SecurityProperties.SessionConfig();
+        SecurityProperties.JwtConfig jwt = new SecurityProperties.JwtConfig();
+        jwt.setSecretKey("SecretKey012345678901234567890123456789");
+        session.setJwt(jwt);
+        properties.setSession(session);
+
+        RedisTemplate<String, Object> redisTemplate = new RedisTemplate<>() {
+            @Override
+            public Boolean hasKey(String key) {
+                return false;
+            }
+        };
+        tokenManager = new JwtTokenManager(properties, redisTemplate);
+
+        SysUserDetails user = BenchmarkSupport.authenticate(42L, 7L, 2, "ROLE_ADMIN", "ROLE_OPERATOR");
+        authentication = new UsernamePasswordAuthenticationToken(user, "", user.getAuthorities());
+        accessToken = tokenManager.generateToken(authentication).getAccessToken();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkSupport.restoreStdout();
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return tokenManager.validateToken(accessToken);
+    }
+
+    @Benchmark
+    public Authentication parseToken() {
+        return tokenManager.parseToken(accessToken);
+    }
+
+    /**
+     * What the filter does per request: validate, then parse.
+     */
+    @Benchmark
+    public Authentication validateAndParse() {
+        return tokenManager.validateToken(accessToken) ? tokenManager.parseToken(accessToken) : null;
+    }
+}
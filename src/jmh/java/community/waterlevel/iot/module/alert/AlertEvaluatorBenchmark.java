@@ -0,0 +1,144 @@
+package community.waterlevel.iot.module.alert;
+
+import community.waterlevel.iot.module.alert.engine.AlertEvaluator;
+import community.waterlevel.iot.module.alert.engine.AlertRuleSet;
+import community.waterlevel.iot.module.alert.model.AlertTransition;
+import community.waterlevel.iot.module.alert.model.enums.AlertOperator;
+import community.waterlevel.iot.module.alert.model.enums.AlertSeverity;
+import community.waterlevel.iot.module.ingestion.model.SensorDataRecord;
+import community.waterlevel.iot.module.ingestion.model.enums.SensorQuality;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Single-thread throughput of {@link AlertEvaluator}, the per-sample cost of the alert
+ * engine thread.
+ *
+ * <p>{@code devices} devices spread over 100 communities each report {@code water_level}
+ * (watched by a flood rule with hysteresis and a 60-second debounce and a critical rule
+ * without), {@code battery_voltage} (a low-battery rule) and two unwatched metrics,
+ * every 10 seconds. Devices report in a shuffled order repeated every round, and one
+ * invocation covers at least one full round, so the state of every device is visited
+ * and lookups miss the CPU caches as with a real fleet. Water levels random-walk across
+ * the thresholds, so the score includes state changes. Scores are samples per second on
+ * one core and should stay well above the ingestion rate of
+ * {@code IngestionThroughputBenchmark}; run with {@code -prof gc} to confirm that
+ * evaluation does not allocate between state changes.
+ *
+ * <p>Run: {@code mvn -Pjmh test-compile exec:exec -Djmh.includes=AlertEvaluatorBenchmark}
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AlertEvaluatorBenchmark {
+
+    /**
+     * Samples per invocation; at least one sample of every metric of 100000 devices.
+     */
+    private static final int SAMPLES = 1 << 19;
+    private static final int COMMUNITIES = 100;
+    private static final long START = 1_775_000_000_000L;
+    private static final long INTERVAL_MS = 10_000L;
+    private static final String[] METRICS = {"water_level", "battery_voltage", "rssi", "temperature"};
+
+    @Param({"10000", "100000"})
+    public int devices;
+
+    private AlertEvaluator evaluator;
+    private SensorDataRecord[] records;
+    private long span;
+    private Consumer<AlertTransition> sink;
+
+    @Setup(Level.Trial)
+    public void setUp(Blackhole blackhole) {
+        AlertRuleSet.Builder rules = AlertRuleSet.builder();
+        long ruleId = 1;
+        for (int community = 1; community <= COMMUNITIES; community++) {
+            rules.add(ruleId++, community, "water_level", AlertOperator.ABOVE, 2.5, 2.3, 60_000, 300_000,
+                    AlertSeverity.WARNING);
+            rules.add(ruleId++, community, "water_level", AlertOperator.ABOVE, 3.5, null, 0, 0,
+                    AlertSeverity.CRITICAL);
+            rules.add(ruleId++, community, "battery_voltage", AlertOperator.BELOW, 3.3, 3.5, 600_000, 0,
+                    AlertSeverity.INFO);
+        }
+        evaluator = new AlertEvaluator(rules.build(), 4096);
+        sink = blackhole::consume;
+
+        SplittableRandom random = new SplittableRandom(42);
+        String[] deviceIds = new String[devices];
+        double[] levels = new double[devices];
+        for (int d = 0; d < devices; d++) {
+            deviceIds[d] = new UUID(random.nextLong(), random.nextLong()).toString();
+            levels[d] = 1.5 + random.nextDouble();
+        }
+        int[] order = new int[devices];
+        for (int d = 0; d < devices; d++) {
+            order[d] = d;
+        }
+        for (int d = devices - 1; d > 0; d--) {
+            int j = random.nextInt(d + 1);
+            int swap = order[d];
+            order[d] = order[j];
+            order[j] = swap;
+        }
+        records = new SensorDataRecord[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            int d = order[(i / METRICS.length) % devices];
+            int m = i % METRICS.length;
+            long time = START + (i / (devices * METRICS.length)) * INTERVAL_MS;
+            double value;
+            if (m == 0) {
+                levels[d] = Math.max(0, levels[d] + (random.nextDouble() - 0.5) * 0.2);
+                value = levels[d];
+            } else if (m == 1) {
+                value = 3.2 + random.nextDouble() * 0.6;
+            } else {
+                value = random.nextDouble() * 100;
+            }
+            records[i] = new SensorDataRecord().set(time, 1 + d % COMMUNITIES, deviceIds[d], METRICS[m], value,
+                    true, 1, SensorQuality.GOOD.getCode());
+        }
+        span = ((SAMPLES - 1) / (devices * METRICS.length) + 1) * INTERVAL_MS;
+        // Allocate the state slots of every device before measuring.
+        for (int d = 0; d < devices; d++) {
+            for (String metric : METRICS) {
+                evaluator.evaluate(new SensorDataRecord().set(START - INTERVAL_MS, 1 + d % COMMUNITIES,
+                        deviceIds[d], metric, 0, true, 1, SensorQuality.GOOD.getCode()), sink);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public int evaluate() {
+        SensorDataRecord[] records = this.records;
+        for (SensorDataRecord record : records) {
+            evaluator.evaluate(record, sink);
+            record.setTime(record.getTime() + span);
+        }
+        return evaluator.getActiveCount();
+    }
+}
@@ -0,0 +1,108 @@
+package community.waterlevel.iot.module.device;
+
+import community.waterlevel.iot.module.device.service.impl.IotDeviceJpaServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the great-circle distance used by the nearest-device lookup.
+ *
+ * <p>{@code IotDeviceJpaServiceImpl.haversine} is private; it is called through a method
+ * handle. {@link #haversine} measures one distance; {@link #sortByDistance} repeats the
+ * sort done by {@code getNearestDevices}, whose comparator recomputes both distances on
+ * every comparison, over {@code deviceCount} random stations around Taipei.
+ *
+ * <p>Run: {@code mvn -Pjmh test-compile exec:exec -Djmh.includes=HaversineBenchmark}
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HaversineBenchmark {
+
+    private static final int POINTS = 1024;
+    private static final double CENTER_LAT = 25.0330;
+    private static final double CENTER_LNG = 121.5654;
+    private static final MethodHandle HAVERSINE;
+
+    static {
+        try {
+            HAVERSINE = MethodHandles.privateLookupIn(IotDeviceJpaServiceImpl.class, MethodHandles.lookup())
+                    .findVirtual(IotDeviceJpaServiceImpl.class, "haversine", MethodType.methodType(
+                            double.class, double.class, double.class, double.class, double.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @Param({"10000"})
+    public int deviceCount;
+
+    private IotDeviceJpaServiceImpl service;
+    private double[] latitudes;
+    private double[] longitudes;
+    private List<double[]> devices;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        service = new IotDeviceJpaServiceImpl(null, null, null, null, null, null, null);
+        SplittableRandom random = new SplittableRandom(42);
+        latitudes = new double[POINTS];
+        longitudes = new double[POINTS];
+        for (int i = 0; i < POINTS; i++) {
+            latitudes[i] = CENTER_LAT + random.nextDouble(-0.5, 0.5);
+            longitudes[i] = CENTER_LNG + random.nextDouble(-0.5, 0.5);
+        }
+        devices = new ArrayList<>(deviceCount);
+        for (int i = 0; i < deviceCount; i++) {
+            devices.add(new double[]{CENTER_LAT + random.nextDouble(-0.5, 0.5), CENTER_LNG + random.nextDouble(-0.5, 0.5)});
+        }
+    }
+
+    @Benchmark
+    public double haversine() throws Throwable {
+        int i = next++ & (POINTS - 1);
+        return (double) HAVERSINE.invokeExact(service, CENTER_LAT, CENTER_LNG, latitudes[i], longitudes[i]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<double[]> sortByDistance() {
+        List<double[]> sorted = new ArrayList<>(devices);
+        sorted.sort(Comparator.comparingDouble(d -> distance(d[0], d[1])));
+        return sorted;
+    }
+
+    private double distance(double lat, double lng) {
+        try {
+            return (double) HAVERSINE.invokeExact(service, CENTER_LAT, CENTER_LNG, lat, lng);
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package community.waterlevel.iot.module.device;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import community.waterlevel.iot.common.result.Result;
+import community.waterlevel.iot.config.WebMvcConfig;
+import community.waterlevel.iot.module.device.model.vo.IotDeviceVO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of serializing device lists as returned by the device list and map endpoints.
+ *
+ * <p>Uses the object mapper configured by {@link WebMvcConfig}, so the custom
+ * {@code LocalDateTime} format and Long-as-string serializers are on the measured path.
+ * Each device carries a department name, coordinates and both timestamps.
+ *
+ * <p>Run: {@code mvn -Pjmh test-compile exec:exec -Djmh.includes=IotDeviceVOSerializationBenchmark}
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IotDeviceVOSerializationBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int size;
+
+    private ObjectWriter writer;
+    private Result<List<IotDeviceVO>> response;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<HttpMessageConverter<?>> converters = new ArrayList<>();
+        converters.add(new StringHttpMessageConverter());
+        new WebMvcConfig().configureMessageConverters(converters);
+        ObjectMapper objectMapper = converters.stream()
+                .filter(MappingJackson2HttpMessageConverter.class::isInstance)
+                .map(c -> ((MappingJackson2HttpMessageConverter) c).getObjectMapper())
+                .findFirst()
+                .orElseThrow();
+        writer = objectMapper.writer();
+
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        List<IotDeviceVO> devices = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            IotDeviceVO device = new IotDeviceVO();
+            device.setDeviceId(new UUID(i, i));
+            device.setDeviceName("WL-" + i);
+            device.setDeptId((long) (i % 50 + 1));
+            device.setDeptName("Community " + (i % 50 + 1));
+            device.setDeviceModel("WL-RADAR-200");
+            device.setLatitude(25.0 + i * 1e-5);
+            device.setLongitude(121.5 + i * 1e-5);
+            device.setLocation("Station " + i);
+            device.setStatus("ONLINE");
+            device.setLastSeen(now.minusSeconds(i % 300));
+            device.setCreatedAt(now.minusDays(i % 365));
+            devices.add(device);
+        }
+        response = Result.success(devices);
+    }
+
+    @Benchmark
+    public byte[] writeValueAsBytes() throws Exception {
+        return writer.writeValueAsBytes(response);
+    }
+}
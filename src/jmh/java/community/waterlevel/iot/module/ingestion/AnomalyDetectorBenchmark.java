@@ -0,0 +1,109 @@
+package community.waterlevel.iot.module.ingestion;
+
+import community.waterlevel.iot.config.property.IngestionProperties;
+import community.waterlevel.iot.module.device.model.enums.DeviceStatusEnum;
+import community.waterlevel.iot.module.ingestion.anomaly.AnomalyDetector;
+import community.waterlevel.iot.module.ingestion.model.RegisteredDevice;
+import community.waterlevel.iot.module.ingestion.model.enums.AnomalyMethod;
+import community.waterlevel.iot.module.ingestion.model.enums.SensorQuality;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-sample cost of {@link AnomalyDetector} with many concurrent series.
+ *
+ * <p>Scores water level samples of {@code series} devices in random device order, so
+ * that baseline lookups miss the CPU caches as they would under a real fleet. Each
+ * sample is scored and then accepted, as on the ingestion path. Every series is past
+ * its warm-up before measuring; about 1 sample in 1000 is a spike. Run with
+ * {@code -prof gc} to confirm scoring does not allocate.
+ *
+ * <p>Run: {@code mvn -Pjmh test-compile exec:exec -Djmh.includes=AnomalyDetectorBenchmark}
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnomalyDetectorBenchmark {
+
+    private static final String METRIC = "water_level";
+    private static final int SAMPLES = 1 << 20;
+    private static final long INTERVAL_MS = 10_000;
+    private static final short GOOD = SensorQuality.GOOD.getCode();
+
+    @Param({"100000"})
+    public int series;
+
+    @Param({"EWMA", "ROBUST"})
+    public AnomalyMethod method;
+
+    private AnomalyDetector detector;
+    private RegisteredDevice[] devices;
+    private long[] times;
+    private int[] order;
+    private double[] values;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        IngestionProperties properties = new IngestionProperties();
+        properties.getAnomaly().setEnabled(true);
+        properties.getAnomaly().setMethod(method);
+        detector = new AnomalyDetector(properties, new SimpleMeterRegistry(), event -> { });
+
+        SplittableRandom random = new SplittableRandom(42);
+        devices = new RegisteredDevice[series];
+        times = new long[series];
+        double[] levels = new double[series];
+        for (int d = 0; d < series; d++) {
+            UUID id = new UUID(random.nextLong(), random.nextLong());
+            devices[d] = new RegisteredDevice(d, id, id.toString(), 1L + d % 100, DeviceStatusEnum.ACTIVE, null);
+            levels[d] = random.nextDouble(50, 300);
+        }
+        order = new int[SAMPLES];
+        values = new double[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            int d = random.nextInt(series);
+            order[i] = d;
+            values[i] = levels[d] + random.nextGaussian() * 2
+                    + (random.nextInt(1000) == 0 ? random.nextDouble(-100, 100) : 0);
+        }
+        int warmup = properties.getAnomaly().getWarmupSamples();
+        for (int d = 0; d < series; d++) {
+            for (int s = 0; s < warmup; s++) {
+                times[d] += INTERVAL_MS;
+                detector.accept(devices[d], METRIC, times[d], levels[d] + random.nextGaussian() * 2, GOOD);
+            }
+        }
+    }
+
+    @Benchmark
+    public short assess() {
+        int i = cursor++ & (SAMPLES - 1);
+        int d = order[i];
+        long time = times[d] += INTERVAL_MS;
+        short quality = detector.assess(devices[d], METRIC, time, values[i], GOOD);
+        detector.accept(devices[d], METRIC, time, values[i], quality);
+        return quality;
+    }
+}
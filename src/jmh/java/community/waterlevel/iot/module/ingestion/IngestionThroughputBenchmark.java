@@ -0,0 +1,176 @@
+package community.waterlevel.iot.module.ingestion;
+
+import community.waterlevel.iot.config.property.DeviceProperties;
+import community.waterlevel.iot.config.property.IngestionProperties;
+import community.waterlevel.iot.module.device.model.entity.IotDeviceJpa;
+import community.waterlevel.iot.module.device.model.enums.DeviceStatusEnum;
+import community.waterlevel.iot.module.device.service.impl.DeviceLastSeenServiceImpl;
+import community.waterlevel.iot.module.ingestion.anomaly.AnomalyDetector;
+import community.waterlevel.iot.module.ingestion.codec.SparkplugPayload;
+import community.waterlevel.iot.module.ingestion.codec.SparkplugPayloadEncoder;
+import community.waterlevel.iot.module.ingestion.dedup.SampleDeduplicator;
+import community.waterlevel.iot.module.ingestion.latency.IngestionLatencyRecorder;
+import community.waterlevel.iot.module.ingestion.latest.LatestValueStore;
+import community.waterlevel.iot.module.ingestion.model.enums.SparkplugDataType;
+import community.waterlevel.iot.module.ingestion.mqtt.MqttTelemetrySubscriber;
+import community.waterlevel.iot.module.ingestion.mqtt.TelemetryPartitionDispatcher;
+import community.waterlevel.iot.module.ingestion.registry.DeviceRegistry;
+import community.waterlevel.iot.module.ingestion.registry.MetricDefinitionCache;
+import community.waterlevel.iot.module.ingestion.registry.SparkplugAliasRegistry;
+import community.waterlevel.iot.module.ingestion.service.impl.TelemetryIngestionServiceImpl;
+import community.waterlevel.iot.module.ingestion.writer.SensorDataTextWriter;
+import community.waterlevel.iot.module.metric.model.entity.IotMetricDefinition;
+import community.waterlevel.iot.module.metric.model.enums.MetricDataType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.eclipse.paho.client.mqttv3.MqttMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Throughput benchmark of the MQTT ingestion path against a local broker stand-in.
+ *
+ * <p>The stand-in replays pre-encoded Sparkplug B NDATA messages, exactly as the broker
+ * would deliver them, into {@link MqttTelemetrySubscriber#messageArrived}. Everything
+ * behind the callback (topic parsing, payload decoding, record mapping) runs for real;
+ * the database writer is replaced by a counting sink so the score reflects the
+ * per-node CPU cost of ingestion. Scores are MQTT messages per second; multiply by
+ * {@code metricsPerMessage} for metrics per second.
+ *
+ * <p>Run: {@code mvn -Pjmh test-compile exec:exec -Djmh.includes=IngestionThroughputBenchmark}
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IngestionThroughputBenchmark {
+
+    private static final int MESSAGES = 1024;
+    private static final int DEVICES = 64;
+    private static final int COMMUNITIES = 8;
+
+    /**
+     * Metrics carried by each NDATA message.
+     */
+    @Param({"1", "10", "50"})
+    public int metricsPerMessage;
+
+    private final LongAdder accepted = new LongAdder();
+    private MqttTelemetrySubscriber subscriber;
+    private String[] topics;
+    private MqttMessage[] messages;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<IotDeviceJpa> devices = new ArrayList<>();
+        for (int d = 0; d < DEVICES; d++) {
+            IotDeviceJpa device = new IotDeviceJpa();
+            device.setDeviceId(new UUID((long) d << 32, d));
+            device.setDeptId(1L + d % COMMUNITIES);
+            device.setStatus(DeviceStatusEnum.ACTIVE);
+            devices.add(device);
+        }
+        DeviceRegistry registry = new DeviceRegistry(null);
+        registry.replaceAll(devices);
+
+        List<IotMetricDefinition> definitions = new ArrayList<>();
+        for (int c = 0; c < COMMUNITIES; c++) {
+            for (int m = 0; m < metricsPerMessage; m++) {
+                IotMetricDefinition definition = new IotMetricDefinition();
+                definition.setId((long) c * 1000 + m);
+                definition.setDeptId(1L + c);
+                definition.setMetricName("metric_" + m);
+                definition.setDataType(MetricDataType.Double);
+                definitions.add(definition);
+            }
+        }
+        MetricDefinitionCache metricDefinitionCache = new MetricDefinitionCache(null, new SimpleMeterRegistry());
+        metricDefinitionCache.replaceAll(definitions);
+
+        // The same messages are replayed every iteration; dedup would drop all but the first pass
+        IngestionProperties replayProperties = new IngestionProperties();
+        replayProperties.getDedup().setEnabled(false);
+        replayProperties.getText().setEnabled(false);
+        TelemetryIngestionServiceImpl service = new TelemetryIngestionServiceImpl(record -> {
+            accepted.increment();
+            return true;
+        }, registry, metricDefinitionCache, new DeviceLastSeenServiceImpl(null, new DeviceProperties()),
+                new LatestValueStore(registry, new SimpleMeterRegistry()),
+                new SparkplugAliasRegistry(new IngestionProperties(), new SimpleMeterRegistry(), event -> { }),
+                new SampleDeduplicator(replayProperties, new SimpleMeterRegistry()),
+                new AnomalyDetector(replayProperties, new SimpleMeterRegistry(), event -> { }),
+                new IngestionLatencyRecorder(new IngestionProperties(), new SimpleMeterRegistry()),
+                new SensorDataTextWriter(null, replayProperties, new SimpleMeterRegistry()));
+        // Ingest inline on the calling thread, as a single callback thread would
+        IngestionProperties inline = new IngestionProperties();
+        inline.getMqtt().setPartitions(0);
+        subscriber = new MqttTelemetrySubscriber(inline, service, new TelemetryPartitionDispatcher(inline, service,
+                new IngestionLatencyRecorder(inline, new SimpleMeterRegistry()), new SimpleMeterRegistry()));
+
+        SparkplugPayloadEncoder encoder = new SparkplugPayloadEncoder();
+        topics = new String[MESSAGES];
+        messages = new MqttMessage[MESSAGES];
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < MESSAGES; i++) {
+            int d = i % DEVICES;
+            topics[i] = "tenants/" + (1 + d % COMMUNITIES) + "/devices/" + String.format("%08x", d) + "/telemetry";
+            SparkplugPayload payload = new SparkplugPayload();
+            payload.setTimestamp(now + i);
+            payload.setSeq(i & 0xFF);
+            for (int m = 0; m < metricsPerMessage; m++) {
+                SparkplugPayload.Metric metric = new SparkplugPayload.Metric();
+                metric.setName("metric_" + m);
+                metric.setTimestamp(now + i);
+                metric.setDataType(SparkplugDataType.Double);
+                metric.setDoubleValue(100.0 + m + i * 0.01);
+                payload.getMetrics().add(metric);
+            }
+            messages[i] = new MqttMessage(encoder.encode(payload));
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    @OperationsPerInvocation(MESSAGES)
+    public void singleCallbackThread(Blackhole blackhole) {
+        replay();
+        blackhole.consume(accepted);
+    }
+
+    @Benchmark
+    @Threads(4)
+    @OperationsPerInvocation(MESSAGES)
+    public void fourCallbackThreads(Blackhole blackhole) {
+        replay();
+        blackhole.consume(accepted);
+    }
+
+    private void replay() {
+        for (int i = 0; i < MESSAGES; i++) {
+            subscriber.messageArrived(topics[i], messages[i]);
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package community.waterlevel.iot.module.ingestion;
+
+import community.waterlevel.iot.config.property.DeviceProperties;
+import community.waterlevel.iot.config.property.IngestionProperties;
+import community.waterlevel.iot.module.device.model.entity.IotDeviceJpa;
+import community.waterlevel.iot.module.device.model.enums.DeviceStatusEnum;
+import community.waterlevel.iot.module.device.service.impl.DeviceLastSeenServiceImpl;
+import community.waterlevel.iot.module.ingestion.anomaly.AnomalyDetector;
+import community.waterlevel.iot.module.ingestion.buffer.SensorDataReorderBuffer;
+import community.waterlevel.iot.module.ingestion.buffer.SensorDataRingBuffer;
+import community.waterlevel.iot.module.ingestion.codec.SparkplugPayload;
+import community.waterlevel.iot.module.ingestion.codec.SparkplugPayloadEncoder;
+import community.waterlevel.iot.module.ingestion.dedup.SampleDeduplicator;
+import community.waterlevel.iot.module.ingestion.latency.IngestionLatencyRecorder;
+import community.waterlevel.iot.module.ingestion.latest.LatestValueStore;
+import community.waterlevel.iot.module.ingestion.model.SensorDataRecord;
+import community.waterlevel.iot.module.ingestion.model.enums.SparkplugDataType;
+import community.waterlevel.iot.module.ingestion.mqtt.MqttTelemetrySubscriber;
+import community.waterlevel.iot.module.ingestion.mqtt.TelemetryPartitionDispatcher;
+import community.waterlevel.iot.module.ingestion.registry.DeviceRegistry;
+import community.waterlevel.iot.module.ingestion.registry.MetricDefinitionCache;
+import community.waterlevel.iot.module.ingestion.registry.SparkplugAliasRegistry;
+import community.waterlevel.iot.module.ingestion.service.impl.TelemetryIngestionServiceImpl;
+import community.waterlevel.iot.module.ingestion.writer.SensorDataBackfillWriter;
+import community.waterlevel.iot.module.ingestion.writer.SensorDataTextWriter;
+import community.waterlevel.iot.module.metric.model.entity.IotMetricDefinition;
+import community.waterlevel.iot.module.metric.model.enums.MetricDataType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.eclipse.paho.client.mqttv3.MqttMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Scaling benchmark of several ingestion instances consuming one EMQX shared subscription.
+ *
+ * <p>A local broker stand-in replaces EMQX: it assigns every published message to one
+ * member of the {@code $share} group by hashing the publisher's client id (EMQX
+ * {@code hash_clientid} strategy) and delivers it on that instance's own callback
+ * thread, as each instance's Paho client would. Every instance is a complete,
+ * independent pipeline (registries, caches, {@link TelemetryPartitionDispatcher} with
+ * {@code partitions} workers, {@link TelemetryIngestionServiceImpl}, the reordering
+ * stage and {@link SensorDataRingBuffer}); only the database writer is replaced by a
+ * reader that counts what it drains. The partition workers of an instance therefore
+ * publish into one ring concurrently, as in production. An invocation publishes a burst
+ * of NDATA messages and returns once every sample has left the ring.
+ *
+ * <p>Scores are messages per second. Divided by {@code instances * partitions} they give
+ * the per-worker throughput, which should stay flat as workers are added until the
+ * cores run out. All instances share this JVM's cores; on separate nodes each instance
+ * brings its own.
+ *
+ * <p>Run: {@code mvn -Pjmh test-compile exec:exec -Djmh.includes=SharedSubscriptionBenchmark}
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SharedSubscriptionBenchmark {
+
+    private static final int MESSAGES = 8192;
+    private static final int DEVICES = 512;
+    private static final int COMMUNITIES = 16;
+    private static final int METRICS_PER_MESSAGE = 10;
+
+    /**
+     * Backend instances in the shared subscription group.
+     */
+    @Param({"1", "2", "4"})
+    public int instances;
+
+    /**
+     * Ingestion workers per instance ({@code ingestion.mqtt.partitions}).
+     */
+    @Param({"1", "4"})
+    public int partitions;
+
+    private final LongAdder samples = new LongAdder();
+    private Instance[] members;
+    private String[] topics;
+    private String[] publisherIds;
+    private MqttMessage[] messages;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<IotDeviceJpa> devices = new ArrayList<>();
+        for (int d = 0; d < DEVICES; d++) {
+            IotDeviceJpa device = new IotDeviceJpa();
+            device.setDeviceId(new UUID((long) d << 32, d));
+            device.setDeptId(1L + d % COMMUNITIES);
+            device.setStatus(DeviceStatusEnum.ACTIVE);
+            devices.add(device);
+        }
+        List<IotMetricDefinition> definitions = new ArrayList<>();
+        for (int c = 0; c < COMMUNITIES; c++) {
+            for (int m = 0; m < METRICS_PER_MESSAGE; m++) {
+                IotMetricDefinition definition = new IotMetricDefinition();
+                definition.setId((long) c * 1000 + m);
+                definition.setDeptId(1L + c);
+                definition.setMetricName("metric_" + m);
+                definition.setDataType(MetricDataType.Double);
+                definitions.add(definition);
+            }
+        }
+
+        members = new Instance[instances];
+        for (int i = 0; i < instances; i++) {
+            members[i] = new Instance(i, devices, definitions);
+        }
+
+        SparkplugPayloadEncoder encoder = new SparkplugPayloadEncoder();
+        topics = new String[MESSAGES];
+        publisherIds = new String[MESSAGES];
+        messages = new MqttMessage[MESSAGES];
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < MESSAGES; i++) {
+            int d = i % DEVICES;
+            topics[i] = "tenants/" + (1 + d % COMMUNITIES) + "/devices/" + String.format("%08x", d) + "/telemetry";
+            publisherIds[i] = "edge-node-" + d;
+            SparkplugPayload payload = new SparkplugPayload();
+            payload.setTimestamp(now + i);
+            payload.setSeq(i & 0xFF);
+            for (int m = 0; m < METRICS_PER_MESSAGE; m++) {
+                SparkplugPayload.Metric metric = new SparkplugPayload.Metric();
+                metric.setName("metric_" + m);
+                metric.setTimestamp(now + i);
+                metric.setDataType(SparkplugDataType.Double);
+                metric.setDoubleValue(100.0 + m + i * 0.01);
+                payload.getMetrics().add(metric);
+            }
+            messages[i] = new MqttMessage(encoder.encode(payload));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        for (Instance member : members) {
+            member.stop();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public long sharedGroup() throws InterruptedException {
+        long target = samples.sum() + (long) MESSAGES * METRICS_PER_MESSAGE;
+        for (int i = 0; i < MESSAGES; i++) {
+            // hash_clientid: all messages of a publisher go to the same group member
+            members[Math.floorMod(publisherIds[i].hashCode(), instances)].deliver(topics[i], messages[i]);
+        }
+        long ingested;
+        while ((ingested = samples.sum()) < target) {
+            Thread.onSpinWait();
+        }
+        return ingested;
+    }
+
+    /**
+     * One backend instance: its own pipeline behind its own MQTT callback thread.
+     */
+    private final class Instance {
+
+        private final BlockingQueue<Object[]> inbox = new ArrayBlockingQueue<>(MESSAGES);
+        private final TelemetryPartitionDispatcher dispatcher;
+        private final Thread callbackThread;
+        private final Thread drainThread;
+
+        private Instance(int index, List<IotDeviceJpa> devices, List<IotMetricDefinition> definitions) {
+            IngestionProperties properties = new IngestionProperties();
+            // The same messages are replayed every iteration; dedup would drop all but the first pass
+            properties.getDedup().setEnabled(false);
+            // Replayed timestamps would be late on every pass after the first; publish straight to the ring
+            properties.getReorder().setEnabled(false);
+            properties.getText().setEnabled(false);
+            properties.getMqtt().setSharedGroup("cwl-ingest");
+            properties.getMqtt().setPartitions(partitions);
+
+            DeviceRegistry registry = new DeviceRegistry(null);
+            registry.replaceAll(devices);
+            MetricDefinitionCache metricDefinitionCache = new MetricDefinitionCache(null, new SimpleMeterRegistry());
+            metricDefinitionCache.replaceAll(definitions);
+            IngestionLatencyRecorder latencyRecorder = new IngestionLatencyRecorder(properties, new SimpleMeterRegistry());
+            SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+            SensorDataRingBuffer ringBuffer = new SensorDataRingBuffer(properties, meterRegistry);
+            SensorDataRingBuffer.Reader reader = ringBuffer.newReader("benchmark-drain");
+            SensorDataReorderBuffer reorderBuffer = new SensorDataReorderBuffer(ringBuffer,
+                    new SensorDataBackfillWriter(null, properties, meterRegistry, event -> { }), properties, meterRegistry);
+            TelemetryIngestionServiceImpl service = new TelemetryIngestionServiceImpl(reorderBuffer, registry, metricDefinitionCache, new DeviceLastSeenServiceImpl(null, new DeviceProperties()),
+                    new LatestValueStore(registry, new SimpleMeterRegistry()),
+                    new SparkplugAliasRegistry(properties, new SimpleMeterRegistry(), event -> { }),
+                    new SampleDeduplicator(properties, new SimpleMeterRegistry()),
+                    new AnomalyDetector(properties, new SimpleMeterRegistry(), event -> { }),
+                    latencyRecorder,
+                    new SensorDataTextWriter(null, properties, new SimpleMeterRegistry()));
+            dispatcher = new TelemetryPartitionDispatcher(properties, service, latencyRecorder, new SimpleMeterRegistry());
+            dispatcher.start();
+            MqttTelemetrySubscriber subscriber = new MqttTelemetrySubscriber(properties, service, dispatcher);
+
+            callbackThread = new Thread(() -> {
+                try {
+                    while (!Thread.currentThread().isInterrupted()) {
+                        Object[] delivery = inbox.take();
+                        subscriber.messageArrived((String) delivery[0], (MqttMessage) delivery[1]);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "broker-delivery-" + index);
+            callbackThread.setDaemon(true);
+            callbackThread.start();
+
+            drainThread = new Thread(() -> {
+                SensorDataRecord[] batch = new SensorDataRecord[4096];
+                for (int i = 0; i < batch.length; i++) {
+                    batch[i] = new SensorDataRecord();
+                }
+                try {
+                    while (!Thread.currentThread().isInterrupted()) {
+                        if (reader.await(TimeUnit.MILLISECONDS.toNanos(50))) {
+                            samples.add(reader.drainTo(batch, 0, batch.length));
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "ring-drain-" + index);
+            drainThread.setDaemon(true);
+            drainThread.start();
+        }
+
+        private void deliver(String topic, MqttMessage message) throws InterruptedException {
+            inbox.put(new Object[]{topic, message});
+        }
+
+        private void stop() {
+            callbackThread.interrupt();
+            dispatcher.stop();
+            drainThread.interrupt();
+        }
+    }
+}
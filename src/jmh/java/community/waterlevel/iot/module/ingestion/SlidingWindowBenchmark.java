@@ -0,0 +1,101 @@
+package community.waterlevel.iot.module.ingestion;
+
+import community.waterlevel.iot.module.ingestion.window.SlidingWindow;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-sample cost of {@link SlidingWindow}.
+ *
+ * <p>Feeds one series sampled every {@code intervalMs} into a 1 hour window and reads
+ * mean, min, max and rate after each sample. {@code recompute} is the naive baseline
+ * that makes a pass over all samples in the window for every read.
+ *
+ * <p>Run: {@code mvn -Pjmh test-compile exec:exec -Djmh.includes=SlidingWindowBenchmark}
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SlidingWindowBenchmark {
+
+    private static final long WINDOW_MS = 3_600_000L;
+    private static final int SAMPLES = 1 << 16;
+
+    @Param({"1000", "10000"})
+    public long intervalMs;
+
+    private SlidingWindow window;
+    private double[] values;
+    private long[] times;
+    private double[] recent;
+    private long time;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        values = new double[SAMPLES];
+        double level = 100;
+        for (int i = 0; i < SAMPLES; i++) {
+            level += random.nextDouble(-0.5, 0.5);
+            values[i] = level;
+        }
+        int held = (int) (WINDOW_MS / intervalMs);
+        times = new long[held];
+        recent = new double[held];
+        window = new SlidingWindow(WINDOW_MS, 4096);
+    }
+
+    @Benchmark
+    public double slidingWindow() {
+        time += intervalMs;
+        window.add(time, values[cursor++ & (SAMPLES - 1)]);
+        return window.mean() + window.min() + window.max() + window.ratePerWindow();
+    }
+
+    @Benchmark
+    public double recompute() {
+        time += intervalMs;
+        int slot = cursor % recent.length;
+        times[slot] = time;
+        recent[slot] = values[cursor++ & (SAMPLES - 1)];
+        int n = Math.min(cursor, recent.length);
+        double sumV = 0;
+        double sumT = 0;
+        double sumTT = 0;
+        double sumTV = 0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            double t = (times[i] - time) / 1000.0;
+            double v = recent[i];
+            sumV += v;
+            sumT += t;
+            sumTT += t * t;
+            sumTV += t * v;
+            min = Math.min(min, v);
+            max = Math.max(max, v);
+        }
+        double slope = (n * sumTV - sumT * sumV) / (n * sumTT - sumT * sumT);
+        return sumV / n + min + max + slope * (WINDOW_MS / 1000.0);
+    }
+}
@@ -0,0 +1,64 @@
+package community.waterlevel.iot.module.ingestion.loadtest;
+
+import io.moquette.broker.Server;
+import io.moquette.broker.config.IConfig;
+import io.moquette.broker.config.MemoryConfig;
+
+import java.io.IOException;
+import java.util.Properties;
+
+/**
+ * In-process MQTT 3.1.1 broker (Moquette) standing in for EMQX during load tests.
+ *
+ * <p>Runs without persistence and authentication on the loopback interface. Moquette
+ * drops messages for a subscriber whose session queue is full, so the queue is sized
+ * generously; the published/received counts of the load test reveal any loss.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+public class EmbeddedMqttBroker implements AutoCloseable {
+
+    private static final String HOST = "127.0.0.1";
+
+    private final int port;
+    private final Server server = new Server();
+    private boolean started;
+
+    public EmbeddedMqttBroker(int port) {
+        this.port = port;
+    }
+
+    /**
+     * Starts the broker.
+     *
+     * @throws IOException if the listener cannot be bound
+     */
+    public void start() throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty(IConfig.HOST_PROPERTY_NAME, HOST);
+        properties.setProperty(IConfig.PORT_PROPERTY_NAME, String.valueOf(port));
+        properties.setProperty(IConfig.ALLOW_ANONYMOUS_PROPERTY_NAME, "true");
+        properties.setProperty(IConfig.PERSISTENCE_ENABLED_PROPERTY_NAME, "false");
+        properties.setProperty("session_queue_size", "65536");
+        server.startServer(new MemoryConfig(properties));
+        started = true;
+    }
+
+    /**
+     * Returns the URL clients connect to.
+     *
+     * @return the broker URL
+     */
+    public String getUrl() {
+        return "tcp://" + HOST + ":" + port;
+    }
+
+    @Override
+    public void close() {
+        if (started) {
+            server.stopServer();
+            started = false;
+        }
+    }
+}
@@ -0,0 +1,404 @@
+package community.waterlevel.iot.module.ingestion.loadtest;
+
+import community.waterlevel.iot.module.device.model.entity.IotDeviceJpa;
+import community.waterlevel.iot.module.device.model.enums.DeviceStatusEnum;
+import community.waterlevel.iot.module.ingestion.codec.SparkplugPayload;
+import community.waterlevel.iot.module.ingestion.codec.SparkplugPayloadEncoder;
+import community.waterlevel.iot.module.ingestion.model.enums.SparkplugDataType;
+import community.waterlevel.iot.module.metric.model.entity.IotMetricDefinition;
+import community.waterlevel.iot.module.metric.model.enums.MetricDataType;
+import community.waterlevel.iot.module.metric.model.enums.WaterLevelMetricPreset;
+import org.eclipse.paho.client.mqttv3.MqttAsyncClient;
+import org.eclipse.paho.client.mqttv3.MqttConnectOptions;
+import org.eclipse.paho.client.mqttv3.MqttException;
+import org.eclipse.paho.client.mqttv3.persist.MemoryPersistence;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Simulated fleet of water level stations publishing Sparkplug B telemetry.
+ *
+ * <p>Every station is an edge node of one community and reports the metrics of the
+ * configured {@link WaterLevelMetricPreset}s. Each preset has a field-typical report
+ * interval and value model ({@link ReportProfile}): water levels change quickly and
+ * report every minute, battery state every 15 minutes. Intervals are divided by
+ * {@code speedup} to compress time and every report is jittered by up to
+ * {@code jitter} of its interval, so stations drift apart as real ones do.
+ *
+ * <p>A station announces its metrics with names and aliases in an NBIRTH and then
+ * publishes NDATA carrying the due metrics by alias only, stamped with the publish time.
+ * Stations share {@code connections} MQTT clients; the topic identifies the node.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+public class FleetSimulator {
+
+    private static final int MAX_INFLIGHT = 65535;
+    private static final long DAY_MS = 86_400_000L;
+
+    private final String brokerUrl;
+    private final int connections;
+    private final int qos;
+    private final int threads;
+    private final double speedup;
+    private final double jitter;
+    private final WaterLevelMetricPreset[] presets;
+    private final ReportProfile[] profiles;
+    private final Station[] stations;
+    private final List<IotDeviceJpa> devices = new ArrayList<>();
+    private final List<IotMetricDefinition> metricDefinitions = new ArrayList<>();
+    private final SparkplugPayloadEncoder encoder = new SparkplugPayloadEncoder();
+
+    private final LongAdder messagesPublished = new LongAdder();
+    private final LongAdder samplesPublished = new LongAdder();
+    private final LongAdder publishFailures = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+
+    private MqttAsyncClient[] clients;
+    private ScheduledExecutorService scheduler;
+    private volatile boolean running;
+
+    /**
+     * Creates the fleet. Stations are numbered globally; community {@code c} has dept id
+     * {@code c + 1} and its stations' device ids start with the station number in hex.
+     *
+     * @param brokerUrl             the broker to publish to
+     * @param communities           number of communities
+     * @param stationsPerCommunity  stations per community
+     * @param presets               metrics reported by every station
+     * @param connections           MQTT client connections shared by the stations
+     * @param threads               publishing threads
+     * @param speedup               factor by which report intervals are shortened
+     * @param jitter                maximum relative deviation of a report interval (0-1)
+     * @param qos                   MQTT QoS of the telemetry
+     */
+    public FleetSimulator(String brokerUrl, int communities, int stationsPerCommunity,
+                          List<WaterLevelMetricPreset> presets, int connections, int threads,
+                          double speedup, double jitter, int qos) {
+        this.brokerUrl = brokerUrl;
+        this.connections = connections;
+        this.threads = threads;
+        this.speedup = speedup;
+        this.jitter = jitter;
+        this.qos = qos;
+        this.presets = presets.toArray(new WaterLevelMetricPreset[0]);
+        this.profiles = new ReportProfile[this.presets.length];
+        for (int m = 0; m < this.presets.length; m++) {
+            profiles[m] = ReportProfile.of(this.presets[m]);
+        }
+
+        long metricId = 1;
+        for (int c = 0; c < communities; c++) {
+            for (WaterLevelMetricPreset preset : this.presets) {
+                IotMetricDefinition definition = preset.createMetricDefinition(metricName(preset), c + 1L);
+                definition.setId(metricId++);
+                metricDefinitions.add(definition);
+            }
+        }
+        stations = new Station[communities * stationsPerCommunity];
+        for (int s = 0; s < stations.length; s++) {
+            long deptId = s % communities + 1L;
+            IotDeviceJpa device = new IotDeviceJpa();
+            device.setDeviceId(new UUID((long) s << 32, s));
+            device.setDeptId(deptId);
+            device.setStatus(DeviceStatusEnum.ACTIVE);
+            devices.add(device);
+            stations[s] = new Station(s, "tenants/" + deptId + "/devices/" + String.format("%08x", s) + "/telemetry/");
+        }
+    }
+
+    /**
+     * Returns the simulated devices, for seeding the device registry.
+     *
+     * @return the devices
+     */
+    public List<IotDeviceJpa> getDevices() {
+        return devices;
+    }
+
+    /**
+     * Returns the metric definitions of every community, for seeding the metric cache.
+     *
+     * @return the metric definitions
+     */
+    public List<IotMetricDefinition> getMetricDefinitions() {
+        return metricDefinitions;
+    }
+
+    /**
+     * Returns the number of samples published per second in steady state.
+     *
+     * @return the expected sample rate
+     */
+    public double getExpectedSampleRate() {
+        double perStation = 0;
+        for (ReportProfile profile : profiles) {
+            perStation += speedup * 1000.0 / profile.intervalMs;
+        }
+        return perStation * stations.length;
+    }
+
+    /**
+     * Connects the clients, publishes every station's NBIRTH and starts reporting.
+     *
+     * @throws MqttException if a client cannot connect
+     */
+    public void start() throws MqttException {
+        clients = new MqttAsyncClient[connections];
+        MqttConnectOptions options = new MqttConnectOptions();
+        options.setCleanSession(true);
+        options.setMaxInflight(MAX_INFLIGHT);
+        for (int i = 0; i < connections; i++) {
+            clients[i] = new MqttAsyncClient(brokerUrl, "loadtest-fleet-" + i, new MemoryPersistence());
+            clients[i].connect(options).waitForCompletion(TimeUnit.SECONDS.toMillis(10));
+        }
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        scheduler = Executors.newScheduledThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "loadtest-fleet-" + threadIndex.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        long now = System.currentTimeMillis();
+        for (Station station : stations) {
+            station.birth(now);
+            // Spread the first reports over one interval so stations do not report in lockstep
+            for (int m = 0; m < profiles.length; m++) {
+                station.nextDue[m] = now + (long) (ThreadLocalRandom.current().nextDouble() * scaledInterval(m));
+            }
+            station.schedule(now);
+        }
+    }
+
+    /**
+     * Stops reporting and disconnects the clients.
+     */
+    public void stop() {
+        running = false;
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            try {
+                scheduler.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (clients != null) {
+            for (MqttAsyncClient client : clients) {
+                try {
+                    client.disconnect().waitForCompletion(TimeUnit.SECONDS.toMillis(5));
+                    client.close();
+                } catch (MqttException e) {
+                    // Best effort; the broker is stopped next
+                }
+            }
+        }
+    }
+
+    public long getMessagesPublished() {
+        return messagesPublished.sum();
+    }
+
+    public long getSamplesPublished() {
+        return samplesPublished.sum();
+    }
+
+    public long getPublishFailures() {
+        return publishFailures.sum();
+    }
+
+    /**
+     * Returns how often a publish had to wait because its client's in-flight window was full.
+     *
+     * @return the throttled publish count
+     */
+    public long getThrottled() {
+        return throttled.sum();
+    }
+
+    private static String metricName(WaterLevelMetricPreset preset) {
+        return preset.name().toLowerCase(Locale.ROOT);
+    }
+
+    private double scaledInterval(int metric) {
+        return profiles[metric].intervalMs / speedup;
+    }
+
+    private void publish(Station station, String messageType, SparkplugPayload payload) {
+        MqttAsyncClient client = clients[station.index % clients.length];
+        byte[] bytes = encoder.encode(payload);
+        while (true) {
+            try {
+                client.publish(station.topicPrefix + messageType, bytes, qos, false);
+                messagesPublished.increment();
+                samplesPublished.add(payload.getMetrics().size());
+                return;
+            } catch (MqttException e) {
+                if (e.getReasonCode() != MqttException.REASON_CODE_MAX_INFLIGHT || !running) {
+                    publishFailures.increment();
+                    return;
+                }
+                // The broker is behind: wait for acknowledgements like a real client would
+                throttled.increment();
+                LockSupport.parkNanos(100_000);
+            }
+        }
+    }
+
+    /**
+     * Report interval and value model of one metric preset.
+     */
+    static final class ReportProfile {
+
+        /**
+         * Nominal report interval in the field.
+         */
+        final long intervalMs;
+
+        /**
+         * Mean value.
+         */
+        final double base;
+
+        /**
+         * Amplitude of the daily cycle.
+         */
+        final double amplitude;
+
+        /**
+         * Standard deviation of the measurement noise.
+         */
+        final double noise;
+
+        private ReportProfile(long intervalMs, double base, double amplitude, double noise) {
+            this.intervalMs = intervalMs;
+            this.base = base;
+            this.amplitude = amplitude;
+            this.noise = noise;
+        }
+
+        static ReportProfile of(WaterLevelMetricPreset preset) {
+            switch (preset) {
+                case WATER_LEVEL_CM:
+                    return new ReportProfile(60_000, 150, 40, 1);
+                case WATER_LEVEL_MM:
+                    return new ReportProfile(60_000, 1500, 400, 5);
+                case WATER_LEVEL_M:
+                    return new ReportProfile(60_000, 1.5, 0.4, 0.01);
+                case TEMPERATURE_C:
+                    return new ReportProfile(300_000, 25, 5, 0.2);
+                case PRESSURE_KPA:
+                    return new ReportProfile(300_000, 101.3, 1, 0.05);
+                case BATTERY_VOLTAGE:
+                    return new ReportProfile(900_000, 3.7, 0.2, 0.01);
+                case BATTERY_LEVEL:
+                    return new ReportProfile(900_000, 80, 15, 0.5);
+                case SIGNAL_STRENGTH:
+                    return new ReportProfile(300_000, -75, 10, 3);
+                case CURRENT_MA:
+                    return new ReportProfile(60_000, 12, 4, 0.5);
+                default:
+                    throw new IllegalArgumentException("No report profile for " + preset);
+            }
+        }
+    }
+
+    /**
+     * One simulated edge node. Its reports run on one scheduler thread at a time.
+     */
+    private final class Station {
+
+        private final int index;
+        private final String topicPrefix;
+        private final long[] nextDue = new long[profiles.length];
+        private final double phase = ThreadLocalRandom.current().nextDouble(2 * Math.PI);
+        private int seq;
+
+        private Station(int index, String topicPrefix) {
+            this.index = index;
+            this.topicPrefix = topicPrefix;
+        }
+
+        private void birth(long now) {
+            SparkplugPayload payload = new SparkplugPayload();
+            payload.setTimestamp(now);
+            payload.setSeq(nextSeq());
+            for (int m = 0; m < profiles.length; m++) {
+                SparkplugPayload.Metric metric = metric(m, now);
+                metric.setName(metricName(presets[m]));
+                payload.getMetrics().add(metric);
+            }
+            publish(this, "NBIRTH", payload);
+        }
+
+        private void report() {
+            if (!running) {
+                return;
+            }
+            long now = System.currentTimeMillis();
+            SparkplugPayload payload = new SparkplugPayload();
+            payload.setTimestamp(now);
+            payload.setSeq(nextSeq());
+            for (int m = 0; m < profiles.length; m++) {
+                if (nextDue[m] <= now) {
+                    payload.getMetrics().add(metric(m, now));
+                    double deviation = jitter * (2 * ThreadLocalRandom.current().nextDouble() - 1);
+                    nextDue[m] = now + Math.max(1, (long) (scaledInterval(m) * (1 + deviation)));
+                }
+            }
+            if (!payload.getMetrics().isEmpty()) {
+                publish(this, "NDATA", payload);
+            }
+            schedule(now);
+        }
+
+        private void schedule(long now) {
+            long due = Long.MAX_VALUE;
+            for (long next : nextDue) {
+                due = Math.min(due, next);
+            }
+            if (running) {
+                scheduler.schedule(this::report, Math.max(0, due - now), TimeUnit.MILLISECONDS);
+            }
+        }
+
+        private SparkplugPayload.Metric metric(int m, long now) {
+            ReportProfile profile = profiles[m];
+            double cycle = 2 * Math.PI * ((now * speedup) % DAY_MS) / DAY_MS;
+            double value = profile.base + profile.amplitude * Math.sin(cycle + phase)
+                    + profile.noise * ThreadLocalRandom.current().nextGaussian();
+
+            SparkplugPayload.Metric metric = new SparkplugPayload.Metric();
+            metric.setAlias(m + 1);
+            metric.setTimestamp(now);
+            MetricDataType dataType = presets[m].getDataType();
+            metric.setDataType(SparkplugDataType.valueOf(dataType.name()));
+            if (dataType == MetricDataType.Float) {
+                metric.setFloatValue((float) value);
+            } else if (dataType == MetricDataType.UInt8) {
+                metric.setIntValue(Math.max(0, Math.min(100, Math.round(value))));
+            } else {
+                metric.setIntValue(Math.round(value));
+            }
+            return metric;
+        }
+
+        private int nextSeq() {
+            int current = seq;
+            seq = (seq + 1) & 0xFF;
+            return current;
+        }
+    }
+}
@@ -0,0 +1,468 @@
+package community.waterlevel.iot.module.ingestion.loadtest;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.alibaba.druid.pool.DruidDataSource;
+import community.waterlevel.iot.config.property.DeviceProperties;
+import community.waterlevel.iot.config.property.IngestionProperties;
+import community.waterlevel.iot.module.device.service.impl.DeviceLastSeenServiceImpl;
+import community.waterlevel.iot.module.ingestion.anomaly.AnomalyDetector;
+import community.waterlevel.iot.module.ingestion.buffer.SensorDataReorderBuffer;
+import community.waterlevel.iot.module.ingestion.buffer.SensorDataRingBuffer;
+import community.waterlevel.iot.module.ingestion.dedup.SampleDeduplicator;
+import community.waterlevel.iot.module.ingestion.latency.IngestionLatencyRecorder;
+import community.waterlevel.iot.module.ingestion.latency.LatencyHistogram;
+import community.waterlevel.iot.module.ingestion.latest.LatestValueStore;
+import community.waterlevel.iot.module.ingestion.model.SensorDataRecord;
+import community.waterlevel.iot.module.ingestion.model.enums.LatencyStage;
+import community.waterlevel.iot.module.ingestion.mqtt.MqttTelemetrySubscriber;
+import community.waterlevel.iot.module.ingestion.mqtt.TelemetryPartitionDispatcher;
+import community.waterlevel.iot.module.ingestion.registry.DeviceRegistry;
+import community.waterlevel.iot.module.ingestion.registry.MetricDefinitionCache;
+import community.waterlevel.iot.module.ingestion.registry.SparkplugAliasRegistry;
+import community.waterlevel.iot.module.ingestion.service.impl.TelemetryIngestionServiceImpl;
+import community.waterlevel.iot.module.ingestion.writer.SensorDataBackfillWriter;
+import community.waterlevel.iot.module.ingestion.writer.SensorDataBatchWriter;
+import community.waterlevel.iot.module.ingestion.writer.SensorDataTextWriter;
+import community.waterlevel.iot.module.metric.model.enums.WaterLevelMetricPreset;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.Lifecycle;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sustained load test of the ingestion pipeline against an embedded MQTT broker.
+ *
+ * <p>Starts an {@link EmbeddedMqttBroker}, the complete backend ingestion pipeline (MQTT
+ * subscriber, partition dispatcher, decoding and mapping, reordering, ring buffer and
+ * writer) and a {@link FleetSimulator} publishing Sparkplug B telemetry to the broker.
+ * After a warm-up it measures for a fixed duration and reports:
+ * <ul>
+ *   <li>sustained throughput: messages and samples published and ingested per second</li>
+ *   <li>latency percentiles per {@link LatencyStage}, END_TO_END being sample time to commit</li>
+ *   <li>GC collections and pause time, and bytes allocated by the backend's threads
+ *       (MQTT client, ingestion workers, reordering, writer) per second and per sample</li>
+ * </ul>
+ *
+ * <p>Without {@code --jdbc-url} the writer is replaced by a reader that drains the ring
+ * and treats the drain as the commit, so the numbers show the pipeline without the
+ * database; with it, the real {@link SensorDataBatchWriter} and backfill writer COPY into
+ * {@code sensor_data}. The broker and the simulator run in the same JVM and compete for
+ * its cores; GC figures are for the whole JVM.
+ *
+ * <p>Run: {@code mvn -Pjmh test-compile exec:exec@loadtest -Dloadtest.args="--communities=50 --stations=200 --speedup=60"}
+ *
+ * <p>Options (defaults in brackets): {@code --port} [18830], {@code --communities} [20],
+ * {@code --stations} per community [50], {@code --presets} [WATER_LEVEL_CM,TEMPERATURE_C,
+ * BATTERY_VOLTAGE,BATTERY_LEVEL,SIGNAL_STRENGTH], {@code --connections} [16],
+ * {@code --simulator-threads} [4], {@code --speedup} [60], {@code --jitter} [0.1],
+ * {@code --qos} [1], {@code --partitions} [4], {@code --watermark-ms} [2000],
+ * {@code --warmup} seconds [30], {@code --duration} seconds [120],
+ * {@code --report-interval} seconds [10], {@code --jdbc-url}, {@code --jdbc-user},
+ * {@code --jdbc-password}.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+public final class IngestionLoadTest {
+
+    private static final String[] BACKEND_THREAD_PREFIXES = {
+            "mqtt-ingest-", "sensor-data-", "ingestion-", "loadtest-drain"
+    };
+    private static final String SUBSCRIBER_CLIENT_PREFIX = "loadtest-backend-";
+
+    private IngestionLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        quietLogging();
+
+        int communities = intOption(options, "communities", 20);
+        int stations = intOption(options, "stations", 50);
+        List<WaterLevelMetricPreset> presets = new ArrayList<>();
+        for (String name : options.getOrDefault("presets",
+                "WATER_LEVEL_CM,TEMPERATURE_C,BATTERY_VOLTAGE,BATTERY_LEVEL,SIGNAL_STRENGTH").split(",")) {
+            presets.add(WaterLevelMetricPreset.valueOf(name.trim()));
+        }
+        long warmupMs = TimeUnit.SECONDS.toMillis(intOption(options, "warmup", 30));
+        long durationMs = TimeUnit.SECONDS.toMillis(intOption(options, "duration", 120));
+        long reportIntervalMs = TimeUnit.SECONDS.toMillis(intOption(options, "report-interval", 10));
+        int qos = intOption(options, "qos", 1);
+
+        try (EmbeddedMqttBroker broker = new EmbeddedMqttBroker(intOption(options, "port", 18830))) {
+            broker.start();
+
+            FleetSimulator fleet = new FleetSimulator(broker.getUrl(), communities, stations, presets,
+                    intOption(options, "connections", 16), intOption(options, "simulator-threads", 4),
+                    doubleOption(options, "speedup", 60), doubleOption(options, "jitter", 0.1), qos);
+
+            IngestionProperties properties = new IngestionProperties();
+            properties.setEnabled(true);
+            properties.getMqtt().setUrl(broker.getUrl());
+            properties.getMqtt().setClientIdPrefix(SUBSCRIBER_CLIENT_PREFIX);
+            properties.getMqtt().setQos(qos);
+            properties.getMqtt().setMaxInflight(65535);
+            properties.getMqtt().setPartitions(intOption(options, "partitions", 4));
+            properties.getReorder().setWatermarkMs(intOption(options, "watermark-ms", 2000));
+            properties.getLatency().setIntervalMs(reportIntervalMs);
+            Backend backend = new Backend(properties, fleet, options);
+
+            System.out.printf(Locale.ROOT, "Fleet: %d communities x %d stations, %d metrics, expected %.0f samples/s (%s)%n",
+                    communities, stations, presets.size(), fleet.getExpectedSampleRate(),
+                    backend.dataSource != null ? "COPY into " + options.get("jdbc-url") : "no database");
+
+            backend.start();
+            fleet.start();
+            try {
+                run(fleet, backend, warmupMs, durationMs, reportIntervalMs);
+            } finally {
+                fleet.stop();
+                // Let the backend take in what the broker already accepted
+                Thread.sleep(Math.max(1000, properties.getReorder().getWatermarkMs() * 2));
+                backend.stop();
+            }
+            System.out.printf(Locale.ROOT, "Totals: published %d samples, ingested %d, rejected messages %d, "
+                            + "unresolved aliases %d, late %d, publish failures %d%n",
+                    fleet.getSamplesPublished(), backend.service.getSamplesAccepted(),
+                    backend.service.getMessagesRejected(), backend.service.getUnresolvedAliases(),
+                    backend.reorderBuffer.getLate(), fleet.getPublishFailures());
+        }
+    }
+
+    private static void run(FleetSimulator fleet, Backend backend, long warmupMs, long durationMs,
+                            long reportIntervalMs) throws InterruptedException {
+        long start = System.currentTimeMillis();
+        long measureFrom = start + warmupMs;
+        long end = measureFrom + durationMs;
+        Counters previous = Counters.capture(fleet, backend);
+        Counters baseline = null;
+
+        while (true) {
+            long now = System.currentTimeMillis();
+            if (baseline == null && now >= measureFrom) {
+                backend.latencyRecorder.reset();
+                baseline = Counters.capture(fleet, backend);
+                previous = baseline;
+                System.out.println("Warm-up done, measuring");
+            }
+            if (now >= end) {
+                break;
+            }
+            long next = Math.min(now + reportIntervalMs, baseline == null ? measureFrom : end);
+            Thread.sleep(Math.max(1, next - now));
+
+            Counters current = Counters.capture(fleet, backend);
+            double seconds = (current.at - previous.at) / 1000.0;
+            LatencyHistogram.Summary e2e = aggregate(backend.latencyRecorder, LatencyStage.END_TO_END, false);
+            System.out.printf(Locale.ROOT,
+                    "[%4ds] published %8.0f msg/s %9.0f samples/s | ingested %9.0f samples/s | "
+                            + "e2e p99 %7.1f ms | ring %d, reorder pending %d%n",
+                    (current.at - start) / 1000,
+                    (current.messagesPublished - previous.messagesPublished) / seconds,
+                    (current.samplesPublished - previous.samplesPublished) / seconds,
+                    (current.samplesIngested - previous.samplesIngested) / seconds,
+                    e2e.p99 / 1000.0, backend.ringBuffer.getDepth(), backend.reorderBuffer.getPending());
+            previous = current;
+        }
+        report(baseline, Counters.capture(fleet, backend), backend);
+    }
+
+    private static void report(Counters from, Counters to, Backend backend) {
+        double seconds = (to.at - from.at) / 1000.0;
+        long samples = to.samplesIngested - from.samplesIngested;
+        System.out.println();
+        System.out.printf(Locale.ROOT, "Sustained over %.0f s%n", seconds);
+        System.out.printf(Locale.ROOT, "  published  %10.0f msg/s  %10.0f samples/s%n",
+                (to.messagesPublished - from.messagesPublished) / seconds,
+                (to.samplesPublished - from.samplesPublished) / seconds);
+        System.out.printf(Locale.ROOT, "  ingested   %10.0f msg/s  %10.0f samples/s  written %10.0f rows/s%n",
+                (to.messagesIngested - from.messagesIngested) / seconds, samples / seconds,
+                (to.rowsWritten - from.rowsWritten) / seconds);
+        System.out.println("  latency (ms)       count       p50       p99     p99.9       max");
+        for (LatencyStage stage : LatencyStage.values()) {
+            LatencyHistogram.Summary total = aggregate(backend.latencyRecorder, stage, true);
+            System.out.printf(Locale.ROOT, "  %-12s %11d %9.2f %9.2f %9.2f %9.2f%n", stage.getTag(), total.count,
+                    total.p50 / 1000.0, total.p99 / 1000.0, total.p999 / 1000.0, total.max / 1000.0);
+        }
+        System.out.println("  gc                 count   time ms");
+        for (Map.Entry<String, long[]> entry : to.gc.entrySet()) {
+            long[] before = from.gc.getOrDefault(entry.getKey(), new long[2]);
+            System.out.printf(Locale.ROOT, "  %-16s %7d %9d%n", entry.getKey(),
+                    entry.getValue()[0] - before[0], entry.getValue()[1] - before[1]);
+        }
+        long allocated = to.backendAllocated - from.backendAllocated;
+        System.out.printf(Locale.ROOT, "  backend allocation %.1f MB/s, %.0f bytes/sample; heap used %.0f MB%n",
+                allocated / seconds / (1024 * 1024), samples > 0 ? (double) allocated / samples : 0,
+                ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() / (1024.0 * 1024));
+    }
+
+    private static LatencyHistogram.Summary aggregate(IngestionLatencyRecorder recorder, LatencyStage stage,
+                                                      boolean total) {
+        for (IngestionLatencyRecorder.StageSnapshot snapshot : recorder.snapshot()) {
+            if (snapshot.aggregate && snapshot.stage == stage) {
+                return total ? snapshot.total : snapshot.window;
+            }
+        }
+        return LatencyHistogram.Summary.EMPTY;
+    }
+
+    /**
+     * Sums the bytes allocated by the backend's threads, recognised by name; the
+     * subscriber's Paho threads carry its client id.
+     */
+    private static long backendAllocatedBytes() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            return 0;
+        }
+        List<Long> ids = new ArrayList<>();
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            String name = thread.getName();
+            boolean backend = name.contains(SUBSCRIBER_CLIENT_PREFIX);
+            for (String prefix : BACKEND_THREAD_PREFIXES) {
+                backend |= name.startsWith(prefix);
+            }
+            if (backend) {
+                ids.add(thread.getId());
+            }
+        }
+        long[] allocated = threads.getThreadAllocatedBytes(ids.stream().mapToLong(Long::longValue).toArray());
+        return Arrays.stream(allocated).filter(bytes -> bytes > 0).sum();
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            // exec:exec passes -Dloadtest.args as a single argument
+            for (String option : arg.trim().split("\\s+")) {
+                if (option.startsWith("--") && option.contains("=")) {
+                    int separator = option.indexOf('=');
+                    options.put(option.substring(2, separator), option.substring(separator + 1));
+                } else if (!option.isEmpty()) {
+                    throw new IllegalArgumentException("Expected --name=value, got " + option);
+                }
+            }
+        }
+        return options;
+    }
+
+    private static int intOption(Map<String, String> options, String name, int defaultValue) {
+        String value = options.get(name);
+        return value != null ? Integer.parseInt(value) : defaultValue;
+    }
+
+    private static double doubleOption(Map<String, String> options, String name, double defaultValue) {
+        String value = options.get(name);
+        return value != null ? Double.parseDouble(value) : defaultValue;
+    }
+
+    /**
+     * Outside Spring Boot logback starts at DEBUG; keep the broker and Netty quiet.
+     */
+    private static void quietLogging() {
+        setLevel(org.slf4j.Logger.ROOT_LOGGER_NAME, Level.INFO);
+        setLevel("io.moquette", Level.WARN);
+        setLevel("io.netty", Level.WARN);
+    }
+
+    private static void setLevel(String name, Level level) {
+        if (LoggerFactory.getLogger(name) instanceof Logger logger) {
+            logger.setLevel(level);
+        }
+    }
+
+    /**
+     * The backend ingestion pipeline, wired as the application context would.
+     */
+    private static final class Backend {
+
+        private final DruidDataSource dataSource;
+        private final IngestionLatencyRecorder latencyRecorder;
+        private final SensorDataRingBuffer ringBuffer;
+        private final SensorDataReorderBuffer reorderBuffer;
+        private final TelemetryIngestionServiceImpl service;
+        private final LongAdder rowsWritten = new LongAdder();
+        private final SensorDataBatchWriter writer;
+
+        /**
+         * Components in start order (lifecycle phase order).
+         */
+        private final List<Lifecycle> lifecycle = new ArrayList<>();
+
+        private Backend(IngestionProperties properties, FleetSimulator fleet, Map<String, String> options) {
+            SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+            DeviceRegistry registry = new DeviceRegistry(null);
+            registry.replaceAll(fleet.getDevices());
+            MetricDefinitionCache metricDefinitionCache = new MetricDefinitionCache(null, meterRegistry);
+            metricDefinitionCache.replaceAll(fleet.getMetricDefinitions());
+            latencyRecorder = new IngestionLatencyRecorder(properties, meterRegistry);
+            ringBuffer = new SensorDataRingBuffer(properties, meterRegistry);
+
+            String jdbcUrl = options.get("jdbc-url");
+            if (jdbcUrl != null) {
+                dataSource = new DruidDataSource();
+                dataSource.setUrl(jdbcUrl);
+                dataSource.setUsername(options.get("jdbc-user"));
+                dataSource.setPassword(options.get("jdbc-password"));
+                writer = new SensorDataBatchWriter(dataSource, ringBuffer, properties, latencyRecorder, meterRegistry);
+                lifecycle.add(writer);
+            } else {
+                dataSource = null;
+                writer = null;
+                lifecycle.add(new RingDrain(ringBuffer, latencyRecorder, rowsWritten));
+            }
+            SensorDataBackfillWriter backfillWriter = new SensorDataBackfillWriter(dataSource, properties, meterRegistry,
+                    event -> { });
+            SensorDataTextWriter textWriter = new SensorDataTextWriter(dataSource, properties, meterRegistry);
+            if (dataSource != null) {
+                lifecycle.add(backfillWriter);
+                lifecycle.add(textWriter);
+            } else {
+                properties.getText().setEnabled(false);
+            }
+            reorderBuffer = new SensorDataReorderBuffer(ringBuffer, backfillWriter, properties, meterRegistry);
+            lifecycle.add(reorderBuffer);
+
+            service = new TelemetryIngestionServiceImpl(reorderBuffer, registry, metricDefinitionCache,
+                    new DeviceLastSeenServiceImpl(null, new DeviceProperties()),
+                    new LatestValueStore(registry, meterRegistry),
+                    new SparkplugAliasRegistry(properties, meterRegistry, event -> { }),
+                    new SampleDeduplicator(properties, meterRegistry),
+                    new AnomalyDetector(properties, meterRegistry, event -> { }),
+                    latencyRecorder,
+                    textWriter);
+            TelemetryPartitionDispatcher dispatcher =
+                    new TelemetryPartitionDispatcher(properties, service, latencyRecorder, meterRegistry);
+            lifecycle.add(dispatcher);
+            lifecycle.add(new MqttTelemetrySubscriber(properties, service, dispatcher));
+            lifecycle.add(latencyRecorder);
+        }
+
+        private long getRowsWritten() {
+            return writer != null ? writer.getRowsWritten() : rowsWritten.sum();
+        }
+
+        private void start() {
+            lifecycle.forEach(Lifecycle::start);
+        }
+
+        private void stop() {
+            for (int i = lifecycle.size() - 1; i >= 0; i--) {
+                lifecycle.get(i).stop();
+            }
+            if (dataSource != null) {
+                dataSource.close();
+            }
+        }
+    }
+
+    /**
+     * Stands in for the database writer: drains the ring and records the drain as the commit.
+     */
+    private static final class RingDrain implements Lifecycle {
+
+        private static final int BATCH = 4096;
+
+        private final SensorDataRingBuffer.Reader reader;
+        private final IngestionLatencyRecorder latencyRecorder;
+        private final LongAdder rows;
+        private final SensorDataRecord[] batch = new SensorDataRecord[BATCH];
+        private volatile boolean running;
+        private Thread worker;
+
+        private RingDrain(SensorDataRingBuffer ringBuffer, IngestionLatencyRecorder latencyRecorder, LongAdder rows) {
+            this.reader = ringBuffer.newReader("loadtest-drain");
+            this.latencyRecorder = latencyRecorder;
+            this.rows = rows;
+            for (int i = 0; i < BATCH; i++) {
+                batch[i] = new SensorDataRecord();
+            }
+        }
+
+        @Override
+        public void start() {
+            running = true;
+            worker = new Thread(this::run, "loadtest-drain");
+            worker.setDaemon(true);
+            worker.start();
+        }
+
+        @Override
+        public void stop() {
+            running = false;
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public boolean isRunning() {
+            return running;
+        }
+
+        private void run() {
+            try {
+                while (running) {
+                    if (!reader.await(TimeUnit.MILLISECONDS.toNanos(50))) {
+                        continue;
+                    }
+                    int count = reader.drainTo(batch, 0, BATCH);
+                    long now = System.currentTimeMillis();
+                    for (int i = 0; i < count; i++) {
+                        SensorDataRecord r = batch[i];
+                        if (r.getReceivedAt() > 0) {
+                            latencyRecorder.record(r.getCommunityId(), LatencyStage.COMMIT, (now - r.getReceivedAt()) * 1000);
+                        }
+                        latencyRecorder.record(r.getCommunityId(), LatencyStage.END_TO_END, (now - r.getTime()) * 1000);
+                    }
+                    rows.add(count);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Cumulative counters at one point in time.
+     */
+    private static final class Counters {
+
+        private long at;
+        private long messagesPublished;
+        private long samplesPublished;
+        private long messagesIngested;
+        private long samplesIngested;
+        private long rowsWritten;
+        private long backendAllocated;
+        private final Map<String, long[]> gc = new HashMap<>();
+
+        private static Counters capture(FleetSimulator fleet, Backend backend) {
+            Counters counters = new Counters();
+            counters.at = System.currentTimeMillis();
+            counters.messagesPublished = fleet.getMessagesPublished();
+            counters.samplesPublished = fleet.getSamplesPublished();
+            counters.messagesIngested = backend.service.getMessagesReceived();
+            counters.samplesIngested = backend.service.getSamplesAccepted();
+            counters.rowsWritten = backend.getRowsWritten();
+            counters.backendAllocated = backendAllocatedBytes();
+            for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+                counters.gc.put(collector.getName(), new long[]{collector.getCollectionCount(), collector.getCollectionTime()});
+            }
+            return counters;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package community.waterlevel.iot.module.sensordata;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import community.waterlevel.iot.common.result.Result;
+import community.waterlevel.iot.config.WebMvcConfig;
+import community.waterlevel.iot.module.sensordata.model.vo.SensorDataSeriesVO;
+import community.waterlevel.iot.module.sensordata.support.LttbDownsampler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of returning a long series raw and downsampled with LTTB.
+ *
+ * <p>{@code raw} boxes and serializes all {@code size} points, as the series endpoint
+ * does without {@code maxPoints}; {@code lttb} first reduces them to {@code maxPoints}
+ * with {@link LttbDownsampler} in the column arrays, then does the same. {@code select}
+ * measures the downsampling alone. The series is a 10-second water level with a daily
+ * cycle, noise, a crest and a few empty buckets.
+ *
+ * <p>Run: {@code mvn -Pjmh test-compile exec:exec -Djmh.includes=SensorDataDownsampleBenchmark}
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SensorDataDownsampleBenchmark {
+
+    private static final long START = 1_775_000_000_000L;
+    private static final long INTERVAL_MS = 10_000L;
+
+    @Param({"50000"})
+    public int size;
+
+    @Param({"1000"})
+    public int maxPoints;
+
+    private ObjectWriter writer;
+    private long[] times;
+    private double[] values;
+    private long[] timesCopy;
+    private double[] valuesCopy;
+    private int[] selected;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<HttpMessageConverter<?>> converters = new ArrayList<>();
+        converters.add(new StringHttpMessageConverter());
+        new WebMvcConfig().configureMessageConverters(converters);
+        ObjectMapper objectMapper = converters.stream()
+                .filter(MappingJackson2HttpMessageConverter.class::isInstance)
+                .map(c -> ((MappingJackson2HttpMessageConverter) c).getObjectMapper())
+                .findFirst()
+                .orElseThrow();
+        writer = objectMapper.writer();
+
+        times = new long[size];
+        values = new double[size];
+        for (int i = 0; i < size; i++) {
+            times[i] = START + i * INTERVAL_MS;
+            double level = 1.2 + 0.4 * Math.sin(i * 2 * Math.PI / 8640) + ((i * 7919) % 101) * 0.0005;
+            if (i > size / 2 && i < size / 2 + 360) {
+                level += 1.5 * Math.sin((i - size / 2) * Math.PI / 360);
+            }
+            values[i] = i % 997 == 0 ? Double.NaN : level;
+        }
+        timesCopy = new long[size];
+        valuesCopy = new double[size];
+        selected = new int[maxPoints];
+    }
+
+    @Benchmark
+    public int select() {
+        return LttbDownsampler.select(times, values, size, maxPoints, selected);
+    }
+
+    @Benchmark
+    public byte[] raw() throws IOException {
+        return serialize(times, values, size);
+    }
+
+    @Benchmark
+    public byte[] lttb() throws IOException {
+        System.arraycopy(times, 0, timesCopy, 0, size);
+        System.arraycopy(values, 0, valuesCopy, 0, size);
+        int count = LttbDownsampler.select(timesCopy, valuesCopy, size, maxPoints, selected);
+        LttbDownsampler.compact(timesCopy, selected, count);
+        LttbDownsampler.compact(valuesCopy, selected, count);
+        return serialize(timesCopy, valuesCopy, count);
+    }
+
+    private byte[] serialize(long[] times, double[] values, int count) throws IOException {
+        Double[] column = new Double[count];
+        for (int i = 0; i < count; i++) {
+            column[i] = Double.isNaN(values[i]) ? null : values[i];
+        }
+        SensorDataSeriesVO vo = new SensorDataSeriesVO();
+        vo.setDeviceId(new UUID(1, 1));
+        vo.setDeptId(1L);
+        vo.setMetricName("water_level");
+        vo.setIntervalMs(INTERVAL_MS);
+        vo.setSource("sensor_data");
+        vo.setDownsampled(count < size);
+        vo.setTimes(Arrays.copyOf(times, count));
+        vo.setValues(Map.of("avg", column));
+        return writer.writeValueAsBytes(Result.success(List.of(vo)));
+    }
+}
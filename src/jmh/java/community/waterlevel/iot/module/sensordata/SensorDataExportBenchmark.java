@@ -0,0 +1,106 @@
+package community.waterlevel.iot.module.sensordata;
+
+import community.waterlevel.iot.module.sensordata.export.SensorDataCsvWriter;
+import community.waterlevel.iot.module.sensordata.export.SensorDataExportWriter;
+import community.waterlevel.iot.module.sensordata.export.SensorDataXlsxWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to export {@code rows} sensor data rows, one shot per iteration.
+ *
+ * <p>Rows are generated in the order the export reads them: 100 devices, each in time
+ * order with two metrics every 10 seconds. They go through the production
+ * {@link SensorDataExportWriter}s into a stream that only counts bytes, so the score
+ * covers formatting and encoding but not the database cursor or the network. The fork
+ * runs with a 256 MB heap: a writer that accumulated rows would fail long before
+ * 10 million. Run with {@code -prof gc} for allocation per export.
+ *
+ * <p>XLSX exports of 10 million rows produce ten sheets and spill several GB to the
+ * temporary directory; use {@code -p format=CSV} for a quick run.
+ *
+ * <p>Run: {@code mvn -Pjmh test-compile exec:exec -Djmh.includes=SensorDataExportBenchmark}
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx256m")
+public class SensorDataExportBenchmark {
+
+    private static final int DEVICES = 100;
+    private static final String[] METRICS = {"water_level", "battery_voltage"};
+    private static final long START = 1_775_000_000_000L;
+    private static final long INTERVAL_MS = 10_000L;
+
+    @Param({"CSV", "XLSX"})
+    public String format;
+
+    @Param({"10000000"})
+    public int rows;
+
+    private String[] deviceIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        deviceIds = new String[DEVICES];
+        for (int i = 0; i < DEVICES; i++) {
+            deviceIds[i] = new UUID(i, i).toString();
+        }
+    }
+
+    @Benchmark
+    public long export() throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        SensorDataExportWriter writer = "XLSX".equals(format)
+                ? new SensorDataXlsxWriter(out, 1000)
+                : new SensorDataCsvWriter(out, 65_536);
+        int rowsPerDevice = (rows + DEVICES - 1) / DEVICES;
+        for (int r = 0; r < rows; r++) {
+            int device = r / rowsPerDevice;
+            int sample = r % rowsPerDevice;
+            long time = START + (sample / METRICS.length) * INTERVAL_MS;
+            writer.writeRow(time, device % 10 + 1, deviceIds[device], METRICS[sample % METRICS.length],
+                    1.5 + (r % 1000) * 0.001, r % 97 != 0, 0);
+        }
+        writer.finish();
+        return out.count;
+    }
+
+    /**
+     * Discards bytes, counting them.
+     */
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package community.waterlevel.iot.module.sensordata;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import community.waterlevel.iot.common.result.Result;
+import community.waterlevel.iot.config.WebMvcConfig;
+import community.waterlevel.iot.module.sensordata.export.SensorDataSeriesArrowWriter;
+import community.waterlevel.iot.module.sensordata.model.SeriesPlan;
+import community.waterlevel.iot.module.sensordata.model.enums.SensorDataAggregate;
+import community.waterlevel.iot.module.sensordata.model.enums.SensorDataRollup;
+import community.waterlevel.iot.module.sensordata.model.vo.SensorDataSeriesVO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of encoding a series response as JSON and as an Apache Arrow IPC stream.
+ *
+ * <p>Both variants start from the primitive columns the series query fills: the JSON
+ * variant boxes them into {@link SensorDataSeriesVO}s and serializes them with the
+ * object mapper configured by {@link WebMvcConfig}, as the JSON endpoint does; the Arrow
+ * variant feeds the points to {@link SensorDataSeriesArrowWriter}, as the Arrow endpoint
+ * does. Each series has {@code points} hourly buckets with avg and max.
+ *
+ * <p>Run: {@code mvn -Pjmh test-compile exec:exec -Djmh.includes=SensorDataSeriesFormatBenchmark}
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-opens=java.base/java.nio=ALL-UNNAMED")
+public class SensorDataSeriesFormatBenchmark {
+
+    private static final List<SensorDataAggregate> AGGREGATES =
+            List.of(SensorDataAggregate.AVG, SensorDataAggregate.MAX);
+    private static final long START = 1_767_225_600_000L;
+    private static final long HOUR = 3_600_000L;
+
+    @Param({"10", "50"})
+    public int series;
+
+    @Param({"10000"})
+    public int points;
+
+    private ObjectWriter writer;
+    private SeriesPlan plan;
+    private UUID[] deviceIds;
+    private List<String> deviceIdTexts;
+    private long[] times;
+    private double[][] values;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<HttpMessageConverter<?>> converters = new ArrayList<>();
+        converters.add(new StringHttpMessageConverter());
+        new WebMvcConfig().configureMessageConverters(converters);
+        ObjectMapper objectMapper = converters.stream()
+                .filter(MappingJackson2HttpMessageConverter.class::isInstance)
+                .map(c -> ((MappingJackson2HttpMessageConverter) c).getObjectMapper())
+                .findFirst()
+                .orElseThrow();
+        writer = objectMapper.writer();
+
+        plan = new SeriesPlan(START, START + points * HOUR, HOUR, SensorDataRollup.HOUR);
+        deviceIds = new UUID[series];
+        deviceIdTexts = new ArrayList<>(series);
+        for (int i = 0; i < series; i++) {
+            deviceIds[i] = new UUID(i, i);
+            deviceIdTexts.add(deviceIds[i].toString());
+        }
+        times = new long[points];
+        values = new double[AGGREGATES.size()][points];
+        for (int i = 0; i < points; i++) {
+            times[i] = START + i * HOUR;
+            double level = 1.2 + 0.4 * Math.sin(i / 24.0);
+            values[0][i] = i % 500 == 0 ? Double.NaN : level;
+            values[1][i] = i % 500 == 0 ? Double.NaN : level + 0.05;
+        }
+    }
+
+    @Benchmark
+    public byte[] json() throws IOException {
+        List<SensorDataSeriesVO> response = new ArrayList<>(series);
+        for (int s = 0; s < series; s++) {
+            Map<String, Double[]> columns = new LinkedHashMap<>();
+            for (int a = 0; a < AGGREGATES.size(); a++) {
+                Double[] column = new Double[points];
+                for (int i = 0; i < points; i++) {
+                    double value = values[a][i];
+                    column[i] = Double.isNaN(value) ? null : value;
+                }
+                columns.put(AGGREGATES.get(a).name().toLowerCase(), column);
+            }
+            SensorDataSeriesVO vo = new SensorDataSeriesVO();
+            vo.setDeviceId(deviceIds[s]);
+            vo.setDeptId((long) (s % 10 + 1));
+            vo.setMetricName("water_level");
+            vo.setIntervalMs(plan.getBucketMs());
+            vo.setSource(plan.getRollup().getRelation());
+            vo.setTimes(Arrays.copyOf(times, points));
+            vo.setValues(columns);
+            response.add(vo);
+        }
+        return writer.writeValueAsBytes(Result.success(response));
+    }
+
+    @Benchmark
+    public byte[] arrow() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        double[] point = new double[AGGREGATES.size()];
+        try (SensorDataSeriesArrowWriter arrowWriter = new SensorDataSeriesArrowWriter(out, plan, deviceIdTexts,
+                List.of("water_level"), AGGREGATES, 8192)) {
+            arrowWriter.start();
+            for (int s = 0; s < series; s++) {
+                String deviceId = deviceIdTexts.get(s);
+                for (int i = 0; i < points; i++) {
+                    for (int a = 0; a < point.length; a++) {
+                        point[a] = values[a][i];
+                    }
+                    arrowWriter.onPoint(deviceId, "water_level", times[i], point);
+                }
+            }
+            arrowWriter.finish();
+        }
+        return out.toByteArray();
+    }
+}
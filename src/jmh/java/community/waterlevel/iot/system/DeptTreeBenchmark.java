@@ -0,0 +1,85 @@
+package community.waterlevel.iot.system;
+
+import community.waterlevel.iot.system.model.vo.DeptVO;
+import community.waterlevel.iot.system.service.impl.DeptJpaServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of building the department tree returned by the department list and
+ * department option endpoints.
+ *
+ * <p>{@code DeptJpaServiceImpl.buildDeptTree} is private; it is called through a method
+ * handle, which the JIT inlines like a direct call. The flat list holds {@code deptCount}
+ * departments in a tree with fan-out 8, in id order as the repository returns them.
+ *
+ * <p>Run: {@code mvn -Pjmh test-compile exec:exec -Djmh.includes=DeptTreeBenchmark}
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DeptTreeBenchmark {
+
+    private static final int FAN_OUT = 8;
+    private static final MethodHandle BUILD_DEPT_TREE;
+
+    static {
+        try {
+            BUILD_DEPT_TREE = MethodHandles.privateLookupIn(DeptJpaServiceImpl.class, MethodHandles.lookup())
+                    .findVirtual(DeptJpaServiceImpl.class, "buildDeptTree", MethodType.methodType(List.class, List.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @Param({"1000", "10000"})
+    public int deptCount;
+
+    private DeptJpaServiceImpl service;
+    private List<DeptVO> depts;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        service = new DeptJpaServiceImpl(null, null);
+        depts = new ArrayList<>(deptCount);
+        for (long id = 1; id <= deptCount; id++) {
+            DeptVO dept = new DeptVO();
+            dept.setId(id);
+            dept.setParentId(id == 1 ? 0L : (id - 2) / FAN_OUT + 1);
+            dept.setName("Community " + id);
+            dept.setCode("C" + id);
+            dept.setSort((int) id);
+            dept.setStatus(1);
+            depts.add(dept);
+        }
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public List<DeptVO> buildDeptTree() throws Throwable {
+        return (List<DeptVO>) BUILD_DEPT_TREE.invokeExact(service, depts);
+    }
+}
@@ -1,8 +1,10 @@
 package community.waterlevel.iot.config;
 
 import cn.hutool.core.util.StrUtil;
+import community.waterlevel.iot.core.aspect.DataPermissionFilterFactory;
 import community.waterlevel.iot.core.security.model.SysUserDetails;
 import community.waterlevel.iot.core.security.token.TokenManager;
+import community.waterlevel.iot.shared.websocket.cluster.RedisStompRelay;
 import community.waterlevel.iot.system.service.WebSocketService;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
@@ -18,19 +20,28 @@ import org.springframework.messaging.simp.stomp.StompCommand;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextImpl;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
 
+import java.util.Set;
+
 /**
  * Configuration class for WebSocket message broker.
  * Sets up STOMP endpoints, message broker prefixes, and client inbound channel interceptors
  * for authentication, user binding, and connection lifecycle management.
  * Integrates JWT-based authentication and user session tracking for secure real-time communication.
+ * Subscriptions to community topics ({@code /topic/community/{deptId}/...}) are limited to
+ * the subscriber's data scope. Broker messages are relayed to the other nodes by
+ * {@link RedisStompRelay} when {@code websocket.cluster.enabled} is set.
  *
  * @author Ray.Hao
  * @since 3.0.0
@@ -43,18 +54,27 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
 @Slf4j
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+  private static final String COMMUNITY_TOPIC_PREFIX = "/topic/community/";
+
   private final TokenManager tokenManager;
   private final WebSocketService webSocketService;
+  private final DataPermissionFilterFactory dataPermissionFilterFactory;
+  private final RedisStompRelay redisStompRelay;
 
   /**
    * Constructs the WebSocketConfig with required dependencies.
    *
    * @param tokenManager     the token manager for JWT authentication
    * @param webSocketService the WebSocket service for user connection management
+   * @param dataPermissionFilterFactory the data scope of community topic subscribers
+   * @param redisStompRelay  the relay of broker messages to the other nodes
    */
-  public WebSocketConfig(TokenManager tokenManager, @Lazy WebSocketService webSocketService) {
+  public WebSocketConfig(TokenManager tokenManager, @Lazy WebSocketService webSocketService,
+      @Lazy DataPermissionFilterFactory dataPermissionFilterFactory, RedisStompRelay redisStompRelay) {
     this.tokenManager = tokenManager;
     this.webSocketService = webSocketService;
+    this.dataPermissionFilterFactory = dataPermissionFilterFactory;
+    this.redisStompRelay = redisStompRelay;
   }
 
   /**
@@ -87,6 +107,19 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     registry.setUserDestinationPrefix("/user");
   }
 
+  /**
+   * Configures the broker channel interceptors.
+   * <p>
+   * Registers the {@link RedisStompRelay}, which forwards {@code /topic} and
+   * {@code /user} messages to the nodes with matching subscribers or sessions.
+   *
+   * @param registration the {@link ChannelRegistration} to configure
+   */
+  @Override
+  public void configureBrokerChannel(ChannelRegistration registration) {
+    registration.interceptors(redisStompRelay);
+  }
+
   /**
    * Configures the client inbound channel interceptor for WebSocket connections.
    * <p>
@@ -94,6 +127,7 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
    * <ul>
    * <li>Parses and validates JWT tokens on connection establishment, binding user
    * identity to the session.</li>
+   * <li>Rejects subscriptions to community topics outside the user's data scope.</li>
    * <li>Triggers user offline notification on connection close.</li>
    * <li>Handles invalid or missing tokens defensively.</li>
    * </ul>
@@ -153,6 +187,10 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
             webSocketService.userConnected(username, accessor.getSessionId());
 
           }
+          // Handle subscription request: community topics only within the data scope
+          else if (StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
+            checkCommunitySubscription((Authentication) accessor.getUser(), accessor.getDestination());
+          }
           // Handle client disconnect request
           else if (StompCommand.DISCONNECT.equals(accessor.getCommand())) {
             // Only trigger offline event for successfully authenticated connections
@@ -170,6 +208,9 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
           // Force close connection on authentication failure
           log.error("Connection authentication failed: {}", ex.getMessage());
           throw ex;
+        } catch (AccessDeniedException ex) {
+          log.warn("Subscription rejected: {}", ex.getMessage());
+          throw ex;
         } catch (Exception ex) {
           // Catch all other unknown exceptions
           log.error("WebSocket connection processing error:", ex);
@@ -180,4 +221,45 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
       }
     });
   }
+
+  /**
+   * Verifies that the community of a {@code /topic/community/{deptId}/...} subscription is
+   * within the subscriber's data scope. Pattern subscriptions, which the simple broker
+   * would match against every community, are rejected; other destinations are not checked.
+   *
+   * @param authentication the subscriber bound on CONNECT
+   * @param destination    the subscription destination
+   */
+  private void checkCommunitySubscription(Authentication authentication, String destination) {
+    if (destination != null && (destination.indexOf('*') >= 0 || destination.indexOf('?') >= 0
+        || destination.indexOf('{') >= 0)) {
+      throw new AccessDeniedException("Pattern subscription " + destination + " is not allowed");
+    }
+    if (destination == null || !destination.startsWith(COMMUNITY_TOPIC_PREFIX)) {
+      return;
+    }
+    if (authentication == null) {
+      throw new AuthenticationCredentialsNotFoundException("Subscription without authenticated user");
+    }
+    int end = destination.indexOf('/', COMMUNITY_TOPIC_PREFIX.length());
+    long deptId;
+    try {
+      deptId = Long.parseLong(destination.substring(COMMUNITY_TOPIC_PREFIX.length(),
+          end < 0 ? destination.length() : end));
+    } catch (NumberFormatException e) {
+      throw new AccessDeniedException("Invalid community topic " + destination);
+    }
+    // The data scope is resolved from the security context, which STOMP frames do not carry
+    SecurityContext previous = SecurityContextHolder.getContext();
+    SecurityContextHolder.setContext(new SecurityContextImpl(authentication));
+    try {
+      Set<Long> permitted = dataPermissionFilterFactory.getPermittedDeptIds();
+      if (permitted != null && !permitted.contains(deptId)) {
+        throw new AccessDeniedException("Community " + deptId + " is outside the data scope of "
+            + authentication.getName());
+      }
+    } finally {
+      SecurityContextHolder.setContext(previous);
+    }
+  }
 }
\ No newline at end of file
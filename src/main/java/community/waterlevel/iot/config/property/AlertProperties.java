@@ -0,0 +1,88 @@
+package community.waterlevel.iot.config.property;
+
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Configuration properties for threshold alerts.
+ * Maps settings from the application configuration (prefix "alert"), including the
+ * evaluation engine reading the ingestion ring buffer and the persistence of alert
+ * state changes.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Data
+@Component
+@Validated
+@ConfigurationProperties(prefix = "alert")
+public class AlertProperties {
+
+    /**
+     * Whether ingested samples are evaluated against alert rules.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Evaluation engine configuration.
+     */
+    private EngineConfig engine = new EngineConfig();
+
+    /**
+     * Persistence configuration.
+     */
+    private PersisterConfig persister = new PersisterConfig();
+
+    /**
+     * Evaluation engine configuration nested class.
+     */
+    @Data
+    public static class EngineConfig {
+        /**
+         * Samples taken from the ring buffer at a time.
+         */
+        @Min(1)
+        private int batchSize = 1024;
+
+        /**
+         * Initial number of (device, rule) state slots; grown on demand.
+         */
+        @Min(16)
+        private int initialSlots = 4096;
+    }
+
+    /**
+     * Persistence configuration nested class.
+     */
+    @Data
+    public static class PersisterConfig {
+        /**
+         * Maximum number of alert state changes waiting to be written. Further changes
+         * are dropped and counted while the database is unavailable.
+         */
+        @Min(1)
+        private int queueCapacity = 10_000;
+
+        /**
+         * Alert state changes written per transaction.
+         */
+        @Min(1)
+        private int batchSize = 500;
+
+        /**
+         * Delay (in milliseconds) before a failed batch is written again; doubled after
+         * every further failure up to {@link #maxRetryBackoffMs}.
+         */
+        @Min(1)
+        private long retryBackoffMs = 1000;
+
+        /**
+         * Upper bound (in milliseconds) of the delay between attempts to write a failed batch.
+         */
+        @Min(1)
+        private long maxRetryBackoffMs = 30_000;
+    }
+}
@@ -0,0 +1,74 @@
+package community.waterlevel.iot.config.property;
+
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Configuration properties for IoT device management.
+ * Maps device-related settings from the application configuration (prefix "device").
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Data
+@Component
+@Validated
+@ConfigurationProperties(prefix = "device")
+public class DeviceProperties {
+
+    /**
+     * Last-seen tracking configuration.
+     */
+    private LastSeenConfig lastSeen = new LastSeenConfig();
+
+    /**
+     * Live reading push configuration.
+     */
+    private LiveConfig live = new LiveConfig();
+
+    /**
+     * Last-seen tracking configuration nested class.
+     */
+    @Data
+    public static class LastSeenConfig {
+        /**
+         * Interval (in milliseconds) between flushes of coalesced last-seen timestamps.
+         */
+        @Min(100)
+        private long flushIntervalMs = 5000;
+
+        /**
+         * Maximum number of devices updated by a single UPDATE statement.
+         */
+        @Min(1)
+        private int batchSize = 1000;
+    }
+
+    /**
+     * Live reading push configuration nested class.
+     */
+    @Data
+    public static class LiveConfig {
+        /**
+         * Whether changed readings are pushed to {@code /topic/community/{deptId}/readings}.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Interval (in milliseconds) over which reading changes are coalesced; each
+         * subscribed community gets at most one frame per interval.
+         */
+        @Min(100)
+        private long intervalMs = 1000;
+
+        /**
+         * Maximum number of devices per frame; larger batches are split so that a frame
+         * stays within the WebSocket send buffer of a session.
+         */
+        @Min(1)
+        private int maxDevicesPerFrame = 1000;
+    }
+}
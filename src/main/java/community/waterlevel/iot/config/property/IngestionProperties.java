@@ -0,0 +1,572 @@
+package community.waterlevel.iot.config.property;
+
+import community.waterlevel.iot.module.ingestion.model.enums.AnomalyMethod;
+import community.waterlevel.iot.module.ingestion.model.enums.BackpressurePolicy;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+import java.util.List;
+
+/**
+ * Configuration properties for the telemetry ingestion pipeline.
+ * Maps ingestion-related settings from the application configuration (prefix "ingestion"),
+ * including the MQTT subscriber connection, the sensor_data batch writer tuning and
+ * the latest-value persistence.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Data
+@Component
+@Validated
+@ConfigurationProperties(prefix = "ingestion")
+public class IngestionProperties {
+
+    /**
+     * Whether the MQTT telemetry subscriber is started.
+     * <p>
+     * Default: false
+     * </p>
+     */
+    private boolean enabled = false;
+
+    /**
+     * MQTT subscriber configuration.
+     */
+    private MqttConfig mqtt = new MqttConfig();
+
+    /**
+     * Ring buffer between the decoding stage and its readers.
+     */
+    private RingConfig ring = new RingConfig();
+
+    /**
+     * sensor_data writer configuration.
+     */
+    private WriterConfig writer = new WriterConfig();
+
+    /**
+     * Latest-value store persistence configuration.
+     */
+    private LatestConfig latest = new LatestConfig();
+
+    /**
+     * Sparkplug session state configuration.
+     */
+    private SparkplugConfig sparkplug = new SparkplugConfig();
+
+    /**
+     * Duplicate-sample suppression configuration.
+     */
+    private DedupConfig dedup = new DedupConfig();
+
+    /**
+     * Per-device reordering configuration.
+     */
+    private ReorderConfig reorder = new ReorderConfig();
+
+    /**
+     * Late-sample backfill writer configuration.
+     */
+    private BackfillConfig backfill = new BackfillConfig();
+
+    /**
+     * Non-numeric value writer configuration.
+     */
+    private TextConfig text = new TextConfig();
+
+    /**
+     * Pipeline latency instrumentation configuration.
+     */
+    private LatencyConfig latency = new LatencyConfig();
+
+    /**
+     * Per-series sliding-window statistics configuration.
+     */
+    private WindowConfig windows = new WindowConfig();
+
+    /**
+     * Online anomaly detection configuration.
+     */
+    private AnomalyConfig anomaly = new AnomalyConfig();
+
+    /**
+     * MQTT subscriber configuration nested class.
+     */
+    @Data
+    public static class MqttConfig {
+        /**
+         * Broker URL.
+         * <p>
+         * Example: {@code tcp://localhost:1883}
+         * </p>
+         */
+        @NotBlank
+        private String url = "tcp://localhost:1883";
+
+        /**
+         * Broker username (optional).
+         */
+        private String username;
+
+        /**
+         * Broker password (optional).
+         */
+        private String password;
+
+        /**
+         * Client identifier prefix; a random suffix is appended per instance.
+         */
+        @NotBlank
+        private String clientIdPrefix = "cwl-iot-ingest-";
+
+        /**
+         * Topic filter matching every device telemetry topic minted by
+         * {@code EmqxService}.
+         */
+        @NotBlank
+        private String topicFilter = "tenants/+/devices/+/telemetry/#";
+
+        /**
+         * EMQX shared subscription group (optional). When set, every instance subscribes
+         * to {@code $share/{sharedGroup}/{topicFilter}} and the broker spreads messages
+         * across the instances of the group. Configure the broker with
+         * {@code shared_subscription_strategy = hash_clientid} so that all messages of an
+         * edge node reach the same instance, which keeps per-node ordering and Sparkplug
+         * session state intact.
+         */
+        private String sharedGroup;
+
+        /**
+         * Number of ingestion worker threads. Messages are assigned to a worker by a hash
+         * of {@code deptId/nodeId}, so each node is processed in order by one thread.
+         * 0 processes messages inline on the MQTT callback thread.
+         */
+        @Min(0)
+        private int partitions = 4;
+
+        /**
+         * Capacity of each worker's queue; the MQTT callback blocks when it is full.
+         */
+        @Min(1)
+        private int partitionQueueCapacity = 8192;
+
+        /**
+         * Subscription QoS.
+         */
+        @Min(0)
+        private int qos = 1;
+
+        /**
+         * Keep-alive interval (in seconds).
+         */
+        @Min(1)
+        private int keepAliveSeconds = 30;
+
+        /**
+         * Maximum number of in-flight messages for the client.
+         */
+        @Min(1)
+        private int maxInflight = 1000;
+    }
+
+    /**
+     * Ring buffer configuration nested class.
+     */
+    @Data
+    public static class RingConfig {
+        /**
+         * Number of pre-allocated slots; rounded up to a power of two, at most 2^30.
+         */
+        @Min(2)
+        @Max(1 << 30)
+        private int capacity = 65536;
+
+        /**
+         * Policy applied when the ring is full.
+         * <p>
+         * Options: BLOCK, DROP_OLDEST, SPILL
+         * </p>
+         */
+        @NotNull
+        private BackpressurePolicy backpressure = BackpressurePolicy.SPILL;
+
+        /**
+         * Maximum time (in milliseconds) a producer waits for a free slot under
+         * {@code BLOCK} before dropping the sample.
+         */
+        @Min(0)
+        private long blockTimeoutMs = 1000;
+
+        /**
+         * Maximum number of samples held in the spill queue under {@code SPILL};
+         * further overflow is dropped.
+         */
+        @Min(0)
+        private int spillCapacity = 1_000_000;
+    }
+
+    /**
+     * sensor_data writer configuration nested class.
+     */
+    @Data
+    public static class WriterConfig {
+        /**
+         * Initial number of rows per COPY flush; adapted at runtime between
+         * {@code minBatchSize} and {@code maxBatchSize}.
+         */
+        @Min(1)
+        private int batchSize = 2000;
+
+        /**
+         * Lower bound for the adaptive batch size.
+         */
+        @Min(1)
+        private int minBatchSize = 200;
+
+        /**
+         * Upper bound for the adaptive batch size.
+         */
+        @Min(1)
+        private int maxBatchSize = 20000;
+
+        /**
+         * Flush latency (in milliseconds) the adaptive batch size aims for. Batches
+         * shrink when a flush takes longer and grow while flushes stay well below it.
+         */
+        @Min(1)
+        private long targetFlushLatencyMs = 100;
+
+        /**
+         * Maximum time (in milliseconds) a row waits in the queue before being flushed.
+         */
+        @Min(1)
+        private long maxLatencyMs = 200;
+
+        /**
+         * Whether batches are copied straight into {@code sensor_data}. A batch that hits
+         * a primary key conflict is retried through the staging table with
+         * {@code ON CONFLICT DO NOTHING}. Meant to be used with {@code ingestion.dedup}.
+         */
+        private boolean directCopy = true;
+
+        /**
+         * Delay (in milliseconds) before a failed batch is written again; doubled after
+         * every further failure up to {@link #maxRetryBackoffMs}. Also used by the
+         * backfill and text writers.
+         */
+        @Min(1)
+        private long retryBackoffMs = 500;
+
+        /**
+         * Upper bound (in milliseconds) of the delay between attempts to write a failed batch.
+         */
+        @Min(1)
+        private long maxRetryBackoffMs = 30_000;
+    }
+
+    /**
+     * Latest-value store persistence configuration nested class.
+     */
+    @Data
+    public static class LatestConfig {
+        /**
+         * Interval (in milliseconds) between upserts of changed values into
+         * {@code sensor_latest}.
+         */
+        @Min(100)
+        private long flushIntervalMs = 10_000;
+
+        /**
+         * Maximum number of rows per upsert statement.
+         */
+        @Min(1)
+        private int batchSize = 500;
+    }
+
+    /**
+     * Sparkplug session state configuration nested class.
+     */
+    @Data
+    public static class SparkplugConfig {
+        /**
+         * Whether a {@code Node Control/Rebirth} command is sent to nodes whose alias
+         * state is missing.
+         */
+        private boolean rebirthEnabled = true;
+
+        /**
+         * Minimum interval (in milliseconds) between two rebirth commands to the same node.
+         */
+        @Min(0)
+        private long rebirthIntervalMs = 30_000;
+    }
+
+    /**
+     * Duplicate-sample suppression configuration nested class.
+     */
+    @Data
+    public static class DedupConfig {
+        /**
+         * Whether duplicate samples are dropped before they reach the writer.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Time (in milliseconds) a sample is remembered; the Bloom filter rotates every
+         * half window so each sample stays visible for at least half and at most a
+         * full window.
+         */
+        @Min(1000)
+        private long windowMs = 600_000;
+
+        /**
+         * Expected number of samples per half window; sizes each Bloom filter generation.
+         * A generation that fills up earlier is rotated early, shortening the window.
+         */
+        @Min(1)
+        private int expectedInsertions = 2_000_000;
+
+        /**
+         * Target false positive rate of each Bloom filter generation. A false positive
+         * drops a late (out-of-order) sample, never an in-order one.
+         */
+        @DecimalMin("0.0000001")
+        @DecimalMax("0.1")
+        private double falsePositiveRate = 0.0001;
+    }
+
+    /**
+     * Pipeline latency instrumentation configuration nested class.
+     */
+    @Data
+    public static class LatencyConfig {
+        /**
+         * Whether per-stage latency histograms are recorded.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Length (in milliseconds) of the window over which the published percentiles
+         * are computed.
+         */
+        @Min(1000)
+        private long intervalMs = 10_000;
+
+        /**
+         * Maximum number of communities with their own histograms; samples of further
+         * communities are recorded under {@code community="other"}.
+         */
+        @Min(1)
+        private int maxCommunities = 1000;
+    }
+
+    /**
+     * Per-device reordering configuration nested class.
+     */
+    @Data
+    public static class ReorderConfig {
+        /**
+         * Whether samples are reordered per device before reaching the writer. When
+         * disabled, samples are passed through in arrival order.
+         */
+        private boolean enabled = true;
+
+        /**
+         * How far (in milliseconds) behind the newest sample of a device a sample may
+         * arrive and still be released in order. Samples are held back by this much;
+         * older samples go to the backfill writer. A device that sends nothing for this
+         * long has all its held samples released.
+         */
+        @Min(0)
+        private long watermarkMs = 2000;
+
+        /**
+         * Maximum number of samples held per device; beyond it the oldest are released
+         * early.
+         */
+        @Min(1)
+        private int maxPendingPerDevice = 4096;
+    }
+
+    /**
+     * Late-sample backfill writer configuration nested class.
+     */
+    @Data
+    public static class BackfillConfig {
+        /**
+         * Chunk interval (in milliseconds) of the {@code sensor_data} hypertable; must
+         * match its {@code chunk_time_interval} (TimescaleDB default: 7 days). Each
+         * backfill transaction only touches one chunk.
+         */
+        @Min(60_000)
+        private long chunkIntervalMs = 604_800_000L;
+
+        /**
+         * Maximum number of late samples written per flush.
+         */
+        @Min(1)
+        private int batchSize = 10_000;
+
+        /**
+         * Time (in milliseconds) late samples are collected before a flush.
+         */
+        @Min(1)
+        private long flushIntervalMs = 5000;
+
+        /**
+         * Maximum number of late samples queued for the backfill writer; further
+         * samples are dropped.
+         */
+        @Min(1)
+        private int queueCapacity = 500_000;
+    }
+
+    /**
+     * Non-numeric value writer configuration nested class.
+     */
+    @Data
+    public static class TextConfig {
+        /**
+         * Whether String metric values are stored in {@code sensor_data_text}; otherwise
+         * only the {@code sensor_data} row (with a null value) is kept.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Maximum number of values written per flush.
+         */
+        @Min(1)
+        private int batchSize = 1000;
+
+        /**
+         * Time (in milliseconds) values are collected before a flush.
+         */
+        @Min(1)
+        private long flushIntervalMs = 1000;
+
+        /**
+         * Maximum number of values queued for the writer; further values are dropped.
+         */
+        @Min(1)
+        private int queueCapacity = 100_000;
+
+        /**
+         * Maximum stored length of a value in characters; longer values are truncated.
+         */
+        @Min(1)
+        private int maxLength = 4096;
+    }
+
+    /**
+     * Per-series sliding-window statistics configuration nested class.
+     */
+    @Data
+    public static class WindowConfig {
+        /**
+         * Whether sliding-window statistics are maintained. They are computed on the alert
+         * engine thread, so {@code alert.enabled} must be true as well; startup fails otherwise.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Metric names whose series get sliding windows.
+         */
+        @NotEmpty
+        private List<String> metrics = List.of("water_level");
+
+        /**
+         * Window lengths in seconds; every series gets one window per length.
+         */
+        @NotEmpty
+        private List<@Min(1) Integer> windowSeconds = List.of(600, 3600);
+
+        /**
+         * Samples a window must hold before its rate of change is reported.
+         */
+        @Min(2)
+        private int minSamples = 3;
+
+        /**
+         * Maximum samples held per window; older samples are evicted early beyond it.
+         */
+        @Min(16)
+        private int maxSamples = 4096;
+    }
+
+    /**
+     * Online anomaly detection configuration nested class.
+     */
+    @Data
+    public static class AnomalyConfig {
+        /**
+         * Whether numeric samples are scored and their quality downgraded when anomalous.
+         * Off by default until the thresholds are tuned on the deployment's data.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Baseline the samples are scored against.
+         */
+        @NotNull
+        private AnomalyMethod method = AnomalyMethod.EWMA;
+
+        /**
+         * Metric names whose series are scored.
+         */
+        @NotEmpty
+        private List<String> metrics = List.of("water_level");
+
+        /**
+         * Smoothing factor of the baseline: the weight of the newest sample (EWMA), or
+         * the step size in deviation units (ROBUST). Larger values follow genuine level
+         * changes faster.
+         */
+        @DecimalMin("0.001")
+        @DecimalMax("1.0")
+        private double alpha = 0.05;
+
+        /**
+         * Samples used to seed the baseline of a series before it is scored.
+         */
+        @Min(1)
+        private int warmupSamples = 30;
+
+        /**
+         * Score (deviations from the baseline) from which a sample is marked Uncertain.
+         */
+        @DecimalMin("1.0")
+        private double uncertainScore = 4.0;
+
+        /**
+         * Score from which an anomaly is reported as severe; not lower than the uncertain
+         * score. The sample is still stored as Uncertain, never Bad, so that it keeps
+         * feeding the sliding windows and alert rules.
+         */
+        @DecimalMin("1.0")
+        private double severeScore = 8.0;
+
+        /**
+         * Lower bound of the deviation (in metric units), so that the small steps of a
+         * flat series are not scored as anomalies.
+         */
+        @DecimalMin("0.0")
+        private double minDeviation = 0.5;
+
+        /**
+         * Maximum number of anomaly events waiting to be published; further events are
+         * dropped and counted.
+         */
+        @Min(1)
+        private int eventQueueCapacity = 1000;
+    }
+}
@@ -0,0 +1,117 @@
+package community.waterlevel.iot.config.property;
+
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Configuration properties for sensor data queries.
+ * Maps settings from the application configuration (prefix "sensor-data"), including
+ * the continuous aggregate (rollup) routing, the limits of series queries and the
+ * streaming export.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Data
+@Component
+@Validated
+@ConfigurationProperties(prefix = "sensor-data")
+public class SensorDataProperties {
+
+    /**
+     * Continuous aggregate configuration.
+     */
+    private RollupConfig rollup = new RollupConfig();
+
+    /**
+     * Series query configuration.
+     */
+    private SeriesConfig series = new SeriesConfig();
+
+    /**
+     * Export configuration.
+     */
+    private ExportConfig export = new ExportConfig();
+
+    /**
+     * Continuous aggregate configuration nested class.
+     */
+    @Data
+    public static class RollupConfig {
+        /**
+         * Whether queries are routed to the sensor_data_1m/1h/1d continuous aggregates.
+         * Rollups missing from the database are skipped regardless.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Interval (in milliseconds) between refreshes of rollup ranges touched by
+         * backfilled late samples.
+         */
+        @Min(1000)
+        private long refreshIntervalMs = 60_000;
+    }
+
+    /**
+     * Series query configuration nested class.
+     */
+    @Data
+    public static class SeriesConfig {
+        /**
+         * Number of points a series is bucketed into when no interval is requested.
+         */
+        @Min(1)
+        private int defaultPoints = 1000;
+
+        /**
+         * Maximum number of points per series; finer requested intervals are widened.
+         */
+        @Min(1)
+        private int maxPoints = 10_000;
+
+        /**
+         * Maximum number of device/metric series per request.
+         */
+        @Min(1)
+        private int maxSeries = 50;
+
+        /**
+         * JDBC fetch size; rows are streamed from the database in chunks of this size.
+         */
+        @Min(1)
+        private int fetchSize = 2000;
+
+        /**
+         * Rows per record batch of Arrow responses.
+         */
+        @Min(1)
+        private int arrowBatchSize = 8192;
+    }
+
+    /**
+     * Export configuration nested class.
+     */
+    @Data
+    public static class ExportConfig {
+        /**
+         * JDBC fetch size of the export cursor; at most this many rows are held in memory.
+         */
+        @Min(1)
+        private int fetchSize = 10_000;
+
+        /**
+         * Size of the CSV write buffer in bytes.
+         */
+        @Min(1024)
+        private int bufferSize = 65_536;
+
+        /**
+         * Rows handed to the XLSX writer at a time.
+         */
+        @Min(1)
+        private int xlsxBatchSize = 1000;
+    }
+}
@@ -0,0 +1,97 @@
+package community.waterlevel.iot.config.property;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Configuration properties for running the STOMP endpoint on several nodes.
+ * Maps settings from the application configuration (prefix "websocket.cluster"),
+ * including the Redis relay of broker messages and the cluster-wide presence.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Data
+@Component
+@Validated
+@ConfigurationProperties(prefix = "websocket.cluster")
+public class WebSocketClusterProperties {
+
+    /**
+     * Whether {@code /topic} and {@code /user} messages are relayed to the other nodes
+     * through Redis and presence is shared. Leave disabled on a single node.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Prefix of the Redis channels and keys used by the cluster.
+     */
+    @NotBlank
+    private String keyPrefix = "cwl:ws:";
+
+    /**
+     * Relay configuration.
+     */
+    private RelayConfig relay = new RelayConfig();
+
+    /**
+     * Presence configuration.
+     */
+    private PresenceConfig presence = new PresenceConfig();
+
+    /**
+     * Relay configuration nested class.
+     */
+    @Data
+    public static class RelayConfig {
+        /**
+         * Maximum number of messages per published batch.
+         */
+        @Min(1)
+        private int batchSize = 256;
+
+        /**
+         * Maximum payload bytes per published batch; a single larger message is sent alone.
+         */
+        @Min(1024)
+        private int maxBatchBytes = 512 * 1024;
+
+        /**
+         * Maximum number of messages waiting to be relayed; further messages are only
+         * delivered locally.
+         */
+        @Min(1)
+        private int queueCapacity = 65536;
+    }
+
+    /**
+     * Presence configuration nested class.
+     */
+    @Data
+    public static class PresenceConfig {
+        /**
+         * Interval (in milliseconds) at which a node republishes its users and
+         * subscriptions and reads those of the other nodes.
+         */
+        @Min(1000)
+        private long heartbeatIntervalMs = 10_000;
+
+        /**
+         * Time (in milliseconds) after its last heartbeat a node is considered gone;
+         * should be a few heartbeat intervals.
+         */
+        @Min(2000)
+        private long ttlMs = 30_000;
+
+        /**
+         * Delay (in milliseconds) between a local connect, disconnect or subscription
+         * change and its publication; changes within the delay are published together.
+         */
+        @Min(10)
+        private long syncDelayMs = 100;
+    }
+}
@@ -13,8 +13,13 @@ import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Factory class for creating data permission filters based on different data scopes.
@@ -29,8 +34,15 @@ import java.util.Optional;
 @Slf4j
 public class DataPermissionFilterFactory {
 
+    /**
+     * How long resolved sub-department lists are reused by {@link #getPermittedDeptIds()}.
+     */
+    private static final long DEPT_CACHE_TTL_MILLIS = 30_000;
+
     private final DeptJpaRepository deptJpaRepository;
 
+    private final Map<Long, CachedDeptIds> subDeptCache = new ConcurrentHashMap<>();
+
     /**
      * Creates data permission filter predicate based on the given data scope and permission configuration
      *
@@ -83,6 +95,47 @@ public class DataPermissionFilterFactory {
         }
     }
 
+    /**
+     * Resolves the departments whose data the current user may read. Intended for
+     * queries that do not go through JPA specifications, such as plain JDBC queries
+     * and in-memory stores keyed by community.
+     *
+     * <p>Sensor data has no owning user, so the SELF scope is treated like DEPT.
+     * Sub-department lists are cached for {@link #DEPT_CACHE_TTL_MILLIS} so that
+     * the check does not hit the database on every request.
+     *
+     * @return the permitted department ids, or null when access is unrestricted
+     */
+    public Set<Long> getPermittedDeptIds() {
+        if (SecurityUtils.isRoot()) {
+            return null;
+        }
+        Long currentUserId = SecurityUtils.getUserId();
+        Long currentUserDeptId = SecurityUtils.getDeptId();
+        if (currentUserId == null && currentUserDeptId == null) {
+            // Same behaviour as createDataPermissionFilter without a user context
+            return null;
+        }
+        Integer dataScope = SecurityUtils.getDataScope();
+        if (dataScope != null && dataScope == 1) {
+            return null;
+        }
+        if (currentUserDeptId == null) {
+            return Collections.emptySet();
+        }
+        if (dataScope != null && dataScope == 2) {
+            long now = System.currentTimeMillis();
+            CachedDeptIds cached = subDeptCache.get(currentUserDeptId);
+            if (cached == null || cached.expiresAt < now) {
+                cached = new CachedDeptIds(Collections.unmodifiableSet(
+                        new LinkedHashSet<>(getDeptAndSubDeptIds(currentUserDeptId))), now + DEPT_CACHE_TTL_MILLIS);
+                subDeptCache.put(currentUserDeptId, cached);
+            }
+            return cached.deptIds;
+        }
+        return Collections.singleton(currentUserDeptId);
+    }
+
     /**
      * Creates filter for department and sub-department data access
      */
@@ -203,4 +256,17 @@ public class DataPermissionFilterFactory {
         
         return deptIds;
     }
-}
\ No newline at end of file
+
+    /**
+     * Sub-department list with its expiry time.
+     */
+    private static final class CachedDeptIds {
+        private final Set<Long> deptIds;
+        private final long expiresAt;
+
+        private CachedDeptIds(Set<Long> deptIds, long expiresAt) {
+            this.deptIds = deptIds;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
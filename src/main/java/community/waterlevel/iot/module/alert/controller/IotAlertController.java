@@ -0,0 +1,114 @@
+package community.waterlevel.iot.module.alert.controller;
+
+import community.waterlevel.iot.common.annotation.Log;
+import community.waterlevel.iot.common.enums.LogModuleEnum;
+import community.waterlevel.iot.common.result.Result;
+import community.waterlevel.iot.module.alert.model.form.IotAlertRuleForm;
+import community.waterlevel.iot.module.alert.model.query.IotAlertQuery;
+import community.waterlevel.iot.module.alert.model.vo.IotAlertRuleVO;
+import community.waterlevel.iot.module.alert.model.vo.IotAlertVO;
+import community.waterlevel.iot.module.alert.service.IotAlertService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * IotAlertController is a REST controller for threshold alert rules and the alerts they
+ * raise.
+ * <p>
+ * Rules are evaluated against every ingested sample; alert state changes are also
+ * pushed to {@code /topic/community/{deptId}/alerts}. Reads are limited to the caller's
+ * data scope and are not audited with {@code @Log} because dashboards poll them.
+ * </p>
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Tag(name = "13.Alert Controller")
+@RestController
+@RequestMapping("/api/v1/alerts")
+@RequiredArgsConstructor
+public class IotAlertController {
+
+    private final IotAlertService iotAlertService;
+
+    /**
+     * Lists alerts, newest first.
+     *
+     * @param query the department, device, open/cleared filter and limit
+     * @return Result containing the alerts
+     */
+    @Operation(summary = "Lists alerts")
+    @GetMapping
+    public Result<List<IotAlertVO>> listAlerts(@Valid IotAlertQuery query) {
+        return Result.success(iotAlertService.listAlerts(query));
+    }
+
+    /**
+     * Lists alert rules.
+     *
+     * @param deptId the department, or all permitted departments when omitted
+     * @return Result containing the rules
+     */
+    @Operation(summary = "Lists alert rules")
+    @GetMapping("/rules")
+    public Result<List<IotAlertRuleVO>> listRules(
+            @Parameter(description = "Department ID") @RequestParam(required = false) Long deptId) {
+        return Result.success(iotAlertService.listRules(deptId));
+    }
+
+    /**
+     * Creates an alert rule.
+     *
+     * @param form the rule
+     * @return Result containing the created rule
+     */
+    @Operation(summary = "Creates an alert rule")
+    @PostMapping("/rules")
+    @Log(value = "Create alert rule", module = LogModuleEnum.OTHER)
+    public Result<IotAlertRuleVO> createRule(@Valid @RequestBody IotAlertRuleForm form) {
+        return Result.success(iotAlertService.createRule(form));
+    }
+
+    /**
+     * Replaces an alert rule.
+     *
+     * @param id   the rule ID
+     * @param form the rule
+     * @return Result containing the updated rule
+     */
+    @Operation(summary = "Updates an alert rule")
+    @PutMapping("/rules/{id}")
+    @Log(value = "Update alert rule", module = LogModuleEnum.OTHER)
+    public Result<IotAlertRuleVO> updateRule(@Parameter(description = "Rule ID") @PathVariable Long id,
+                                             @Valid @RequestBody IotAlertRuleForm form) {
+        return Result.success(iotAlertService.updateRule(id, form));
+    }
+
+    /**
+     * Deletes an alert rule; its open alerts are cleared.
+     *
+     * @param id the rule ID
+     * @return Result indicating success
+     */
+    @Operation(summary = "Deletes an alert rule")
+    @DeleteMapping("/rules/{id}")
+    @Log(value = "Delete alert rule", module = LogModuleEnum.OTHER)
+    public Result<Void> deleteRule(@Parameter(description = "Rule ID") @PathVariable Long id) {
+        iotAlertService.deleteRule(id);
+        return Result.success();
+    }
+}
@@ -0,0 +1,297 @@
+package community.waterlevel.iot.module.alert.engine;
+
+import community.waterlevel.iot.config.property.AlertProperties;
+import community.waterlevel.iot.module.alert.model.AlertTransition;
+import community.waterlevel.iot.module.alert.model.entity.IotAlertRule;
+import community.waterlevel.iot.module.alert.model.enums.AlertState;
+import community.waterlevel.iot.module.alert.model.event.IotAlertRuleChangedEvent;
+import community.waterlevel.iot.module.alert.repository.IotAlertRuleRepository;
+import community.waterlevel.iot.module.ingestion.buffer.SensorDataRingBuffer;
+import community.waterlevel.iot.module.ingestion.model.SensorDataRecord;
+import community.waterlevel.iot.module.ingestion.window.SeriesWindowStore;
+import community.waterlevel.iot.module.metric.model.entity.IotMetricDefinition;
+import community.waterlevel.iot.module.metric.model.event.IotMetricDefinitionChangedEvent;
+import community.waterlevel.iot.module.metric.repository.IotMetricDefinitionRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Evaluates every ingested sample against the threshold alert rules of its community.
+ *
+ * <p>Registers its own reader on {@link SensorDataRingBuffer}, so it sees the same
+ * samples as the {@code sensor_data} writer without touching the database or the MQTT
+ * callback thread. A single engine thread drains the ring in batches of
+ * {@code alert.engine.batch-size}, adds each sample to the sliding windows of its series
+ * in {@link SeriesWindowStore} and runs it through {@link AlertEvaluator}; state changes
+ * are handed to {@link AlertPersister}.
+ *
+ * <p>Rules are loaded from {@code iot_alert_rules}, resolving each rule's metric
+ * definition to the metric name devices publish; rules of inactive or non-numeric
+ * definitions, or on a window length that is not configured, are ignored. Rule and
+ * metric definition changes rebuild the rule set after commit; the engine thread swaps
+ * it in between batches. Open alerts are restored from
+ * {@code iot_alerts} on startup so that they are cleared, not raised again.
+ *
+ * <p>With {@code alert.enabled=false} no reader is registered. Sliding-window statistics
+ * are only fed here, so startup fails if {@code ingestion.windows.enabled} is true while
+ * alerts are disabled rather than serving windows that never update.
+ *
+ * <p>Metrics: {@code alert.engine.samples}, {@code alert.engine.transitions{state}},
+ * {@code alert.engine.lag}, {@code alert.engine.active} and {@code alert.engine.slots}.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Slf4j
+@Component
+public class AlertEngine implements SmartLifecycle {
+
+    private static final long AWAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final IotAlertRuleRepository ruleRepository;
+    private final IotMetricDefinitionRepository metricDefinitionRepository;
+    private final AlertPersister persister;
+    private final SeriesWindowStore windowStore;
+    private final SensorDataRingBuffer ringBuffer;
+    private final SensorDataRingBuffer.Reader reader;
+    private final SensorDataRecord[] batch;
+    private final AlertEvaluator evaluator;
+    private final Consumer<AlertTransition> sink = this::onTransition;
+
+    private final LongAdder samples = new LongAdder();
+    private final LongAdder raised = new LongAdder();
+    private final LongAdder cleared = new LongAdder();
+
+    private volatile AlertRuleSet pendingRules;
+    private volatile int activeCount;
+    private volatile int slotCount;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public AlertEngine(IotAlertRuleRepository ruleRepository,
+                       IotMetricDefinitionRepository metricDefinitionRepository, AlertPersister persister,
+                       SeriesWindowStore windowStore, SensorDataRingBuffer ringBuffer, AlertProperties properties,
+                       MeterRegistry meterRegistry) {
+        this.ruleRepository = ruleRepository;
+        this.metricDefinitionRepository = metricDefinitionRepository;
+        this.persister = persister;
+        this.windowStore = windowStore;
+        this.ringBuffer = ringBuffer;
+        if (!properties.isEnabled() && windowStore.isEnabled()) {
+            throw new IllegalStateException("ingestion.windows.enabled=true requires alert.enabled=true: "
+                    + "sliding windows are updated by the alert engine");
+        }
+        this.reader = properties.isEnabled() ? ringBuffer.newReader("alert-engine") : null;
+        this.batch = new SensorDataRecord[properties.getEngine().getBatchSize()];
+        for (int i = 0; i < batch.length; i++) {
+            batch[i] = new SensorDataRecord();
+        }
+        this.evaluator = new AlertEvaluator(AlertRuleSet.empty(), properties.getEngine().getInitialSlots());
+
+        FunctionCounter.builder("alert.engine.samples", samples, LongAdder::sum)
+                .description("Samples evaluated against alert rules")
+                .register(meterRegistry);
+        FunctionCounter.builder("alert.engine.transitions", raised, LongAdder::sum)
+                .tag("state", "raised").register(meterRegistry);
+        FunctionCounter.builder("alert.engine.transitions", cleared, LongAdder::sum)
+                .tag("state", "cleared").register(meterRegistry);
+        Gauge.builder("alert.engine.lag", this, AlertEngine::getLag)
+                .description("Samples published to the ring but not yet evaluated")
+                .register(meterRegistry);
+        Gauge.builder("alert.engine.active", this, e -> e.activeCount)
+                .description("Open alerts held by the engine")
+                .register(meterRegistry);
+        Gauge.builder("alert.engine.slots", this, e -> e.slotCount)
+                .description("(device, rule) state slots in use")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Rebuilds the rule set after an alert rule changed.
+     *
+     * @param event the change event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAlertRuleChanged(IotAlertRuleChangedEvent event) {
+        reloadRules();
+    }
+
+    /**
+     * Rebuilds the rule set after a metric definition was renamed, changed type or was
+     * deleted.
+     *
+     * @param event the change event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMetricDefinitionChanged(IotMetricDefinitionChangedEvent event) {
+        reloadRules();
+    }
+
+    @Override
+    public void start() {
+        if (reader == null) {
+            log.info("Alert engine disabled");
+            return;
+        }
+        AlertRuleSet rules = loadRules();
+        evaluator.replaceRules(rules, System.currentTimeMillis(), sink);
+        int[] restored = new int[1];
+        try {
+            persister.loadOpen((ruleId, deviceId, raisedAt) -> {
+                if (evaluator.restore(ruleId, deviceId, raisedAt)) {
+                    restored[0]++;
+                }
+            });
+        } catch (RuntimeException e) {
+            log.warn("Failed to restore open alerts; they may be raised again", e);
+        }
+        publishCounts();
+
+        running = true;
+        worker = new Thread(this::runLoop, "alert-engine");
+        worker.setDaemon(true);
+        worker.start();
+        log.info("Alert engine started ({} rules, {} open alerts)", rules.size(), restored[0]);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (reader != null) {
+            log.info("Alert engine stopped (samples={}, raised={}, cleared={}, lost={})",
+                    samples.sum(), raised.sum(), cleared.sum(), reader.getLost());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts before and stops after the MQTT subscriber so that every accepted sample
+     * is evaluated.
+     */
+    @Override
+    public int getPhase() {
+        return DEFAULT_PHASE - 2048;
+    }
+
+    public long getLag() {
+        return reader != null ? reader.available() : 0;
+    }
+
+    private void runLoop() {
+        while (running) {
+            try {
+                applyPendingRules();
+                if (!reader.await(AWAIT_NANOS)) {
+                    continue;
+                }
+                evaluate(reader.drainTo(batch, 0, batch.length));
+            } catch (InterruptedException e) {
+                running = false;
+            } catch (RuntimeException e) {
+                log.error("Alert evaluation failed", e);
+            }
+        }
+        // Evaluate everything still held in the ring or the spill queue.
+        ringBuffer.drainSpill();
+        int count;
+        while ((count = reader.drainTo(batch, 0, batch.length)) > 0) {
+            evaluate(count);
+        }
+    }
+
+    private void evaluate(int count) {
+        for (int i = 0; i < count; i++) {
+            SensorDataRecord record = batch[i];
+            evaluator.evaluate(record, windowStore.update(record), sink);
+        }
+        samples.add(count);
+        publishCounts();
+    }
+
+    private void applyPendingRules() {
+        AlertRuleSet rules = pendingRules;
+        if (rules != null) {
+            pendingRules = null;
+            evaluator.replaceRules(rules, System.currentTimeMillis(), sink);
+            publishCounts();
+            log.info("Alert rules reloaded ({} rules)", rules.size());
+        }
+    }
+
+    private void onTransition(AlertTransition transition) {
+        (transition.getState() == AlertState.RAISED ? raised : cleared).increment();
+        persister.submit(transition);
+    }
+
+    private void publishCounts() {
+        activeCount = evaluator.getActiveCount();
+        slotCount = evaluator.getSlotCount();
+    }
+
+    private void reloadRules() {
+        if (reader == null) {
+            return;
+        }
+        try {
+            pendingRules = loadRules();
+        } catch (RuntimeException e) {
+            log.error("Failed to reload alert rules", e);
+        }
+    }
+
+    private AlertRuleSet loadRules() {
+        List<IotAlertRule> rules = ruleRepository.findAllByOrderById();
+        Map<Long, IotMetricDefinition> definitions = metricDefinitionRepository
+                .findAllById(rules.stream().map(IotAlertRule::getMetricDefinitionId).distinct().toList())
+                .stream()
+                .collect(Collectors.toMap(IotMetricDefinition::getId, Function.identity()));
+        AlertRuleSet.Builder builder = AlertRuleSet.builder();
+        for (IotAlertRule rule : rules) {
+            IotMetricDefinition definition = definitions.get(rule.getMetricDefinitionId());
+            if (definition == null || !Boolean.TRUE.equals(definition.getIsActive())
+                    || !definition.getDataType().isNumeric()) {
+                continue;
+            }
+            int window = -1;
+            if (rule.getWindowStatistic() != null) {
+                window = rule.getWindowSeconds() != null ? windowStore.windowIndex(rule.getWindowSeconds()) : -1;
+                if (window < 0 || !windowStore.hasWindows(definition.getMetricName())) {
+                    log.warn("Alert rule {} ignored: no {}s window on metric {}", rule.getId(),
+                            rule.getWindowSeconds(), definition.getMetricName());
+                    continue;
+                }
+            }
+            builder.add(rule.getId(), rule.getDeptId(), definition.getMetricName(), rule.getWindowStatistic(),
+                    window, rule.getOperator(), rule.getThreshold(), rule.getClearThreshold(),
+                    TimeUnit.SECONDS.toMillis(rule.getDurationSeconds()),
+                    TimeUnit.SECONDS.toMillis(rule.getClearDurationSeconds()), rule.getSeverity());
+        }
+        return builder.build();
+    }
+}
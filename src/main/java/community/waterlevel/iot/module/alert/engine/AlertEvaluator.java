@@ -0,0 +1,289 @@
+package community.waterlevel.iot.module.alert.engine;
+
+import community.waterlevel.iot.module.alert.model.AlertTransition;
+import community.waterlevel.iot.module.alert.model.enums.AlertState;
+import community.waterlevel.iot.module.ingestion.model.SensorDataRecord;
+import community.waterlevel.iot.module.ingestion.model.enums.SensorQuality;
+import community.waterlevel.iot.module.ingestion.model.enums.WindowStatistic;
+import community.waterlevel.iot.module.ingestion.window.SeriesWindowStore;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Threshold state machine of every (device, rule) pair.
+ *
+ * <p>Each device watched by a rule group owns a contiguous run of state slots, one per
+ * rule of the group. The state of a slot lives in parallel primitive arrays (state,
+ * time the current state was entered, time of the last sample), so evaluating a sample
+ * takes two map lookups and does not allocate once the device has been seen; only
+ * state changes create an {@link AlertTransition}.
+ *
+ * <p>Per slot:
+ * <ul>
+ *   <li>{@code NORMAL} - on a breach, raise at once or enter {@code PENDING}</li>
+ *   <li>{@code PENDING} - raise when the breach has lasted the rule duration; back to
+ *       {@code NORMAL} on the first sample without breach</li>
+ *   <li>{@code ACTIVE} - on a sample past the clear threshold, clear at once or enter
+ *       {@code CLEARING}</li>
+ *   <li>{@code CLEARING} - clear when the clear condition has lasted the clear
+ *       duration; back to {@code ACTIVE} on the first sample without it</li>
+ * </ul>
+ * Durations are measured in sample time. Samples older than the last one evaluated for
+ * the slot, samples without a value and samples of {@code BAD} quality (only ever
+ * reported by the device itself) are ignored.
+ * Rules on a window statistic compare the statistic after the sample was added to the
+ * window, and skip samples for which it is not available yet.
+ *
+ * <p>Not thread-safe: owned by the {@link AlertEngine} thread.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+public class AlertEvaluator {
+
+    static final byte NORMAL = 0;
+    static final byte PENDING = 1;
+    static final byte ACTIVE = 2;
+    static final byte CLEARING = 3;
+
+    private static final short BAD = SensorQuality.BAD.getCode();
+
+    private final int initialSlots;
+
+    private AlertRuleSet rules;
+    private Map<String, Integer>[] devices;
+    private byte[] states;
+    private long[] since;
+    private long[] lastTimes;
+    private int slotCount;
+    private int activeCount;
+
+    public AlertEvaluator(AlertRuleSet rules, int initialSlots) {
+        this.initialSlots = initialSlots;
+        reset(rules);
+    }
+
+    /**
+     * Evaluates a sample against the rules watching its metric.
+     *
+     * @param record the sample
+     * @param sink   receives the state changes caused by the sample
+     */
+    public void evaluate(SensorDataRecord record, Consumer<AlertTransition> sink) {
+        evaluate(record, null, sink);
+    }
+
+    /**
+     * Evaluates a sample against the rules watching its metric.
+     *
+     * @param record the sample
+     * @param series the sliding windows of the series, already updated with the sample;
+     *               null if the series has none
+     * @param sink   receives the state changes caused by the sample
+     */
+    public void evaluate(SensorDataRecord record, SeriesWindowStore.Series series,
+                         Consumer<AlertTransition> sink) {
+        if (!record.isValuePresent() || record.getQuality() == BAD) {
+            return;
+        }
+        AlertRuleSet.Group group = rules.group(record.getCommunityId(), record.getMetricName());
+        if (group == null) {
+            return;
+        }
+        int base = slotOf(group, record.getDeviceId());
+        long time = record.getTime();
+        int[] members = group.rules;
+        for (int p = 0; p < members.length; p++) {
+            int slot = base + p;
+            if (time < lastTimes[slot]) {
+                continue;
+            }
+            int rule = members[p];
+            WindowStatistic statistic = rules.statistics[rule];
+            double value = statistic == null ? record.getMetricValue()
+                    : series != null ? series.statistic(rules.windows[rule], statistic) : Double.NaN;
+            if (Double.isNaN(value)) {
+                continue;
+            }
+            lastTimes[slot] = time;
+            boolean above = rules.above[rule];
+            switch (states[slot]) {
+                case NORMAL:
+                case PENDING:
+                    if (above ? value > rules.thresholds[rule] : value < rules.thresholds[rule]) {
+                        if (states[slot] == NORMAL) {
+                            states[slot] = PENDING;
+                            since[slot] = time;
+                        }
+                        if (time - since[slot] >= rules.durationMs[rule]) {
+                            states[slot] = ACTIVE;
+                            since[slot] = time;
+                            activeCount++;
+                            sink.accept(transition(rule, record.getDeviceId(), AlertState.RAISED, time, value));
+                        }
+                    } else {
+                        states[slot] = NORMAL;
+                    }
+                    break;
+                default:
+                    if (above ? value <= rules.clearThresholds[rule] : value >= rules.clearThresholds[rule]) {
+                        if (states[slot] == ACTIVE) {
+                            states[slot] = CLEARING;
+                            since[slot] = time;
+                        }
+                        if (time - since[slot] >= rules.clearDurationMs[rule]) {
+                            states[slot] = NORMAL;
+                            activeCount--;
+                            sink.accept(transition(rule, record.getDeviceId(), AlertState.CLEARED, time, value));
+                        }
+                    } else {
+                        states[slot] = ACTIVE;
+                    }
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Marks an alert persisted as open, so that it is cleared rather than raised again.
+     *
+     * @param ruleId   the rule identifier
+     * @param deviceId the device identifier
+     * @param raisedAt the time the alert was raised, in epoch milliseconds
+     * @return {@code false} if the rule is not in the current rule set
+     */
+    public boolean restore(long ruleId, String deviceId, long raisedAt) {
+        int rule = rules.indexOf(ruleId);
+        if (rule < 0) {
+            return false;
+        }
+        int slot = slotOf(rules.groups[rules.groupOf[rule]], deviceId) + rules.positionInGroup[rule];
+        if (states[slot] != ACTIVE && states[slot] != CLEARING) {
+            activeCount++;
+        }
+        states[slot] = ACTIVE;
+        since[slot] = raisedAt;
+        lastTimes[slot] = Math.max(lastTimes[slot], raisedAt);
+        return true;
+    }
+
+    /**
+     * Switches to a new rule set. Pending and active states of rules present in both
+     * sets carry over; alerts still open for removed rules, or rules now watching another
+     * community, metric or window statistic, are cleared.
+     *
+     * @param next the new rule set
+     * @param now  the time reported for clears caused by removed rules
+     * @param sink receives those clears
+     */
+    public void replaceRules(AlertRuleSet next, long now, Consumer<AlertTransition> sink) {
+        AlertRuleSet previous = rules;
+        Map<String, Integer>[] previousDevices = devices;
+        byte[] previousStates = states;
+        long[] previousSince = since;
+        long[] previousLastTimes = lastTimes;
+        reset(next);
+
+        for (AlertRuleSet.Group group : previous.groups) {
+            for (Map.Entry<String, Integer> device : previousDevices[group.index].entrySet()) {
+                for (int p = 0; p < group.rules.length; p++) {
+                    int slot = device.getValue() + p;
+                    byte state = previousStates[slot];
+                    if (state == NORMAL) {
+                        continue;
+                    }
+                    int rule = group.rules[p];
+                    int target = next.indexOf(previous.ids[rule]);
+                    if (target >= 0 && next.deptIds[target] == previous.deptIds[rule]
+                            && next.metricNames[target].equals(previous.metricNames[rule])
+                            && next.statistics[target] == previous.statistics[rule]
+                            && next.windows[target] == previous.windows[rule]) {
+                        int moved = slotOf(next.groups[next.groupOf[target]], device.getKey())
+                                + next.positionInGroup[target];
+                        states[moved] = state;
+                        since[moved] = previousSince[slot];
+                        lastTimes[moved] = previousLastTimes[slot];
+                        if (state != PENDING) {
+                            activeCount++;
+                        }
+                    } else if (state != PENDING) {
+                        sink.accept(new AlertTransition(previous.ids[rule], previous.deptIds[rule], device.getKey(),
+                                previous.metricNames[rule], previous.severities[rule], previous.thresholds[rule],
+                                AlertState.CLEARED, now, Double.NaN));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the current rule set.
+     *
+     * @return the rules
+     */
+    public AlertRuleSet getRules() {
+        return rules;
+    }
+
+    /**
+     * Returns the number of state slots in use.
+     *
+     * @return the slot count
+     */
+    public int getSlotCount() {
+        return slotCount;
+    }
+
+    /**
+     * Returns the number of (device, rule) pairs with an open alert.
+     *
+     * @return the active alert count
+     */
+    public int getActiveCount() {
+        return activeCount;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void reset(AlertRuleSet next) {
+        rules = next;
+        devices = new Map[next.groups.length];
+        for (int g = 0; g < devices.length; g++) {
+            devices[g] = new HashMap<>();
+        }
+        states = new byte[initialSlots];
+        since = new long[initialSlots];
+        lastTimes = new long[initialSlots];
+        Arrays.fill(lastTimes, Long.MIN_VALUE);
+        slotCount = 0;
+        activeCount = 0;
+    }
+
+    private int slotOf(AlertRuleSet.Group group, String deviceId) {
+        Map<String, Integer> groupDevices = devices[group.index];
+        Integer base = groupDevices.get(deviceId);
+        if (base != null) {
+            return base;
+        }
+        int size = group.rules.length;
+        if (slotCount + size > states.length) {
+            int capacity = Math.max(states.length * 2, slotCount + size);
+            states = Arrays.copyOf(states, capacity);
+            since = Arrays.copyOf(since, capacity);
+            int filled = lastTimes.length;
+            lastTimes = Arrays.copyOf(lastTimes, capacity);
+            Arrays.fill(lastTimes, filled, capacity, Long.MIN_VALUE);
+        }
+        int slot = slotCount;
+        slotCount += size;
+        groupDevices.put(deviceId, slot);
+        return slot;
+    }
+
+    private AlertTransition transition(int rule, String deviceId, AlertState state, long time, double value) {
+        return new AlertTransition(rules.ids[rule], rules.deptIds[rule], deviceId, rules.metricNames[rule],
+                rules.severities[rule], rules.thresholds[rule], state, time, value);
+    }
+}
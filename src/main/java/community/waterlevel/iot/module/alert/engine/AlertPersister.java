@@ -0,0 +1,277 @@
+package community.waterlevel.iot.module.alert.engine;
+
+import community.waterlevel.iot.config.property.AlertProperties;
+import community.waterlevel.iot.module.alert.model.AlertTransition;
+import community.waterlevel.iot.module.alert.model.enums.AlertState;
+import community.waterlevel.iot.module.alert.model.vo.IotAlertVO;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Writes alert state changes to {@code iot_alerts} and pushes them to WebSocket
+ * subscribers of {@code /topic/community/{deptId}/alerts}.
+ *
+ * <p>{@link AlertEngine} hands over transitions with {@link #submit}, which never blocks:
+ * when the queue is full, e.g. while the database is unavailable, the transition is
+ * dropped and counted. A worker thread writes them in order, up to
+ * {@code alert.persister.batch-size} per transaction. A raise inserts the open alert
+ * (at most one per rule and device); a clear closes it. Pushes follow the commit.
+ *
+ * <p>A batch that fails is kept and written again after a backoff doubling from
+ * {@code alert.persister.retry-backoff-ms} up to {@code max-retry-backoff-ms}, before
+ * anything queued after it; both statements are idempotent, so a retry after an
+ * ambiguous failure does no harm. A batch rejected by a constraint, or still failing
+ * at shutdown, is discarded and counted as failed.
+ *
+ * <p>Metrics: {@code alert.persister.queue.depth} and
+ * {@code alert.persister.transitions{result=written|retried|failed|dropped}}.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Slf4j
+@Component
+public class AlertPersister implements SmartLifecycle {
+
+    private static final String INSERT_RAISED = "INSERT INTO iot_alerts (rule_id, dept_id, device_id, metric_name, "
+            + "severity, threshold, raised_at, raised_value) VALUES (?, ?, ?, ?, ?, ?, ?, ?) "
+            + "ON CONFLICT (rule_id, device_id) WHERE cleared_at IS NULL DO NOTHING";
+    private static final String UPDATE_CLEARED = "UPDATE iot_alerts SET cleared_at = ?, cleared_value = ? "
+            + "WHERE rule_id = ? AND device_id = ? AND cleared_at IS NULL";
+    private static final String SELECT_OPEN = "SELECT rule_id, device_id, raised_at FROM iot_alerts "
+            + "WHERE cleared_at IS NULL";
+
+    /**
+     * Receives an open alert read by {@link #loadOpen}.
+     */
+    @FunctionalInterface
+    public interface OpenAlertCallback {
+
+        /**
+         * @param ruleId   the rule identifier
+         * @param deviceId the device identifier
+         * @param raisedAt the time the alert was raised, in epoch milliseconds
+         */
+        void open(long ruleId, String deviceId, long raisedAt);
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectProvider<SimpMessagingTemplate> messagingTemplate;
+    private final AlertProperties.PersisterConfig config;
+    private final BlockingQueue<AlertTransition> queue;
+
+    private final LongAdder written = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public AlertPersister(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                          ObjectProvider<SimpMessagingTemplate> messagingTemplate, AlertProperties properties,
+                          MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.messagingTemplate = messagingTemplate;
+        this.config = properties.getPersister();
+        this.queue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+
+        Gauge.builder("alert.persister.queue.depth", queue, BlockingQueue::size)
+                .description("Alert state changes waiting to be written")
+                .register(meterRegistry);
+        FunctionCounter.builder("alert.persister.transitions", written, LongAdder::sum)
+                .tag("result", "written").register(meterRegistry);
+        FunctionCounter.builder("alert.persister.transitions", retried, LongAdder::sum)
+                .tag("result", "retried").register(meterRegistry);
+        FunctionCounter.builder("alert.persister.transitions", failed, LongAdder::sum)
+                .tag("result", "failed").register(meterRegistry);
+        FunctionCounter.builder("alert.persister.transitions", dropped, LongAdder::sum)
+                .tag("result", "dropped").register(meterRegistry);
+    }
+
+    /**
+     * Queues a state change without blocking.
+     *
+     * @param transition the state change
+     */
+    public void submit(AlertTransition transition) {
+        if (!queue.offer(transition)) {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * Reads the open alerts.
+     *
+     * @param callback receives each open alert
+     */
+    public void loadOpen(OpenAlertCallback callback) {
+        jdbcTemplate.query(SELECT_OPEN, rs -> {
+            callback.open(rs.getLong(1), rs.getString(2), rs.getTimestamp(3).getTime());
+        });
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        worker = new Thread(this::runLoop, "alert-persister");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        log.info("Alert persister stopped (written={}, failed={}, dropped={})",
+                written.sum(), failed.sum(), dropped.sum());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts before and stops after {@link AlertEngine} so that its final transitions
+     * are written.
+     */
+    @Override
+    public int getPhase() {
+        return DEFAULT_PHASE - 4096;
+    }
+
+    private void runLoop() {
+        List<AlertTransition> batch = new ArrayList<>(config.getBatchSize());
+        long backoffMs = config.getRetryBackoffMs();
+        while (running) {
+            try {
+                if (batch.isEmpty()) {
+                    AlertTransition first = queue.poll(1, TimeUnit.SECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, config.getBatchSize() - 1);
+                }
+                if (write(batch)) {
+                    batch.clear();
+                    backoffMs = config.getRetryBackoffMs();
+                } else {
+                    retried.add(batch.size());
+                    log.warn("Retrying {} alert state changes in {} ms", batch.size(), backoffMs);
+                    TimeUnit.MILLISECONDS.sleep(backoffMs);
+                    backoffMs = Math.min(backoffMs * 2, config.getMaxRetryBackoffMs());
+                }
+            } catch (InterruptedException e) {
+                running = false;
+            }
+        }
+        // Final attempt for the pending batch and what is still queued
+        do {
+            if (!write(batch)) {
+                failed.add(batch.size());
+                log.error("Discarding {} alert state changes at shutdown", batch.size());
+            }
+            batch.clear();
+        } while (queue.drainTo(batch, config.getBatchSize()) > 0);
+    }
+
+    /**
+     * Writes a batch in one transaction and pushes it after the commit.
+     *
+     * @return {@code false} if the transaction failed and the batch should be retried
+     */
+    private boolean write(List<AlertTransition> batch) {
+        if (batch.isEmpty()) {
+            return true;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (AlertTransition transition : batch) {
+                    if (transition.getState() == AlertState.RAISED) {
+                        jdbcTemplate.update(INSERT_RAISED, transition.getRuleId(), transition.getDeptId(),
+                                transition.getDeviceId(), transition.getMetricName(),
+                                transition.getSeverity().name(), transition.getThreshold(),
+                                new Timestamp(transition.getTime()), transition.getValue());
+                    } else {
+                        jdbcTemplate.update(UPDATE_CLEARED, new Timestamp(transition.getTime()),
+                                valueOrNull(transition.getValue()), transition.getRuleId(), transition.getDeviceId());
+                    }
+                }
+            });
+            written.add(batch.size());
+        } catch (DataIntegrityViolationException e) {
+            // Rejected by a constraint: writing it again cannot succeed
+            failed.add(batch.size());
+            log.error("Discarding {} alert state changes rejected by the database", batch.size(), e);
+            return true;
+        } catch (RuntimeException e) {
+            log.error("Failed to write {} alert state changes", batch.size(), e);
+            return false;
+        }
+        SimpMessagingTemplate template = messagingTemplate.getIfAvailable();
+        if (template == null) {
+            return true;
+        }
+        for (AlertTransition transition : batch) {
+            try {
+                template.convertAndSend("/topic/community/" + transition.getDeptId() + "/alerts", toVO(transition));
+            } catch (RuntimeException e) {
+                log.warn("Failed to push alert of rule {} for device {}", transition.getRuleId(),
+                        transition.getDeviceId(), e);
+            }
+        }
+        return true;
+    }
+
+    private static IotAlertVO toVO(AlertTransition transition) {
+        IotAlertVO vo = new IotAlertVO();
+        vo.setRuleId(transition.getRuleId());
+        vo.setDeptId(transition.getDeptId());
+        vo.setDeviceId(transition.getDeviceId());
+        vo.setMetricName(transition.getMetricName());
+        vo.setSeverity(transition.getSeverity());
+        vo.setThreshold(transition.getThreshold());
+        vo.setState(transition.getState());
+        if (transition.getState() == AlertState.RAISED) {
+            vo.setRaisedAt(transition.getTime());
+            vo.setRaisedValue(transition.getValue());
+        } else {
+            vo.setClearedAt(transition.getTime());
+            vo.setClearedValue(valueOrNull(transition.getValue()));
+        }
+        return vo;
+    }
+
+    private static Double valueOrNull(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+}
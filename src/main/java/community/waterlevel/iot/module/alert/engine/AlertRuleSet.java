@@ -0,0 +1,276 @@
+package community.waterlevel.iot.module.alert.engine;
+
+import community.waterlevel.iot.module.alert.model.enums.AlertOperator;
+import community.waterlevel.iot.module.alert.model.enums.AlertSeverity;
+import community.waterlevel.iot.module.ingestion.model.enums.WindowStatistic;
+import community.waterlevel.iot.module.ingestion.support.LongObjectMap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, compiled set of alert rules.
+ *
+ * <p>Rule parameters are held column-wise in primitive arrays indexed by rule. Rules
+ * watching the same metric of the same community form a {@link Group}, found with one
+ * primitive-keyed community lookup and one metric name lookup per sample; rules are
+ * found by id through a primitive-keyed map as well. A rule
+ * compares either the sample value or a statistic of a sliding window of the series.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+public final class AlertRuleSet {
+
+    private static final AlertRuleSet EMPTY = new Builder().build();
+
+    final long[] ids;
+    final long[] deptIds;
+    final String[] metricNames;
+    final boolean[] above;
+    final double[] thresholds;
+    final double[] clearThresholds;
+    final long[] durationMs;
+    final long[] clearDurationMs;
+    final AlertSeverity[] severities;
+    final WindowStatistic[] statistics;
+    final int[] windows;
+    final int[] groupOf;
+    final int[] positionInGroup;
+    final Group[] groups;
+    private final LongObjectMap<Map<String, Group>> index;
+    private final LongObjectMap<Integer> rulesById;
+
+    private AlertRuleSet(Builder builder) {
+        int n = builder.rules.size();
+        ids = new long[n];
+        deptIds = new long[n];
+        metricNames = new String[n];
+        above = new boolean[n];
+        thresholds = new double[n];
+        clearThresholds = new double[n];
+        durationMs = new long[n];
+        clearDurationMs = new long[n];
+        severities = new AlertSeverity[n];
+        statistics = new WindowStatistic[n];
+        windows = new int[n];
+        groupOf = new int[n];
+        positionInGroup = new int[n];
+
+        Map<Long, Integer> ruleIndexes = new HashMap<>();
+        Map<Long, Map<String, List<Integer>>> grouped = new LinkedHashMap<>();
+        for (int i = 0; i < n; i++) {
+            Rule rule = builder.rules.get(i);
+            ids[i] = rule.ruleId;
+            deptIds[i] = rule.deptId;
+            metricNames[i] = rule.metricName;
+            above[i] = rule.operator == AlertOperator.ABOVE;
+            thresholds[i] = rule.threshold;
+            clearThresholds[i] = rule.clearThreshold;
+            durationMs[i] = rule.durationMs;
+            clearDurationMs[i] = rule.clearDurationMs;
+            severities[i] = rule.severity;
+            statistics[i] = rule.statistic;
+            windows[i] = rule.window;
+            ruleIndexes.put(ids[i], i);
+            grouped.computeIfAbsent(deptIds[i], k -> new LinkedHashMap<>())
+                    .computeIfAbsent(metricNames[i], k -> new ArrayList<>())
+                    .add(i);
+        }
+
+        List<Group> allGroups = new ArrayList<>();
+        Map<Long, Map<String, Group>> communities = new HashMap<>();
+        for (Map.Entry<Long, Map<String, List<Integer>>> community : grouped.entrySet()) {
+            Map<String, Group> metrics = new HashMap<>();
+            for (Map.Entry<String, List<Integer>> metric : community.getValue().entrySet()) {
+                List<Integer> members = metric.getValue();
+                int[] rules = new int[members.size()];
+                for (int p = 0; p < rules.length; p++) {
+                    rules[p] = members.get(p);
+                    groupOf[rules[p]] = allGroups.size();
+                    positionInGroup[rules[p]] = p;
+                }
+                Group group = new Group(allGroups.size(), rules);
+                allGroups.add(group);
+                metrics.put(metric.getKey(), group);
+            }
+            communities.put(community.getKey(), Collections.unmodifiableMap(metrics));
+        }
+        groups = allGroups.toArray(new Group[0]);
+        index = LongObjectMap.of(communities);
+        rulesById = LongObjectMap.of(ruleIndexes);
+    }
+
+    /**
+     * Returns a rule set without rules.
+     *
+     * @return the empty rule set
+     */
+    public static AlertRuleSet empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Creates a builder.
+     *
+     * @return a new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the rules watching a metric of a community.
+     *
+     * @param deptId     the community identifier
+     * @param metricName the metric name
+     * @return the group, or null if no rule watches the metric
+     */
+    public Group group(long deptId, String metricName) {
+        Map<String, Group> metrics = index.get(deptId);
+        return metrics != null ? metrics.get(metricName) : null;
+    }
+
+    /**
+     * Returns the index of a rule.
+     *
+     * @param ruleId the rule identifier
+     * @return the index, or -1 if the rule is not in this set
+     */
+    public int indexOf(long ruleId) {
+        Integer rule = rulesById.get(ruleId);
+        return rule != null ? rule : -1;
+    }
+
+    /**
+     * Returns the number of rules.
+     *
+     * @return the rule count
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Rules watching the same metric of the same community.
+     */
+    public static final class Group {
+
+        final int index;
+        final int[] rules;
+
+        private Group(int index, int[] rules) {
+            this.index = index;
+            this.rules = rules;
+        }
+
+        /**
+         * Returns the number of rules in this group.
+         *
+         * @return the rule count
+         */
+        public int size() {
+            return rules.length;
+        }
+    }
+
+    /**
+     * Collects rules; the clear threshold defaults to the threshold.
+     */
+    public static final class Builder {
+
+        private final List<Rule> rules = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Adds a rule.
+         *
+         * @param ruleId          the rule identifier
+         * @param deptId          the community the rule applies to
+         * @param metricName      the metric the rule watches
+         * @param operator        the comparison
+         * @param threshold       the raise threshold
+         * @param clearThreshold  the clear threshold, or null for {@code threshold}
+         * @param durationMs      how long the condition must hold before raising
+         * @param clearDurationMs how long the clear condition must hold before clearing
+         * @param severity        the severity of raised alerts
+         * @return this builder
+         */
+        public Builder add(long ruleId, long deptId, String metricName, AlertOperator operator, double threshold,
+                           Double clearThreshold, long durationMs, long clearDurationMs, AlertSeverity severity) {
+            return add(ruleId, deptId, metricName, null, -1, operator, threshold, clearThreshold, durationMs,
+                    clearDurationMs, severity);
+        }
+
+        /**
+         * Adds a rule on a sliding-window statistic.
+         *
+         * @param ruleId          the rule identifier
+         * @param deptId          the community the rule applies to
+         * @param metricName      the metric the rule watches
+         * @param statistic       the window statistic compared, or null for the sample value
+         * @param window          the window index in {@code SeriesWindowStore}, ignored without statistic
+         * @param operator        the comparison
+         * @param threshold       the raise threshold
+         * @param clearThreshold  the clear threshold, or null for {@code threshold}
+         * @param durationMs      how long the condition must hold before raising
+         * @param clearDurationMs how long the clear condition must hold before clearing
+         * @param severity        the severity of raised alerts
+         * @return this builder
+         */
+        public Builder add(long ruleId, long deptId, String metricName, WindowStatistic statistic, int window,
+                           AlertOperator operator, double threshold, Double clearThreshold, long durationMs,
+                           long clearDurationMs, AlertSeverity severity) {
+            rules.add(new Rule(ruleId, deptId, metricName, statistic, statistic != null ? window : -1, operator,
+                    threshold, clearThreshold != null ? clearThreshold : threshold, durationMs, clearDurationMs,
+                    severity));
+            return this;
+        }
+
+        /**
+         * Compiles the rules.
+         *
+         * @return the rule set
+         */
+        public AlertRuleSet build() {
+            return new AlertRuleSet(this);
+        }
+    }
+
+    private static final class Rule {
+
+        final long ruleId;
+        final long deptId;
+        final String metricName;
+        final WindowStatistic statistic;
+        final int window;
+        final AlertOperator operator;
+        final double threshold;
+        final double clearThreshold;
+        final long durationMs;
+        final long clearDurationMs;
+        final AlertSeverity severity;
+
+        Rule(long ruleId, long deptId, String metricName, WindowStatistic statistic, int window,
+             AlertOperator operator, double threshold, double clearThreshold, long durationMs,
+             long clearDurationMs, AlertSeverity severity) {
+            this.ruleId = ruleId;
+            this.deptId = deptId;
+            this.metricName = metricName;
+            this.statistic = statistic;
+            this.window = window;
+            this.operator = operator;
+            this.threshold = threshold;
+            this.clearThreshold = clearThreshold;
+            this.durationMs = durationMs;
+            this.clearDurationMs = clearDurationMs;
+            this.severity = severity;
+        }
+    }
+}
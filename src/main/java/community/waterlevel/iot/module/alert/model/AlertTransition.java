@@ -0,0 +1,52 @@
+package community.waterlevel.iot.module.alert.model;
+
+import community.waterlevel.iot.module.alert.model.enums.AlertSeverity;
+import community.waterlevel.iot.module.alert.model.enums.AlertState;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * A change of alert state of one device under one rule, as emitted by the alert engine.
+ *
+ * <p>Only state changes are represented as objects; the samples in between are
+ * evaluated against primitive state.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Getter
+@ToString
+public class AlertTransition {
+
+    private final long ruleId;
+    private final long deptId;
+    private final String deviceId;
+    private final String metricName;
+    private final AlertSeverity severity;
+    private final double threshold;
+    private final AlertState state;
+
+    /**
+     * Sample time of the change (epoch milliseconds).
+     */
+    private final long time;
+
+    /**
+     * Sample value of the change; {@code NaN} when the alert was cleared because its
+     * rule was removed.
+     */
+    private final double value;
+
+    public AlertTransition(long ruleId, long deptId, String deviceId, String metricName, AlertSeverity severity,
+                           double threshold, AlertState state, long time, double value) {
+        this.ruleId = ruleId;
+        this.deptId = deptId;
+        this.deviceId = deviceId;
+        this.metricName = metricName;
+        this.severity = severity;
+        this.threshold = threshold;
+        this.state = state;
+        this.time = time;
+        this.value = value;
+    }
+}
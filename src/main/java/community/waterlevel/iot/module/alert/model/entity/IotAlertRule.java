@@ -0,0 +1,128 @@
+package community.waterlevel.iot.module.alert.model.entity;
+
+import community.waterlevel.iot.module.alert.model.enums.AlertOperator;
+import community.waterlevel.iot.module.alert.model.enums.AlertSeverity;
+import community.waterlevel.iot.module.ingestion.model.enums.WindowStatistic;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.SQLDelete;
+import org.hibernate.annotations.SQLRestriction;
+
+import java.time.LocalDateTime;
+
+/**
+ * JPA entity representing a threshold alert rule of a community.
+ *
+ * <p>A rule watches one metric definition of its community: the alert is raised when
+ * the value has been beyond {@link #threshold} for {@link #durationSeconds} and cleared
+ * when it has been back past {@link #clearThreshold} for {@link #clearDurationSeconds}.
+ * The gap between both thresholds is the hysteresis band; the durations debounce
+ * short excursions. With a {@link #windowStatistic} the rule compares a statistic of a
+ * sliding window of the series instead, e.g. the water level rise per 10 minutes.
+ *
+ * <p>Database table: {@code iot_alert_rules}
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "iot_alert_rules")
+@SQLDelete(sql = "UPDATE iot_alert_rules SET is_active = false WHERE id = ?")
+@SQLRestriction("is_active = true")
+public class IotAlertRule {
+
+    /**
+     * Primary key.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    /**
+     * Community (department) owning the rule.
+     */
+    @Column(name = "dept_id", nullable = false)
+    private Long deptId;
+
+    /**
+     * Metric definition the rule watches; must belong to the same community.
+     */
+    @Column(name = "metric_definition_id", nullable = false)
+    private Long metricDefinitionId;
+
+    /**
+     * Sliding-window statistic the rule compares instead of the raw sample value, e.g.
+     * {@code RATE} for the rise per window; null for the raw value.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "window_statistic")
+    private WindowStatistic windowStatistic;
+
+    /**
+     * Length of the window of {@link #windowStatistic}; one of
+     * {@code ingestion.windows.window-seconds}.
+     */
+    @Column(name = "window_seconds")
+    private Integer windowSeconds;
+
+    /**
+     * Display name, e.g. "Flood warning".
+     */
+    @Column(name = "name", nullable = false)
+    private String name;
+
+    /**
+     * Direction of the comparison.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "operator", nullable = false)
+    private AlertOperator operator;
+
+    /**
+     * Value at which the condition holds, in the unit of the metric definition.
+     */
+    @Column(name = "threshold", nullable = false)
+    private Double threshold;
+
+    /**
+     * Value the metric must return past before the alert clears; null means
+     * {@link #threshold}.
+     */
+    @Column(name = "clear_threshold")
+    private Double clearThreshold;
+
+    /**
+     * Seconds the condition must hold before the alert is raised.
+     */
+    @Column(name = "duration_seconds", nullable = false)
+    private Integer durationSeconds = 0;
+
+    /**
+     * Seconds the clear condition must hold before the alert is cleared.
+     */
+    @Column(name = "clear_duration_seconds", nullable = false)
+    private Integer clearDurationSeconds = 0;
+
+    /**
+     * Severity of the alerts raised.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "severity", nullable = false)
+    private AlertSeverity severity = AlertSeverity.WARNING;
+
+    /**
+     * Soft delete flag.
+     */
+    @Column(name = "is_active", nullable = false)
+    private Boolean isActive = true;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
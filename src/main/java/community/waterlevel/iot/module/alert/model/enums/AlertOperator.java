@@ -0,0 +1,22 @@
+package community.waterlevel.iot.module.alert.model.enums;
+
+/**
+ * Enumeration of the comparisons an alert rule applies to its threshold.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+public enum AlertOperator {
+
+    /**
+     * The condition holds while the value is above the threshold; it clears at or below
+     * the clear threshold.
+     */
+    ABOVE,
+
+    /**
+     * The condition holds while the value is below the threshold; it clears at or above
+     * the clear threshold.
+     */
+    BELOW
+}
@@ -0,0 +1,25 @@
+package community.waterlevel.iot.module.alert.model.enums;
+
+/**
+ * Enumeration of alert severities.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+public enum AlertSeverity {
+
+    /**
+     * Informational, e.g. a level approaching a watch mark.
+     */
+    INFO,
+
+    /**
+     * Requires attention.
+     */
+    WARNING,
+
+    /**
+     * Requires immediate action.
+     */
+    CRITICAL
+}
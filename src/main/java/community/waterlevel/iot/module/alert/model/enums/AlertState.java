@@ -0,0 +1,20 @@
+package community.waterlevel.iot.module.alert.model.enums;
+
+/**
+ * Enumeration of alert state changes.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+public enum AlertState {
+
+    /**
+     * The rule condition held for the required duration.
+     */
+    RAISED,
+
+    /**
+     * The clear condition held for the required duration, or the rule was removed.
+     */
+    CLEARED
+}
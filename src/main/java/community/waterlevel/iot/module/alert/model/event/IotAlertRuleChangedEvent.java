@@ -0,0 +1,35 @@
+package community.waterlevel.iot.module.alert.model.event;
+
+import lombok.Data;
+
+/**
+ * IotAlertRuleChangedEvent is published after an alert rule is created, updated or
+ * (soft) deleted, so that the alert engine reloads its rules.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Data
+public class IotAlertRuleChangedEvent {
+
+    /**
+     * Identifier of the rule that changed.
+     */
+    private Long ruleId;
+
+    /**
+     * Department owning the rule.
+     */
+    private Long deptId;
+
+    /**
+     * Creates a change event for the given rule.
+     *
+     * @param ruleId the rule identifier
+     * @param deptId the owning department identifier
+     */
+    public IotAlertRuleChangedEvent(Long ruleId, Long deptId) {
+        this.ruleId = ruleId;
+        this.deptId = deptId;
+    }
+}
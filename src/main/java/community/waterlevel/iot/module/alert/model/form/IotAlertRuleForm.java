@@ -0,0 +1,71 @@
+package community.waterlevel.iot.module.alert.model.form;
+
+import community.waterlevel.iot.module.alert.model.enums.AlertOperator;
+import community.waterlevel.iot.module.alert.model.enums.AlertSeverity;
+import community.waterlevel.iot.module.ingestion.model.enums.WindowStatistic;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+/**
+ * Form for creating or replacing a threshold alert rule.
+ *
+ * <p>The clear threshold must not lie beyond the threshold: at or below it for
+ * {@code ABOVE}, at or above it for {@code BELOW}. A rule on a window statistic needs a
+ * window length configured in {@code ingestion.windows.window-seconds}.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Data
+@Schema(description = "Threshold alert rule form")
+public class IotAlertRuleForm {
+
+    @Schema(description = "Department ID", requiredMode = Schema.RequiredMode.REQUIRED)
+    @NotNull(message = "Department ID cannot be null")
+    private Long deptId;
+
+    @Schema(description = "Metric definition ID of the department", requiredMode = Schema.RequiredMode.REQUIRED)
+    @NotNull(message = "Metric definition ID cannot be null")
+    private Long metricDefinitionId;
+
+    @Schema(description = "Sliding-window statistic compared instead of the sample value", example = "RATE")
+    private WindowStatistic windowStatistic;
+
+    @Schema(description = "Window length in seconds, required with a window statistic", example = "600")
+    @Min(value = 1, message = "Window length must be positive")
+    private Integer windowSeconds;
+
+    @Schema(description = "Rule name", example = "Flood warning", requiredMode = Schema.RequiredMode.REQUIRED)
+    @NotBlank(message = "Rule name cannot be blank")
+    @Size(max = 100, message = "Rule name cannot exceed 100 characters")
+    private String name;
+
+    @Schema(description = "Comparison direction", requiredMode = Schema.RequiredMode.REQUIRED)
+    @NotNull(message = "Operator cannot be null")
+    private AlertOperator operator;
+
+    @Schema(description = "Raise threshold", example = "2.5", requiredMode = Schema.RequiredMode.REQUIRED)
+    @NotNull(message = "Threshold cannot be null")
+    private Double threshold;
+
+    @Schema(description = "Clear threshold (hysteresis); defaults to the threshold", example = "2.3")
+    private Double clearThreshold;
+
+    @Schema(description = "Seconds the condition must hold before raising", example = "60")
+    @Min(value = 0, message = "Duration cannot be negative")
+    @Max(value = 86400, message = "Duration cannot exceed one day")
+    private Integer durationSeconds = 0;
+
+    @Schema(description = "Seconds the clear condition must hold before clearing", example = "300")
+    @Min(value = 0, message = "Clear duration cannot be negative")
+    @Max(value = 86400, message = "Clear duration cannot exceed one day")
+    private Integer clearDurationSeconds = 0;
+
+    @Schema(description = "Severity of raised alerts")
+    private AlertSeverity severity = AlertSeverity.WARNING;
+}
@@ -0,0 +1,31 @@
+package community.waterlevel.iot.module.alert.model.query;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+
+/**
+ * Query parameters for listing alerts, newest first.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Data
+@Schema(description = "Alert query")
+public class IotAlertQuery {
+
+    @Schema(description = "Department ID; all permitted departments when omitted")
+    private Long deptId;
+
+    @Schema(description = "Device ID")
+    private String deviceId;
+
+    @Schema(description = "Only open alerts (true) or only cleared alerts (false)")
+    private Boolean open;
+
+    @Schema(description = "Maximum number of alerts", defaultValue = "100")
+    @Min(1)
+    @Max(1000)
+    private Integer limit = 100;
+}
@@ -0,0 +1,65 @@
+package community.waterlevel.iot.module.alert.model.vo;
+
+import community.waterlevel.iot.module.alert.model.enums.AlertOperator;
+import community.waterlevel.iot.module.alert.model.enums.AlertSeverity;
+import community.waterlevel.iot.module.ingestion.model.enums.WindowStatistic;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * View Object (VO) for a threshold alert rule.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Data
+@Schema(description = "Threshold alert rule")
+public class IotAlertRuleVO {
+
+    @Schema(description = "Rule ID")
+    private Long id;
+
+    @Schema(description = "Department ID")
+    private Long deptId;
+
+    @Schema(description = "Metric definition ID")
+    private Long metricDefinitionId;
+
+    @Schema(description = "Metric name of the definition")
+    private String metricName;
+
+    @Schema(description = "Sliding-window statistic compared, null for the sample value")
+    private WindowStatistic windowStatistic;
+
+    @Schema(description = "Window length in seconds")
+    private Integer windowSeconds;
+
+    @Schema(description = "Rule name")
+    private String name;
+
+    @Schema(description = "Comparison direction")
+    private AlertOperator operator;
+
+    @Schema(description = "Raise threshold")
+    private Double threshold;
+
+    @Schema(description = "Clear threshold, null for the raise threshold")
+    private Double clearThreshold;
+
+    @Schema(description = "Seconds the condition must hold before raising")
+    private Integer durationSeconds;
+
+    @Schema(description = "Seconds the clear condition must hold before clearing")
+    private Integer clearDurationSeconds;
+
+    @Schema(description = "Severity")
+    private AlertSeverity severity;
+
+    @Schema(description = "Creation time")
+    private LocalDateTime createdAt;
+
+    @Schema(description = "Last update time")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,63 @@
+package community.waterlevel.iot.module.alert.model.vo;
+
+import community.waterlevel.iot.module.alert.model.enums.AlertSeverity;
+import community.waterlevel.iot.module.alert.model.enums.AlertState;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+/**
+ * View Object (VO) for an alert raised by a threshold rule.
+ *
+ * <p>Also pushed to {@code /topic/community/{deptId}/alerts} on every state change;
+ * pushed messages carry no {@link #id}. Times are epoch milliseconds of the samples
+ * that raised and cleared the alert.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Data
+@Schema(description = "Threshold alert")
+public class IotAlertVO {
+
+    @Schema(description = "Alert ID")
+    private Long id;
+
+    @Schema(description = "Rule ID")
+    private Long ruleId;
+
+    @Schema(description = "Department ID")
+    private Long deptId;
+
+    @Schema(description = "Device ID")
+    private String deviceId;
+
+    @Schema(description = "Metric name")
+    private String metricName;
+
+    @Schema(description = "Severity")
+    private AlertSeverity severity;
+
+    @Schema(description = "Rule threshold when the alert was raised")
+    private Double threshold;
+
+    /**
+     * RAISED while open, CLEARED afterwards.
+     */
+    @Schema(description = "State")
+    private AlertState state;
+
+    @Schema(description = "Time the alert was raised (epoch ms)")
+    private Long raisedAt;
+
+    @Schema(description = "Value that raised the alert")
+    private Double raisedValue;
+
+    @Schema(description = "Time the alert cleared (epoch ms), null while open")
+    private Long clearedAt;
+
+    /**
+     * Value that cleared the alert; null when it was cleared because its rule was removed.
+     */
+    @Schema(description = "Value that cleared the alert")
+    private Double clearedValue;
+}
@@ -0,0 +1,34 @@
+package community.waterlevel.iot.module.alert.repository;
+
+import community.waterlevel.iot.module.alert.model.entity.IotAlertRule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Spring Data JPA repository for alert rules. Soft-deleted rules are excluded by the
+ * entity's {@code @SQLRestriction}.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Repository
+public interface IotAlertRuleRepository extends JpaRepository<IotAlertRule, Long> {
+
+    /**
+     * Returns the rules of the given communities.
+     *
+     * @param deptIds the community identifiers
+     * @return the rules, ordered by identifier
+     */
+    List<IotAlertRule> findByDeptIdInOrderById(Collection<Long> deptIds);
+
+    /**
+     * Returns all rules, ordered by identifier.
+     *
+     * @return the rules
+     */
+    List<IotAlertRule> findAllByOrderById();
+}
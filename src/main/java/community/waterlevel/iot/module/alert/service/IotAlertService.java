@@ -0,0 +1,64 @@
+package community.waterlevel.iot.module.alert.service;
+
+import community.waterlevel.iot.module.alert.model.form.IotAlertRuleForm;
+import community.waterlevel.iot.module.alert.model.query.IotAlertQuery;
+import community.waterlevel.iot.module.alert.model.vo.IotAlertRuleVO;
+import community.waterlevel.iot.module.alert.model.vo.IotAlertVO;
+
+import java.util.List;
+
+/**
+ * Service interface for threshold alert rules and the alerts they raise.
+ *
+ * <p>All operations are limited to the communities within the caller's data scope.
+ * Rule changes take effect in the alert engine after commit.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+public interface IotAlertService {
+
+    /**
+     * Lists alert rules.
+     *
+     * @param deptId the community, or null for all permitted communities
+     * @return the rules, ordered by identifier
+     */
+    List<IotAlertRuleVO> listRules(Long deptId);
+
+    /**
+     * Creates an alert rule.
+     *
+     * @param form the rule
+     * @return the created rule
+     * @throws community.waterlevel.iot.common.exception.BusinessException if the metric
+     *         definition is unknown, not numeric or of another community, or the
+     *         thresholds are inconsistent
+     */
+    IotAlertRuleVO createRule(IotAlertRuleForm form);
+
+    /**
+     * Replaces an alert rule. Open alerts of the rule stay open and are cleared by the
+     * new thresholds.
+     *
+     * @param id   the rule identifier
+     * @param form the rule
+     * @return the updated rule
+     */
+    IotAlertRuleVO updateRule(Long id, IotAlertRuleForm form);
+
+    /**
+     * Soft deletes an alert rule; its open alerts are cleared.
+     *
+     * @param id the rule identifier
+     */
+    void deleteRule(Long id);
+
+    /**
+     * Lists alerts, newest first.
+     *
+     * @param query the filters
+     * @return the alerts
+     */
+    List<IotAlertVO> listAlerts(IotAlertQuery query);
+}
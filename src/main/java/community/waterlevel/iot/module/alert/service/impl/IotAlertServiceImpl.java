@@ -0,0 +1,257 @@
+package community.waterlevel.iot.module.alert.service.impl;
+
+import community.waterlevel.iot.common.exception.BusinessException;
+import community.waterlevel.iot.common.result.ResultCode;
+import community.waterlevel.iot.core.aspect.DataPermissionFilterFactory;
+import community.waterlevel.iot.module.alert.model.entity.IotAlertRule;
+import community.waterlevel.iot.module.alert.model.enums.AlertOperator;
+import community.waterlevel.iot.module.alert.model.enums.AlertSeverity;
+import community.waterlevel.iot.module.alert.model.enums.AlertState;
+import community.waterlevel.iot.module.alert.model.event.IotAlertRuleChangedEvent;
+import community.waterlevel.iot.module.alert.model.form.IotAlertRuleForm;
+import community.waterlevel.iot.module.alert.model.query.IotAlertQuery;
+import community.waterlevel.iot.module.alert.model.vo.IotAlertRuleVO;
+import community.waterlevel.iot.module.alert.model.vo.IotAlertVO;
+import community.waterlevel.iot.module.alert.repository.IotAlertRuleRepository;
+import community.waterlevel.iot.module.alert.service.IotAlertService;
+import community.waterlevel.iot.module.ingestion.window.SeriesWindowStore;
+import community.waterlevel.iot.module.metric.model.entity.IotMetricDefinition;
+import community.waterlevel.iot.module.metric.repository.IotMetricDefinitionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Implementation of {@link IotAlertService}.
+ *
+ * <p>Rules are managed through JPA; each change publishes an
+ * {@link IotAlertRuleChangedEvent} for the alert engine. Deleting a rule deactivates
+ * it, keeping the alerts it raised. Alerts are read from {@code iot_alerts} with plain JDBC.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class IotAlertServiceImpl implements IotAlertService {
+
+    private static final String SELECT_ALERTS = "SELECT id, rule_id, dept_id, device_id, metric_name, severity, "
+            + "threshold, raised_at, raised_value, cleared_at, cleared_value FROM iot_alerts WHERE 1 = 1";
+
+    private final IotAlertRuleRepository ruleRepository;
+    private final IotMetricDefinitionRepository metricDefinitionRepository;
+    private final DataPermissionFilterFactory dataPermissionFilterFactory;
+    private final SeriesWindowStore windowStore;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public List<IotAlertRuleVO> listRules(Long deptId) {
+        Set<Long> permitted = dataPermissionFilterFactory.getPermittedDeptIds();
+        List<IotAlertRule> rules;
+        if (deptId != null) {
+            checkPermitted(permitted, deptId);
+            rules = ruleRepository.findByDeptIdInOrderById(List.of(deptId));
+        } else if (permitted != null) {
+            rules = permitted.isEmpty() ? List.of() : ruleRepository.findByDeptIdInOrderById(permitted);
+        } else {
+            rules = ruleRepository.findAllByOrderById();
+        }
+        Map<Long, IotMetricDefinition> definitions = metricDefinitionRepository
+                .findAllById(rules.stream().map(IotAlertRule::getMetricDefinitionId).distinct().toList())
+                .stream()
+                .collect(Collectors.toMap(IotMetricDefinition::getId, Function.identity()));
+        return rules.stream()
+                .map(rule -> toVO(rule, definitions.get(rule.getMetricDefinitionId())))
+                .toList();
+    }
+
+    @Override
+    @Transactional
+    public IotAlertRuleVO createRule(IotAlertRuleForm form) {
+        checkPermitted(dataPermissionFilterFactory.getPermittedDeptIds(), form.getDeptId());
+        IotMetricDefinition definition = validate(form);
+
+        IotAlertRule rule = new IotAlertRule();
+        apply(rule, form);
+        rule.setIsActive(true);
+        rule.setCreatedAt(LocalDateTime.now());
+        rule.setUpdatedAt(rule.getCreatedAt());
+        IotAlertRule saved = ruleRepository.save(rule);
+
+        eventPublisher.publishEvent(new IotAlertRuleChangedEvent(saved.getId(), saved.getDeptId()));
+        log.info("Created alert rule {} on metric {} of department {}", saved.getId(),
+                definition.getMetricName(), saved.getDeptId());
+        return toVO(saved, definition);
+    }
+
+    @Override
+    @Transactional
+    public IotAlertRuleVO updateRule(Long id, IotAlertRuleForm form) {
+        Set<Long> permitted = dataPermissionFilterFactory.getPermittedDeptIds();
+        IotAlertRule rule = findRule(id, permitted);
+        checkPermitted(permitted, form.getDeptId());
+        IotMetricDefinition definition = validate(form);
+
+        apply(rule, form);
+        rule.setUpdatedAt(LocalDateTime.now());
+        IotAlertRule saved = ruleRepository.save(rule);
+
+        eventPublisher.publishEvent(new IotAlertRuleChangedEvent(saved.getId(), saved.getDeptId()));
+        log.info("Updated alert rule {}", saved.getId());
+        return toVO(saved, definition);
+    }
+
+    @Override
+    @Transactional
+    public void deleteRule(Long id) {
+        IotAlertRule rule = findRule(id, dataPermissionFilterFactory.getPermittedDeptIds());
+        // Deactivated rather than deleted: the alerts it raised stay in iot_alerts
+        rule.setIsActive(false);
+        rule.setUpdatedAt(LocalDateTime.now());
+        ruleRepository.save(rule);
+        eventPublisher.publishEvent(new IotAlertRuleChangedEvent(rule.getId(), rule.getDeptId()));
+        log.info("Deactivated alert rule {}", id);
+    }
+
+    @Override
+    public List<IotAlertVO> listAlerts(IotAlertQuery query) {
+        Set<Long> permitted = dataPermissionFilterFactory.getPermittedDeptIds();
+        StringBuilder sql = new StringBuilder(SELECT_ALERTS);
+        List<Object> args = new ArrayList<>();
+        if (query.getDeptId() != null) {
+            checkPermitted(permitted, query.getDeptId());
+            sql.append(" AND dept_id = ?");
+            args.add(query.getDeptId());
+        } else if (permitted != null) {
+            if (permitted.isEmpty()) {
+                return List.of();
+            }
+            sql.append(" AND dept_id IN (").append(String.join(", ", Collections.nCopies(permitted.size(), "?")))
+                    .append(')');
+            args.addAll(permitted);
+        }
+        if (query.getDeviceId() != null) {
+            sql.append(" AND device_id = ?");
+            args.add(query.getDeviceId());
+        }
+        if (query.getOpen() != null) {
+            sql.append(query.getOpen() ? " AND cleared_at IS NULL" : " AND cleared_at IS NOT NULL");
+        }
+        sql.append(" ORDER BY raised_at DESC LIMIT ?");
+        args.add(query.getLimit());
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> toAlertVO(rs), args.toArray());
+    }
+
+    private IotAlertRule findRule(Long id, Set<Long> permitted) {
+        IotAlertRule rule = ruleRepository.findById(id)
+                .orElseThrow(() -> new BusinessException(ResultCode.USER_REQUEST_PARAMETER_ERROR,
+                        "Alert rule not found: " + id));
+        checkPermitted(permitted, rule.getDeptId());
+        return rule;
+    }
+
+    private IotMetricDefinition validate(IotAlertRuleForm form) {
+        IotMetricDefinition definition = metricDefinitionRepository
+                .findByIdAndDeptId(form.getMetricDefinitionId(), form.getDeptId())
+                .filter(d -> Boolean.TRUE.equals(d.getIsActive()))
+                .orElseThrow(() -> new BusinessException(ResultCode.USER_REQUEST_PARAMETER_ERROR,
+                        "Metric definition not found in this department: " + form.getMetricDefinitionId()));
+        if (!definition.getDataType().isNumeric()) {
+            throw new BusinessException(ResultCode.USER_REQUEST_PARAMETER_ERROR,
+                    "Metric " + definition.getMetricName() + " is not numeric");
+        }
+        if ((form.getWindowStatistic() == null) != (form.getWindowSeconds() == null)) {
+            throw new BusinessException(ResultCode.USER_REQUEST_PARAMETER_ERROR,
+                    "windowStatistic and windowSeconds must be given together");
+        }
+        if (form.getWindowStatistic() != null && (!windowStore.hasWindows(definition.getMetricName())
+                || windowStore.windowIndex(form.getWindowSeconds()) < 0)) {
+            throw new BusinessException(ResultCode.USER_REQUEST_PARAMETER_ERROR,
+                    "No " + form.getWindowSeconds() + "s sliding window is maintained for metric "
+                            + definition.getMetricName());
+        }
+        Double clearThreshold = form.getClearThreshold();
+        if (clearThreshold != null && (form.getOperator() == AlertOperator.ABOVE
+                ? clearThreshold > form.getThreshold() : clearThreshold < form.getThreshold())) {
+            throw new BusinessException(ResultCode.REQUEST_PARAMETER_VALUE_EXCEEDS_ALLOWED_RANGE,
+                    "Clear threshold must not lie beyond the threshold for operator " + form.getOperator());
+        }
+        return definition;
+    }
+
+    private static void checkPermitted(Set<Long> permitted, Long deptId) {
+        if (permitted != null && !permitted.contains(deptId)) {
+            throw new BusinessException(ResultCode.ACCESS_UNAUTHORIZED);
+        }
+    }
+
+    private static void apply(IotAlertRule rule, IotAlertRuleForm form) {
+        rule.setDeptId(form.getDeptId());
+        rule.setMetricDefinitionId(form.getMetricDefinitionId());
+        rule.setWindowStatistic(form.getWindowStatistic());
+        rule.setWindowSeconds(form.getWindowSeconds());
+        rule.setName(form.getName());
+        rule.setOperator(form.getOperator());
+        rule.setThreshold(form.getThreshold());
+        rule.setClearThreshold(form.getClearThreshold());
+        rule.setDurationSeconds(form.getDurationSeconds() != null ? form.getDurationSeconds() : 0);
+        rule.setClearDurationSeconds(form.getClearDurationSeconds() != null ? form.getClearDurationSeconds() : 0);
+        rule.setSeverity(form.getSeverity() != null ? form.getSeverity() : AlertSeverity.WARNING);
+    }
+
+    private static IotAlertRuleVO toVO(IotAlertRule rule, IotMetricDefinition definition) {
+        IotAlertRuleVO vo = new IotAlertRuleVO();
+        vo.setId(rule.getId());
+        vo.setDeptId(rule.getDeptId());
+        vo.setMetricDefinitionId(rule.getMetricDefinitionId());
+        vo.setMetricName(definition != null ? definition.getMetricName() : null);
+        vo.setWindowStatistic(rule.getWindowStatistic());
+        vo.setWindowSeconds(rule.getWindowSeconds());
+        vo.setName(rule.getName());
+        vo.setOperator(rule.getOperator());
+        vo.setThreshold(rule.getThreshold());
+        vo.setClearThreshold(rule.getClearThreshold());
+        vo.setDurationSeconds(rule.getDurationSeconds());
+        vo.setClearDurationSeconds(rule.getClearDurationSeconds());
+        vo.setSeverity(rule.getSeverity());
+        vo.setCreatedAt(rule.getCreatedAt());
+        vo.setUpdatedAt(rule.getUpdatedAt());
+        return vo;
+    }
+
+    private static IotAlertVO toAlertVO(ResultSet rs) throws SQLException {
+        IotAlertVO vo = new IotAlertVO();
+        vo.setId(rs.getLong("id"));
+        vo.setRuleId(rs.getLong("rule_id"));
+        vo.setDeptId(rs.getLong("dept_id"));
+        vo.setDeviceId(rs.getString("device_id"));
+        vo.setMetricName(rs.getString("metric_name"));
+        vo.setSeverity(AlertSeverity.valueOf(rs.getString("severity")));
+        vo.setThreshold(rs.getDouble("threshold"));
+        vo.setRaisedAt(rs.getTimestamp("raised_at").getTime());
+        vo.setRaisedValue(rs.getObject("raised_value", Double.class));
+        Timestamp clearedAt = rs.getTimestamp("cleared_at");
+        vo.setState(clearedAt == null ? AlertState.RAISED : AlertState.CLEARED);
+        vo.setClearedAt(clearedAt != null ? clearedAt.getTime() : null);
+        vo.setClearedValue(rs.getObject("cleared_value", Double.class));
+        return vo;
+    }
+}
@@ -5,7 +5,9 @@ import community.waterlevel.iot.common.annotation.RepeatSubmit;
 import community.waterlevel.iot.common.enums.LogModuleEnum;
 import community.waterlevel.iot.common.result.Result;
 import community.waterlevel.iot.module.device.model.form.IotDeviceForm;
+import community.waterlevel.iot.module.device.model.vo.DeviceLatestVO;
 import community.waterlevel.iot.module.device.model.vo.IotDeviceVO;
+import community.waterlevel.iot.module.device.service.DeviceLatestService;
 import community.waterlevel.iot.module.device.service.IotDeviceJpaService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -46,6 +48,7 @@ import java.util.UUID;
 public class IotDeviceJpaController {
 
     private final IotDeviceJpaService deviceService;
+    private final DeviceLatestService deviceLatestService;
 
     /**
      * Get a list of devices belonging to the specified department.
@@ -62,6 +65,25 @@ public class IotDeviceJpaController {
         return Result.success(devices);
     }
 
+    /**
+     * Get the latest readings of every device in a community.
+     *
+     * <p>
+     * Served from the in-memory latest-value store fed by telemetry ingestion; the
+     * community must be within the caller's data scope. Not audited with {@code @Log}
+     * because dashboards poll this endpoint.
+     * </p>
+     *
+     * @param deptId the department (community) identifier
+     * @return a Result wrapping one `DeviceLatestVO` per device with readings
+     */
+    @Operation(summary = "Get latest readings by department")
+    @GetMapping("/latest")
+    public Result<List<DeviceLatestVO>> getLatestReadings(
+            @Parameter(description = "Department ID") @RequestParam Long deptId) {
+        return Result.success(deviceLatestService.getLatestByDept(deptId));
+    }
+
     /**
      * Get devices filtered by their status.
      *
@@ -146,7 +168,6 @@ public class IotDeviceJpaController {
      */
     @Operation(summary = "Update device heartbeat")
     @PatchMapping("/{deviceId}/heartbeat")
-    @Log(value = "Update device heartbeat", module = LogModuleEnum.OTHER)
     public Result<Void> updateDeviceHeartbeat(@Parameter(description = "Device ID") @PathVariable UUID deviceId) {
         boolean r = deviceService.updateDeviceLastSeen(deviceId);
         return Result.judge(r);
@@ -0,0 +1,180 @@
+package community.waterlevel.iot.module.device.live;
+
+import community.waterlevel.iot.config.property.DeviceProperties;
+import community.waterlevel.iot.module.device.model.vo.DeviceLatestVO;
+import community.waterlevel.iot.module.device.model.vo.LiveReadingsVO;
+import community.waterlevel.iot.module.device.service.DeviceLatestService;
+import community.waterlevel.iot.shared.websocket.cluster.ClusterPresenceRegistry;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pushes changed device readings to {@code /topic/community/{deptId}/readings}.
+ *
+ * <p>Readings are not forwarded per sample. Every {@code device.live.interval-ms} the
+ * publisher looks up the communities that currently have subscribers on any node
+ * ({@link ClusterPresenceRegistry#getSubscribedDestinations()}), collects the devices of each whose latest values changed
+ * since the previous frame ({@link DeviceLatestService#getChangedByDept}) and sends them
+ * as one {@link LiveReadingsVO}. Each subscriber of a community thus receives at most
+ * one frame per interval however many samples arrived, carrying only the newest value of
+ * every metric; batches above {@code device.live.max-devices-per-frame} devices are
+ * split. Communities without subscribers cost nothing; their devices are sent as
+ * changed in the first frame after someone subscribes.
+ *
+ * <p>Subscriptions outside the subscriber's data scope are rejected by
+ * {@code WebSocketConfig}.
+ *
+ * <p>Metrics: {@code device.live.frames}, {@code device.live.devices} and
+ * {@code device.live.communities}.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Slf4j
+@Component
+public class LiveReadingsPublisher implements SmartLifecycle {
+
+    private static final String PREFIX = "/topic/community/";
+    private static final String SUFFIX = "/readings";
+
+    private final DeviceLatestService deviceLatestService;
+    private final ObjectProvider<SimpMessagingTemplate> messagingTemplate;
+    private final ClusterPresenceRegistry clusterPresence;
+    private final DeviceProperties.LiveConfig config;
+
+    private final LongAdder frames = new LongAdder();
+    private final LongAdder devices = new LongAdder();
+    private volatile int communities;
+
+    private ScheduledExecutorService scheduler;
+    private volatile boolean running;
+
+    public LiveReadingsPublisher(DeviceLatestService deviceLatestService,
+                                 ObjectProvider<SimpMessagingTemplate> messagingTemplate,
+                                 ClusterPresenceRegistry clusterPresence, DeviceProperties properties,
+                                 MeterRegistry meterRegistry) {
+        this.deviceLatestService = deviceLatestService;
+        this.messagingTemplate = messagingTemplate;
+        this.clusterPresence = clusterPresence;
+        this.config = properties.getLive();
+
+        FunctionCounter.builder("device.live.frames", frames, LongAdder::sum)
+                .description("Reading frames pushed to community topics")
+                .register(meterRegistry);
+        FunctionCounter.builder("device.live.devices", devices, LongAdder::sum)
+                .description("Device readings pushed to community topics")
+                .register(meterRegistry);
+        Gauge.builder("device.live.communities", this, p -> p.communities)
+                .description("Communities with reading subscribers")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the community of a readings topic.
+     *
+     * @param destination the STOMP destination
+     * @return the community identifier, or null if the destination is not a readings topic
+     */
+    public static Long parseDeptId(String destination) {
+        if (destination == null || !destination.startsWith(PREFIX) || !destination.endsWith(SUFFIX)
+                || destination.length() <= PREFIX.length() + SUFFIX.length()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(destination.substring(PREFIX.length(), destination.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Sends one frame per subscribed community with the devices changed since the
+     * previous call.
+     *
+     * @return the number of frames sent
+     */
+    public synchronized int publish() {
+        SimpMessagingTemplate template = messagingTemplate.getIfAvailable();
+        if (template == null) {
+            return 0;
+        }
+        Set<Long> subscribed = new HashSet<>();
+        for (String destination : clusterPresence.getSubscribedDestinations()) {
+            Long deptId = parseDeptId(destination);
+            if (deptId != null) {
+                subscribed.add(deptId);
+            }
+        }
+        communities = subscribed.size();
+
+        int sent = 0;
+        long now = System.currentTimeMillis();
+        for (Long deptId : subscribed) {
+            List<DeviceLatestVO> changed = deviceLatestService.getChangedByDept(deptId);
+            int max = config.getMaxDevicesPerFrame();
+            for (int from = 0; from < changed.size(); from += max) {
+                List<DeviceLatestVO> chunk = changed.subList(from, Math.min(changed.size(), from + max));
+                try {
+                    template.convertAndSend(PREFIX + deptId + SUFFIX, new LiveReadingsVO(deptId, now, chunk));
+                    sent++;
+                    devices.add(chunk.size());
+                } catch (RuntimeException e) {
+                    log.warn("Failed to push readings of community {}: {}", deptId, e.getMessage());
+                }
+            }
+        }
+        frames.add(sent);
+        return sent;
+    }
+
+    @Override
+    public void start() {
+        if (!config.isEnabled()) {
+            log.info("Live reading push disabled");
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "device-live-push");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = config.getIntervalMs();
+        scheduler.scheduleWithFixedDelay(this::publishQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void publishQuietly() {
+        try {
+            publish();
+        } catch (RuntimeException e) {
+            log.error("Live reading push failed", e);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package community.waterlevel.iot.module.device.model.event;
+
+import lombok.Data;
+
+import java.util.UUID;
+
+/**
+ * IotDeviceChangedEvent is published whenever an IoT device is created, updated,
+ * has its status changed or is deleted.
+ * <p>
+ * Listeners holding in-memory device state (such as the ingestion device registry)
+ * use it to refresh exactly the affected device instead of reloading everything.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Data
+public class IotDeviceChangedEvent {
+
+    /**
+     * Identifier of the device that changed.
+     */
+    private UUID deviceId;
+
+    /**
+     * Whether the device was (soft) deleted.
+     */
+    private boolean deleted;
+
+    /**
+     * Event occurrence timestamp (epoch milliseconds).
+     */
+    private long timestamp;
+
+    /**
+     * Creates a change event for the given device.
+     *
+     * @param deviceId the device identifier
+     * @param deleted  whether the device was deleted
+     */
+    public IotDeviceChangedEvent(UUID deviceId, boolean deleted) {
+        this.deviceId = deviceId;
+        this.deleted = deleted;
+        this.timestamp = System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,44 @@
+package community.waterlevel.iot.module.device.model.vo;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * View Object (VO) for the latest readings of one device, served from the
+ * in-memory latest-value store.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ * @see LatestMetricVO
+ */
+@Data
+@Schema(description = "Latest readings of a device")
+public class DeviceLatestVO {
+
+    /**
+     * Device identifier.
+     */
+    @Schema(description = "Device ID")
+    private UUID deviceId;
+
+    /**
+     * Community (department) the device belongs to.
+     */
+    @Schema(description = "Department ID")
+    private Long deptId;
+
+    /**
+     * Current device status.
+     */
+    @Schema(description = "Device status")
+    private String status;
+
+    /**
+     * Newest sample of every metric reported by the device.
+     */
+    @Schema(description = "Latest metric values")
+    private List<LatestMetricVO> metrics;
+}
@@ -0,0 +1,55 @@
+package community.waterlevel.iot.module.device.model.vo;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * View Object (VO) for the newest sample of one device metric.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ * @see DeviceLatestVO
+ */
+@Data
+@Schema(description = "Newest sample of a device metric")
+public class LatestMetricVO {
+
+    /**
+     * Metric name as published by the device.
+     */
+    @Schema(description = "Metric name")
+    private String metricName;
+
+    /**
+     * Numeric value; null for non-numeric metrics.
+     */
+    @Schema(description = "Metric value, null for non-numeric metrics")
+    private Double value;
+
+    /**
+     * Sample time in epoch milliseconds.
+     */
+    @Schema(description = "Sample time (epoch milliseconds)")
+    private Long time;
+
+    /**
+     * Metric definition version; null when the metric has no active definition.
+     */
+    @Schema(description = "Metric definition version")
+    private Integer metricVersion;
+
+    /**
+     * Quality indicator: 0=Good, 1=Uncertain, 2=Bad.
+     */
+    @Schema(description = "Quality: 0=Good, 1=Uncertain, 2=Bad")
+    private Short quality;
+
+    /**
+     * Sliding-window statistics keyed by window length ({@code 10m}, {@code 1h}, ...);
+     * null for metrics without windows.
+     */
+    @Schema(description = "Sliding-window statistics by window length")
+    private Map<String, WindowStatsVO> windows;
+}
@@ -0,0 +1,42 @@
+package community.waterlevel.iot.module.device.model.vo;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * View Object (VO) for one frame pushed to {@code /topic/community/{deptId}/readings}:
+ * the latest readings of every device of the community that changed during the
+ * coalescing interval.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ * @see DeviceLatestVO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Changed readings of a community")
+public class LiveReadingsVO {
+
+    /**
+     * Community (department) the devices belong to.
+     */
+    @Schema(description = "Department ID")
+    private Long deptId;
+
+    /**
+     * Time the frame was sent, in epoch milliseconds.
+     */
+    @Schema(description = "Frame time (epoch ms)")
+    private Long time;
+
+    /**
+     * Devices with at least one new sample since the previous frame.
+     */
+    @Schema(description = "Changed devices")
+    private List<DeviceLatestVO> devices;
+}
@@ -0,0 +1,39 @@
+package community.waterlevel.iot.module.device.model.vo;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+/**
+ * View Object (VO) for the statistics of one sliding window of a device metric, as of
+ * its newest sample.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ * @see LatestMetricVO
+ */
+@Data
+@Schema(description = "Sliding-window statistics of a device metric")
+public class WindowStatsVO {
+
+    /**
+     * Samples in the window.
+     */
+    @Schema(description = "Sample count")
+    private Integer count;
+
+    @Schema(description = "Mean value")
+    private Double mean;
+
+    @Schema(description = "Minimum value")
+    private Double min;
+
+    @Schema(description = "Maximum value")
+    private Double max;
+
+    /**
+     * Change over the window length from the least-squares slope, e.g. cm per 10 minutes;
+     * null until the window holds enough samples.
+     */
+    @Schema(description = "Rate of change per window length")
+    private Double rate;
+}
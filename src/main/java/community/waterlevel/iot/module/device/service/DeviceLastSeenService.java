@@ -0,0 +1,32 @@
+package community.waterlevel.iot.module.device.service;
+
+import java.util.UUID;
+
+/**
+ * Service interface for tracking when devices were last heard from.
+ *
+ * <p>Heartbeats and telemetry only update an in-memory timestamp per device;
+ * implementations persist the newest values to {@code iot_device.last_seen}
+ * periodically with set-based updates, so database writes scale with the flush
+ * interval rather than with the device count and report rate.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+public interface DeviceLastSeenService {
+
+    /**
+     * Records that a device communicated at the given time. Never blocks on I/O.
+     *
+     * @param deviceId    the device identifier
+     * @param epochMillis the time the device was seen (epoch milliseconds)
+     */
+    void touch(UUID deviceId, long epochMillis);
+
+    /**
+     * Writes all timestamps recorded since the previous flush.
+     *
+     * @return the number of devices updated
+     */
+    int flush();
+}
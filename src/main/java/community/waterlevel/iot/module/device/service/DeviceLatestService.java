@@ -0,0 +1,37 @@
+package community.waterlevel.iot.module.device.service;
+
+import community.waterlevel.iot.module.device.model.vo.DeviceLatestVO;
+
+import java.util.List;
+
+/**
+ * Service interface for reading the latest readings of devices.
+ *
+ * <p>Readings are served from the in-memory latest-value store maintained by the
+ * ingestion pipeline; no database access is involved on the request path.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+public interface DeviceLatestService {
+
+    /**
+     * Returns the latest readings of every device in a community.
+     *
+     * @param deptId the community (department) identifier
+     * @return one entry per device that has reported at least one metric
+     * @throws community.waterlevel.iot.common.exception.BusinessException if the
+     *         community is outside the caller's data scope
+     */
+    List<DeviceLatestVO> getLatestByDept(Long deptId);
+
+    /**
+     * Returns the latest readings of the devices in a community that changed since the
+     * previous call, for live push. Not limited to the caller's data scope; subscriptions
+     * are checked when they are made.
+     *
+     * @param deptId the community (department) identifier
+     * @return one entry per changed device
+     */
+    List<DeviceLatestVO> getChangedByDept(long deptId);
+}
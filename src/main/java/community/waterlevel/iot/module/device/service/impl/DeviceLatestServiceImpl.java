@@ -0,0 +1,118 @@
+package community.waterlevel.iot.module.device.service.impl;
+
+import community.waterlevel.iot.common.exception.BusinessException;
+import community.waterlevel.iot.common.result.ResultCode;
+import community.waterlevel.iot.core.aspect.DataPermissionFilterFactory;
+import community.waterlevel.iot.module.device.model.vo.DeviceLatestVO;
+import community.waterlevel.iot.module.device.model.vo.LatestMetricVO;
+import community.waterlevel.iot.module.device.model.vo.WindowStatsVO;
+import community.waterlevel.iot.module.device.service.DeviceLatestService;
+import community.waterlevel.iot.module.ingestion.latest.LatestValueStore;
+import community.waterlevel.iot.module.ingestion.model.RegisteredDevice;
+import community.waterlevel.iot.module.ingestion.registry.DeviceRegistry;
+import community.waterlevel.iot.module.ingestion.window.SeriesWindowStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Implementation of {@link DeviceLatestService} backed by {@link LatestValueStore}.
+ *
+ * <p>The devices of the community come from {@link DeviceRegistry}; the caller's data
+ * scope is checked with {@link DataPermissionFilterFactory#getPermittedDeptIds()}.
+ * Metrics with sliding windows also carry their window statistics from
+ * {@link SeriesWindowStore}.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Service
+@RequiredArgsConstructor
+public class DeviceLatestServiceImpl implements DeviceLatestService {
+
+    private final LatestValueStore latestValueStore;
+    private final SeriesWindowStore seriesWindowStore;
+    private final DeviceRegistry deviceRegistry;
+    private final DataPermissionFilterFactory dataPermissionFilterFactory;
+
+    @Override
+    public List<DeviceLatestVO> getLatestByDept(Long deptId) {
+        Set<Long> permitted = dataPermissionFilterFactory.getPermittedDeptIds();
+        if (permitted != null && !permitted.contains(deptId)) {
+            throw new BusinessException(ResultCode.ACCESS_UNAUTHORIZED);
+        }
+
+        RegisteredDevice[] devices = deviceRegistry.findByDept(deptId);
+        List<DeviceLatestVO> result = new ArrayList<>(devices.length);
+        LatestValueStore.Values values = new LatestValueStore.Values();
+        SeriesWindowStore.Stats stats = seriesWindowStore.newStats();
+        String[] labels = seriesWindowStore.getLabels();
+        for (RegisteredDevice device : devices) {
+            if (latestValueStore.read(device, values)) {
+                result.add(toVO(device, values, stats, labels));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<DeviceLatestVO> getChangedByDept(long deptId) {
+        RegisteredDevice[] devices = deviceRegistry.findByDept(deptId);
+        List<DeviceLatestVO> result = new ArrayList<>();
+        LatestValueStore.Values values = new LatestValueStore.Values();
+        SeriesWindowStore.Stats stats = seriesWindowStore.newStats();
+        String[] labels = seriesWindowStore.getLabels();
+        for (RegisteredDevice device : devices) {
+            if (latestValueStore.readChanged(device, values)) {
+                result.add(toVO(device, values, stats, labels));
+            }
+        }
+        return result;
+    }
+
+    private DeviceLatestVO toVO(RegisteredDevice device, LatestValueStore.Values values,
+                                SeriesWindowStore.Stats stats, String[] labels) {
+        List<LatestMetricVO> metrics = new ArrayList<>(values.size);
+        for (int i = 0; i < values.size; i++) {
+            LatestMetricVO metric = new LatestMetricVO();
+            metric.setMetricName(latestValueStore.metricName(values.metrics[i]));
+            metric.setValue(values.present[i] ? values.values[i] : null);
+            metric.setTime(values.times[i]);
+            metric.setMetricVersion(values.versions[i] != 0 ? values.versions[i] : null);
+            metric.setQuality(values.qualities[i]);
+            if (seriesWindowStore.read(device.getDeviceIdText(), metric.getMetricName(), stats)) {
+                metric.setWindows(toWindows(stats, labels));
+            }
+            metrics.add(metric);
+        }
+        DeviceLatestVO vo = new DeviceLatestVO();
+        vo.setDeviceId(device.getDeviceId());
+        vo.setDeptId(device.getDeptId());
+        vo.setStatus(device.getStatus() != null ? device.getStatus().name() : null);
+        vo.setMetrics(metrics);
+        return vo;
+    }
+
+    private static Map<String, WindowStatsVO> toWindows(SeriesWindowStore.Stats stats, String[] labels) {
+        Map<String, WindowStatsVO> windows = new LinkedHashMap<>();
+        for (int w = 0; w < labels.length; w++) {
+            WindowStatsVO window = new WindowStatsVO();
+            window.setCount(stats.counts[w]);
+            window.setMean(valueOrNull(stats.means[w]));
+            window.setMin(valueOrNull(stats.mins[w]));
+            window.setMax(valueOrNull(stats.maxs[w]));
+            window.setRate(valueOrNull(stats.rates[w]));
+            windows.put(labels[w], window);
+        }
+        return windows;
+    }
+
+    private static Double valueOrNull(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+}
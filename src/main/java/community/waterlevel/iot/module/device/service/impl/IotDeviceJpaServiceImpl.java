@@ -1,6 +1,7 @@
 package community.waterlevel.iot.module.device.service.impl;
 
 import community.waterlevel.iot.module.device.model.entity.IotDeviceJpa;
+import community.waterlevel.iot.module.device.model.event.IotDeviceChangedEvent;
 import community.waterlevel.iot.module.device.model.form.IotDeviceForm;
 import community.waterlevel.iot.module.device.model.vo.IotDeviceVO;
 import community.waterlevel.iot.module.device.repository.IotDeviceJpaRepository;
@@ -8,7 +9,10 @@ import community.waterlevel.iot.system.repository.DeptJpaRepository;
 import community.waterlevel.iot.module.device.converter.IotDeviceJpaConverter;
 import community.waterlevel.iot.module.device.service.IotDeviceJpaService;
 import community.waterlevel.iot.module.device.service.EmqxService;
+import community.waterlevel.iot.module.device.service.DeviceLastSeenService;
+import community.waterlevel.iot.module.ingestion.registry.DeviceRegistry;
 import community.waterlevel.iot.module.device.model.enums.DeviceModelEnum;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import org.slf4j.Logger;
@@ -64,6 +68,9 @@ public class IotDeviceJpaServiceImpl implements IotDeviceJpaService {
     private final IotDeviceJpaConverter converter;
     private final DeptJpaRepository deptJpaRepository;
     private final EmqxService emqxService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DeviceRegistry deviceRegistry;
+    private final DeviceLastSeenService lastSeenService;
 
     /**
      * Constructs a new IoT device service implementation.
@@ -76,12 +83,18 @@ public class IotDeviceJpaServiceImpl implements IotDeviceJpaService {
      * @param converter the MapStruct converter for model transformations
      * @param deptJpaRepository the repository for department data access
      * @param emqxService the service for EMQX API operations
+     * @param eventPublisher the publisher for {@link IotDeviceChangedEvent}s
+     * @param deviceRegistry the in-memory registry of non-deleted devices
+     * @param lastSeenService the coalescing last-seen tracker
      */
-    public IotDeviceJpaServiceImpl(IotDeviceJpaRepository repository, IotDeviceJpaConverter converter, DeptJpaRepository deptJpaRepository, EmqxService emqxService) {
+    public IotDeviceJpaServiceImpl(IotDeviceJpaRepository repository, IotDeviceJpaConverter converter, DeptJpaRepository deptJpaRepository, EmqxService emqxService, ApplicationEventPublisher eventPublisher, DeviceRegistry deviceRegistry, DeviceLastSeenService lastSeenService) {
         this.repository = repository;
         this.converter = converter;
         this.deptJpaRepository = deptJpaRepository;
         this.emqxService = emqxService;
+        this.eventPublisher = eventPublisher;
+        this.deviceRegistry = deviceRegistry;
+        this.lastSeenService = lastSeenService;
     }
 
     /**
@@ -216,6 +229,7 @@ public class IotDeviceJpaServiceImpl implements IotDeviceJpaService {
         }
 
         repository.save(entity);
+        eventPublisher.publishEvent(new IotDeviceChangedEvent(entity.getDeviceId(), false));
         return true;
     }    /**
      * Updates an existing IoT device with the provided form data.
@@ -258,6 +272,7 @@ public class IotDeviceJpaServiceImpl implements IotDeviceJpaService {
         }
         exist.setUpdatedAt(LocalDateTime.now());
         repository.save(exist);
+        eventPublisher.publishEvent(new IotDeviceChangedEvent(deviceId, false));
         return true;
     }
 
@@ -301,6 +316,7 @@ public class IotDeviceJpaServiceImpl implements IotDeviceJpaService {
                 
                 // Delete device from database (soft delete)
                 repository.deleteById(id);
+                eventPublisher.publishEvent(new IotDeviceChangedEvent(id, true));
                 
                 // Delete corresponding EMQX user if username exists
                 if (emqxUsername != null && !emqxUsername.isEmpty()) {
@@ -346,6 +362,7 @@ public class IotDeviceJpaServiceImpl implements IotDeviceJpaService {
         exist.setStatus(Enum.valueOf(community.waterlevel.iot.module.device.model.enums.DeviceStatusEnum.class, status.toUpperCase()));
         exist.setUpdatedAt(LocalDateTime.now());
         repository.save(exist);
+        eventPublisher.publishEvent(new IotDeviceChangedEvent(deviceId, false));
         return true;
     }
 
@@ -357,6 +374,10 @@ public class IotDeviceJpaServiceImpl implements IotDeviceJpaService {
      * communicating properly. It helps monitor device connectivity
      * and identify offline devices.
      *
+     * <p>The existence check uses the in-memory {@link DeviceRegistry} and the
+     * timestamp is coalesced by {@link DeviceLastSeenService}, which persists it
+     * with the next periodic flush; no database access happens per heartbeat.
+     *
      * @param deviceId the UUID of the device that was seen
      * @return {@code true} if the timestamp was updated successfully,
      *         {@code false} if the device was not found
@@ -365,11 +386,8 @@ public class IotDeviceJpaServiceImpl implements IotDeviceJpaService {
      */
     @Override
     public boolean updateDeviceLastSeen(UUID deviceId) {
-        Optional<IotDeviceJpa> opt = repository.findById(deviceId);
-        if (opt.isEmpty()) return false;
-        IotDeviceJpa exist = opt.get();
-        exist.setLastSeen(LocalDateTime.now());
-        repository.save(exist);
+        if (deviceRegistry.findById(deviceId) == null) return false;
+        lastSeenService.touch(deviceId, System.currentTimeMillis());
         return true;
     }
 
@@ -0,0 +1,391 @@
+package community.waterlevel.iot.module.ingestion.anomaly;
+
+import community.waterlevel.iot.config.property.IngestionProperties;
+import community.waterlevel.iot.module.ingestion.model.RegisteredDevice;
+import community.waterlevel.iot.module.ingestion.model.enums.AnomalyMethod;
+import community.waterlevel.iot.module.ingestion.model.enums.SensorQuality;
+import community.waterlevel.iot.module.ingestion.model.event.SensorAnomalyEvent;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Online anomaly detection on numeric series, applied at ingestion before a sample is
+ * stored.
+ *
+ * <p>Every series of a metric in {@code ingestion.anomaly.metrics} keeps a baseline of
+ * two numbers, a center and a scale, updated in constant time per sample:
+ * <ul>
+ *   <li>{@code EWMA} - exponentially weighted mean and variance; the score is the
+ *       z-score of the sample</li>
+ *   <li>{@code ROBUST} - streaming median and median absolute deviation, each moved by
+ *       a bounded step towards the sample (stochastic approximation of the quantile);
+ *       the score is the deviation from the median in units of 1.4826 MAD</li>
+ * </ul>
+ * The first {@code warmup-samples} samples of a series seed the baseline with their
+ * running mean and variance (or mean absolute deviation) and are not scored. The
+ * deviation is never taken below {@code min-deviation}, so a flat series does not flag
+ * small steps. Samples are scored against the baseline before they update it, and an
+ * outlier moves an EWMA baseline by at most {@code uncertain-score} deviations, so a
+ * single spike does not mask the samples after it while a genuine level shift is still
+ * followed. Scoring ({@link #assess}) changes nothing; the baseline, the counters and
+ * the events only follow samples passed to {@link #accept} once they were stored, so a
+ * sample the writer refused, and its redelivery, is not learned twice.
+ *
+ * <p>A sample scoring at least {@code uncertain-score} is marked Uncertain; a quality
+ * already reported by the device is never upgraded. The detector never marks a sample
+ * Bad: Bad samples are skipped by the sliding windows and the alert engine, and a genuine
+ * flash flood is exactly what must still reach them. A score of at least
+ * {@code severe-score} only classifies the anomaly as severe. The first anomalous sample
+ * after a normal one publishes a {@link SensorAnomalyEvent}. Events are queued and
+ * published by a separate thread, so listeners never run on an ingestion thread; a
+ * full queue drops the event.
+ *
+ * <p>State lives in primitive arrays indexed by {@link RegisteredDevice#getSlot()} and
+ * metric, about 30 bytes per series. Each series is only updated by the thread
+ * ingesting its device, and in arrival order; samples not newer than the last one
+ * scored are passed through unchanged. A sample racing with a resize of the arrays may
+ * lose its baseline update, which is harmless.
+ *
+ * <p>Metrics: {@code ingestion.anomaly{severity=moderate|severe}},
+ * {@code ingestion.anomaly.events{result=published|dropped}} and
+ * {@code ingestion.anomaly.events.queue}.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Slf4j
+@Component
+public class AnomalyDetector implements SmartLifecycle {
+
+    private static final double MAD_TO_SIGMA = 1.4826;
+    private static final short UNCERTAIN = SensorQuality.UNCERTAIN.getCode();
+    private static final short BAD = SensorQuality.BAD.getCode();
+
+    private final boolean enabled;
+    private final boolean robust;
+    private final String[] metricNames;
+    private final double alpha;
+    private final int warmupSamples;
+    private final double uncertainScore;
+    private final double severeScore;
+    private final double minDeviation;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BlockingQueue<SensorAnomalyEvent> pendingEvents;
+
+    private final Object growLock = new Object();
+    private volatile Table table;
+
+    private final LongAdder moderate = new LongAdder();
+    private final LongAdder severe = new LongAdder();
+    private final LongAdder events = new LongAdder();
+    private final LongAdder droppedEvents = new LongAdder();
+
+    private volatile boolean running;
+    private Thread publisher;
+
+    public AnomalyDetector(IngestionProperties properties, MeterRegistry meterRegistry,
+                           ApplicationEventPublisher eventPublisher) {
+        IngestionProperties.AnomalyConfig config = properties.getAnomaly();
+        this.enabled = config.isEnabled();
+        this.robust = config.getMethod() == AnomalyMethod.ROBUST;
+        this.metricNames = config.getMetrics().stream().distinct().toArray(String[]::new);
+        this.alpha = config.getAlpha();
+        this.warmupSamples = config.getWarmupSamples();
+        this.uncertainScore = config.getUncertainScore();
+        this.severeScore = Math.max(config.getSevereScore(), config.getUncertainScore());
+        this.minDeviation = config.getMinDeviation();
+        this.eventPublisher = eventPublisher;
+        this.pendingEvents = new ArrayBlockingQueue<>(config.getEventQueueCapacity());
+        this.table = new Table(0, metricNames.length);
+
+        FunctionCounter.builder("ingestion.anomaly", moderate, LongAdder::sum)
+                .tag("severity", "moderate").register(meterRegistry);
+        FunctionCounter.builder("ingestion.anomaly", severe, LongAdder::sum)
+                .tag("severity", "severe").register(meterRegistry);
+        FunctionCounter.builder("ingestion.anomaly.events", events, LongAdder::sum)
+                .tag("result", "published").register(meterRegistry);
+        FunctionCounter.builder("ingestion.anomaly.events", droppedEvents, LongAdder::sum)
+                .tag("result", "dropped").register(meterRegistry);
+        Gauge.builder("ingestion.anomaly.events.queue", pendingEvents, BlockingQueue::size)
+                .description("Anomaly events waiting to be published")
+                .register(meterRegistry);
+        if (enabled) {
+            log.info("Anomaly detection: {} on {}, alpha {}, uncertain from {}, severe from {}",
+                    config.getMethod(), Arrays.toString(metricNames), alpha, uncertainScore, severeScore);
+        }
+    }
+
+    /**
+     * Scores a sample against the baseline of its series without changing any state.
+     *
+     * @param device     the reporting device
+     * @param metricName the metric name
+     * @param time       the sample time in epoch milliseconds
+     * @param value      the sample value
+     * @param quality    the quality reported with the sample
+     * @return the quality to store: the reported one, or at least Uncertain when anomalous
+     */
+    public short assess(RegisteredDevice device, String metricName, long time, double value, short quality) {
+        return evaluate(device, metricName, time, value, quality, false);
+    }
+
+    /**
+     * Updates the baseline of the series with a sample that was stored, counting it and
+     * publishing an event when it starts an anomaly. The sample scores the same as in the
+     * preceding {@link #assess}, so a sample the writer refused never moves the baseline.
+     *
+     * @param device     the reporting device
+     * @param metricName the metric name
+     * @param time       the sample time in epoch milliseconds
+     * @param value      the sample value
+     * @param quality    the quality stored with the sample
+     */
+    public void accept(RegisteredDevice device, String metricName, long time, double value, short quality) {
+        evaluate(device, metricName, time, value, quality, true);
+    }
+
+    private short evaluate(RegisteredDevice device, String metricName, long time, double value, short quality,
+                           boolean update) {
+        if (!enabled || quality == BAD || !Double.isFinite(value)) {
+            return quality;
+        }
+        int metric = metricIndex(metricName);
+        if (metric < 0) {
+            return quality;
+        }
+        int slot = device.getSlot();
+        Table t = tableFor(slot);
+        int i = slot * metricNames.length + metric;
+        if (!device.getDeviceId().equals(t.owners[slot])) {
+            if (!update) {
+                // Not seen yet: still warming up
+                return quality;
+            }
+            // New device, or a slot reused after deregistration
+            int first = slot * metricNames.length;
+            Arrays.fill(t.counts, first, first + metricNames.length, 0);
+            Arrays.fill(t.anomalous, first, first + metricNames.length, false);
+            t.owners[slot] = device.getDeviceId();
+        }
+        int n = t.counts[i];
+        if (n > 0 && time <= t.lastTimes[i]) {
+            return quality;
+        }
+        if (n < warmupSamples) {
+            if (update) {
+                t.lastTimes[i] = time;
+                seed(t, i, n, value);
+                t.counts[i] = n + 1;
+            }
+            return quality;
+        }
+
+        double center = t.centers[i];
+        double deviation = value - center;
+        double sigma = robust
+                ? Math.max(MAD_TO_SIGMA * t.scales[i], minDeviation)
+                : Math.max(Math.sqrt(t.scales[i]), minDeviation);
+        double score = Math.abs(deviation) / sigma;
+        if (!update) {
+            return score < uncertainScore ? quality : (short) Math.max(quality, UNCERTAIN);
+        }
+
+        t.lastTimes[i] = time;
+        if (robust) {
+            double step = alpha * sigma;
+            t.centers[i] = center + clamp(deviation, step);
+            t.scales[i] += clamp(Math.abs(deviation) - t.scales[i], step / MAD_TO_SIGMA);
+        } else {
+            double d = clamp(deviation, uncertainScore * sigma);
+            t.centers[i] = center + alpha * d;
+            t.scales[i] = (1 - alpha) * (t.scales[i] + alpha * d * d);
+        }
+        if (score < uncertainScore) {
+            t.anomalous[i] = false;
+            return quality;
+        }
+        boolean isSevere = score >= severeScore;
+        if (isSevere) {
+            severe.increment();
+        } else {
+            moderate.increment();
+        }
+        if (!t.anomalous[i]) {
+            t.anomalous[i] = true;
+            if (!pendingEvents.offer(new SensorAnomalyEvent(device.getDeptId(), device.getDeviceIdText(),
+                    metricName, time, value, center, score, isSevere))) {
+                droppedEvents.increment();
+            }
+        }
+        return (short) Math.max(quality, UNCERTAIN);
+    }
+
+    public long getModerate() {
+        return moderate.sum();
+    }
+
+    public long getSevere() {
+        return severe.sum();
+    }
+
+    public long getEvents() {
+        return events.sum();
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        publisher = new Thread(this::publishLoop, "anomaly-events");
+        publisher.setDaemon(true);
+        publisher.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (publisher != null) {
+            publisher.interrupt();
+            try {
+                publisher.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts before and stops after the ingestion feeding it.
+     */
+    @Override
+    public int getPhase() {
+        return DEFAULT_PHASE - 2048;
+    }
+
+    private void publishLoop() {
+        while (running) {
+            try {
+                publish(pendingEvents.take());
+            } catch (InterruptedException e) {
+                running = false;
+            }
+        }
+        SensorAnomalyEvent event;
+        while ((event = pendingEvents.poll()) != null) {
+            publish(event);
+        }
+    }
+
+    private void publish(SensorAnomalyEvent event) {
+        try {
+            eventPublisher.publishEvent(event);
+            events.increment();
+        } catch (RuntimeException e) {
+            log.warn("Failed to publish anomaly of {} on device {}", event.getMetricName(), event.getDeviceId(), e);
+        }
+    }
+
+    /**
+     * Running mean and variance (EWMA) or mean absolute deviation (ROBUST) over the
+     * warm-up samples, i.e. an EWMA with weight {@code 1 / count}.
+     */
+    private void seed(Table t, int i, int n, double value) {
+        if (n == 0) {
+            t.centers[i] = value;
+            t.scales[i] = 0;
+            t.anomalous[i] = false;
+            return;
+        }
+        double weight = 1.0 / (n + 1);
+        double deviation = value - t.centers[i];
+        t.centers[i] += weight * deviation;
+        if (robust) {
+            t.scales[i] += weight * (Math.abs(deviation) - t.scales[i]);
+        } else {
+            t.scales[i] = (1 - weight) * (t.scales[i] + weight * deviation * deviation);
+        }
+    }
+
+    private int metricIndex(String metricName) {
+        for (int m = 0; m < metricNames.length; m++) {
+            if (metricNames[m].equals(metricName)) {
+                return m;
+            }
+        }
+        return -1;
+    }
+
+    private Table tableFor(int slot) {
+        Table current = table;
+        if (slot < current.owners.length) {
+            return current;
+        }
+        synchronized (growLock) {
+            current = table;
+            if (slot >= current.owners.length) {
+                current = current.grow(Math.max(slot + 1, Math.max(16, current.owners.length * 2)));
+                table = current;
+            }
+            return current;
+        }
+    }
+
+    private static double clamp(double value, double limit) {
+        return Math.max(-limit, Math.min(limit, value));
+    }
+
+    /**
+     * Baselines of all series, indexed by {@code slot * metrics + metric}; owners by slot.
+     */
+    private static final class Table {
+
+        private final int metrics;
+        private final UUID[] owners;
+        private final int[] counts;
+        private final boolean[] anomalous;
+        private final long[] lastTimes;
+        private final double[] centers;
+        private final double[] scales;
+
+        private Table(int slots, int metrics) {
+            this.metrics = metrics;
+            this.owners = new UUID[slots];
+            this.counts = new int[slots * metrics];
+            this.anomalous = new boolean[slots * metrics];
+            this.lastTimes = new long[slots * metrics];
+            this.centers = new double[slots * metrics];
+            this.scales = new double[slots * metrics];
+        }
+
+        private Table grow(int slots) {
+            Table grown = new Table(slots, metrics);
+            int series = counts.length;
+            System.arraycopy(owners, 0, grown.owners, 0, owners.length);
+            System.arraycopy(counts, 0, grown.counts, 0, series);
+            System.arraycopy(anomalous, 0, grown.anomalous, 0, series);
+            System.arraycopy(lastTimes, 0, grown.lastTimes, 0, series);
+            System.arraycopy(centers, 0, grown.centers, 0, series);
+            System.arraycopy(scales, 0, grown.scales, 0, series);
+            return grown;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package community.waterlevel.iot.module.ingestion.anomaly;
+
+import community.waterlevel.iot.module.ingestion.model.event.SensorAnomalyEvent;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pushes {@link SensorAnomalyEvent}s to {@code /topic/community/{deptId}/anomalies}.
+ *
+ * <p>Events are delivered on the publishing thread of {@link AnomalyDetector}, never on
+ * an ingestion thread. Subscriptions outside the subscriber's data scope are rejected by
+ * {@code WebSocketConfig}; with the WebSocket cluster relay enabled the push reaches
+ * subscribers on every node.
+ *
+ * <p>Metrics: {@code ingestion.anomaly.pushed}.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Slf4j
+@Component
+public class SensorAnomalyBroadcaster {
+
+    private static final String PREFIX = "/topic/community/";
+    private static final String SUFFIX = "/anomalies";
+
+    private final ObjectProvider<SimpMessagingTemplate> messagingTemplate;
+    private final LongAdder pushed = new LongAdder();
+
+    public SensorAnomalyBroadcaster(ObjectProvider<SimpMessagingTemplate> messagingTemplate,
+                                    MeterRegistry meterRegistry) {
+        this.messagingTemplate = messagingTemplate;
+
+        FunctionCounter.builder("ingestion.anomaly.pushed", pushed, LongAdder::sum)
+                .description("Anomaly events pushed to community topics")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Pushes an anomaly to the subscribers of its community.
+     *
+     * @param event the anomaly
+     */
+    @EventListener
+    public void onAnomaly(SensorAnomalyEvent event) {
+        SimpMessagingTemplate template = messagingTemplate.getIfAvailable();
+        if (template == null) {
+            return;
+        }
+        try {
+            template.convertAndSend(PREFIX + event.getDeptId() + SUFFIX, event);
+            pushed.increment();
+        } catch (RuntimeException e) {
+            log.warn("Failed to push anomaly of {} on device {}", event.getMetricName(), event.getDeviceId(), e);
+        }
+    }
+}
@@ -0,0 +1,362 @@
+package community.waterlevel.iot.module.ingestion.buffer;
+
+import community.waterlevel.iot.config.property.IngestionProperties;
+import community.waterlevel.iot.module.ingestion.model.SensorDataRecord;
+import community.waterlevel.iot.module.ingestion.writer.SensorDataBackfillWriter;
+import community.waterlevel.iot.module.ingestion.writer.SensorDataSink;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Per-device reordering stage in front of {@link SensorDataRingBuffer}.
+ *
+ * <p>Devices on unreliable links deliver samples out of order. Every device gets a small
+ * buffer sorted by sample time; the device's watermark trails its newest sample time by
+ * {@code ingestion.reorder.watermark-ms}. Samples at or below the watermark are released
+ * to the ring in time order, so the writer appends to the newest chunks and readers of
+ * the ring (alert evaluation) see each device's samples in order. A sample older than
+ * the last one released for its device can no longer be placed in order; it is handed to
+ * {@link SensorDataBackfillWriter}, which writes late samples in chunk-aligned batches.
+ *
+ * <p>A background sweep releases everything held for devices that sent nothing for a
+ * watermark interval, so a quiet device does not hold its last samples indefinitely,
+ * and drops empty buffers of devices that have been idle for a long time.
+ *
+ * <p>Buffers are locked per device, so the ingestion threads and the sweep may run
+ * concurrently and release into the multi-producer ring without a shared lock; a
+ * device's samples are released under its lock and thus stay in order. Pending samples
+ * are held in pooled records that are reused once released.
+ *
+ * <p>{@link #offer} reports {@code true} for a sample it holds, and the caller then
+ * records it as accepted (see {@code SampleDeduplicator}), so a held sample must not be
+ * lost on release: while the stage is running, a release the ring refuses is retried
+ * until the ring has room, stalling the device's ingestion thread (or the sweep) and
+ * thus applying the ring's backpressure upstream. {@link #offer} reports {@code false}
+ * only for a late sample refused by the backfill writer or, with reordering disabled,
+ * a sample refused by the ring. Samples refused while stopping are counted in
+ * {@code ingestion.reorder.dropped}.
+ *
+ * <p>Metrics: {@code ingestion.reorder.samples{result=in_order|reordered|late}},
+ * {@code ingestion.reorder.forced.releases}, {@code ingestion.reorder.release.stalls},
+ * {@code ingestion.reorder.dropped},
+ * {@code ingestion.reorder.pending} and {@code ingestion.reorder.devices}.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Slf4j
+@Primary
+@Component
+public class SensorDataReorderBuffer implements SensorDataSink, SmartLifecycle {
+
+    /**
+     * Minimum idle time before an empty device buffer is dropped.
+     */
+    private static final long MIN_RETIRE_IDLE_MS = 60_000;
+
+    /**
+     * Pause between attempts to release a sample the ring refused.
+     */
+    private static final long RELEASE_RETRY_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final IngestionProperties.ReorderConfig config;
+    private final SensorDataRingBuffer ringBuffer;
+    private final SensorDataBackfillWriter backfillWriter;
+    private final Map<String, DeviceBuffer> devices = new ConcurrentHashMap<>();
+
+    private final LongAdder inOrder = new LongAdder();
+    private final LongAdder reordered = new LongAdder();
+    private final LongAdder late = new LongAdder();
+    private final LongAdder forcedReleases = new LongAdder();
+    private final LongAdder releaseStalls = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder pending = new LongAdder();
+
+    private ScheduledExecutorService scheduler;
+    private volatile boolean running;
+
+    public SensorDataReorderBuffer(SensorDataRingBuffer ringBuffer, SensorDataBackfillWriter backfillWriter,
+                                   IngestionProperties properties, MeterRegistry meterRegistry) {
+        this.config = properties.getReorder();
+        this.ringBuffer = ringBuffer;
+        this.backfillWriter = backfillWriter;
+
+        FunctionCounter.builder("ingestion.reorder.samples", inOrder, LongAdder::sum)
+                .tag("result", "in_order").register(meterRegistry);
+        FunctionCounter.builder("ingestion.reorder.samples", reordered, LongAdder::sum)
+                .tag("result", "reordered").register(meterRegistry);
+        FunctionCounter.builder("ingestion.reorder.samples", late, LongAdder::sum)
+                .tag("result", "late").register(meterRegistry);
+        FunctionCounter.builder("ingestion.reorder.forced.releases", forcedReleases, LongAdder::sum)
+                .description("Samples released before their watermark because a device buffer was full")
+                .register(meterRegistry);
+        FunctionCounter.builder("ingestion.reorder.release.stalls", releaseStalls, LongAdder::sum)
+                .description("Releases that waited for room in the ring")
+                .register(meterRegistry);
+        FunctionCounter.builder("ingestion.reorder.dropped", dropped, LongAdder::sum)
+                .description("Held samples the ring refused on release while stopping")
+                .register(meterRegistry);
+        Gauge.builder("ingestion.reorder.pending", pending, LongAdder::sum)
+                .description("Samples held back by the reordering stage")
+                .register(meterRegistry);
+        Gauge.builder("ingestion.reorder.devices", devices, Map::size)
+                .description("Devices with a reordering buffer")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean offer(SensorDataRecord record) {
+        if (!config.isEnabled()) {
+            return ringBuffer.offer(record);
+        }
+        long now = System.currentTimeMillis();
+        while (true) {
+            DeviceBuffer buffer = devices.get(record.getDeviceId());
+            if (buffer == null) {
+                buffer = devices.computeIfAbsent(record.getDeviceId(), id -> new DeviceBuffer());
+            }
+            synchronized (buffer) {
+                if (!buffer.retired) {
+                    return buffer.offer(record, now);
+                }
+            }
+            // Retired by the sweep between lookup and lock; a fresh buffer is created
+        }
+    }
+
+    @Override
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "sensor-data-reorder-sweep");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(100, config.getWatermarkMs() / 4);
+        scheduler.scheduleWithFixedDelay(this::sweepQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        running = true;
+        log.info("sensor_data reordering started (enabled={}, watermarkMs={})",
+                config.isEnabled(), config.getWatermarkMs());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (scheduler != null) {
+            scheduler.shutdown();
+            try {
+                scheduler.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // Hand everything still held to the writer before it stops
+        for (DeviceBuffer buffer : devices.values()) {
+            synchronized (buffer) {
+                buffer.release(buffer.size, -1);
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts after the writers and stops after the MQTT subscriber but before the writers.
+     */
+    @Override
+    public int getPhase() {
+        return DEFAULT_PHASE - 1536;
+    }
+
+    public long getInOrder() {
+        return inOrder.sum();
+    }
+
+    public long getReordered() {
+        return reordered.sum();
+    }
+
+    public long getLate() {
+        return late.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public long getPending() {
+        return pending.sum();
+    }
+
+    /**
+     * Releases the buffers of idle devices and drops long-idle empty buffers.
+     */
+    void sweep(long now) {
+        long retireAfter = Math.max(MIN_RETIRE_IDLE_MS, config.getWatermarkMs() * 10);
+        for (Map.Entry<String, DeviceBuffer> entry : devices.entrySet()) {
+            DeviceBuffer buffer = entry.getValue();
+            synchronized (buffer) {
+                long idle = now - buffer.lastArrivalAt;
+                if (buffer.size > 0 && idle >= config.getWatermarkMs()) {
+                    buffer.release(buffer.size, -1);
+                } else if (buffer.size == 0 && idle >= retireAfter) {
+                    buffer.retired = true;
+                    devices.remove(entry.getKey(), buffer);
+                }
+            }
+        }
+    }
+
+    private void sweepQuietly() {
+        try {
+            sweep(System.currentTimeMillis());
+        } catch (Exception e) {
+            log.error("sensor_data reordering sweep failed", e);
+        }
+    }
+
+    /**
+     * Samples held for one device, sorted by time; {@code items[head, head + size)} is
+     * the pending range and the slots after it are pooled records.
+     */
+    private final class DeviceBuffer {
+
+        private SensorDataRecord[] items = new SensorDataRecord[8];
+        private int head;
+        private int size;
+        private long maxTime = Long.MIN_VALUE;
+        private long releasedUpTo = Long.MIN_VALUE;
+        private long lastArrivalAt;
+        private boolean retired;
+
+        private boolean offer(SensorDataRecord record, long now) {
+            lastArrivalAt = now;
+            long time = record.getTime();
+            if (time < releasedUpTo) {
+                late.increment();
+                return backfillWriter.offer(record);
+            }
+            int position = insert(record);
+            if (position == head + size - 1) {
+                inOrder.increment();
+            } else {
+                reordered.increment();
+            }
+            maxTime = Math.max(maxTime, time);
+
+            long watermark = maxTime - config.getWatermarkMs();
+            int ready = 0;
+            while (ready < size && items[head + ready].getTime() <= watermark) {
+                ready++;
+            }
+            int overflow = size - ready - config.getMaxPendingPerDevice();
+            if (overflow > 0) {
+                forcedReleases.add(overflow);
+                ready += overflow;
+            }
+            return !release(ready, position);
+        }
+
+        /**
+         * Inserts a copy of the record after every pending sample with a time less than
+         * or equal to its own.
+         *
+         * @return the index of the copy in {@link #items}
+         */
+        private int insert(SensorDataRecord record) {
+            ensureTailSlot();
+            int end = head + size;
+            int position = end;
+            long time = record.getTime();
+            while (position > head && items[position - 1].getTime() > time) {
+                position--;
+            }
+            SensorDataRecord slot = items[end];
+            if (slot == null) {
+                slot = new SensorDataRecord();
+            }
+            System.arraycopy(items, position, items, position + 1, end - position);
+            items[position] = slot;
+            slot.copyFrom(record);
+            size++;
+            pending.increment();
+            return position;
+        }
+
+        private void ensureTailSlot() {
+            if (head + size < items.length) {
+                return;
+            }
+            if (head > 0) {
+                // Move the pending range to the front, keeping every pooled record
+                Collections.rotate(Arrays.asList(items), -head);
+                head = 0;
+            } else {
+                items = Arrays.copyOf(items, items.length * 2);
+            }
+        }
+
+        /**
+         * Publishes the oldest {@code count} pending samples in time order.
+         *
+         * @param watched index in {@link #items} whose outcome is reported, or -1
+         * @return {@code true} if the ring refused the watched sample
+         */
+        private boolean release(int count, int watched) {
+            if (count <= 0) {
+                return false;
+            }
+            boolean watchedDropped = false;
+            for (int i = head, end = head + count; i < end; i++) {
+                if (!publish(items[i])) {
+                    dropped.increment();
+                    watchedDropped |= i == watched;
+                }
+            }
+            releasedUpTo = Math.max(releasedUpTo, items[head + count - 1].getTime());
+            head += count;
+            size -= count;
+            pending.add(-count);
+            if (size == 0) {
+                head = 0;
+            }
+            return watchedDropped;
+        }
+
+        /**
+         * Hands a released sample to the ring, waiting for room while the stage runs.
+         *
+         * @return {@code false} if the ring refused the sample while stopping
+         */
+        private boolean publish(SensorDataRecord record) {
+            if (ringBuffer.tryOffer(record)) {
+                return true;
+            }
+            releaseStalls.increment();
+            do {
+                if (!running) {
+                    return false;
+                }
+                LockSupport.parkNanos(RELEASE_RETRY_NANOS);
+            } while (!ringBuffer.tryOffer(record));
+            return true;
+        }
+    }
+}
@@ -0,0 +1,478 @@
+package community.waterlevel.iot.module.ingestion.buffer;
+
+import community.waterlevel.iot.config.property.IngestionProperties;
+import community.waterlevel.iot.module.ingestion.model.SensorDataRecord;
+import community.waterlevel.iot.module.ingestion.model.enums.BackpressurePolicy;
+import community.waterlevel.iot.module.ingestion.writer.SensorDataSink;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.VarHandle;
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded, pre-allocated ring buffer between the decoding stage and its readers.
+ *
+ * <p>Multiple writers, multiple readers (Disruptor style): a producer claims the next
+ * sequence with a CAS on the claim cursor, copies the sample into that reusable slot and
+ * publishes it; every registered {@link Reader} sees every sample and tracks its own
+ * sequence. Neither side takes a lock or allocates on the fast path, so the ingestion
+ * partitions publish concurrently.
+ *
+ * <p>Each slot carries the sequence it holds (a per-slot seqlock): the sequence once
+ * published, or a marked value while a producer is still copying into it. Readers stop
+ * at the first claimed but unpublished slot, so they always consume in sequence order,
+ * and detect slots overwritten under {@link BackpressurePolicy#DROP_OLDEST}. A producer
+ * wrapping onto a slot whose previous lap is still being copied waits for that copy.
+ * When the ring is full the configured {@link BackpressurePolicy} applies:
+ * <ul>
+ *   <li>{@code BLOCK} - wait for the slowest reader, then drop after the timeout</li>
+ *   <li>{@code DROP_OLDEST} - overwrite; readers skip ahead and count the loss</li>
+ *   <li>{@code SPILL} - park overflow in a bounded queue replayed in order once
+ *       readers catch up (by the producer, or by an idle reader)</li>
+ * </ul>
+ *
+ * <p>Samples offered by one thread are published in call order; the per-device order
+ * required by the readers is kept by {@code SensorDataReorderBuffer}, which releases a
+ * device's samples under the device's lock.
+ *
+ * <p>Metrics: {@code ingestion.ring.depth}, {@code ingestion.ring.spill.depth} and
+ * {@code ingestion.ring.events{result}}.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Slf4j
+@Component
+public class SensorDataRingBuffer implements SensorDataSink {
+
+    /**
+     * Offset of the slot marker while the sequence added to it is being copied.
+     */
+    private static final long WRITING = Long.MIN_VALUE;
+
+    /**
+     * Largest power-of-two capacity an {@code int} index can address.
+     */
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private final int capacity;
+    private final int mask;
+    private final SensorDataRecord[] slots;
+    private final AtomicLongArray published;
+    private final AtomicLong claimed = new AtomicLong(-1);
+
+    private final BackpressurePolicy policy;
+    private final long blockTimeoutNanos;
+    private final int spillCapacity;
+    private final ArrayDeque<SensorDataRecord> spill = new ArrayDeque<>();
+    private final AtomicInteger spillDepth = new AtomicInteger();
+    private final ReentrantLock spillLock = new ReentrantLock();
+
+    private volatile Reader[] readers = new Reader[0];
+    private volatile long cachedGatingSequence = -1;
+
+    private final LongAdder eventsPublished = new LongAdder();
+    private final LongAdder eventsDropped = new LongAdder();
+    private final LongAdder eventsSpilled = new LongAdder();
+    private final LongAdder eventsOverwritten = new LongAdder();
+
+    public SensorDataRingBuffer(IngestionProperties properties, MeterRegistry meterRegistry) {
+        IngestionProperties.RingConfig config = properties.getRing();
+        this.capacity = roundUpCapacity(config.getCapacity());
+        this.mask = capacity - 1;
+        this.slots = new SensorDataRecord[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new SensorDataRecord();
+        }
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            // Every slot starts as if its lap before sequence 0 was published
+            published.set(i, i - capacity);
+        }
+        this.policy = config.getBackpressure();
+        this.blockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(config.getBlockTimeoutMs());
+        this.spillCapacity = config.getSpillCapacity();
+
+        Gauge.builder("ingestion.ring.depth", this, SensorDataRingBuffer::getDepth)
+                .description("Samples published but not yet consumed by the slowest reader")
+                .register(meterRegistry);
+        Gauge.builder("ingestion.ring.spill.depth", spillDepth, AtomicInteger::get)
+                .description("Samples waiting in the spill queue")
+                .register(meterRegistry);
+        FunctionCounter.builder("ingestion.ring.events", eventsPublished, LongAdder::sum)
+                .tag("result", "published").register(meterRegistry);
+        FunctionCounter.builder("ingestion.ring.events", eventsDropped, LongAdder::sum)
+                .tag("result", "dropped").register(meterRegistry);
+        FunctionCounter.builder("ingestion.ring.events", eventsSpilled, LongAdder::sum)
+                .tag("result", "spilled").register(meterRegistry);
+        FunctionCounter.builder("ingestion.ring.events", eventsOverwritten, LongAdder::sum)
+                .tag("result", "overwritten").register(meterRegistry);
+
+        log.info("sensor_data ring buffer created (capacity={}, backpressure={})", capacity, policy);
+    }
+
+    /**
+     * Registers a reader starting after the latest published sample. Readers should
+     * be registered before producers start; samples published earlier are not seen.
+     *
+     * @param name reader name used in logs
+     * @return the reader
+     */
+    public synchronized Reader newReader(String name) {
+        Reader reader = new Reader(name, claimed.get());
+        Reader[] current = readers;
+        Reader[] next = new Reader[current.length + 1];
+        System.arraycopy(current, 0, next, 0, current.length);
+        next[current.length] = reader;
+        readers = next;
+        return reader;
+    }
+
+    /**
+     * Copies {@code record} into the next slot, applying the backpressure policy when
+     * the ring is full. Safe to call from several producer threads.
+     *
+     * @param record the sample to publish; not retained
+     * @return {@code true} if published or spilled, {@code false} if dropped
+     */
+    @Override
+    public boolean offer(SensorDataRecord record) {
+        if (tryOffer(record)) {
+            return true;
+        }
+        eventsDropped.increment();
+        return false;
+    }
+
+    /**
+     * Same as {@link #offer}, but a refusal is not counted as a drop: the caller keeps
+     * the sample and offers it again later.
+     *
+     * @param record the sample to publish; not retained
+     * @return {@code true} if published or spilled, {@code false} if refused
+     */
+    public boolean tryOffer(SensorDataRecord record) {
+        switch (policy) {
+            case DROP_OLDEST:
+                publish(claimed.incrementAndGet(), record);
+                return true;
+            case BLOCK:
+                long next = claimWithin(blockTimeoutNanos);
+                if (next >= 0) {
+                    publish(next, record);
+                    return true;
+                }
+                return false;
+            default:
+                return offerOrSpill(record);
+        }
+    }
+
+    /**
+     * Replays spilled samples into the ring while there is room. Safe to call from
+     * any thread; readers call it when they find the ring empty.
+     */
+    public void drainSpill() {
+        if (spillDepth.get() == 0 || !spillLock.tryLock()) {
+            return;
+        }
+        try {
+            drainSpillLocked();
+        } finally {
+            spillLock.unlock();
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the number of samples not yet consumed by the slowest reader.
+     */
+    public long getDepth() {
+        long head = claimed.get();
+        return Math.min(capacity, head - minimumReaderSequence(head));
+    }
+
+    public int getSpillDepth() {
+        return spillDepth.get();
+    }
+
+    public long getEventsPublished() {
+        return eventsPublished.sum();
+    }
+
+    public long getEventsDropped() {
+        return eventsDropped.sum();
+    }
+
+    public long getEventsSpilled() {
+        return eventsSpilled.sum();
+    }
+
+    public long getEventsOverwritten() {
+        return eventsOverwritten.sum();
+    }
+
+    private boolean offerOrSpill(SensorDataRecord record) {
+        // Fast path: nothing spilled, so ordering only requires a free slot.
+        if (spillDepth.get() == 0) {
+            long next = claimWithin(0);
+            if (next >= 0) {
+                publish(next, record);
+                return true;
+            }
+        }
+        spillLock.lock();
+        try {
+            drainSpillLocked();
+            long next = spill.isEmpty() ? claimWithin(0) : -1;
+            if (next >= 0) {
+                publish(next, record);
+                return true;
+            }
+            if (spill.size() >= spillCapacity) {
+                return false;
+            }
+            SensorDataRecord copy = new SensorDataRecord();
+            copy.copyFrom(record);
+            spill.addLast(copy);
+            spillDepth.incrementAndGet();
+            eventsSpilled.increment();
+            return true;
+        } finally {
+            spillLock.unlock();
+        }
+    }
+
+    private void drainSpillLocked() {
+        SensorDataRecord head;
+        while ((head = spill.peekFirst()) != null) {
+            long next = claimWithin(0);
+            if (next < 0) {
+                return;
+            }
+            publish(next, head);
+            spill.pollFirst();
+            spillDepth.decrementAndGet();
+        }
+    }
+
+    private void publish(long sequence, SensorDataRecord record) {
+        int index = (int) (sequence & mask);
+        long previousLap = sequence - capacity;
+        if (published.get(index) != previousLap) {
+            // Only under DROP_OLDEST: another producer is still copying the previous lap
+            int spins = 0;
+            while (published.get(index) != previousLap) {
+                if (++spins < 100) {
+                    Thread.onSpinWait();
+                } else {
+                    Thread.yield();
+                }
+            }
+        }
+        published.set(index, WRITING + sequence);
+        // Keep the slot writes below from becoming visible before the invalidation.
+        VarHandle.releaseFence();
+        slots[index].copyFrom(record);
+        published.set(index, sequence);
+        eventsPublished.increment();
+    }
+
+    /**
+     * Returns the sequence a slot marker refers to, whether published or being copied.
+     */
+    private long slotSequence(long marker) {
+        return marker < -capacity ? marker - WRITING : marker;
+    }
+
+    /**
+     * Claims the next sequence once the slowest reader has left room for it.
+     *
+     * @param timeoutNanos how long to wait for room; 0 to fail at once
+     * @return the claimed sequence, or -1 if the ring stayed full
+     */
+    private long claimWithin(long timeoutNanos) {
+        long deadline = 0;
+        int spins = 0;
+        while (true) {
+            long current = claimed.get();
+            long next = current + 1;
+            if (hasCapacity(next)) {
+                if (claimed.compareAndSet(current, next)) {
+                    return next;
+                }
+                continue;
+            }
+            if (timeoutNanos <= 0) {
+                return -1;
+            }
+            if (deadline == 0) {
+                deadline = System.nanoTime() + timeoutNanos;
+            } else if (System.nanoTime() - deadline >= 0) {
+                return -1;
+            }
+            if (++spins < 100) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(10_000);
+            }
+        }
+    }
+
+    private boolean hasCapacity(long sequence) {
+        long wrapPoint = sequence - capacity;
+        if (wrapPoint <= cachedGatingSequence) {
+            return true;
+        }
+        cachedGatingSequence = minimumReaderSequence(sequence - 1);
+        return wrapPoint <= cachedGatingSequence;
+    }
+
+    private long minimumReaderSequence(long defaultValue) {
+        long minimum = defaultValue;
+        for (Reader reader : readers) {
+            minimum = Math.min(minimum, reader.sequence.get());
+        }
+        return minimum;
+    }
+
+    /**
+     * Rounds a configured capacity up to the next power of two.
+     *
+     * @param requested the configured capacity
+     * @return the capacity of the ring
+     * @throws IllegalArgumentException if the capacity is below 2 or above {@link #MAX_CAPACITY}
+     */
+    private static int roundUpCapacity(int requested) {
+        if (requested < 2 || requested > MAX_CAPACITY) {
+            throw new IllegalArgumentException("ingestion.ring.capacity must be between 2 and "
+                    + MAX_CAPACITY + ", was " + requested);
+        }
+        return Integer.highestOneBit(requested - 1) << 1;
+    }
+
+    /**
+     * Independent consumer position in the ring. Each reader is owned by a single thread.
+     */
+    public final class Reader {
+
+        private final String name;
+        private final AtomicLong sequence;
+        private final LongAdder lost = new LongAdder();
+
+        private Reader(String name, long start) {
+            this.name = name;
+            this.sequence = new AtomicLong(start);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Returns the number of samples this reader lost to {@code DROP_OLDEST} overwrites.
+         */
+        public long getLost() {
+            return lost.sum();
+        }
+
+        /**
+         * Returns the number of claimed samples this reader has not consumed yet,
+         * including any a producer is still copying.
+         */
+        public long available() {
+            return Math.min(capacity, claimed.get() - sequence.get());
+        }
+
+        /**
+         * Waits until at least one sample is available, replaying spilled samples
+         * while the ring is empty.
+         *
+         * @param timeoutNanos maximum time to wait
+         * @return {@code true} if a sample is available
+         * @throws InterruptedException if the thread is interrupted while waiting
+         */
+        public boolean await(long timeoutNanos) throws InterruptedException {
+            long deadline = System.nanoTime() + timeoutNanos;
+            int spins = 0;
+            while (!hasNext()) {
+                drainSpill();
+                if (hasNext()) {
+                    return true;
+                }
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                if (++spins < 100) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(Math.min(remaining, 50_000));
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Copies up to {@code max} samples into the caller-owned records starting at
+         * {@code offset} and advances this reader past them.
+         *
+         * @return the number of samples copied
+         */
+        public int drainTo(SensorDataRecord[] target, int offset, int max) {
+            long current = sequence.get();
+            int count = 0;
+            while (count < max) {
+                long next = current + 1;
+                int index = (int) (next & mask);
+                long marker = published.get(index);
+                if (marker == next) {
+                    target[offset + count].copyFrom(slots[index]);
+                    // The re-check below must not be reordered before the slot reads.
+                    VarHandle.acquireFence();
+                    if (published.get(index) == next) {
+                        count++;
+                        current = next;
+                        continue;
+                    }
+                } else if (slotSequence(marker) <= next) {
+                    // Not claimed yet, or claimed and still being copied
+                    break;
+                }
+                // Overwritten under DROP_OLDEST: resume at the oldest slot that may be intact.
+                long resume = Math.max(next + 1, claimed.get() - capacity + 1);
+                lost.add(resume - next);
+                eventsOverwritten.add(resume - next);
+                current = resume - 1;
+            }
+            sequence.set(current);
+            return count;
+        }
+
+        /**
+         * Returns whether the next sample is published or was overwritten.
+         */
+        private boolean hasNext() {
+            long next = sequence.get() + 1;
+            long marker = published.get((int) (next & mask));
+            return marker == next || slotSequence(marker) > next;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package community.waterlevel.iot.module.ingestion.codec;
+
+/**
+ * Minimal cursor over protobuf wire-format bytes.
+ *
+ * <p>Supports the subset of the wire format used by the Sparkplug B payload
+ * schema: varints, fixed 32/64-bit values and length-delimited fields. Nested
+ * messages are read by narrowing the limit with {@link #pushLimit(int)} instead of
+ * copying bytes.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+public final class ProtobufReader {
+
+    public static final int WIRE_VARINT = 0;
+    public static final int WIRE_FIXED64 = 1;
+    public static final int WIRE_LENGTH_DELIMITED = 2;
+    public static final int WIRE_FIXED32 = 5;
+
+    private byte[] buf;
+    private int pos;
+    private int limit;
+
+    /**
+     * Resets the reader over a new buffer.
+     *
+     * @param buf    the buffer to read
+     * @param offset first byte to read
+     * @param length number of bytes to read
+     * @return this reader
+     */
+    public ProtobufReader reset(byte[] buf, int offset, int length) {
+        this.buf = buf;
+        this.pos = offset;
+        this.limit = offset + length;
+        return this;
+    }
+
+    public byte[] buffer() {
+        return buf;
+    }
+
+    public int position() {
+        return pos;
+    }
+
+    public boolean hasRemaining() {
+        return pos < limit;
+    }
+
+    /**
+     * Reads the next field tag.
+     *
+     * @return the tag (field number shifted left by 3, or'ed with the wire type)
+     */
+    public int readTag() {
+        return (int) readVarint();
+    }
+
+    public static int fieldNumber(int tag) {
+        return tag >>> 3;
+    }
+
+    public static int wireType(int tag) {
+        return tag & 0x7;
+    }
+
+    /**
+     * Reads a base-128 varint of up to 64 bits.
+     *
+     * @return the raw 64-bit value
+     */
+    public long readVarint() {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (pos >= limit) {
+                throw new IllegalArgumentException("Truncated varint");
+            }
+            byte b = buf[pos++];
+            result |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    public int readFixed32() {
+        ensure(4);
+        int value = (buf[pos] & 0xFF)
+                | (buf[pos + 1] & 0xFF) << 8
+                | (buf[pos + 2] & 0xFF) << 16
+                | (buf[pos + 3] & 0xFF) << 24;
+        pos += 4;
+        return value;
+    }
+
+    public long readFixed64() {
+        long lo = readFixed32() & 0xFFFFFFFFL;
+        long hi = readFixed32() & 0xFFFFFFFFL;
+        return lo | hi << 32;
+    }
+
+    /**
+     * Reads the length prefix of a length-delimited field and validates it.
+     *
+     * @return the number of bytes in the field body
+     */
+    public int readLength() {
+        long length = readVarint();
+        if (length < 0 || length > limit - pos) {
+            throw new IllegalArgumentException("Length-delimited field exceeds buffer");
+        }
+        return (int) length;
+    }
+
+    /**
+     * Restricts reading to the next {@code length} bytes.
+     *
+     * @param length size of the nested message
+     * @return the previous limit, to be passed to {@link #popLimit(int)}
+     */
+    public int pushLimit(int length) {
+        int oldLimit = limit;
+        limit = pos + length;
+        return oldLimit;
+    }
+
+    public void popLimit(int oldLimit) {
+        pos = limit;
+        limit = oldLimit;
+    }
+
+    public void skip(int length) {
+        ensure(length);
+        pos += length;
+    }
+
+    /**
+     * Skips a field body of the given wire type.
+     *
+     * @param wireType the wire type from the field tag
+     */
+    public void skipField(int wireType) {
+        switch (wireType) {
+            case WIRE_VARINT -> readVarint();
+            case WIRE_FIXED64 -> skip(8);
+            case WIRE_LENGTH_DELIMITED -> skip(readLength());
+            case WIRE_FIXED32 -> skip(4);
+            default -> throw new IllegalArgumentException("Unsupported wire type: " + wireType);
+        }
+    }
+
+    private void ensure(int length) {
+        if (length > limit - pos) {
+            throw new IllegalArgumentException("Truncated field");
+        }
+    }
+}
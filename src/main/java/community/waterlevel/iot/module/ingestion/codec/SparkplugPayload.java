@@ -0,0 +1,167 @@
+package community.waterlevel.iot.module.ingestion.codec;
+
+import community.waterlevel.iot.module.ingestion.model.enums.SparkplugDataType;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * In-memory representation of a Sparkplug B {@code Payload} message.
+ *
+ * <p>Only the parts of the payload that are ingested into {@code sensor_data}
+ * are retained: the payload timestamp and sequence number and, per metric, the
+ * name, alias, timestamp, data type, value and Sparkplug quality property. Values
+ * are kept as raw field bits so that decoding never boxes; see {@link TypedValueDecoder}.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ * @see SparkplugPayloadDecoder
+ * @see SparkplugPayloadEncoder
+ */
+@Data
+public class SparkplugPayload {
+
+    /**
+     * Sentinel for absent optional numeric fields.
+     */
+    public static final long ABSENT = -1L;
+
+    /**
+     * Payload timestamp in epoch milliseconds, or {@link #ABSENT}.
+     */
+    private long timestamp = ABSENT;
+
+    /**
+     * Payload sequence number (0-255), or {@link #ABSENT}.
+     */
+    private long seq = ABSENT;
+
+    /**
+     * Metrics carried by this payload.
+     */
+    private List<Metric> metrics = new ArrayList<>();
+
+    /**
+     * A single Sparkplug B metric.
+     */
+    @Data
+    public static class Metric {
+
+        /**
+         * Metric name; null when the metric is sent by alias only.
+         */
+        private String name;
+
+        /**
+         * Metric alias, or {@link #ABSENT}.
+         */
+        private long alias = ABSENT;
+
+        /**
+         * Metric timestamp in epoch milliseconds, or {@link #ABSENT}.
+         */
+        private long timestamp = ABSENT;
+
+        /**
+         * Sparkplug data type, or null when unknown or not scalar.
+         */
+        private SparkplugDataType dataType;
+
+        /**
+         * Whether the metric explicitly carries a null value.
+         */
+        private boolean isNull;
+
+        /**
+         * Protobuf field the value was carried in (see {@link TypedValueDecoder#INT_VALUE}
+         * and siblings), or 0 when the metric has no value.
+         */
+        private int valueField;
+
+        /**
+         * Raw bits of a scalar value: the varint of {@code int_value}, {@code long_value}
+         * or {@code boolean_value}, or the IEEE bits of {@code float_value} and
+         * {@code double_value}. Interpreted by {@link TypedValueDecoder}.
+         */
+        private long rawValue;
+
+        /**
+         * Value of a {@code string_value} metric; kept apart from the primitive path.
+         */
+        private String stringValue;
+
+        /**
+         * Sparkplug quality code from the {@code Quality} property, or {@link #ABSENT}.
+         */
+        private int quality = (int) ABSENT;
+
+        /**
+         * Sets a value carried in {@code int_value} (Int8 to UInt32).
+         *
+         * @param value the value; only the low 32 bits are sent
+         */
+        public void setIntValue(long value) {
+            setRaw(TypedValueDecoder.INT_VALUE, value & 0xFFFFFFFFL);
+        }
+
+        /**
+         * Sets a value carried in {@code long_value} (Int64, UInt64, DateTime).
+         *
+         * @param value the value
+         */
+        public void setLongValue(long value) {
+            setRaw(TypedValueDecoder.LONG_VALUE, value);
+        }
+
+        /**
+         * Sets a {@code float_value}.
+         *
+         * @param value the value
+         */
+        public void setFloatValue(float value) {
+            setRaw(TypedValueDecoder.FLOAT_VALUE, Float.floatToIntBits(value) & 0xFFFFFFFFL);
+        }
+
+        /**
+         * Sets a {@code double_value}.
+         *
+         * @param value the value
+         */
+        public void setDoubleValue(double value) {
+            setRaw(TypedValueDecoder.DOUBLE_VALUE, Double.doubleToLongBits(value));
+        }
+
+        /**
+         * Sets a {@code boolean_value}.
+         *
+         * @param value the value
+         */
+        public void setBooleanValue(boolean value) {
+            setRaw(TypedValueDecoder.BOOLEAN_VALUE, value ? 1 : 0);
+        }
+
+        /**
+         * Sets a {@code string_value}.
+         *
+         * @param value the value
+         */
+        public void setStringValue(String value) {
+            this.valueField = TypedValueDecoder.STRING_VALUE;
+            this.rawValue = 0;
+            this.stringValue = value;
+        }
+
+        /**
+         * Sets the raw bits of a scalar value.
+         *
+         * @param field the protobuf value field
+         * @param raw   the raw bits
+         */
+        public void setRaw(int field, long raw) {
+            this.valueField = field;
+            this.rawValue = raw;
+            this.stringValue = null;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package community.waterlevel.iot.module.ingestion.codec;
+
+import community.waterlevel.iot.module.ingestion.model.enums.SparkplugDataType;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decoder for Sparkplug B {@code Payload} protobuf messages.
+ *
+ * <p>The decoder reads the protobuf wire format directly instead of going through
+ * generated classes, so the ingestion hot path does not depend on protobuf-java or
+ * Eclipse Tahu. Fields that are not ingested (metadata, DataSet, Template, bytes,
+ * extensions) are skipped. Metric values are not interpreted here: they are kept as
+ * raw field bits and converted by {@link TypedValueDecoder}, so decoding never boxes.
+ *
+ * <p>Instances are not thread-safe; each MQTT callback thread uses its own decoder.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ * @see <a href="https://sparkplug.eclipse.org/specification/">Sparkplug specification</a>
+ */
+public class SparkplugPayloadDecoder {
+
+    private static final byte[] QUALITY_KEY = "Quality".getBytes(StandardCharsets.US_ASCII);
+
+    private final ProtobufReader reader = new ProtobufReader();
+    private final ProtobufReader propertyReader = new ProtobufReader();
+
+    /**
+     * Decodes a payload.
+     *
+     * @param bytes the raw MQTT payload
+     * @return the decoded payload
+     * @throws IllegalArgumentException if the payload is not valid protobuf
+     */
+    public SparkplugPayload decode(byte[] bytes) {
+        SparkplugPayload payload = new SparkplugPayload();
+        reader.reset(bytes, 0, bytes.length);
+        while (reader.hasRemaining()) {
+            int tag = reader.readTag();
+            switch (ProtobufReader.fieldNumber(tag)) {
+                case 1 -> payload.setTimestamp(reader.readVarint());
+                case 2 -> {
+                    int length = reader.readLength();
+                    int oldLimit = reader.pushLimit(length);
+                    payload.getMetrics().add(readMetric());
+                    reader.popLimit(oldLimit);
+                }
+                case 3 -> payload.setSeq(reader.readVarint());
+                default -> reader.skipField(ProtobufReader.wireType(tag));
+            }
+        }
+        return payload;
+    }
+
+    private SparkplugPayload.Metric readMetric() {
+        SparkplugPayload.Metric metric = new SparkplugPayload.Metric();
+        while (reader.hasRemaining()) {
+            int tag = reader.readTag();
+            int field = ProtobufReader.fieldNumber(tag);
+            switch (field) {
+                case 1 -> metric.setName(readString());
+                case 2 -> metric.setAlias(reader.readVarint());
+                case 3 -> metric.setTimestamp(reader.readVarint());
+                case 4 -> metric.setDataType(SparkplugDataType.fromCode((int) reader.readVarint()));
+                case 7 -> metric.setNull(reader.readVarint() != 0);
+                case 9 -> {
+                    int length = reader.readLength();
+                    metric.setQuality(readQuality(reader.position(), length));
+                    reader.skip(length);
+                }
+                case TypedValueDecoder.INT_VALUE, TypedValueDecoder.LONG_VALUE, TypedValueDecoder.BOOLEAN_VALUE ->
+                        metric.setRaw(field, reader.readVarint());
+                case TypedValueDecoder.FLOAT_VALUE -> metric.setRaw(field, reader.readFixed32() & 0xFFFFFFFFL);
+                case TypedValueDecoder.DOUBLE_VALUE -> metric.setRaw(field, reader.readFixed64());
+                case TypedValueDecoder.STRING_VALUE -> metric.setStringValue(readString());
+                default -> reader.skipField(ProtobufReader.wireType(tag));
+            }
+        }
+        return metric;
+    }
+
+    private String readString() {
+        int length = reader.readLength();
+        String value = new String(reader.buffer(), reader.position(), length, StandardCharsets.UTF_8);
+        reader.skip(length);
+        return value;
+    }
+
+    /**
+     * Extracts the integer value of the {@code Quality} property from a PropertySet
+     * without materialising the keys.
+     */
+    private int readQuality(int offset, int length) {
+        byte[] buf = reader.buffer();
+        ProtobufReader props = propertyReader.reset(buf, offset, length);
+        int keyIndex = -1;
+        int index = 0;
+        while (props.hasRemaining()) {
+            int tag = props.readTag();
+            if (ProtobufReader.fieldNumber(tag) == 1) {
+                int keyLength = props.readLength();
+                if (keyIndex < 0 && matches(buf, props.position(), keyLength, QUALITY_KEY)) {
+                    keyIndex = index;
+                }
+                index++;
+                props.skip(keyLength);
+            } else {
+                props.skipField(ProtobufReader.wireType(tag));
+            }
+        }
+        if (keyIndex < 0) {
+            return (int) SparkplugPayload.ABSENT;
+        }
+
+        props.reset(buf, offset, length);
+        index = 0;
+        while (props.hasRemaining()) {
+            int tag = props.readTag();
+            if (ProtobufReader.fieldNumber(tag) != 2) {
+                props.skipField(ProtobufReader.wireType(tag));
+                continue;
+            }
+            int valueLength = props.readLength();
+            if (index++ != keyIndex) {
+                props.skip(valueLength);
+                continue;
+            }
+            props.pushLimit(valueLength);
+            while (props.hasRemaining()) {
+                int valueTag = props.readTag();
+                if (ProtobufReader.fieldNumber(valueTag) == 3) {
+                    return (int) props.readVarint();
+                }
+                props.skipField(ProtobufReader.wireType(valueTag));
+            }
+            break;
+        }
+        return (int) SparkplugPayload.ABSENT;
+    }
+
+    private static boolean matches(byte[] buf, int offset, int length, byte[] expected) {
+        if (length != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buf[offset + i] != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,116 @@
+package community.waterlevel.iot.module.ingestion.codec;
+
+import community.waterlevel.iot.module.ingestion.model.enums.SparkplugDataType;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encoder for Sparkplug B {@code Payload} protobuf messages.
+ *
+ * <p>Counterpart of {@link SparkplugPayloadDecoder}; used to build outbound
+ * command payloads and synthetic device traffic for benchmarks.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+public class SparkplugPayloadEncoder {
+
+    /**
+     * Encodes a payload.
+     *
+     * @param payload the payload to encode
+     * @return the protobuf bytes
+     */
+    public byte[] encode(SparkplugPayload payload) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 + payload.getMetrics().size() * 32);
+        if (payload.getTimestamp() != SparkplugPayload.ABSENT) {
+            writeTag(out, 1, ProtobufReader.WIRE_VARINT);
+            writeVarint(out, payload.getTimestamp());
+        }
+        for (SparkplugPayload.Metric metric : payload.getMetrics()) {
+            byte[] body = encodeMetric(metric);
+            writeTag(out, 2, ProtobufReader.WIRE_LENGTH_DELIMITED);
+            writeVarint(out, body.length);
+            out.writeBytes(body);
+        }
+        if (payload.getSeq() != SparkplugPayload.ABSENT) {
+            writeTag(out, 3, ProtobufReader.WIRE_VARINT);
+            writeVarint(out, payload.getSeq());
+        }
+        return out.toByteArray();
+    }
+
+    private byte[] encodeMetric(SparkplugPayload.Metric metric) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(32);
+        if (metric.getName() != null) {
+            writeString(out, 1, metric.getName());
+        }
+        if (metric.getAlias() != SparkplugPayload.ABSENT) {
+            writeTag(out, 2, ProtobufReader.WIRE_VARINT);
+            writeVarint(out, metric.getAlias());
+        }
+        if (metric.getTimestamp() != SparkplugPayload.ABSENT) {
+            writeTag(out, 3, ProtobufReader.WIRE_VARINT);
+            writeVarint(out, metric.getTimestamp());
+        }
+        SparkplugDataType type = metric.getDataType();
+        if (type != null) {
+            writeTag(out, 4, ProtobufReader.WIRE_VARINT);
+            writeVarint(out, type.getCode());
+        }
+        int field = metric.getValueField();
+        if (metric.isNull() || field == 0) {
+            writeTag(out, 7, ProtobufReader.WIRE_VARINT);
+            writeVarint(out, 1);
+            return out.toByteArray();
+        }
+
+        long raw = metric.getRawValue();
+        switch (field) {
+            case TypedValueDecoder.INT_VALUE, TypedValueDecoder.LONG_VALUE, TypedValueDecoder.BOOLEAN_VALUE -> {
+                writeTag(out, field, ProtobufReader.WIRE_VARINT);
+                writeVarint(out, raw);
+            }
+            case TypedValueDecoder.FLOAT_VALUE -> {
+                writeTag(out, field, ProtobufReader.WIRE_FIXED32);
+                writeFixed32(out, (int) raw);
+            }
+            case TypedValueDecoder.DOUBLE_VALUE -> {
+                writeTag(out, field, ProtobufReader.WIRE_FIXED64);
+                writeFixed32(out, (int) raw);
+                writeFixed32(out, (int) (raw >>> 32));
+            }
+            case TypedValueDecoder.STRING_VALUE -> writeString(out, field,
+                    metric.getStringValue() != null ? metric.getStringValue() : "");
+            default -> throw new IllegalArgumentException("Unknown metric value field " + field);
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeString(ByteArrayOutputStream out, int field, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeTag(out, field, ProtobufReader.WIRE_LENGTH_DELIMITED);
+        writeVarint(out, bytes.length);
+        out.writeBytes(bytes);
+    }
+
+    private static void writeTag(ByteArrayOutputStream out, int field, int wireType) {
+        writeVarint(out, (long) field << 3 | wireType);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static void writeFixed32(ByteArrayOutputStream out, int value) {
+        out.write(value);
+        out.write(value >>> 8);
+        out.write(value >>> 16);
+        out.write(value >>> 24);
+    }
+}
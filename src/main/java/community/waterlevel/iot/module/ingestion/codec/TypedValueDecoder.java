@@ -0,0 +1,142 @@
+package community.waterlevel.iot.module.ingestion.codec;
+
+import community.waterlevel.iot.module.ingestion.model.enums.SparkplugDataType;
+import community.waterlevel.iot.module.metric.model.enums.MetricDataType;
+
+/**
+ * Converts raw Sparkplug metric values into primitives, driven by {@link MetricDataType}.
+ *
+ * <p>{@link SparkplugPayloadDecoder} keeps each value as the raw 64 bits of the protobuf
+ * field it arrived in ({@link SparkplugPayload.Metric#getRawValue()}). This class holds
+ * one converter per {@code MetricDataType}, indexed by ordinal, that turns those bits
+ * into a {@code double} without boxing: narrow integers are sign- or zero-extended,
+ * {@code UInt32} and {@code UInt64} are read unsigned, floats are reinterpreted and
+ * booleans become 0/1. {@code String} values never enter the primitive path; they stay
+ * in {@link SparkplugPayload.Metric#getStringValue()}.
+ *
+ * <p>The type is taken from the metric itself when present (births), otherwise from the
+ * metric definition, as long as it matches the protobuf field the value was sent in.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ * @see SparkplugDataType
+ */
+public final class TypedValueDecoder {
+
+    /**
+     * Protobuf field numbers of the Sparkplug {@code Metric.value} oneof.
+     */
+    public static final int INT_VALUE = 10;
+    public static final int LONG_VALUE = 11;
+    public static final int FLOAT_VALUE = 12;
+    public static final int DOUBLE_VALUE = 13;
+    public static final int BOOLEAN_VALUE = 14;
+    public static final int STRING_VALUE = 15;
+
+    private static final int TYPES = MetricDataType.values().length;
+    private static final int[] WIRE_FIELDS = new int[TYPES];
+    private static final boolean[] NUMERIC = new boolean[TYPES];
+    private static final RawConverter[] CONVERTERS = new RawConverter[TYPES];
+    private static final MetricDataType[] FIELD_DEFAULTS = new MetricDataType[STRING_VALUE + 1];
+
+    static {
+        register(MetricDataType.Int8, INT_VALUE, raw -> (byte) raw);
+        register(MetricDataType.Int16, INT_VALUE, raw -> (short) raw);
+        register(MetricDataType.Int32, INT_VALUE, raw -> (int) raw);
+        register(MetricDataType.UInt8, INT_VALUE, raw -> raw & 0xFFL);
+        register(MetricDataType.UInt16, INT_VALUE, raw -> raw & 0xFFFFL);
+        register(MetricDataType.UInt32, INT_VALUE, raw -> raw & 0xFFFFFFFFL);
+        register(MetricDataType.Int64, LONG_VALUE, raw -> raw);
+        register(MetricDataType.UInt64, LONG_VALUE, TypedValueDecoder::unsignedToDouble);
+        register(MetricDataType.Float, FLOAT_VALUE, raw -> Float.intBitsToFloat((int) raw));
+        register(MetricDataType.Double, DOUBLE_VALUE, Double::longBitsToDouble);
+        // Booleans are stored as 0/1 in sensor_data
+        register(MetricDataType.Boolean, BOOLEAN_VALUE, raw -> raw != 0 ? 1.0 : 0.0);
+        register(MetricDataType.String, STRING_VALUE, null);
+
+        // Used when neither the metric nor its definition names a type matching the field
+        FIELD_DEFAULTS[INT_VALUE] = MetricDataType.Int32;
+        FIELD_DEFAULTS[LONG_VALUE] = MetricDataType.Int64;
+        FIELD_DEFAULTS[FLOAT_VALUE] = MetricDataType.Float;
+        FIELD_DEFAULTS[DOUBLE_VALUE] = MetricDataType.Double;
+        FIELD_DEFAULTS[BOOLEAN_VALUE] = MetricDataType.Boolean;
+        FIELD_DEFAULTS[STRING_VALUE] = MetricDataType.String;
+    }
+
+    private TypedValueDecoder() {
+    }
+
+    /**
+     * Determines the type a metric value is decoded as.
+     *
+     * @param metric   the decoded metric
+     * @param declared the type of the metric definition, or null when unknown
+     * @return the effective type, or null when the metric carries no value
+     */
+    public static MetricDataType resolveType(SparkplugPayload.Metric metric, MetricDataType declared) {
+        int field = metric.getValueField();
+        if (field < INT_VALUE || field > STRING_VALUE || metric.isNull()) {
+            return null;
+        }
+        SparkplugDataType wireType = metric.getDataType();
+        if (wireType != null && WIRE_FIELDS[wireType.getMetricDataType().ordinal()] == field) {
+            return wireType.getMetricDataType();
+        }
+        if (declared != null && WIRE_FIELDS[declared.ordinal()] == field) {
+            return declared;
+        }
+        return FIELD_DEFAULTS[field];
+    }
+
+    /**
+     * Returns whether values of the type are stored as a number (booleans included).
+     *
+     * @param type the value type, may be null
+     * @return {@code true} if {@link #toDouble(MetricDataType, long)} applies
+     */
+    public static boolean isNumeric(MetricDataType type) {
+        return type != null && NUMERIC[type.ordinal()];
+    }
+
+    /**
+     * Converts raw value bits to a double.
+     *
+     * @param type the value type; must be numeric
+     * @param raw  the raw protobuf field bits
+     * @return the numeric value
+     */
+    public static double toDouble(MetricDataType type, long raw) {
+        return CONVERTERS[type.ordinal()].toDouble(raw);
+    }
+
+    /**
+     * Returns the protobuf field a value of the given type is carried in.
+     *
+     * @param type the value type
+     * @return the field number, e.g. {@link #INT_VALUE}
+     */
+    public static int wireField(MetricDataType type) {
+        return WIRE_FIELDS[type.ordinal()];
+    }
+
+    /**
+     * Converts an unsigned 64-bit value to the nearest double.
+     */
+    static double unsignedToDouble(long raw) {
+        return raw >= 0 ? (double) raw : (double) (raw >>> 1) * 2.0 + (raw & 1);
+    }
+
+    private static void register(MetricDataType type, int field, RawConverter converter) {
+        WIRE_FIELDS[type.ordinal()] = field;
+        NUMERIC[type.ordinal()] = converter != null;
+        CONVERTERS[type.ordinal()] = converter;
+    }
+
+    /**
+     * Converts raw field bits to a double.
+     */
+    @FunctionalInterface
+    private interface RawConverter {
+        double toDouble(long raw);
+    }
+}
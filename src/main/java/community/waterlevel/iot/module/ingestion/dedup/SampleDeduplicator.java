@@ -0,0 +1,332 @@
+package community.waterlevel.iot.module.ingestion.dedup;
+
+import community.waterlevel.iot.config.property.IngestionProperties;
+import community.waterlevel.iot.module.ingestion.model.RegisteredDevice;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Time-windowed duplicate suppression in front of the {@code sensor_data} writer.
+ *
+ * <p>A sample is identified by its primary key {@code (time, device_id, metric_name)}.
+ * Two structures decide whether it was already accepted:
+ * <ul>
+ *   <li>the newest accepted time per series, i.e. per device (indexed by
+ *       {@link RegisteredDevice#getSlot()}) and metric: a sample newer than that cannot be
+ *       a duplicate, so the filter is not queried</li>
+ *   <li>a rotating Bloom filter of every accepted sample: two generations, the current
+ *       one receiving inserts and both answering queries. Generations rotate every half
+ *       {@code ingestion.dedup.window-ms}, or earlier once the current one holds
+ *       {@code expected-insertions} samples, so the false positive rate stays at its
+ *       target whatever the throughput; the window then shrinks accordingly and a
+ *       warning reports the sizing the measured rate needs.</li>
+ * </ul>
+ *
+ * <p>Checking and recording are separate ({@link #isDuplicate}, {@link #record}), so a
+ * sample is only remembered once the writer side accepted it and a QoS 1 redelivery of
+ * a sample dropped downstream is ingested again.
+ *
+ * <p>A Bloom false positive drops a late sample (at or before its series' newest time)
+ * that was not actually seen; in-order samples are never dropped. A redelivery arriving
+ * after the window is not detected and falls back to conflict handling in the writer.
+ *
+ * <p>Series stay keyed by metric name rather than by definition id: unknown metrics
+ * have no definition but are deduplicated too. An alias-only sample passes the name
+ * instance declared at birth, so the series scan matches by identity and the name's
+ * hash is cached by {@link String}; the string key costs no hashing or comparison of
+ * characters on the hot path.
+ *
+ * <p>Bits are set with atomic OR, so concurrent ingestion threads may share the filter;
+ * each device's series times are only updated by the thread handling that device.
+ *
+ * <p>Metrics: {@code ingestion.dedup{result=unique|duplicate}},
+ * {@code ingestion.dedup.rotations{reason=time|capacity}},
+ * {@code ingestion.dedup.hit.ratio} and {@code ingestion.dedup.bloom.load}.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Slf4j
+@Component
+public class SampleDeduplicator {
+
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    /**
+     * One insertion in this many checks whether the current generation is full.
+     */
+    private static final int CAPACITY_CHECK_MASK = 1023;
+
+    private final IngestionProperties.DedupConfig config;
+    private final int bits;
+    private final int hashes;
+    private final long rotateIntervalMillis;
+
+    private volatile Generation current;
+    private volatile Generation previous;
+    private final AtomicLong nextRotationAt;
+
+    private final Object growLock = new Object();
+    private volatile SeriesTimes[] series = new SeriesTimes[0];
+
+    private final LongAdder unique = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+    private final LongAdder timeRotations = new LongAdder();
+    private final LongAdder capacityRotations = new LongAdder();
+
+    public SampleDeduplicator(IngestionProperties properties, MeterRegistry meterRegistry) {
+        this.config = properties.getDedup();
+        double ln2 = Math.log(2);
+        long optimalBits = (long) Math.ceil(-config.getExpectedInsertions() * Math.log(config.getFalsePositiveRate())
+                / (ln2 * ln2));
+        // Round up to whole longs, capped at the largest long[] index range
+        this.bits = (int) Math.min((long) Integer.MAX_VALUE - 63, (optimalBits + 63) & ~63L);
+        this.hashes = Math.max(1, (int) Math.round((double) bits / config.getExpectedInsertions() * ln2));
+        this.rotateIntervalMillis = Math.max(1, config.getWindowMs() / 2);
+        this.current = new Generation(bits);
+        this.previous = new Generation(bits);
+        this.nextRotationAt = new AtomicLong(System.currentTimeMillis() + rotateIntervalMillis);
+
+        FunctionCounter.builder("ingestion.dedup", unique, LongAdder::sum)
+                .tag("result", "unique").register(meterRegistry);
+        FunctionCounter.builder("ingestion.dedup", duplicates, LongAdder::sum)
+                .tag("result", "duplicate").register(meterRegistry);
+        FunctionCounter.builder("ingestion.dedup.rotations", timeRotations, LongAdder::sum)
+                .tag("reason", "time").register(meterRegistry);
+        FunctionCounter.builder("ingestion.dedup.rotations", capacityRotations, LongAdder::sum)
+                .tag("reason", "capacity").register(meterRegistry);
+        Gauge.builder("ingestion.dedup.hit.ratio", this, SampleDeduplicator::getHitRatio)
+                .description("Share of samples dropped as duplicates")
+                .register(meterRegistry);
+        Gauge.builder("ingestion.dedup.bloom.load", this,
+                        d -> (double) d.current.insertions.sum() / d.config.getExpectedInsertions())
+                .description("Insertions into the current Bloom generation relative to its expected capacity")
+                .register(meterRegistry);
+        log.info("Sample dedup: {} KiB per Bloom generation, {} hashes, rotation every {} ms",
+                bits / 8 / 1024, hashes, rotateIntervalMillis);
+    }
+
+    /**
+     * Reports whether a sample was already recorded within the window. Always
+     * {@code false} when dedup is disabled.
+     *
+     * @param device     the reporting device
+     * @param metricName the metric name
+     * @param time       the sample time in epoch milliseconds
+     * @return {@code true} if the sample is a duplicate and should be dropped
+     */
+    public boolean isDuplicate(RegisteredDevice device, String metricName, long time) {
+        if (!config.isEnabled()) {
+            return false;
+        }
+        rotateIfDue();
+        SeriesTimes times = seriesFor(device);
+        int index = times.indexOf(metricName);
+        if (index < 0 || time > times.times[index]) {
+            return false;
+        }
+        long hash = hash(device.getDeviceId(), metricName, time);
+        if (current.mightContain(hash, hashes, bits) || previous.mightContain(hash, hashes, bits)) {
+            duplicates.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Remembers a sample the writer side accepted. Must be called by the thread
+     * ingesting the device.
+     *
+     * @param device     the reporting device
+     * @param metricName the metric name
+     * @param time       the sample time in epoch milliseconds
+     */
+    public void record(RegisteredDevice device, String metricName, long time) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        seriesFor(device).advance(metricName, time);
+        long hash = hash(device.getDeviceId(), metricName, time);
+        Generation generation = current;
+        generation.put(hash, hashes, bits);
+        unique.increment();
+        if ((hash & CAPACITY_CHECK_MASK) == 0 && generation.insertions.sum() >= config.getExpectedInsertions()) {
+            rotateFull(generation);
+        }
+    }
+
+    public long getUnique() {
+        return unique.sum();
+    }
+
+    public long getDuplicates() {
+        return duplicates.sum();
+    }
+
+    public double getHitRatio() {
+        long d = duplicates.sum();
+        long total = d + unique.sum();
+        return total == 0 ? 0.0 : (double) d / total;
+    }
+
+    private void rotateIfDue() {
+        long now = System.currentTimeMillis();
+        long due = nextRotationAt.get();
+        if (now >= due && nextRotationAt.compareAndSet(due, now + rotateIntervalMillis)) {
+            previous = current;
+            current = new Generation(bits);
+            timeRotations.increment();
+            log.debug("Sample dedup Bloom filter rotated");
+        }
+    }
+
+    /**
+     * Rotates a generation that reached its expected insertions before its time was up.
+     */
+    private void rotateFull(Generation generation) {
+        long due = nextRotationAt.get();
+        long now = System.currentTimeMillis();
+        if (current != generation || !nextRotationAt.compareAndSet(due, now + rotateIntervalMillis)) {
+            return;
+        }
+        previous = current;
+        current = new Generation(bits);
+        capacityRotations.increment();
+        long filledInMillis = Math.max(1, now - generation.createdAt);
+        long needed = (long) Math.ceil((double) generation.insertions.sum() * rotateIntervalMillis / filledInMillis);
+        log.warn("Sample dedup Bloom generation full after {} ms instead of {} ms; the dedup window is "
+                        + "shortened. Set ingestion.dedup.expected-insertions to about {} for the current rate",
+                filledInMillis, rotateIntervalMillis, needed);
+    }
+
+    private SeriesTimes seriesFor(RegisteredDevice device) {
+        int slot = device.getSlot();
+        SeriesTimes[] current = series;
+        SeriesTimes times = slot < current.length ? current[slot] : null;
+        if (times != null && times.deviceId.equals(device.getDeviceId())) {
+            return times;
+        }
+        synchronized (growLock) {
+            current = series;
+            if (slot >= current.length) {
+                current = Arrays.copyOf(current, Math.max(slot + 1, Math.max(16, current.length * 2)));
+            }
+            times = current[slot];
+            // A reused slot starts over instead of inheriting the previous device's times.
+            if (times == null || !times.deviceId.equals(device.getDeviceId())) {
+                times = new SeriesTimes(device.getDeviceId());
+                current[slot] = times;
+            }
+            series = current;
+            return times;
+        }
+    }
+
+    /**
+     * 64-bit hash of the sample key; the metric name hash is cached by {@link String}.
+     */
+    private static long hash(UUID deviceId, String metricName, long time) {
+        long h = mix(deviceId.getMostSignificantBits() ^ Long.rotateLeft(deviceId.getLeastSignificantBits(), 29));
+        h = mix(h ^ metricName.hashCode() * 0x9E3779B97F4A7C15L);
+        return mix(h ^ time);
+    }
+
+    /**
+     * MurmurHash3 fmix64 finaliser.
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * One Bloom filter generation; probes use double hashing ({@code h1 + i * h2}).
+     */
+    private static final class Generation {
+
+        private final long[] words;
+        private final LongAdder insertions = new LongAdder();
+        private final long createdAt = System.currentTimeMillis();
+
+        private Generation(int bits) {
+            this.words = new long[bits >>> 6];
+        }
+
+        private boolean mightContain(long hash, int hashes, int bits) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32) | 1;
+            for (int i = 0; i < hashes; i++) {
+                int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % bits;
+                if (((long) LONGS.getOpaque(words, bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void put(long hash, int hashes, int bits) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32) | 1;
+            for (int i = 0; i < hashes; i++) {
+                int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % bits;
+                LONGS.getAndBitwiseOr(words, bit >>> 6, 1L << bit);
+            }
+            insertions.increment();
+        }
+    }
+
+    /**
+     * Newest recorded time of every metric of one device. Devices report a handful of
+     * metrics, so lookups scan; names are usually the same {@link String} instance.
+     */
+    private static final class SeriesTimes {
+
+        private final UUID deviceId;
+        private String[] metrics = new String[8];
+        private long[] times = new long[8];
+        private int size;
+
+        private SeriesTimes(UUID deviceId) {
+            this.deviceId = deviceId;
+        }
+
+        private int indexOf(String metricName) {
+            for (int i = 0; i < size; i++) {
+                String name = metrics[i];
+                if (name == metricName || name.equals(metricName)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private void advance(String metricName, long time) {
+            int index = indexOf(metricName);
+            if (index < 0) {
+                if (size == metrics.length) {
+                    metrics = Arrays.copyOf(metrics, size * 2);
+                    times = Arrays.copyOf(times, size * 2);
+                }
+                index = size++;
+                metrics[index] = metricName;
+                times[index] = time;
+            } else if (time > times[index]) {
+                times[index] = time;
+            }
+        }
+    }
+}
@@ -0,0 +1,358 @@
+package community.waterlevel.iot.module.ingestion.latency;
+
+import community.waterlevel.iot.config.property.IngestionProperties;
+import community.waterlevel.iot.module.ingestion.model.enums.LatencyStage;
+import community.waterlevel.iot.module.ingestion.support.LongObjectMap;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Per-community, per-stage latency histograms of the telemetry ingestion pipeline.
+ *
+ * <p>Every {@link LatencyStage} of every community has its own {@link LatencyHistogram};
+ * recording is a map lookup plus one atomic add and never allocates, so it is done
+ * inline on the MQTT callback and writer threads. Communities beyond
+ * {@code ingestion.latency.max-communities} share one set of histograms.
+ *
+ * <p>Every {@code ingestion.latency.interval-ms} a background thread copies the
+ * histograms and computes, per community and stage and for all communities together:
+ * <ul>
+ *   <li>the window summary: samples recorded since the previous roll</li>
+ *   <li>the total summary: samples recorded since start or the last {@link #reset()}</li>
+ * </ul>
+ *
+ * <p>Metrics (window percentiles, in seconds): {@code ingestion.latency{stage,community,quantile}},
+ * {@code ingestion.latency.max{stage,community}} and the sample counter
+ * {@code ingestion.latency.count{stage,community}}; {@code community} is the dept id,
+ * {@code other} or {@code all}.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Slf4j
+@Component
+public class IngestionLatencyRecorder implements SmartLifecycle {
+
+    private static final LatencyStage[] STAGES = LatencyStage.values();
+    private static final String ALL_TAG = "all";
+    private static final String OTHER_TAG = "other";
+
+    private final IngestionProperties.LatencyConfig config;
+    private final MeterRegistry meterRegistry;
+
+    private final Object communityLock = new Object();
+    private volatile LongObjectMap<CommunityLatency> communities = LongObjectMap.empty();
+    private final CommunityLatency other;
+    private final CommunityLatency all;
+
+    /**
+     * Scratch buffer of the roll; only used under the instance lock.
+     */
+    private final long[] scratch = new long[LatencyHistogram.BUCKETS];
+
+    private volatile long windowEndedAt;
+    private ScheduledExecutorService scheduler;
+    private volatile boolean running;
+
+    public IngestionLatencyRecorder(IngestionProperties properties, MeterRegistry meterRegistry) {
+        this.config = properties.getLatency();
+        this.meterRegistry = meterRegistry;
+        this.other = new CommunityLatency(null, false);
+        this.all = new CommunityLatency(null, true);
+        register(other, OTHER_TAG);
+        register(all, ALL_TAG);
+    }
+
+    /**
+     * Records one latency value.
+     *
+     * @param communityId the community (dept id) of the sample
+     * @param stage       the pipeline stage
+     * @param micros      the latency in microseconds
+     */
+    public void record(long communityId, LatencyStage stage, long micros) {
+        if (config.isEnabled()) {
+            communityFor(communityId).histograms[stage.ordinal()].record(micros);
+        }
+    }
+
+    /**
+     * Returns whether latency recording is enabled.
+     *
+     * @return {@code true} if {@link #record} records values
+     */
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * Returns the summaries published by the last roll: one entry per stage for all
+     * communities together, followed by one per stage for every community with samples.
+     *
+     * @return the stage summaries
+     */
+    public List<StageSnapshot> snapshot() {
+        List<StageSnapshot> snapshots = new ArrayList<>();
+        all.collect(snapshots);
+        for (CommunityLatency community : communities.toMap().values()) {
+            community.collect(snapshots);
+        }
+        other.collect(snapshots);
+        return snapshots;
+    }
+
+    /**
+     * Returns the end of the window the published summaries cover.
+     *
+     * @return epoch milliseconds, or 0 before the first roll
+     */
+    public long getWindowEndedAt() {
+        return windowEndedAt;
+    }
+
+    public long getIntervalMs() {
+        return config.getIntervalMs();
+    }
+
+    /**
+     * Restarts the total summaries. Window summaries and the exported counters are not affected.
+     */
+    public synchronized void reset() {
+        for (CommunityLatency community : communities.toMap().values()) {
+            community.rebase(scratch);
+        }
+        other.rebase(scratch);
+        roll();
+        log.info("Ingestion latency totals reset");
+    }
+
+    /**
+     * Publishes new window and total summaries.
+     */
+    synchronized void roll() {
+        long[][] windowSum = new long[STAGES.length][LatencyHistogram.BUCKETS];
+        long[][] totalSum = new long[STAGES.length][LatencyHistogram.BUCKETS];
+        for (CommunityLatency community : communities.toMap().values()) {
+            community.roll(scratch, windowSum, totalSum);
+        }
+        other.roll(scratch, windowSum, totalSum);
+        all.publish(windowSum, totalSum);
+        windowEndedAt = System.currentTimeMillis();
+    }
+
+    @Override
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "ingestion-latency-roll");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = config.getIntervalMs();
+        scheduler.scheduleAtFixedRate(this::rollQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void rollQuietly() {
+        try {
+            roll();
+        } catch (Exception e) {
+            log.error("Ingestion latency roll failed", e);
+        }
+    }
+
+    private CommunityLatency communityFor(long communityId) {
+        CommunityLatency community = communities.get(communityId);
+        if (community != null) {
+            return community;
+        }
+        if (communities.size() >= config.getMaxCommunities()) {
+            return other;
+        }
+        synchronized (communityLock) {
+            LongObjectMap<CommunityLatency> current = communities;
+            community = current.get(communityId);
+            if (community != null) {
+                return community;
+            }
+            if (current.size() >= config.getMaxCommunities()) {
+                return other;
+            }
+            community = new CommunityLatency(communityId, false);
+            register(community, String.valueOf(communityId));
+            communities = current.with(communityId, community);
+            return community;
+        }
+    }
+
+    private void register(CommunityLatency community, String communityTag) {
+        for (LatencyStage stage : STAGES) {
+            int s = stage.ordinal();
+            Tags tags = Tags.of("stage", stage.getTag(), "community", communityTag);
+            gauge(community, tags, "0.5", c -> c.window[s].p50);
+            gauge(community, tags, "0.9", c -> c.window[s].p90);
+            gauge(community, tags, "0.99", c -> c.window[s].p99);
+            gauge(community, tags, "0.999", c -> c.window[s].p999);
+            Gauge.builder("ingestion.latency.max", community, c -> c.window[s].max / 1e6)
+                    .tags(tags)
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+            FunctionCounter.builder("ingestion.latency.count", community, c -> c.recorded[s])
+                    .tags(tags)
+                    .description("Latency samples recorded")
+                    .register(meterRegistry);
+        }
+    }
+
+    private void gauge(CommunityLatency community, Tags tags, String quantile,
+                       ToDoubleFunction<CommunityLatency> value) {
+        Gauge.builder("ingestion.latency", community, c -> value.applyAsDouble(c) / 1e6)
+                .tags(tags)
+                .tag("quantile", quantile)
+                .baseUnit("seconds")
+                .description("Ingestion latency percentile over the last window")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Summaries of one stage of one community.
+     */
+    public static final class StageSnapshot {
+
+        /**
+         * The community (dept id); null for all communities together or for
+         * communities beyond the configured maximum.
+         */
+        public final Long communityId;
+
+        /**
+         * Whether this entry aggregates every community.
+         */
+        public final boolean aggregate;
+
+        public final LatencyStage stage;
+        public final LatencyHistogram.Summary window;
+        public final LatencyHistogram.Summary total;
+
+        StageSnapshot(Long communityId, boolean aggregate, LatencyStage stage,
+                      LatencyHistogram.Summary window, LatencyHistogram.Summary total) {
+            this.communityId = communityId;
+            this.aggregate = aggregate;
+            this.stage = stage;
+            this.window = window;
+            this.total = total;
+        }
+    }
+
+    /**
+     * Histograms and published summaries of one community.
+     */
+    private static final class CommunityLatency {
+
+        private final Long communityId;
+        private final boolean aggregate;
+        private final LatencyHistogram[] histograms = new LatencyHistogram[STAGES.length];
+        private final long[][] previous = new long[STAGES.length][LatencyHistogram.BUCKETS];
+        private final long[][] baseline = new long[STAGES.length][LatencyHistogram.BUCKETS];
+
+        private volatile LatencyHistogram.Summary[] window = emptySummaries();
+        private volatile LatencyHistogram.Summary[] total = emptySummaries();
+        private final long[] recorded = new long[STAGES.length];
+
+        private CommunityLatency(Long communityId, boolean aggregate) {
+            this.communityId = communityId;
+            this.aggregate = aggregate;
+            for (int s = 0; s < STAGES.length; s++) {
+                histograms[s] = new LatencyHistogram();
+            }
+        }
+
+        /**
+         * Computes this community's summaries and adds its counts to the aggregate.
+         */
+        private void roll(long[] current, long[][] windowSum, long[][] totalSum) {
+            LatencyHistogram.Summary[] nextWindow = new LatencyHistogram.Summary[STAGES.length];
+            LatencyHistogram.Summary[] nextTotal = new LatencyHistogram.Summary[STAGES.length];
+            long[] delta = new long[LatencyHistogram.BUCKETS];
+            for (int s = 0; s < STAGES.length; s++) {
+                histograms[s].copyInto(current);
+                long count = 0;
+                for (int i = 0; i < LatencyHistogram.BUCKETS; i++) {
+                    delta[i] = current[i] - previous[s][i];
+                    windowSum[s][i] += delta[i];
+                    previous[s][i] = current[i];
+                    totalSum[s][i] += current[i] - baseline[s][i];
+                    count += current[i];
+                }
+                recorded[s] = count;
+                nextWindow[s] = LatencyHistogram.summarize(delta);
+                for (int i = 0; i < LatencyHistogram.BUCKETS; i++) {
+                    delta[i] = current[i] - baseline[s][i];
+                }
+                nextTotal[s] = LatencyHistogram.summarize(delta);
+            }
+            window = nextWindow;
+            total = nextTotal;
+        }
+
+        private void publish(long[][] windowCounts, long[][] totalCounts) {
+            LatencyHistogram.Summary[] nextWindow = new LatencyHistogram.Summary[STAGES.length];
+            LatencyHistogram.Summary[] nextTotal = new LatencyHistogram.Summary[STAGES.length];
+            for (int s = 0; s < STAGES.length; s++) {
+                nextWindow[s] = LatencyHistogram.summarize(windowCounts[s]);
+                nextTotal[s] = LatencyHistogram.summarize(totalCounts[s]);
+                recorded[s] += nextWindow[s].count;
+            }
+            window = nextWindow;
+            total = nextTotal;
+        }
+
+        private void rebase(long[] current) {
+            for (int s = 0; s < STAGES.length; s++) {
+                histograms[s].copyInto(current);
+                System.arraycopy(current, 0, baseline[s], 0, current.length);
+            }
+        }
+
+        private void collect(List<StageSnapshot> target) {
+            LatencyHistogram.Summary[] w = window;
+            LatencyHistogram.Summary[] t = total;
+            for (int s = 0; s < STAGES.length; s++) {
+                if (t[s].count > 0 || w[s].count > 0) {
+                    target.add(new StageSnapshot(communityId, aggregate, STAGES[s], w[s], t[s]));
+                }
+            }
+        }
+
+        private static LatencyHistogram.Summary[] emptySummaries() {
+            LatencyHistogram.Summary[] summaries = new LatencyHistogram.Summary[STAGES.length];
+            Arrays.fill(summaries, LatencyHistogram.Summary.EMPTY);
+            return summaries;
+        }
+    }
+}
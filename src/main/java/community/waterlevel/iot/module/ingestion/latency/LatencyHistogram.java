@@ -0,0 +1,146 @@
+package community.waterlevel.iot.module.ingestion.latency;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Concurrent log-linear latency histogram in the style of HdrHistogram.
+ *
+ * <p>Values (microseconds) are counted in buckets of 16 linear sub-buckets per power
+ * of two, so every recorded value is reproduced within 1/16 (6.25%) of its magnitude.
+ * Values up to 31 are exact; values above {@link #MAX_VALUE} (about 71 minutes) are
+ * clamped. The counts live in a single {@link AtomicLongArray} of {@value #BUCKETS}
+ * entries (under 4 KiB): recording is one array index computation and one atomic add,
+ * wait-free and allocation-free from any number of threads.
+ *
+ * <p>The histogram is cumulative. Interval views are taken by {@link #copyInto(long[])}
+ * and subtracting the previous copy, which leaves recording threads undisturbed.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+public final class LatencyHistogram {
+
+    /**
+     * log2 of the number of linear sub-buckets per power of two.
+     */
+    private static final int SUB_BUCKET_BITS = 4;
+
+    /**
+     * Largest value that is counted in its own bucket; larger values are clamped.
+     */
+    public static final long MAX_VALUE = (1L << 32) - 1;
+
+    /**
+     * Number of buckets needed to cover {@code [0, MAX_VALUE]}.
+     */
+    public static final int BUCKETS = indexOf(MAX_VALUE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    /**
+     * Records one value.
+     *
+     * @param micros the latency in microseconds; negative values count as 0
+     */
+    public void record(long micros) {
+        counts.getAndIncrement(indexOf(micros < 0 ? 0 : Math.min(micros, MAX_VALUE)));
+    }
+
+    /**
+     * Copies the current bucket counts.
+     *
+     * @param target an array of {@link #BUCKETS} entries
+     */
+    public void copyInto(long[] target) {
+        for (int i = 0; i < BUCKETS; i++) {
+            target[i] = counts.get(i);
+        }
+    }
+
+    /**
+     * Returns the bucket a value is counted in.
+     */
+    static int indexOf(long value) {
+        int shift = Math.max(0, 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS - 1);
+        return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+    }
+
+    /**
+     * Returns the largest value counted in a bucket, the value reported for it.
+     */
+    static long highestValueOf(int index) {
+        if (index < 2 << SUB_BUCKET_BITS) {
+            return index;
+        }
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        long top = index - ((long) shift << SUB_BUCKET_BITS);
+        return ((top + 1) << shift) - 1;
+    }
+
+    /**
+     * Computes summary statistics of a set of bucket counts.
+     *
+     * @param counts bucket counts, e.g. the difference of two {@link #copyInto} copies
+     * @return the summary
+     */
+    public static Summary summarize(long[] counts) {
+        long total = 0;
+        double weightedSum = 0;
+        int highest = -1;
+        for (int i = 0; i < BUCKETS; i++) {
+            long c = counts[i];
+            if (c != 0) {
+                total += c;
+                weightedSum += (double) c * highestValueOf(i);
+                highest = i;
+            }
+        }
+        if (total == 0) {
+            return Summary.EMPTY;
+        }
+        return new Summary(total, weightedSum / total,
+                valueAtQuantile(counts, total, 0.50),
+                valueAtQuantile(counts, total, 0.90),
+                valueAtQuantile(counts, total, 0.99),
+                valueAtQuantile(counts, total, 0.999),
+                highestValueOf(highest));
+    }
+
+    private static long valueAtQuantile(long[] counts, long total, double quantile) {
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return highestValueOf(i);
+            }
+        }
+        return highestValueOf(BUCKETS - 1);
+    }
+
+    /**
+     * Summary of a histogram; all values in microseconds.
+     */
+    public static final class Summary {
+
+        public static final Summary EMPTY = new Summary(0, 0, 0, 0, 0, 0, 0);
+
+        public final long count;
+        public final double mean;
+        public final long p50;
+        public final long p90;
+        public final long p99;
+        public final long p999;
+        public final long max;
+
+        Summary(long count, double mean, long p50, long p90, long p99, long p999, long max) {
+            this.count = count;
+            this.mean = mean;
+            this.p50 = p50;
+            this.p90 = p90;
+            this.p99 = p99;
+            this.p999 = p999;
+            this.max = max;
+        }
+    }
+}
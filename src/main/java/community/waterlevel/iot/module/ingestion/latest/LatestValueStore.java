@@ -0,0 +1,340 @@
+package community.waterlevel.iot.module.ingestion.latest;
+
+import community.waterlevel.iot.module.ingestion.model.RegisteredDevice;
+import community.waterlevel.iot.module.ingestion.registry.DeviceRegistry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process store of the newest sample of every device metric.
+ *
+ * <p>Rows are indexed by {@link RegisteredDevice#getSlot()}; metric names are interned
+ * into dense integer indexes. Each row keeps its metrics in parallel primitive arrays
+ * (index, time, value, version, quality), so recording a sample neither boxes nor
+ * allocates once the metric has been seen for the device.
+ *
+ * <p>Concurrency: every device has a single writer (the ingestion thread handling its
+ * topic). Readers never block the writer; each row is guarded by a sequence lock and
+ * readers retry when a write overlapped their copy. Samples older than the stored one
+ * are ignored, so out-of-order delivery never moves a value backwards.
+ *
+ * <p>Rows carry a dirty flag consumed by {@link SensorLatestPersister}, which upserts
+ * them into {@code sensor_latest} and restores them on startup, and a changed flag
+ * consumed by {@link #readChanged} for live push.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Component
+public class LatestValueStore {
+
+    private static final int INITIAL_METRICS_PER_DEVICE = 8;
+
+    private final DeviceRegistry deviceRegistry;
+
+    private final Map<String, Integer> metricIndexes = new ConcurrentHashMap<>();
+    private volatile String[] metricNames = new String[64];
+
+    private final Object growLock = new Object();
+    private volatile Row[] rows = new Row[0];
+
+    public LatestValueStore(DeviceRegistry deviceRegistry, MeterRegistry meterRegistry) {
+        this.deviceRegistry = deviceRegistry;
+        Gauge.builder("ingestion.latest.metrics", metricIndexes, Map::size)
+                .description("Distinct metric names held by the latest-value store")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records a sample when it is at least as new as the stored one.
+     *
+     * @param device       the reporting device
+     * @param metricName   the metric name
+     * @param time         the sample time in epoch milliseconds
+     * @param value        the numeric value, ignored when {@code valuePresent} is false
+     * @param valuePresent whether the sample carries a numeric value
+     * @param version      the metric definition version, 0 when unknown
+     * @param quality      the sample quality
+     */
+    public void update(RegisteredDevice device, String metricName, long time, double value,
+                       boolean valuePresent, int version, short quality) {
+        update(device, metricIndex(metricName), time, value, valuePresent, version, quality, true);
+    }
+
+    /**
+     * Restores a persisted sample without marking the row dirty.
+     */
+    void restore(RegisteredDevice device, String metricName, long time, double value,
+                 boolean valuePresent, int version, short quality) {
+        update(device, metricIndex(metricName), time, value, valuePresent, version, quality, false);
+    }
+
+    /**
+     * Copies the current values of one device.
+     *
+     * @param device the device
+     * @param target receives the values; reused across calls
+     * @return {@code false} when nothing was recorded for the device
+     */
+    public boolean read(RegisteredDevice device, Values target) {
+        Row[] current = rows;
+        int slot = device.getSlot();
+        Row row = slot < current.length ? current[slot] : null;
+        if (row == null || !row.deviceId.equals(device.getDeviceId())) {
+            return false;
+        }
+        row.copyTo(target);
+        return target.size > 0;
+    }
+
+    /**
+     * Copies the current values of one device if they changed since the previous call
+     * for the device, and clears its changed flag. A write racing with the copy sets the
+     * flag again, so its sample is reported by the next call.
+     *
+     * @param device the device
+     * @param target receives the values; reused across calls
+     * @return {@code false} when nothing changed
+     */
+    public boolean readChanged(RegisteredDevice device, Values target) {
+        Row[] current = rows;
+        int slot = device.getSlot();
+        Row row = slot < current.length ? current[slot] : null;
+        if (row == null || !row.changed || !row.deviceId.equals(device.getDeviceId())) {
+            return false;
+        }
+        row.changed = false;
+        row.copyTo(target);
+        return target.size > 0;
+    }
+
+    /**
+     * Returns the metric name of an index handed out in {@link Values#metrics}.
+     */
+    public String metricName(int index) {
+        return metricNames[index];
+    }
+
+    /**
+     * Copies every row whose dirty flag is set and clears the flag. A write racing
+     * with the copy sets the flag again, so nothing is lost.
+     *
+     * @param consumer receives the device and its values; the values are reused
+     */
+    void drainDirty(DirtyRowConsumer consumer) {
+        Row[] current = rows;
+        Values values = new Values();
+        for (Row row : current) {
+            if (row != null && row.dirty) {
+                row.dirty = false;
+                row.copyTo(values);
+                if (values.size > 0) {
+                    consumer.accept(row.deviceIdText, row.deptId, values);
+                }
+            }
+        }
+    }
+
+    /**
+     * Marks every row dirty, e.g. after a failed flush.
+     */
+    void markAllDirty() {
+        for (Row row : rows) {
+            if (row != null) {
+                row.dirty = true;
+            }
+        }
+    }
+
+    private void update(RegisteredDevice device, int metric, long time, double value, boolean valuePresent,
+                        int version, short quality, boolean markDirty) {
+        Row row = rowFor(device);
+        row.put(metric, time, value, valuePresent, version, quality);
+        if (markDirty && !row.dirty) {
+            row.dirty = true;
+        }
+        if (markDirty && !row.changed) {
+            row.changed = true;
+        }
+    }
+
+    private int metricIndex(String metricName) {
+        Integer index = metricIndexes.get(metricName);
+        if (index != null) {
+            return index;
+        }
+        synchronized (growLock) {
+            index = metricIndexes.get(metricName);
+            if (index == null) {
+                index = metricIndexes.size();
+                String[] names = metricNames;
+                if (index == names.length) {
+                    names = Arrays.copyOf(names, names.length * 2);
+                }
+                names[index] = metricName;
+                metricNames = names;
+                metricIndexes.put(metricName, index);
+            }
+            return index;
+        }
+    }
+
+    private Row rowFor(RegisteredDevice device) {
+        int slot = device.getSlot();
+        Row[] current = rows;
+        Row row = slot < current.length ? current[slot] : null;
+        if (row != null && row.deviceId.equals(device.getDeviceId()) && row.deptId == device.getDeptId()) {
+            return row;
+        }
+        synchronized (growLock) {
+            current = rows;
+            if (slot >= current.length) {
+                current = Arrays.copyOf(current, Math.max(slot + 1, Math.max(16, deviceRegistry.getSlotCapacity())));
+            }
+            row = current[slot];
+            // A reused slot or a device moved to another community starts over.
+            if (row == null || !row.deviceId.equals(device.getDeviceId()) || row.deptId != device.getDeptId()) {
+                row = new Row(device.getDeviceId(), device.getDeviceIdText(), device.getDeptId());
+                current[slot] = row;
+            }
+            rows = current;
+            return row;
+        }
+    }
+
+    /**
+     * Receives dirty rows during {@link #drainDirty(DirtyRowConsumer)}.
+     */
+    @FunctionalInterface
+    interface DirtyRowConsumer {
+        void accept(String deviceId, long deptId, Values values);
+    }
+
+    /**
+     * Reusable copy of one device row. Entries {@code [0, size)} are valid; a metric
+     * without a numeric value has {@code present[i] == false}.
+     */
+    public static final class Values {
+        public int size;
+        public int[] metrics = new int[INITIAL_METRICS_PER_DEVICE];
+        public long[] times = new long[INITIAL_METRICS_PER_DEVICE];
+        public double[] values = new double[INITIAL_METRICS_PER_DEVICE];
+        public boolean[] present = new boolean[INITIAL_METRICS_PER_DEVICE];
+        public int[] versions = new int[INITIAL_METRICS_PER_DEVICE];
+        public short[] qualities = new short[INITIAL_METRICS_PER_DEVICE];
+
+        private void ensureCapacity(int capacity) {
+            if (metrics.length < capacity) {
+                metrics = new int[capacity];
+                times = new long[capacity];
+                values = new double[capacity];
+                present = new boolean[capacity];
+                versions = new int[capacity];
+                qualities = new short[capacity];
+            }
+        }
+    }
+
+    /**
+     * Latest values of one device, guarded by a sequence lock (odd while writing).
+     */
+    private static final class Row {
+
+        private final UUID deviceId;
+        private final String deviceIdText;
+        private final long deptId;
+        private final AtomicInteger sequence = new AtomicInteger();
+        private volatile boolean dirty;
+        private volatile boolean changed;
+
+        // Written by the single writer inside the sequence lock.
+        private int size;
+        private int[] metrics = new int[INITIAL_METRICS_PER_DEVICE];
+        private long[] times = new long[INITIAL_METRICS_PER_DEVICE];
+        private double[] values = new double[INITIAL_METRICS_PER_DEVICE];
+        private boolean[] present = new boolean[INITIAL_METRICS_PER_DEVICE];
+        private int[] versions = new int[INITIAL_METRICS_PER_DEVICE];
+        private short[] qualities = new short[INITIAL_METRICS_PER_DEVICE];
+
+        private Row(UUID deviceId, String deviceIdText, long deptId) {
+            this.deviceId = deviceId;
+            this.deviceIdText = deviceIdText;
+            this.deptId = deptId;
+        }
+
+        private void put(int metric, long time, double value, boolean valuePresent, int version, short quality) {
+            int i = 0;
+            while (i < size && metrics[i] != metric) {
+                i++;
+            }
+            if (i < size && time < times[i]) {
+                return;
+            }
+            sequence.incrementAndGet();
+            if (i == size) {
+                if (size == metrics.length) {
+                    grow();
+                }
+                metrics[i] = metric;
+                size++;
+            }
+            times[i] = time;
+            values[i] = value;
+            present[i] = valuePresent;
+            versions[i] = version;
+            qualities[i] = quality;
+            sequence.incrementAndGet();
+        }
+
+        private void grow() {
+            int capacity = metrics.length * 2;
+            metrics = Arrays.copyOf(metrics, capacity);
+            times = Arrays.copyOf(times, capacity);
+            values = Arrays.copyOf(values, capacity);
+            present = Arrays.copyOf(present, capacity);
+            versions = Arrays.copyOf(versions, capacity);
+            qualities = Arrays.copyOf(qualities, capacity);
+        }
+
+        private void copyTo(Values target) {
+            while (true) {
+                int before = sequence.get();
+                if ((before & 1) != 0) {
+                    Thread.onSpinWait();
+                    continue;
+                }
+                int n = size;
+                int[] m = metrics;
+                long[] t = times;
+                double[] v = values;
+                boolean[] p = present;
+                int[] ver = versions;
+                short[] q = qualities;
+                // A racing grow() may leave the arrays shorter than a stale size; retry.
+                if (n <= m.length && n <= t.length && n <= v.length && n <= p.length && n <= ver.length
+                        && n <= q.length) {
+                    target.ensureCapacity(n);
+                    System.arraycopy(m, 0, target.metrics, 0, n);
+                    System.arraycopy(t, 0, target.times, 0, n);
+                    System.arraycopy(v, 0, target.values, 0, n);
+                    System.arraycopy(p, 0, target.present, 0, n);
+                    System.arraycopy(ver, 0, target.versions, 0, n);
+                    System.arraycopy(q, 0, target.qualities, 0, n);
+                    target.size = n;
+                }
+                VarHandle.acquireFence();
+                if (sequence.get() == before) {
+                    return;
+                }
+            }
+        }
+    }
+}
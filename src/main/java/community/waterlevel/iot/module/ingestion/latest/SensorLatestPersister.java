@@ -0,0 +1,200 @@
+package community.waterlevel.iot.module.ingestion.latest;
+
+import community.waterlevel.iot.config.property.IngestionProperties;
+import community.waterlevel.iot.module.ingestion.model.RegisteredDevice;
+import community.waterlevel.iot.module.ingestion.registry.DeviceRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persists the {@link LatestValueStore} into {@code sensor_latest} and restores it on startup.
+ *
+ * <p>Every {@code ingestion.latest.flush-interval-ms} the rows changed since the previous
+ * flush are upserted with one multi-row {@code INSERT ... ON CONFLICT DO UPDATE} per
+ * {@code ingestion.latest.batch-size} values. The update never replaces a newer value.
+ * A failed flush marks every row dirty again; the next flush rewrites them.
+ *
+ * <p>Starts before the MQTT subscriber so the store is warm when telemetry resumes, and
+ * stops after it so the final values are written.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Slf4j
+@Component
+public class SensorLatestPersister implements SmartLifecycle {
+
+    private static final String SELECT_ALL = "SELECT device_id, metric_name, time, metric_value, metric_version, "
+            + "quality FROM sensor_latest";
+    private static final String UPSERT_PREFIX = "INSERT INTO sensor_latest (device_id, metric_name, community_id, "
+            + "time, metric_value, metric_version, quality) VALUES ";
+    private static final String UPSERT_ROW = "(?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPSERT_SUFFIX = " ON CONFLICT (device_id, metric_name) DO UPDATE SET "
+            + "community_id = EXCLUDED.community_id, time = EXCLUDED.time, metric_value = EXCLUDED.metric_value, "
+            + "metric_version = EXCLUDED.metric_version, quality = EXCLUDED.quality, updated_at = NOW() "
+            + "WHERE sensor_latest.time <= EXCLUDED.time";
+    private static final int COLUMNS = 7;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LatestValueStore store;
+    private final DeviceRegistry deviceRegistry;
+    private final IngestionProperties.LatestConfig config;
+
+    private ScheduledExecutorService scheduler;
+    private volatile boolean running;
+
+    public SensorLatestPersister(JdbcTemplate jdbcTemplate, LatestValueStore store, DeviceRegistry deviceRegistry,
+                                 IngestionProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.store = store;
+        this.deviceRegistry = deviceRegistry;
+        this.config = properties.getLatest();
+    }
+
+    /**
+     * Loads the persisted values of all registered devices into the store.
+     *
+     * @return the number of values restored
+     */
+    public int restore() {
+        int[] restored = new int[1];
+        jdbcTemplate.query(SELECT_ALL, rs -> {
+            RegisteredDevice device;
+            try {
+                device = deviceRegistry.findById(UUID.fromString(rs.getString(1)));
+            } catch (IllegalArgumentException e) {
+                device = null;
+            }
+            if (device == null) {
+                return;
+            }
+            double value = rs.getDouble(4);
+            boolean present = !rs.wasNull();
+            int version = rs.getInt(5);
+            store.restore(device, rs.getString(2), rs.getTimestamp(3).getTime(), value, present, version,
+                    rs.getShort(6));
+            restored[0]++;
+        });
+        return restored[0];
+    }
+
+    /**
+     * Upserts every value changed since the previous flush.
+     *
+     * @return the number of values written
+     */
+    public synchronized int flush() {
+        List<Object> args = new ArrayList<>();
+        int[] written = new int[1];
+        boolean[] failed = new boolean[1];
+        store.drainDirty((deviceId, deptId, values) -> {
+            for (int i = 0; i < values.size; i++) {
+                args.add(deviceId);
+                args.add(store.metricName(values.metrics[i]));
+                args.add((int) deptId);
+                args.add(new Timestamp(values.times[i]));
+                args.add(values.present[i] ? values.values[i] : null);
+                args.add(values.versions[i] != 0 ? values.versions[i] : null);
+                args.add(values.qualities[i]);
+            }
+            if (args.size() >= config.getBatchSize() * COLUMNS) {
+                written[0] += upsertQuietly(args, failed);
+            }
+        });
+        if (!args.isEmpty()) {
+            written[0] += upsertQuietly(args, failed);
+        }
+        if (failed[0]) {
+            store.markAllDirty();
+        }
+        if (written[0] > 0) {
+            log.debug("Upserted {} latest values", written[0]);
+        }
+        return written[0];
+    }
+
+    @Override
+    public void start() {
+        try {
+            log.info("Restored {} latest values from sensor_latest", restore());
+        } catch (Exception e) {
+            log.warn("Could not restore latest values from sensor_latest: {}", e.getMessage());
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "sensor-latest-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = config.getFlushIntervalMs();
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (scheduler != null) {
+            scheduler.shutdown();
+            try {
+                scheduler.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flushQuietly();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts before and stops after the MQTT subscriber.
+     */
+    @Override
+    public int getPhase() {
+        return DEFAULT_PHASE - 2048;
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("sensor_latest flush failed", e);
+        }
+    }
+
+    private int upsertQuietly(List<Object> args, boolean[] failed) {
+        int rows = args.size() / COLUMNS;
+        try {
+            StringBuilder sql = new StringBuilder(UPSERT_PREFIX.length() + rows * (UPSERT_ROW.length() + 1)
+                    + UPSERT_SUFFIX.length());
+            sql.append(UPSERT_PREFIX);
+            for (int i = 0; i < rows; i++) {
+                if (i > 0) {
+                    sql.append(',');
+                }
+                sql.append(UPSERT_ROW);
+            }
+            sql.append(UPSERT_SUFFIX);
+            return jdbcTemplate.update(sql.toString(), args.toArray());
+        } catch (Exception e) {
+            failed[0] = true;
+            log.error("Failed to upsert {} latest values", rows, e);
+            return 0;
+        } finally {
+            args.clear();
+        }
+    }
+}
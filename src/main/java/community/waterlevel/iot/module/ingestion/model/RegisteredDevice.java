@@ -0,0 +1,63 @@
+package community.waterlevel.iot.module.ingestion.model;
+
+import community.waterlevel.iot.module.device.model.enums.DeviceStatusEnum;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.UUID;
+
+/**
+ * Immutable view of a device as needed on the ingestion hot path.
+ *
+ * <p>Instances are created when the registry loads or refreshes a device and are
+ * handed out by reference, so lookups never allocate.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class RegisteredDevice {
+
+    /**
+     * Dense, stable index of the device while it is registered. Freed indexes are
+     * reused, so per-device primitive arrays can be sized by the registry capacity.
+     */
+    private final int slot;
+
+    /**
+     * Device identifier.
+     */
+    private final UUID deviceId;
+
+    /**
+     * Device identifier as stored in {@code sensor_data.device_id}.
+     */
+    private final String deviceIdText;
+
+    /**
+     * Owning community (department) identifier.
+     */
+    private final long deptId;
+
+    /**
+     * Operational status.
+     */
+    private final DeviceStatusEnum status;
+
+    /**
+     * MQTT command topic, or null when credentials were never provisioned.
+     */
+    private final String commandTopic;
+
+    /**
+     * Returns whether the device is active and its telemetry is ingested.
+     *
+     * @return {@code true} if the status is {@link DeviceStatusEnum#ACTIVE}
+     */
+    public boolean isOperational() {
+        return status != null && status.isOperational();
+    }
+}
@@ -0,0 +1,49 @@
+package community.waterlevel.iot.module.ingestion.model;
+
+import community.waterlevel.iot.module.metric.model.enums.MetricDataType;
+import community.waterlevel.iot.module.metric.model.enums.MetricUnit;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Immutable snapshot of an active metric definition as needed during ingestion.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class ResolvedMetric {
+
+    /**
+     * Metric definition identifier.
+     */
+    private final long id;
+
+    /**
+     * Owning community (department) identifier.
+     */
+    private final long deptId;
+
+    /**
+     * Metric name as published by devices.
+     */
+    private final String metricName;
+
+    /**
+     * Declared Sparkplug B data type.
+     */
+    private final MetricDataType dataType;
+
+    /**
+     * Measurement unit.
+     */
+    private final MetricUnit unit;
+
+    /**
+     * Definition version written to {@code sensor_data.metric_version}.
+     */
+    private final int version;
+}
@@ -0,0 +1,93 @@
+package community.waterlevel.iot.module.ingestion.model;
+
+import lombok.Data;
+
+/**
+ * A single row destined for the {@code sensor_data} hypertable.
+ *
+ * <p>Instances are mutable and reused: producers fill a per-thread scratch record,
+ * the ring buffer copies it into a pre-allocated slot and the writer copies slots
+ * into its own batch array. Nullable columns are represented without boxing.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Data
+public class SensorDataRecord {
+
+    /**
+     * Sample time in epoch milliseconds.
+     */
+    private long time;
+
+    /**
+     * Tenant (department) identifier.
+     */
+    private int communityId;
+
+    /**
+     * Device identifier.
+     */
+    private String deviceId;
+
+    /**
+     * Metric name.
+     */
+    private String metricName;
+
+    /**
+     * Numeric value; only meaningful when {@link #valuePresent} is set.
+     */
+    private double metricValue;
+
+    /**
+     * Whether {@link #metricValue} holds a value. Non-numeric and null metrics are
+     * stored with a NULL {@code metric_value}.
+     */
+    private boolean valuePresent;
+
+    /**
+     * Metric definition version, or 0 when unresolved (stored as NULL).
+     */
+    private int metricVersion;
+
+    /**
+     * Quality indicator: 0=Good, 1=Uncertain, 2=Bad.
+     */
+    private short quality;
+
+    /**
+     * Time the carrying MQTT message was received, in epoch milliseconds; 0 when unknown.
+     * Not persisted; used for latency measurement only.
+     */
+    private long receivedAt;
+
+    /**
+     * Overwrites every column of this record; {@link #receivedAt} is left unchanged.
+     *
+     * @return this record
+     */
+    public SensorDataRecord set(long time, int communityId, String deviceId, String metricName,
+                                double metricValue, boolean valuePresent, int metricVersion, short quality) {
+        this.time = time;
+        this.communityId = communityId;
+        this.deviceId = deviceId;
+        this.metricName = metricName;
+        this.metricValue = metricValue;
+        this.valuePresent = valuePresent;
+        this.metricVersion = metricVersion;
+        this.quality = quality;
+        return this;
+    }
+
+    /**
+     * Copies every field of {@code other} into this record.
+     *
+     * @param other the record to copy from
+     */
+    public void copyFrom(SensorDataRecord other) {
+        set(other.time, other.communityId, other.deviceId, other.metricName,
+                other.metricValue, other.valuePresent, other.metricVersion, other.quality);
+        this.receivedAt = other.receivedAt;
+    }
+}
@@ -0,0 +1,71 @@
+package community.waterlevel.iot.module.ingestion.model;
+
+import community.waterlevel.iot.module.metric.model.enums.MetricDataType;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Metric declaration announced for an alias in an NBIRTH or DBIRTH.
+ *
+ * <p>The declaration is immutable. The active definition of the metric is resolved by
+ * name on the first data sample using the alias and kept here together with the
+ * definition cache generation it was resolved at, so later samples skip the
+ * name lookup until a definition changes (see
+ * {@code MetricDefinitionCache#resolve(long, SparkplugAlias)}). The binding is only
+ * touched by the thread ingesting the alias' node.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class SparkplugAlias {
+
+    /**
+     * Alias used by the node in data messages.
+     */
+    private final long alias;
+
+    /**
+     * Metric name declared in the birth certificate.
+     */
+    private final String metricName;
+
+    /**
+     * Data type declared in the birth certificate, or null when absent.
+     */
+    private final MetricDataType dataType;
+
+    /**
+     * Active definition of the metric, or null when unknown or not resolved yet.
+     */
+    @ToString.Exclude
+    private ResolvedMetric definition;
+
+    /**
+     * Community the definition was resolved in.
+     */
+    @ToString.Exclude
+    private long definitionDeptId;
+
+    /**
+     * Definition cache generation the definition was resolved at; -1 when unresolved.
+     */
+    @ToString.Exclude
+    private long definitionGeneration = -1;
+
+    /**
+     * Binds the resolved definition of the metric.
+     *
+     * @param deptId     the community the definition was resolved in
+     * @param generation the definition cache generation at resolution
+     * @param definition the definition, or null when the metric is unknown
+     */
+    public void bind(long deptId, long generation, ResolvedMetric definition) {
+        this.definitionDeptId = deptId;
+        this.definitionGeneration = generation;
+        this.definition = definition;
+    }
+}
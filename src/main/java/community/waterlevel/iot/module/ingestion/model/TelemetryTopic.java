@@ -0,0 +1,162 @@
+package community.waterlevel.iot.module.ingestion.model;
+
+import community.waterlevel.iot.module.ingestion.model.enums.SparkplugMessageType;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Parsed form of a device telemetry topic.
+ *
+ * <p>Accepted layouts:
+ * <ul>
+ *   <li>{@code tenants/{deptId}/devices/{nodeId}/telemetry} (treated as NDATA)</li>
+ *   <li>{@code tenants/{deptId}/devices/{nodeId}/telemetry/{messageType}}</li>
+ *   <li>{@code tenants/{deptId}/devices/{nodeId}/telemetry/{messageType}/{subDeviceId}}</li>
+ * </ul>
+ *
+ * <p>{@code nodeId} is the 8-character device id prefix generated by
+ * {@code EmqxService#generateTelemetryTopic}; {@code subDeviceId} is the prefix of the
+ * registered device an edge node reports for, in the same community.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Getter
+@ToString
+public class TelemetryTopic {
+
+    private static final String PREFIX = "tenants/";
+    private static final String DEVICES = "devices";
+    private static final String TELEMETRY = "telemetry";
+
+    /**
+     * Department (community) identifier taken from the topic.
+     */
+    private final long deptId;
+
+    /**
+     * Edge node identifier (device id prefix) taken from the topic.
+     */
+    private final String nodeId;
+
+    /**
+     * Sparkplug message type.
+     */
+    private final SparkplugMessageType messageType;
+
+    /**
+     * Optional Sparkplug device identifier below the edge node, or null.
+     */
+    private final String subDeviceId;
+
+    private TelemetryTopic(long deptId, String nodeId, SparkplugMessageType messageType, String subDeviceId) {
+        this.deptId = deptId;
+        this.nodeId = nodeId;
+        this.messageType = messageType;
+        this.subDeviceId = subDeviceId;
+    }
+
+    /**
+     * Parses a telemetry topic.
+     *
+     * @param topic the MQTT topic name
+     * @return the parsed topic, or null if the topic does not follow the telemetry layout
+     */
+    public static TelemetryTopic parse(String topic) {
+        if (topic == null || !topic.startsWith(PREFIX)) {
+            return null;
+        }
+        int deptStart = PREFIX.length();
+        int deptEnd = topic.indexOf('/', deptStart);
+        if (deptEnd <= deptStart) {
+            return null;
+        }
+        long deptId = parseDeptId(topic, deptStart, deptEnd);
+        if (deptId < 0) {
+            return null;
+        }
+
+        int devicesEnd = topic.indexOf('/', deptEnd + 1);
+        if (devicesEnd < 0 || !topic.regionMatches(deptEnd + 1, DEVICES, 0, DEVICES.length())
+                || devicesEnd - deptEnd - 1 != DEVICES.length()) {
+            return null;
+        }
+
+        int nodeEnd = topic.indexOf('/', devicesEnd + 1);
+        if (nodeEnd <= devicesEnd + 1) {
+            return null;
+        }
+        String nodeId = topic.substring(devicesEnd + 1, nodeEnd);
+
+        int telemetryEnd = topic.indexOf('/', nodeEnd + 1);
+        int telemetryLimit = telemetryEnd < 0 ? topic.length() : telemetryEnd;
+        if (telemetryLimit - nodeEnd - 1 != TELEMETRY.length()
+                || !topic.regionMatches(nodeEnd + 1, TELEMETRY, 0, TELEMETRY.length())) {
+            return null;
+        }
+        if (telemetryEnd < 0) {
+            return new TelemetryTopic(deptId, nodeId, SparkplugMessageType.NDATA, null);
+        }
+
+        int typeEnd = topic.indexOf('/', telemetryEnd + 1);
+        String typeLevel = topic.substring(telemetryEnd + 1, typeEnd < 0 ? topic.length() : typeEnd);
+        SparkplugMessageType messageType = SparkplugMessageType.fromTopicLevel(typeLevel);
+        if (messageType == null) {
+            return null;
+        }
+        String subDeviceId = typeEnd < 0 || typeEnd == topic.length() - 1 ? null : topic.substring(typeEnd + 1);
+        return new TelemetryTopic(deptId, nodeId, messageType, subDeviceId);
+    }
+
+    /**
+     * Extracts the department id without parsing the rest of the topic.
+     *
+     * @param topic the MQTT topic name
+     * @return the department id, or -1 if the topic does not start with {@code tenants/{deptId}/}
+     */
+    public static long deptIdOf(String topic) {
+        if (topic == null || !topic.startsWith(PREFIX)) {
+            return -1;
+        }
+        int deptEnd = topic.indexOf('/', PREFIX.length());
+        return deptEnd <= PREFIX.length() ? -1 : parseDeptId(topic, PREFIX.length(), deptEnd);
+    }
+
+    /**
+     * Hashes the {@code tenants/{deptId}/devices/{nodeId}} part of a topic, so that every
+     * message of an edge node (births, data, deaths, sub-devices) gets the same value.
+     * Topics with a different layout are hashed as a whole. Does not allocate.
+     *
+     * @param topic the MQTT topic name
+     * @return the hash
+     */
+    public static int partitionHash(String topic) {
+        int h = 0;
+        int separators = 0;
+        for (int i = 0, n = topic.length(); i < n; i++) {
+            char c = topic.charAt(i);
+            if (c == '/' && ++separators == 4) {
+                break;
+            }
+            h = 31 * h + c;
+        }
+        // Spread the low bits, which select the partition
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static long parseDeptId(String topic, int start, int end) {
+        if (end - start > 18) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            char c = topic.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
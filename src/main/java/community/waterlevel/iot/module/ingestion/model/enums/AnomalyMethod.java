@@ -0,0 +1,24 @@
+package community.waterlevel.iot.module.ingestion.model.enums;
+
+/**
+ * Enumeration of the online baselines a sample is scored against by the anomaly
+ * detector.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+public enum AnomalyMethod {
+
+    /**
+     * Exponentially weighted mean and variance; the score is the z-score of the sample.
+     * Cheap and responsive, but a burst of outliers inflates the variance.
+     */
+    EWMA,
+
+    /**
+     * Streaming estimates of the median and of the median absolute deviation (MAD);
+     * the score is the deviation from the median in scaled MAD units. Insensitive to
+     * isolated spikes.
+     */
+    ROBUST
+}
@@ -0,0 +1,28 @@
+package community.waterlevel.iot.module.ingestion.model.enums;
+
+/**
+ * Enumeration of the policies applied when the ingestion ring buffer is full.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+public enum BackpressurePolicy {
+
+    /**
+     * The producer waits for a free slot, up to {@code ingestion.ring.block-timeout-ms};
+     * the sample is dropped when the timeout expires. Slows down the MQTT session.
+     */
+    BLOCK,
+
+    /**
+     * The producer overwrites the oldest unread slot. Readers detect the overwrite,
+     * skip ahead and count the lost samples.
+     */
+    DROP_OLDEST,
+
+    /**
+     * The producer moves overflow into a bounded in-memory spill queue which is
+     * replayed into the ring as soon as readers catch up.
+     */
+    SPILL
+}
@@ -0,0 +1,61 @@
+package community.waterlevel.iot.module.ingestion.model.enums;
+
+import lombok.Getter;
+
+/**
+ * Enumeration of the ingestion pipeline stages whose latency is recorded by
+ * {@code IngestionLatencyRecorder}.
+ *
+ * <p>Stages are measured from the point where the previous one ends, except
+ * {@link #END_TO_END} which spans the whole pipeline and corresponds to the gap
+ * between {@code sensor_data.time} and {@code sensor_data.ingestion_time}.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Getter
+public enum LatencyStage {
+
+    /**
+     * Payload timestamp to broker receive: device, network and broker delay, including
+     * any clock skew of the device. Only recorded when the payload carries a timestamp.
+     */
+    RECEIVE("receive"),
+
+    /**
+     * Broker receive to the start of processing on the partition worker owning the
+     * edge node: time spent in the partition queue.
+     */
+    DISPATCH("dispatch"),
+
+    /**
+     * Time spent decoding the Sparkplug B payload.
+     */
+    DECODE("decode"),
+
+    /**
+     * Start of processing to the last sample of the message being handed to the writer path.
+     */
+    ENQUEUE("enqueue"),
+
+    /**
+     * Broker receive to the commit of the {@code sensor_data} batch holding the sample:
+     * reordering hold-back, ring buffer wait, batching and the COPY itself. Late samples
+     * written by the backfill writer are not recorded.
+     */
+    COMMIT("commit"),
+
+    /**
+     * Sample time to the commit of the {@code sensor_data} batch holding the sample.
+     */
+    END_TO_END("end_to_end");
+
+    /**
+     * Value of the {@code stage} metric tag.
+     */
+    private final String tag;
+
+    LatencyStage(String tag) {
+        this.tag = tag;
+    }
+}
@@ -0,0 +1,60 @@
+package community.waterlevel.iot.module.ingestion.model.enums;
+
+/**
+ * Enumeration of the quality indicator stored in {@code sensor_data.quality}.
+ *
+ * <p>Values follow the column definition: 0=Good, 1=Uncertain, 2=Bad. Sparkplug
+ * quality codes carried in the metric {@code Quality} property (192=GOOD,
+ * 500=STALE, 0=BAD) are mapped with {@link #fromSparkplug(int)}.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+public enum SensorQuality {
+
+    /**
+     * Reading is trusted.
+     */
+    GOOD((short) 0),
+
+    /**
+     * Reading is stale or suspicious.
+     */
+    UNCERTAIN((short) 1),
+
+    /**
+     * Reading is known to be wrong.
+     */
+    BAD((short) 2);
+
+    private static final int SPARKPLUG_BAD = 0;
+    private static final int SPARKPLUG_GOOD = 192;
+
+    private final short code;
+
+    SensorQuality(short code) {
+        this.code = code;
+    }
+
+    /**
+     * Returns the value stored in the {@code quality} column.
+     *
+     * @return the column value
+     */
+    public short getCode() {
+        return code;
+    }
+
+    /**
+     * Maps a Sparkplug quality code to a column value.
+     *
+     * @param sparkplugQuality the Sparkplug quality code, or a negative value when absent
+     * @return the column value
+     */
+    public static short fromSparkplug(int sparkplugQuality) {
+        if (sparkplugQuality < 0 || sparkplugQuality == SPARKPLUG_GOOD) {
+            return GOOD.code;
+        }
+        return sparkplugQuality == SPARKPLUG_BAD ? BAD.code : UNCERTAIN.code;
+    }
+}
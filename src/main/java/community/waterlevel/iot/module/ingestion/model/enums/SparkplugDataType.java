@@ -0,0 +1,78 @@
+package community.waterlevel.iot.module.ingestion.model.enums;
+
+import community.waterlevel.iot.module.metric.model.enums.MetricDataType;
+
+/**
+ * Enumeration of the Sparkplug B metric data type codes carried in the
+ * {@code Metric.datatype} field of a payload.
+ *
+ * <p>Only scalar types are listed; array, DataSet, Template and extension types
+ * are not ingested into {@code sensor_data} and resolve to {@code null} via
+ * {@link #fromCode(int)}.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ * @see MetricDataType
+ */
+public enum SparkplugDataType {
+
+    Int8(1, MetricDataType.Int8),
+    Int16(2, MetricDataType.Int16),
+    Int32(3, MetricDataType.Int32),
+    Int64(4, MetricDataType.Int64),
+    UInt8(5, MetricDataType.UInt8),
+    UInt16(6, MetricDataType.UInt16),
+    UInt32(7, MetricDataType.UInt32),
+    UInt64(8, MetricDataType.UInt64),
+    Float(9, MetricDataType.Float),
+    Double(10, MetricDataType.Double),
+    Boolean(11, MetricDataType.Boolean),
+    String(12, MetricDataType.String),
+    DateTime(13, MetricDataType.UInt64),
+    Text(14, MetricDataType.String),
+    UUID(15, MetricDataType.String);
+
+    private static final SparkplugDataType[] BY_CODE = new SparkplugDataType[16];
+
+    static {
+        for (SparkplugDataType type : values()) {
+            BY_CODE[type.code] = type;
+        }
+    }
+
+    private final int code;
+    private final MetricDataType metricDataType;
+
+    SparkplugDataType(int code, MetricDataType metricDataType) {
+        this.code = code;
+        this.metricDataType = metricDataType;
+    }
+
+    /**
+     * Returns the numeric code used on the wire.
+     *
+     * @return the Sparkplug data type code
+     */
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * Returns the metric definition data type this wire type maps onto.
+     *
+     * @return the corresponding {@link MetricDataType}
+     */
+    public MetricDataType getMetricDataType() {
+        return metricDataType;
+    }
+
+    /**
+     * Resolves a wire code to a data type.
+     *
+     * @param code the Sparkplug data type code
+     * @return the data type, or null for unknown or non-scalar codes
+     */
+    public static SparkplugDataType fromCode(int code) {
+        return code > 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+    }
+}
@@ -0,0 +1,90 @@
+package community.waterlevel.iot.module.ingestion.model.enums;
+
+/**
+ * Enumeration of the Sparkplug B message types handled by the ingestion pipeline.
+ *
+ * <p>Device telemetry topics minted by {@code EmqxService} have the form
+ * {@code tenants/{deptId}/devices/{nodeId}/telemetry}. The message type is carried
+ * as an optional trailing topic level (e.g. {@code .../telemetry/NBIRTH}); a bare
+ * telemetry topic is treated as {@link #NDATA}.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+public enum SparkplugMessageType {
+
+    /**
+     * Edge node birth certificate: full metric set with names, data types and aliases.
+     */
+    NBIRTH,
+
+    /**
+     * Edge node death certificate (usually the MQTT will message).
+     */
+    NDEATH,
+
+    /**
+     * Device birth certificate.
+     */
+    DBIRTH,
+
+    /**
+     * Device death certificate.
+     */
+    DDEATH,
+
+    /**
+     * Edge node data.
+     */
+    NDATA,
+
+    /**
+     * Device data.
+     */
+    DDATA;
+
+    /**
+     * Checks if this message type is a birth certificate.
+     *
+     * @return {@code true} for NBIRTH and DBIRTH
+     */
+    public boolean isBirth() {
+        return this == NBIRTH || this == DBIRTH;
+    }
+
+    /**
+     * Checks if this message type is a death certificate.
+     *
+     * @return {@code true} for NDEATH and DDEATH
+     */
+    public boolean isDeath() {
+        return this == NDEATH || this == DDEATH;
+    }
+
+    /**
+     * Checks if this message type carries metric samples.
+     *
+     * @return {@code true} for births and data messages
+     */
+    public boolean carriesSamples() {
+        return !isDeath();
+    }
+
+    /**
+     * Case-sensitive conversion from a topic level to a message type.
+     *
+     * @param value the topic level, e.g. {@code "NDATA"}
+     * @return the corresponding message type, or null if not recognised
+     */
+    public static SparkplugMessageType fromTopicLevel(String value) {
+        if (value == null) {
+            return null;
+        }
+        for (SparkplugMessageType type : values()) {
+            if (type.name().equals(value)) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
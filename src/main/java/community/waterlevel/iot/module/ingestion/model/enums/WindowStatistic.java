@@ -0,0 +1,33 @@
+package community.waterlevel.iot.module.ingestion.model.enums;
+
+/**
+ * Enumeration of the statistics maintained over a sliding window of a series by
+ * {@code SeriesWindowStore}.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+public enum WindowStatistic {
+
+    /**
+     * Arithmetic mean of the samples in the window.
+     */
+    MEAN,
+
+    /**
+     * Smallest sample in the window.
+     */
+    MIN,
+
+    /**
+     * Largest sample in the window.
+     */
+    MAX,
+
+    /**
+     * Rate of change over the window length: the least-squares slope of the samples
+     * multiplied by the window length, e.g. cm per 10 minutes for a 600-second window
+     * of a water level in cm.
+     */
+    RATE
+}
@@ -0,0 +1,82 @@
+package community.waterlevel.iot.module.ingestion.model.event;
+
+import lombok.Data;
+
+/**
+ * SensorAnomalyEvent is published when a series starts deviating from its baseline,
+ * i.e. on the first anomalous sample after a normal one.
+ * <p>
+ * The sample itself is stored with Uncertain quality; further anomalous samples of
+ * the same run are only reflected in their quality. Published off the ingestion threads
+ * and pushed as is to {@code /topic/community/{deptId}/anomalies}.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Data
+public class SensorAnomalyEvent {
+
+    /**
+     * Owning community (department) identifier.
+     */
+    private long deptId;
+
+    /**
+     * Device identifier as stored in {@code sensor_data.device_id}.
+     */
+    private String deviceId;
+
+    /**
+     * Metric name.
+     */
+    private String metricName;
+
+    /**
+     * Sample time (epoch milliseconds).
+     */
+    private long time;
+
+    /**
+     * Sample value.
+     */
+    private double value;
+
+    /**
+     * Baseline the sample was compared with (mean or median).
+     */
+    private double expected;
+
+    /**
+     * Deviation from the baseline in standard deviation (or scaled MAD) units.
+     */
+    private double score;
+
+    /**
+     * Whether the score reached {@code ingestion.anomaly.severe-score}.
+     */
+    private boolean severe;
+
+    /**
+     * Creates an event for an anomalous sample.
+     *
+     * @param deptId     the community identifier
+     * @param deviceId   the device identifier
+     * @param metricName the metric name
+     * @param time       the sample time
+     * @param value      the sample value
+     * @param expected   the baseline value
+     * @param score      the anomaly score
+     * @param severe     whether the anomaly is severe
+     */
+    public SensorAnomalyEvent(long deptId, String deviceId, String metricName, long time, double value,
+                              double expected, double score, boolean severe) {
+        this.deptId = deptId;
+        this.deviceId = deviceId;
+        this.metricName = metricName;
+        this.time = time;
+        this.value = value;
+        this.expected = expected;
+        this.score = score;
+        this.severe = severe;
+    }
+}
@@ -0,0 +1,45 @@
+package community.waterlevel.iot.module.ingestion.model.event;
+
+import lombok.Data;
+
+/**
+ * SensorDataBackfilledEvent is published after late samples have been committed to
+ * {@code sensor_data} by the backfill writer.
+ * <p>
+ * Rollups covering the time range may be stale if it lies outside the refresh window
+ * of their policies; listeners refresh them.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Data
+public class SensorDataBackfilledEvent {
+
+    /**
+     * Time of the oldest sample written (epoch milliseconds).
+     */
+    private long fromMs;
+
+    /**
+     * Time of the newest sample written (epoch milliseconds).
+     */
+    private long toMs;
+
+    /**
+     * Number of rows written.
+     */
+    private int rows;
+
+    /**
+     * Creates an event for the given range.
+     *
+     * @param fromMs time of the oldest sample written
+     * @param toMs   time of the newest sample written
+     * @param rows   number of rows written
+     */
+    public SensorDataBackfilledEvent(long fromMs, long toMs, int rows) {
+        this.fromMs = fromMs;
+        this.toMs = toMs;
+        this.rows = rows;
+    }
+}
@@ -0,0 +1,46 @@
+package community.waterlevel.iot.module.ingestion.model.event;
+
+import lombok.Data;
+
+import java.util.UUID;
+
+/**
+ * SparkplugRebirthRequestEvent is published when the ingestion pipeline lacks the
+ * alias state of an edge node, e.g. after a backend restart or a lost NBIRTH.
+ * <p>
+ * The MQTT subscriber answers it by sending a {@code Node Control/Rebirth} NCMD to
+ * the node's command topic, which makes the node publish a fresh NBIRTH.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Data
+public class SparkplugRebirthRequestEvent {
+
+    /**
+     * Identifier of the edge node (device).
+     */
+    private UUID deviceId;
+
+    /**
+     * Command topic of the edge node.
+     */
+    private String commandTopic;
+
+    /**
+     * Event occurrence timestamp (epoch milliseconds).
+     */
+    private long timestamp;
+
+    /**
+     * Creates a rebirth request for the given node.
+     *
+     * @param deviceId     the device identifier
+     * @param commandTopic the device command topic
+     */
+    public SparkplugRebirthRequestEvent(UUID deviceId, String commandTopic) {
+        this.deviceId = deviceId;
+        this.commandTopic = commandTopic;
+        this.timestamp = System.currentTimeMillis();
+    }
+}
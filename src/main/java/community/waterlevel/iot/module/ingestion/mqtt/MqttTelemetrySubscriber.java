@@ -0,0 +1,237 @@
+package community.waterlevel.iot.module.ingestion.mqtt;
+
+import community.waterlevel.iot.config.property.IngestionProperties;
+import community.waterlevel.iot.module.ingestion.codec.SparkplugPayload;
+import community.waterlevel.iot.module.ingestion.codec.SparkplugPayloadEncoder;
+import community.waterlevel.iot.module.ingestion.model.enums.SparkplugDataType;
+import community.waterlevel.iot.module.ingestion.model.event.SparkplugRebirthRequestEvent;
+import community.waterlevel.iot.module.ingestion.service.TelemetryIngestionService;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.paho.client.mqttv3.IMqttActionListener;
+import org.eclipse.paho.client.mqttv3.IMqttDeliveryToken;
+import org.eclipse.paho.client.mqttv3.IMqttToken;
+import org.eclipse.paho.client.mqttv3.MqttAsyncClient;
+import org.eclipse.paho.client.mqttv3.MqttCallbackExtended;
+import org.eclipse.paho.client.mqttv3.MqttConnectOptions;
+import org.eclipse.paho.client.mqttv3.MqttException;
+import org.eclipse.paho.client.mqttv3.MqttMessage;
+import org.eclipse.paho.client.mqttv3.persist.MemoryPersistence;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MQTT subscriber feeding device telemetry into the ingestion pipeline.
+ *
+ * <p>Connects to the broker configured under {@code ingestion.mqtt}, subscribes to
+ * the telemetry topic filter and hands every message to
+ * {@link TelemetryPartitionDispatcher}, which ingests it through
+ * {@link TelemetryIngestionService} on the worker owning the edge node. The Paho client
+ * re-establishes lost connections automatically; failed initial connection attempts
+ * are retried on a fixed delay.
+ *
+ * <p>With {@code ingestion.mqtt.shared-group} set, the subscription is the EMQX shared
+ * subscription {@code $share/{group}/{topicFilter}}, so several backend instances can
+ * consume the telemetry stream together, each receiving a share of the edge nodes.
+ *
+ * <p>The same connection sends {@code Node Control/Rebirth} NCMDs to nodes whose
+ * Sparkplug alias state is missing ({@link SparkplugRebirthRequestEvent}).
+ *
+ * <p>Only active when {@code ingestion.enabled=true}.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "ingestion", name = "enabled", havingValue = "true")
+public class MqttTelemetrySubscriber implements SmartLifecycle, MqttCallbackExtended {
+
+    private static final long CONNECT_RETRY_SECONDS = 5;
+    private static final String REBIRTH_METRIC = "Node Control/Rebirth";
+    private static final String SHARED_PREFIX = "$share/";
+
+    private final IngestionProperties.MqttConfig config;
+    private final TelemetryIngestionService ingestionService;
+    private final TelemetryPartitionDispatcher dispatcher;
+
+    private MqttAsyncClient client;
+    private ScheduledExecutorService reconnectExecutor;
+    private volatile boolean running;
+
+    public MqttTelemetrySubscriber(IngestionProperties properties, TelemetryIngestionService ingestionService,
+                                   TelemetryPartitionDispatcher dispatcher) {
+        this.config = properties.getMqtt();
+        this.ingestionService = ingestionService;
+        this.dispatcher = dispatcher;
+    }
+
+    @Override
+    public void start() {
+        String clientId = config.getClientIdPrefix() + UUID.randomUUID().toString().substring(0, 8);
+        try {
+            client = new MqttAsyncClient(config.getUrl(), clientId, new MemoryPersistence());
+        } catch (MqttException e) {
+            throw new IllegalStateException("Failed to create MQTT client for " + config.getUrl(), e);
+        }
+        client.setCallback(this);
+        reconnectExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "mqtt-telemetry-connect");
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        connect();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (reconnectExecutor != null) {
+            reconnectExecutor.shutdownNow();
+        }
+        if (client != null) {
+            try {
+                if (client.isConnected()) {
+                    client.disconnect().waitForCompletion(TimeUnit.SECONDS.toMillis(5));
+                }
+                client.close();
+            } catch (MqttException e) {
+                log.warn("Error while closing MQTT telemetry subscriber: {}", e.getMessage());
+            }
+        }
+        log.info("MQTT telemetry subscriber stopped (received={}, samples={}, rejected={})",
+                ingestionService.getMessagesReceived(), ingestionService.getSamplesAccepted(),
+                ingestionService.getMessagesRejected());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return DEFAULT_PHASE - 1024;
+    }
+
+    @Override
+    public void connectComplete(boolean reconnect, String serverURI) {
+        String filter = subscriptionFilter();
+        log.info("MQTT telemetry subscriber {} to {}, subscribing to {}",
+                reconnect ? "reconnected" : "connected", serverURI, filter);
+        try {
+            client.subscribe(filter, config.getQos());
+        } catch (MqttException e) {
+            log.error("Failed to subscribe to {}", filter, e);
+        }
+    }
+
+    /**
+     * Returns the topic filter subscribed to: the telemetry filter, wrapped in an EMQX
+     * shared subscription when a group is configured.
+     *
+     * @return the subscription filter
+     */
+    public String subscriptionFilter() {
+        String group = config.getSharedGroup();
+        return group == null || group.isBlank()
+                ? config.getTopicFilter()
+                : SHARED_PREFIX + group + "/" + config.getTopicFilter();
+    }
+
+    @Override
+    public void connectionLost(Throwable cause) {
+        log.warn("MQTT telemetry connection lost: {}", cause.getMessage());
+    }
+
+    @Override
+    public void messageArrived(String topic, MqttMessage message) {
+        try {
+            dispatcher.dispatch(topic, message.getPayload());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while dispatching telemetry from topic {}", topic);
+        } catch (Exception e) {
+            // Never propagate: Paho closes the connection when the callback throws
+            log.error("Failed to ingest telemetry from topic {}", topic, e);
+        }
+    }
+
+    @Override
+    public void deliveryComplete(IMqttDeliveryToken token) {
+        // Rebirth commands are fire-and-forget
+    }
+
+    /**
+     * Sends a {@code Node Control/Rebirth} NCMD to the node's command topic.
+     *
+     * @param event the rebirth request
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRebirthRequested(SparkplugRebirthRequestEvent event) {
+        MqttAsyncClient current = client;
+        if (current == null || !current.isConnected()) {
+            log.debug("Not connected, skipping rebirth request for node {}", event.getDeviceId());
+            return;
+        }
+        SparkplugPayload payload = new SparkplugPayload();
+        payload.setTimestamp(event.getTimestamp());
+        SparkplugPayload.Metric rebirth = new SparkplugPayload.Metric();
+        rebirth.setName(REBIRTH_METRIC);
+        rebirth.setTimestamp(event.getTimestamp());
+        rebirth.setDataType(SparkplugDataType.Boolean);
+        rebirth.setBooleanValue(true);
+        payload.getMetrics().add(rebirth);
+        try {
+            current.publish(event.getCommandTopic(), new SparkplugPayloadEncoder().encode(payload), config.getQos(), false);
+        } catch (MqttException e) {
+            log.warn("Failed to send rebirth command to {}: {}", event.getCommandTopic(), e.getMessage());
+        }
+    }
+
+    private void connect() {
+        MqttConnectOptions options = new MqttConnectOptions();
+        options.setAutomaticReconnect(true);
+        options.setCleanSession(true);
+        options.setKeepAliveInterval(config.getKeepAliveSeconds());
+        options.setMaxInflight(config.getMaxInflight());
+        if (config.getUsername() != null) {
+            options.setUserName(config.getUsername());
+        }
+        if (config.getPassword() != null) {
+            options.setPassword(config.getPassword().toCharArray());
+        }
+
+        try {
+            client.connect(options, null, new IMqttActionListener() {
+                @Override
+                public void onSuccess(IMqttToken asyncActionToken) {
+                    // Subscription happens in connectComplete
+                }
+
+                @Override
+                public void onFailure(IMqttToken asyncActionToken, Throwable exception) {
+                    scheduleRetry(exception);
+                }
+            });
+        } catch (MqttException e) {
+            scheduleRetry(e);
+        }
+    }
+
+    private void scheduleRetry(Throwable cause) {
+        if (!running) {
+            return;
+        }
+        log.warn("MQTT telemetry subscriber could not connect to {} ({}), retrying in {}s",
+                config.getUrl(), cause.getMessage(), CONNECT_RETRY_SECONDS);
+        reconnectExecutor.schedule(this::connect, CONNECT_RETRY_SECONDS, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,394 @@
+package community.waterlevel.iot.module.ingestion.registry;
+
+import community.waterlevel.iot.module.device.model.entity.IotDeviceJpa;
+import community.waterlevel.iot.module.device.model.event.IotDeviceChangedEvent;
+import community.waterlevel.iot.module.device.repository.IotDeviceJpaRepository;
+import community.waterlevel.iot.module.ingestion.model.RegisteredDevice;
+import community.waterlevel.iot.module.ingestion.support.LongObjectMap;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * In-memory registry resolving telemetry topics and MQTT client ids to devices.
+ *
+ * <p>Telemetry topics only carry the deptId and the first 8 hex characters of the
+ * device UUID ({@code tenants/{deptId}/devices/{prefix}/telemetry}). The registry keeps
+ * every non-deleted {@link IotDeviceJpa} in open-addressing tables keyed by primitive
+ * longs ({@code deptId << 32 | prefix} and {@code prefix} for client ids), so lookups
+ * are O(1), lock-free and allocation-free.
+ *
+ * <p>Reads go against an immutable snapshot published through a volatile field.
+ * Changes announced by {@link IotDeviceChangedEvent} rebuild the snapshot
+ * (copy-on-write); device changes are rare compared to lookups. The changes of one
+ * transaction are collected and applied after it commits with a single rebuild and a
+ * single query, so a bulk import or delete costs one O(N) rebuild rather than one per
+ * device; a rolled back transaction changes nothing.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Slf4j
+@Component
+public class DeviceRegistry {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final int PREFIX_LENGTH = 8;
+    private static final String CLIENT_ID_PREFIX = "client_";
+
+    /**
+     * Marks a key shared by several devices; such keys resolve to nothing.
+     */
+    private static final RegisteredDevice AMBIGUOUS = new RegisteredDevice(-1, null, null, -1, null, null);
+
+    private static final RegisteredDevice[] NO_DEVICES = new RegisteredDevice[0];
+
+    private final IotDeviceJpaRepository repository;
+
+    private final Object writeLock = new Object();
+    private final Map<UUID, RegisteredDevice> devices = new HashMap<>();
+    private final ArrayDeque<Integer> freeSlots = new ArrayDeque<>();
+    private int nextSlot;
+
+    private volatile Snapshot snapshot = Snapshot.build(Collections.emptyList());
+
+    public DeviceRegistry(IotDeviceJpaRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * Loads all non-deleted devices at startup.
+     */
+    @PostConstruct
+    public void init() {
+        replaceAll(repository.findAll());
+        log.info("Device registry loaded {} devices", size());
+    }
+
+    /**
+     * Replaces the registry content with the given devices.
+     *
+     * @param entities the devices to register
+     */
+    public void replaceAll(Collection<IotDeviceJpa> entities) {
+        synchronized (writeLock) {
+            devices.clear();
+            freeSlots.clear();
+            nextSlot = 0;
+            for (IotDeviceJpa entity : entities) {
+                devices.put(entity.getDeviceId(), toRegistered(nextSlot++, entity));
+            }
+            snapshot = Snapshot.build(devices.values());
+        }
+    }
+
+    /**
+     * Refreshes a device after it was created, updated or deleted. Within a transaction
+     * the change is deferred until commit and merged with the other changes of that
+     * transaction.
+     *
+     * @param event the change event
+     */
+    @EventListener
+    @SuppressWarnings("unchecked")
+    public void onDeviceChanged(IotDeviceChangedEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            refresh(Map.of(event.getDeviceId(), event.isDeleted()));
+            return;
+        }
+        Map<UUID, Boolean> pending = (Map<UUID, Boolean>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Map<UUID, Boolean> changes = new LinkedHashMap<>();
+            TransactionSynchronizationManager.bindResource(this, changes);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(DeviceRegistry.this);
+                    if (status == STATUS_COMMITTED) {
+                        refresh(changes);
+                    }
+                }
+            });
+            pending = changes;
+        }
+        pending.put(event.getDeviceId(), event.isDeleted());
+    }
+
+    /**
+     * Adds or replaces a device, keeping its slot when already registered.
+     *
+     * @param entity the device
+     */
+    public void put(IotDeviceJpa entity) {
+        apply(List.of(entity), List.of());
+    }
+
+    /**
+     * Removes a device and frees its slot.
+     *
+     * @param deviceId the device identifier
+     */
+    public void remove(UUID deviceId) {
+        apply(List.of(), List.of(deviceId));
+    }
+
+    /**
+     * Adds or replaces and removes several devices with a single snapshot rebuild.
+     *
+     * @param entities   the devices to add or replace, keeping the slots of registered ones
+     * @param removedIds the identifiers of the devices to remove
+     */
+    public void apply(Collection<IotDeviceJpa> entities, Collection<UUID> removedIds) {
+        synchronized (writeLock) {
+            boolean changed = false;
+            for (IotDeviceJpa entity : entities) {
+                RegisteredDevice existing = devices.get(entity.getDeviceId());
+                int slot = existing != null ? existing.getSlot() : allocateSlot();
+                devices.put(entity.getDeviceId(), toRegistered(slot, entity));
+                changed = true;
+            }
+            for (UUID deviceId : removedIds) {
+                RegisteredDevice removed = devices.remove(deviceId);
+                if (removed != null) {
+                    freeSlots.push(removed.getSlot());
+                    changed = true;
+                }
+            }
+            if (changed) {
+                snapshot = Snapshot.build(devices.values());
+            }
+        }
+    }
+
+    /**
+     * Resolves the device publishing on {@code tenants/{deptId}/devices/{nodeId}/...}.
+     *
+     * @param deptId the community id from the topic
+     * @param nodeId the 8-character device id prefix from the topic
+     * @return the device, or null when unknown
+     */
+    public RegisteredDevice findByTopic(long deptId, String nodeId) {
+        long prefix = parsePrefix(nodeId, 0);
+        if (prefix < 0) {
+            return null;
+        }
+        Snapshot s = snapshot;
+        return s.get(s.topicKeys, s.topicValues, topicKey(deptId, prefix));
+    }
+
+    /**
+     * Resolves a device by its MQTT client id ({@code client_{prefix}}).
+     *
+     * @param clientId the MQTT client id
+     * @return the device, or null when unknown or ambiguous
+     */
+    public RegisteredDevice findByClientId(String clientId) {
+        if (clientId == null || !clientId.startsWith(CLIENT_ID_PREFIX)) {
+            return null;
+        }
+        long prefix = parsePrefix(clientId, CLIENT_ID_PREFIX.length());
+        if (prefix < 0) {
+            return null;
+        }
+        Snapshot s = snapshot;
+        return s.get(s.clientKeys, s.clientValues, prefix);
+    }
+
+    /**
+     * Resolves a device by its identifier.
+     *
+     * @param deviceId the device identifier
+     * @return the device, or null when unknown
+     */
+    public RegisteredDevice findById(UUID deviceId) {
+        return snapshot.byId.get(deviceId);
+    }
+
+    /**
+     * Returns the devices of one community.
+     *
+     * @param deptId the community identifier
+     * @return the devices, never null; the array must not be modified
+     */
+    public RegisteredDevice[] findByDept(long deptId) {
+        RegisteredDevice[] devices = snapshot.byDept.get(deptId);
+        return devices != null ? devices : NO_DEVICES;
+    }
+
+    /**
+     * Returns the number of registered devices.
+     */
+    public int size() {
+        return snapshot.byId.size();
+    }
+
+    /**
+     * Returns an upper bound (exclusive) for {@link RegisteredDevice#getSlot()} of
+     * the devices currently registered.
+     */
+    public int getSlotCapacity() {
+        return snapshot.slotCapacity;
+    }
+
+    /**
+     * Reloads the changed devices with one query; deleted devices and devices no longer
+     * found are removed.
+     *
+     * @param changes whether each changed device was deleted, by identifier
+     */
+    private void refresh(Map<UUID, Boolean> changes) {
+        List<UUID> reload = new ArrayList<>(changes.size());
+        changes.forEach((deviceId, deleted) -> {
+            if (!deleted) {
+                reload.add(deviceId);
+            }
+        });
+        List<IotDeviceJpa> found = reload.isEmpty() ? List.of() : repository.findAllById(reload);
+        Map<UUID, Boolean> removed = new HashMap<>(changes);
+        for (IotDeviceJpa entity : found) {
+            removed.remove(entity.getDeviceId());
+        }
+        apply(found, removed.keySet());
+        log.debug("Device registry refreshed {} devices", changes.size());
+    }
+
+    private int allocateSlot() {
+        Integer free = freeSlots.poll();
+        return free != null ? free : nextSlot++;
+    }
+
+    private static RegisteredDevice toRegistered(int slot, IotDeviceJpa entity) {
+        return new RegisteredDevice(slot, entity.getDeviceId(), entity.getDeviceId().toString(),
+                entity.getDeptId() != null ? entity.getDeptId() : -1L, entity.getStatus(), entity.getCommandTopic());
+    }
+
+    private static long topicKey(long deptId, long prefix) {
+        return deptId << 32 | prefix;
+    }
+
+    /**
+     * The first 8 hex characters of a UUID are the high 32 bits of its most significant long.
+     */
+    private static long prefixOf(UUID deviceId) {
+        return deviceId.getMostSignificantBits() >>> 32;
+    }
+
+    private static long parsePrefix(String text, int offset) {
+        if (text == null || text.length() != offset + PREFIX_LENGTH) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = offset; i < text.length(); i++) {
+            int digit = Character.digit(text.charAt(i), 16);
+            if (digit < 0) {
+                return -1;
+            }
+            value = value << 4 | digit;
+        }
+        return value;
+    }
+
+    /**
+     * Immutable lookup tables; linear probing with a Fibonacci hash.
+     */
+    private static final class Snapshot {
+
+        private final long[] topicKeys;
+        private final RegisteredDevice[] topicValues;
+        private final long[] clientKeys;
+        private final RegisteredDevice[] clientValues;
+        private final int shift;
+        private final int mask;
+        private final Map<UUID, RegisteredDevice> byId;
+        private final LongObjectMap<RegisteredDevice[]> byDept;
+        private final int slotCapacity;
+
+        private Snapshot(int tableSize, Map<UUID, RegisteredDevice> byId, LongObjectMap<RegisteredDevice[]> byDept,
+                         int slotCapacity) {
+            this.topicKeys = new long[tableSize];
+            this.topicValues = new RegisteredDevice[tableSize];
+            this.clientKeys = new long[tableSize];
+            this.clientValues = new RegisteredDevice[tableSize];
+            Arrays.fill(topicKeys, EMPTY);
+            Arrays.fill(clientKeys, EMPTY);
+            this.shift = 64 - Integer.numberOfTrailingZeros(tableSize);
+            this.mask = tableSize - 1;
+            this.byId = byId;
+            this.byDept = byDept;
+            this.slotCapacity = slotCapacity;
+        }
+
+        static Snapshot build(Collection<RegisteredDevice> devices) {
+            int tableSize = Math.max(16, Integer.highestOneBit(Math.max(1, devices.size()) * 2 - 1) << 1);
+            Map<UUID, RegisteredDevice> byId = new HashMap<>(devices.size() * 2);
+            Map<Long, List<RegisteredDevice>> byDept = new HashMap<>();
+            int slotCapacity = 0;
+            for (RegisteredDevice device : devices) {
+                byId.put(device.getDeviceId(), device);
+                byDept.computeIfAbsent(device.getDeptId(), k -> new ArrayList<>()).add(device);
+                slotCapacity = Math.max(slotCapacity, device.getSlot() + 1);
+            }
+            Map<Long, RegisteredDevice[]> deptArrays = new HashMap<>(byDept.size() * 2);
+            byDept.forEach((deptId, list) -> deptArrays.put(deptId, list.toArray(NO_DEVICES)));
+            Snapshot snapshot = new Snapshot(tableSize, Collections.unmodifiableMap(byId),
+                    LongObjectMap.of(deptArrays), slotCapacity);
+            for (RegisteredDevice device : devices) {
+                long prefix = prefixOf(device.getDeviceId());
+                if (!snapshot.put(snapshot.topicKeys, snapshot.topicValues, topicKey(device.getDeptId(), prefix), device)) {
+                    log.warn("Devices in community {} share id prefix {}; their telemetry cannot be resolved",
+                            device.getDeptId(), String.format("%08x", prefix));
+                }
+                snapshot.put(snapshot.clientKeys, snapshot.clientValues, prefix, device);
+            }
+            return snapshot;
+        }
+
+        private int index(long key) {
+            return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+        }
+
+        /**
+         * @return {@code false} if the key was already present (now marked ambiguous)
+         */
+        private boolean put(long[] keys, RegisteredDevice[] values, long key, RegisteredDevice device) {
+            int i = index(key);
+            while (keys[i] != EMPTY) {
+                if (keys[i] == key) {
+                    values[i] = AMBIGUOUS;
+                    return false;
+                }
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            values[i] = device;
+            return true;
+        }
+
+        private RegisteredDevice get(long[] keys, RegisteredDevice[] values, long key) {
+            int i = index(key);
+            long k;
+            while ((k = keys[i]) != EMPTY) {
+                if (k == key) {
+                    RegisteredDevice device = values[i];
+                    return device == AMBIGUOUS ? null : device;
+                }
+                i = (i + 1) & mask;
+            }
+            return null;
+        }
+    }
+}
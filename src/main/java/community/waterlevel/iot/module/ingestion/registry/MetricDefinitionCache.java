@@ -0,0 +1,212 @@
+package community.waterlevel.iot.module.ingestion.registry;
+
+import community.waterlevel.iot.module.ingestion.model.ResolvedMetric;
+import community.waterlevel.iot.module.ingestion.model.SparkplugAlias;
+import community.waterlevel.iot.module.ingestion.support.LongObjectMap;
+import community.waterlevel.iot.module.metric.model.entity.IotMetricDefinition;
+import community.waterlevel.iot.module.metric.model.event.IotMetricDefinitionChangedEvent;
+import community.waterlevel.iot.module.metric.repository.IotMetricDefinitionRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-community cache of active metric definitions used to resolve incoming metrics.
+ *
+ * <p>Every active {@link IotMetricDefinition} is loaded at startup. Each community holds
+ * an immutable {@code metricName -> ResolvedMetric} map; communities are indexed by a
+ * primitive-keyed {@link LongObjectMap}. Both levels are replaced copy-on-write, so
+ * lookups are lock-free and never touch the database.
+ *
+ * <p>{@link IotMetricDefinitionChangedEvent}s published by the metric definition service
+ * after commit refresh exactly the affected definition, including renames and soft
+ * deletes. Every change bumps a generation counter, which lets Sparkplug aliases keep
+ * the definition resolved for them ({@link #resolve(long, SparkplugAlias)}) and only
+ * look it up by name again after a change. Because the cache is authoritative, a miss means the metric is unknown:
+ * misses are counted and logged at most once per {@link #UNKNOWN_LOG_INTERVAL_MILLIS}.
+ *
+ * <p>Metrics: {@code ingestion.metric.cache{result=hit|miss}} and
+ * {@code ingestion.metric.cache.hit.ratio}.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Slf4j
+@Component
+public class MetricDefinitionCache {
+
+    private static final long UNKNOWN_LOG_INTERVAL_MILLIS = 60_000;
+
+    private final IotMetricDefinitionRepository repository;
+
+    private final Object writeLock = new Object();
+    private volatile LongObjectMap<Map<String, ResolvedMetric>> communities = LongObjectMap.empty();
+    private volatile long generation;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder missesSinceLastLog = new LongAdder();
+    private final AtomicLong nextUnknownLogAt = new AtomicLong();
+
+    public MetricDefinitionCache(IotMetricDefinitionRepository repository, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        FunctionCounter.builder("ingestion.metric.cache", hits, LongAdder::sum)
+                .tag("result", "hit").register(meterRegistry);
+        FunctionCounter.builder("ingestion.metric.cache", misses, LongAdder::sum)
+                .tag("result", "miss").register(meterRegistry);
+        Gauge.builder("ingestion.metric.cache.hit.ratio", this, MetricDefinitionCache::getHitRatio)
+                .description("Share of incoming metrics resolved to an active definition")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Loads every active metric definition.
+     */
+    @PostConstruct
+    public void init() {
+        replaceAll(repository.findAll());
+        log.info("Metric definition cache loaded {} communities", communities.size());
+    }
+
+    /**
+     * Replaces the cache content with the given definitions; inactive ones are skipped.
+     *
+     * @param definitions the definitions to cache
+     */
+    public void replaceAll(Collection<IotMetricDefinition> definitions) {
+        Map<Long, Map<String, ResolvedMetric>> byCommunity = new HashMap<>();
+        for (IotMetricDefinition definition : definitions) {
+            if (Boolean.TRUE.equals(definition.getIsActive())) {
+                byCommunity.computeIfAbsent(definition.getDeptId(), k -> new HashMap<>())
+                        .put(definition.getMetricName(), toResolved(definition));
+            }
+        }
+        byCommunity.replaceAll((deptId, metrics) -> Collections.unmodifiableMap(metrics));
+        synchronized (writeLock) {
+            communities = LongObjectMap.of(byCommunity);
+            generation++;
+        }
+    }
+
+    /**
+     * Refreshes a single definition after its transaction committed.
+     *
+     * @param event the change event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMetricDefinitionChanged(IotMetricDefinitionChangedEvent event) {
+        IotMetricDefinition definition = repository.findById(event.getMetricId()).orElse(null);
+        refresh(event.getDeptId(), event.getMetricId(), definition);
+    }
+
+    /**
+     * Replaces the cached entry of one definition.
+     *
+     * @param deptId     the owning community
+     * @param metricId   the definition identifier
+     * @param definition the current definition, or null if it was deleted
+     */
+    public void refresh(long deptId, long metricId, IotMetricDefinition definition) {
+        synchronized (writeLock) {
+            LongObjectMap<Map<String, ResolvedMetric>> current = communities;
+            Map<String, ResolvedMetric> metrics = current.get(deptId);
+            Map<String, ResolvedMetric> copy = metrics != null ? new HashMap<>(metrics) : new HashMap<>();
+            // Drop by id so that a rename does not leave the old name behind.
+            copy.values().removeIf(m -> m.getId() == metricId);
+            if (definition != null && Boolean.TRUE.equals(definition.getIsActive())) {
+                copy.put(definition.getMetricName(), toResolved(definition));
+            }
+            communities = copy.isEmpty()
+                    ? current.without(deptId)
+                    : current.with(deptId, Collections.unmodifiableMap(copy));
+            generation++;
+        }
+        log.debug("Metric definition {} of community {} refreshed", metricId, deptId);
+    }
+
+    /**
+     * Resolves a metric published by a device of the given community.
+     *
+     * @param deptId     the community identifier
+     * @param metricName the metric name
+     * @return the active definition, or null when the metric is unknown
+     */
+    public ResolvedMetric resolve(long deptId, String metricName) {
+        Map<String, ResolvedMetric> metrics = communities.get(deptId);
+        ResolvedMetric resolved = metrics != null ? metrics.get(metricName) : null;
+        if (resolved != null) {
+            hits.increment();
+            return resolved;
+        }
+        misses.increment();
+        logUnknown(deptId, metricName);
+        return null;
+    }
+
+    /**
+     * Resolves the metric of a Sparkplug alias. The definition is looked up by name once
+     * and bound to the alias; later calls return the bound definition until any
+     * definition changes or the node moves to another community.
+     *
+     * @param deptId the community identifier
+     * @param alias  the alias declared by the node
+     * @return the active definition, or null when the metric is unknown
+     */
+    public ResolvedMetric resolve(long deptId, SparkplugAlias alias) {
+        // Read before the lookup: a change racing with it leaves the binding stale, not wrong
+        long current = generation;
+        if (alias.getDefinitionGeneration() != current || alias.getDefinitionDeptId() != deptId) {
+            Map<String, ResolvedMetric> metrics = communities.get(deptId);
+            alias.bind(deptId, current, metrics != null ? metrics.get(alias.getMetricName()) : null);
+        }
+        ResolvedMetric resolved = alias.getDefinition();
+        if (resolved != null) {
+            hits.increment();
+            return resolved;
+        }
+        misses.increment();
+        logUnknown(deptId, alias.getMetricName());
+        return null;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public double getHitRatio() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 1.0 : (double) h / total;
+    }
+
+    private void logUnknown(long deptId, String metricName) {
+        missesSinceLastLog.increment();
+        long now = System.currentTimeMillis();
+        long next = nextUnknownLogAt.get();
+        if (now >= next && nextUnknownLogAt.compareAndSet(next, now + UNKNOWN_LOG_INTERVAL_MILLIS)) {
+            log.warn("Unknown metric '{}' in community {} ({} unknown metrics in the last interval)",
+                    metricName, deptId, missesSinceLastLog.sumThenReset());
+        }
+    }
+
+    private static ResolvedMetric toResolved(IotMetricDefinition definition) {
+        return new ResolvedMetric(definition.getId(), definition.getDeptId(), definition.getMetricName(),
+                definition.getDataType(), definition.getUnit(),
+                definition.getVersion() != null ? definition.getVersion() : 1);
+    }
+}
@@ -0,0 +1,271 @@
+package community.waterlevel.iot.module.ingestion.registry;
+
+import community.waterlevel.iot.config.property.IngestionProperties;
+import community.waterlevel.iot.module.ingestion.codec.SparkplugPayload;
+import community.waterlevel.iot.module.ingestion.model.RegisteredDevice;
+import community.waterlevel.iot.module.ingestion.model.SparkplugAlias;
+import community.waterlevel.iot.module.ingestion.model.event.SparkplugRebirthRequestEvent;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-edge-node Sparkplug alias state.
+ *
+ * <p>Sparkplug nodes declare {@code alias -> metric} pairs in NBIRTH/DBIRTH and then
+ * send data messages with aliases only. For every node (indexed by
+ * {@link RegisteredDevice#getSlot()}) this registry keeps an immutable open-addressing
+ * table from the primitive alias to a {@link SparkplugAlias} holding the metric name,
+ * the declared type and, once resolved, the metric definition, so data messages are
+ * resolved without parsing, allocating or looking up metric names. An NBIRTH drops
+ * those bindings with the old table.
+ *
+ * <p>An NBIRTH replaces the node's table, a DBIRTH adds the aliases of one attached
+ * device, and an NDEATH drops the table. An alias that cannot be resolved is counted
+ * and triggers a {@link SparkplugRebirthRequestEvent}, at most once per
+ * {@code ingestion.sparkplug.rebirth-interval-ms} per node.
+ *
+ * <p>Each node is only touched by the ingestion thread handling its topic, so tables
+ * are replaced without locking; slots are re-checked against the device id because
+ * the device registry reuses slots.
+ *
+ * <p>Metrics: {@code ingestion.alias{result=hit|miss}} and {@code ingestion.alias.rebirth.requests}.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Slf4j
+@Component
+public class SparkplugAliasRegistry {
+
+    private final IngestionProperties.SparkplugConfig config;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Object growLock = new Object();
+    private volatile NodeState[] nodes = new NodeState[0];
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder rebirthRequests = new LongAdder();
+
+    public SparkplugAliasRegistry(IngestionProperties properties, MeterRegistry meterRegistry,
+                                  ApplicationEventPublisher eventPublisher) {
+        this.config = properties.getSparkplug();
+        this.eventPublisher = eventPublisher;
+        FunctionCounter.builder("ingestion.alias", hits, LongAdder::sum)
+                .tag("result", "hit").register(meterRegistry);
+        FunctionCounter.builder("ingestion.alias", misses, LongAdder::sum)
+                .tag("result", "miss").register(meterRegistry);
+        FunctionCounter.builder("ingestion.alias.rebirth.requests", rebirthRequests, LongAdder::sum)
+                .description("Rebirth commands requested because alias state was missing")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records the aliases declared by a birth certificate.
+     *
+     * @param node      the edge node
+     * @param nodeBirth {@code true} for NBIRTH (replaces all aliases), {@code false} for DBIRTH
+     * @param metrics   the birth metrics
+     */
+    public void onBirth(RegisteredDevice node, boolean nodeBirth, List<SparkplugPayload.Metric> metrics) {
+        NodeState state = stateFor(node);
+        AliasTable previous = nodeBirth ? null : state.table;
+        List<SparkplugAlias> aliases = new ArrayList<>(metrics.size() + (previous != null ? previous.size : 0));
+        if (previous != null) {
+            previous.collect(aliases);
+        }
+        for (SparkplugPayload.Metric metric : metrics) {
+            if (metric.getName() != null && metric.getAlias() != SparkplugPayload.ABSENT) {
+                aliases.add(new SparkplugAlias(metric.getAlias(), metric.getName(),
+                        metric.getDataType() != null ? metric.getDataType().getMetricDataType() : null));
+            }
+        }
+        state.table = AliasTable.build(aliases);
+        log.debug("{} of node {} declared {} aliases", nodeBirth ? "NBIRTH" : "DBIRTH",
+                node.getDeviceIdText(), state.table.size);
+    }
+
+    /**
+     * Drops the alias state of a node after its NDEATH.
+     *
+     * @param node the edge node
+     */
+    public void onNodeDeath(RegisteredDevice node) {
+        NodeState state = existingState(node);
+        if (state != null) {
+            state.table = null;
+        }
+    }
+
+    /**
+     * Resolves an alias sent by a node. A miss is counted and may request a rebirth.
+     *
+     * @param node  the edge node
+     * @param alias the alias
+     * @return the declaration, or null when unknown
+     */
+    public SparkplugAlias resolve(RegisteredDevice node, long alias) {
+        NodeState state = existingState(node);
+        AliasTable table = state != null ? state.table : null;
+        SparkplugAlias resolved = table != null ? table.get(alias) : null;
+        if (resolved != null) {
+            hits.increment();
+            return resolved;
+        }
+        misses.increment();
+        requestRebirth(node, state != null ? state : stateFor(node));
+        return null;
+    }
+
+    /**
+     * Returns whether a node currently has alias state.
+     *
+     * @param node the edge node
+     * @return {@code true} after a birth and before the next death
+     */
+    public boolean hasState(RegisteredDevice node) {
+        NodeState state = existingState(node);
+        return state != null && state.table != null;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getRebirthRequests() {
+        return rebirthRequests.sum();
+    }
+
+    private void requestRebirth(RegisteredDevice node, NodeState state) {
+        if (!config.isRebirthEnabled() || node.getCommandTopic() == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (state.lastRebirthRequestAt != 0 && now - state.lastRebirthRequestAt < config.getRebirthIntervalMs()) {
+            return;
+        }
+        state.lastRebirthRequestAt = now;
+        rebirthRequests.increment();
+        log.info("Alias state of node {} is missing, requesting rebirth on {}",
+                node.getDeviceIdText(), node.getCommandTopic());
+        eventPublisher.publishEvent(new SparkplugRebirthRequestEvent(node.getDeviceId(), node.getCommandTopic()));
+    }
+
+    private NodeState existingState(RegisteredDevice node) {
+        NodeState[] current = nodes;
+        int slot = node.getSlot();
+        NodeState state = slot < current.length ? current[slot] : null;
+        return state != null && state.deviceId.equals(node.getDeviceId()) ? state : null;
+    }
+
+    private NodeState stateFor(RegisteredDevice node) {
+        NodeState state = existingState(node);
+        if (state != null) {
+            return state;
+        }
+        synchronized (growLock) {
+            NodeState[] current = nodes;
+            int slot = node.getSlot();
+            if (slot >= current.length) {
+                current = Arrays.copyOf(current, Math.max(16, Math.max(slot + 1, current.length * 2)));
+            }
+            state = current[slot];
+            if (state == null || !state.deviceId.equals(node.getDeviceId())) {
+                // A reused slot starts without aliases
+                state = new NodeState(node.getDeviceId());
+                current[slot] = state;
+            }
+            nodes = current;
+            return state;
+        }
+    }
+
+    /**
+     * Alias state of one edge node.
+     */
+    private static final class NodeState {
+
+        private final UUID deviceId;
+        private volatile AliasTable table;
+        private long lastRebirthRequestAt;
+
+        private NodeState(UUID deviceId) {
+            this.deviceId = deviceId;
+        }
+    }
+
+    /**
+     * Immutable {@code alias -> SparkplugAlias} table; linear probing with a Fibonacci hash.
+     */
+    private static final class AliasTable {
+
+        private static final long EMPTY = Long.MIN_VALUE;
+
+        private final long[] keys;
+        private final SparkplugAlias[] values;
+        private final int shift;
+        private final int mask;
+        private final int size;
+
+        private AliasTable(int tableSize, int size) {
+            this.keys = new long[tableSize];
+            this.values = new SparkplugAlias[tableSize];
+            Arrays.fill(keys, EMPTY);
+            this.shift = 64 - Integer.numberOfTrailingZeros(tableSize);
+            this.mask = tableSize - 1;
+            this.size = size;
+        }
+
+        static AliasTable build(List<SparkplugAlias> aliases) {
+            int tableSize = Math.max(8, Integer.highestOneBit(Math.max(1, aliases.size()) * 2 - 1) << 1);
+            AliasTable table = new AliasTable(tableSize, aliases.size());
+            for (SparkplugAlias alias : aliases) {
+                int i = table.index(alias.getAlias());
+                while (table.keys[i] != EMPTY && table.keys[i] != alias.getAlias()) {
+                    i = (i + 1) & table.mask;
+                }
+                // A later declaration of the same alias wins
+                table.keys[i] = alias.getAlias();
+                table.values[i] = alias;
+            }
+            return table;
+        }
+
+        private int index(long key) {
+            return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+        }
+
+        SparkplugAlias get(long alias) {
+            int i = index(alias);
+            long k;
+            while ((k = keys[i]) != EMPTY) {
+                if (k == alias) {
+                    return values[i];
+                }
+                i = (i + 1) & mask;
+            }
+            return null;
+        }
+
+        void collect(List<SparkplugAlias> target) {
+            for (SparkplugAlias value : values) {
+                if (value != null) {
+                    target.add(value);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package community.waterlevel.iot.module.ingestion.service;
+
+/**
+ * Service interface for ingesting device telemetry received over MQTT.
+ *
+ * <p>Implementations parse the telemetry topic, decode the Sparkplug B payload and
+ * hand the resulting samples to the {@code sensor_data} writer. They are invoked
+ * from MQTT client callback threads and therefore must never block on I/O.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+public interface TelemetryIngestionService {
+
+    /**
+     * Ingests a single MQTT message received now.
+     *
+     * @param topic   the topic the message was published on
+     * @param payload the raw Sparkplug B payload
+     */
+    default void ingest(String topic, byte[] payload) {
+        ingest(topic, payload, System.currentTimeMillis());
+    }
+
+    /**
+     * Ingests a single MQTT message.
+     *
+     * @param topic      the topic the message was published on
+     * @param payload    the raw Sparkplug B payload
+     * @param receivedAt the time the message was received from the broker, in epoch
+     *                   milliseconds; it may have waited in a partition queue since
+     */
+    void ingest(String topic, byte[] payload, long receivedAt);
+
+    /**
+     * Returns the number of MQTT messages accepted for ingestion.
+     *
+     * @return the message count
+     */
+    long getMessagesReceived();
+
+    /**
+     * Returns the number of metric samples handed to the writer.
+     *
+     * @return the sample count
+     */
+    long getSamplesAccepted();
+
+    /**
+     * Returns the number of messages rejected because the topic or payload was invalid.
+     *
+     * @return the rejected message count
+     */
+    long getMessagesRejected();
+}
@@ -0,0 +1,288 @@
+package community.waterlevel.iot.module.ingestion.service.impl;
+
+import community.waterlevel.iot.module.device.service.DeviceLastSeenService;
+import community.waterlevel.iot.module.ingestion.anomaly.AnomalyDetector;
+import community.waterlevel.iot.module.ingestion.codec.SparkplugPayload;
+import community.waterlevel.iot.module.ingestion.codec.SparkplugPayloadDecoder;
+import community.waterlevel.iot.module.ingestion.codec.TypedValueDecoder;
+import community.waterlevel.iot.module.ingestion.dedup.SampleDeduplicator;
+import community.waterlevel.iot.module.ingestion.latency.IngestionLatencyRecorder;
+import community.waterlevel.iot.module.ingestion.latest.LatestValueStore;
+import community.waterlevel.iot.module.ingestion.model.RegisteredDevice;
+import community.waterlevel.iot.module.ingestion.model.ResolvedMetric;
+import community.waterlevel.iot.module.ingestion.model.SensorDataRecord;
+import community.waterlevel.iot.module.ingestion.model.SparkplugAlias;
+import community.waterlevel.iot.module.ingestion.model.TelemetryTopic;
+import community.waterlevel.iot.module.ingestion.model.enums.LatencyStage;
+import community.waterlevel.iot.module.ingestion.model.enums.SensorQuality;
+import community.waterlevel.iot.module.ingestion.model.enums.SparkplugMessageType;
+import community.waterlevel.iot.module.ingestion.registry.DeviceRegistry;
+import community.waterlevel.iot.module.ingestion.registry.MetricDefinitionCache;
+import community.waterlevel.iot.module.ingestion.registry.SparkplugAliasRegistry;
+import community.waterlevel.iot.module.ingestion.service.TelemetryIngestionService;
+import community.waterlevel.iot.module.ingestion.writer.SensorDataSink;
+import community.waterlevel.iot.module.ingestion.writer.SensorDataTextWriter;
+import community.waterlevel.iot.module.metric.model.enums.MetricDataType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Implementation of the telemetry ingestion pipeline.
+ *
+ * <p>Processing steps per MQTT message:
+ * <ul>
+ *   <li>Parses {@code tenants/{deptId}/devices/{nodeId}/telemetry[/{type}[/{subDeviceId}]]}</li>
+ *   <li>Resolves the edge node through {@link DeviceRegistry} and, for messages of an
+ *       attached device (DBIRTH/DDATA/DDEATH), the sub-device as a registered device of
+ *       the same community by its id prefix; unknown nodes or sub-devices are rejected,
+ *       and so are inactive ones (their registered status is not {@code ACTIVE})</li>
+ *   <li>Records the node and the sub-device as seen in {@link DeviceLastSeenService}</li>
+ *   <li>Drops the node's alias state on NDEATH</li>
+ *   <li>Decodes the Sparkplug B payload (births and data messages only)</li>
+ *   <li>Records the aliases declared by NBIRTH/DBIRTH in {@link SparkplugAliasRegistry}</li>
+ *   <li>Resolves alias-only metrics to their declared name, type and, once per alias
+ *       and definition change, their active definition</li>
+ *   <li>Skips Sparkplug control metrics ({@code bdSeq}, {@code Node Control/*})</li>
+ *   <li>Resolves each metric against {@link MetricDefinitionCache} to fill the definition version</li>
+ *   <li>Drops samples already accepted, e.g. QoS 1 redeliveries ({@link SampleDeduplicator});
+ *       a sample is recorded as accepted only once the sink took it</li>
+ *   <li>Scores numeric samples against their series baseline and downgrades the quality
+ *       of anomalous ones ({@link AnomalyDetector}); the baseline only learns from
+ *       samples the sink took</li>
+ *   <li>Converts each metric to a {@code sensor_data} row and hands it to the writer
+ *       through the per-device reordering stage</li>
+ *   <li>Updates {@link LatestValueStore} with each sample the writer accepted, so the
+ *       latest value never shows a sample that is not stored</li>
+ *   <li>Records the receive, decode and enqueue latencies in {@link IngestionLatencyRecorder}</li>
+ * </ul>
+ *
+ * <p>Samples of a sub-device are stored under the sub-device's own {@code device_id};
+ * Sparkplug aliases stay per edge node. Messages of one edge node, including those of
+ * its sub-devices, must be ingested by one thread at a time and in order; different
+ * nodes may be ingested concurrently (see {@code TelemetryPartitionDispatcher}). A
+ * device should therefore report either directly or through one edge node.
+ *
+ * <p>The sample time is the metric timestamp, falling back to the payload timestamp
+ * and finally to the receive time. Values are converted by {@link TypedValueDecoder}
+ * using the metric's wire type or, when a data message omits it, the definition's
+ * {@link MetricDataType}. Non-numeric metrics are stored with a null value and their
+ * String value goes to {@code sensor_data_text} ({@link SensorDataTextWriter});
+ * metrics without an active definition are stored with a null {@code metric_version}.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ * @see TelemetryTopic
+ * @see SparkplugPayloadDecoder
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TelemetryIngestionServiceImpl implements TelemetryIngestionService {
+
+    private static final String BD_SEQ = "bdSeq";
+    private static final String NODE_CONTROL_PREFIX = "Node Control/";
+    private static final String DEVICE_CONTROL_PREFIX = "Device Control/";
+
+    private final SensorDataSink sensorDataSink;
+    private final DeviceRegistry deviceRegistry;
+    private final MetricDefinitionCache metricDefinitionCache;
+    private final DeviceLastSeenService lastSeenService;
+    private final LatestValueStore latestValueStore;
+    private final SparkplugAliasRegistry aliasRegistry;
+    private final SampleDeduplicator sampleDeduplicator;
+    private final AnomalyDetector anomalyDetector;
+    private final IngestionLatencyRecorder latencyRecorder;
+    private final SensorDataTextWriter textWriter;
+
+    private final ThreadLocal<SparkplugPayloadDecoder> decoders =
+            ThreadLocal.withInitial(SparkplugPayloadDecoder::new);
+    private final ThreadLocal<SensorDataRecord> scratchRecords =
+            ThreadLocal.withInitial(SensorDataRecord::new);
+
+    private final LongAdder messagesReceived = new LongAdder();
+    private final LongAdder messagesRejected = new LongAdder();
+    private final LongAdder samplesAccepted = new LongAdder();
+    private final LongAdder unresolvedAliases = new LongAdder();
+    private final LongAdder unknownDevices = new LongAdder();
+    private final LongAdder inactiveDevices = new LongAdder();
+
+    @Override
+    public void ingest(String topic, byte[] payload, long receivedAt) {
+        messagesReceived.increment();
+        long startNanos = System.nanoTime();
+
+        TelemetryTopic telemetryTopic = TelemetryTopic.parse(topic);
+        if (telemetryTopic == null) {
+            messagesRejected.increment();
+            log.debug("Ignoring message on non-telemetry topic: {}", topic);
+            return;
+        }
+        RegisteredDevice node = deviceRegistry.findByTopic(telemetryTopic.getDeptId(), telemetryTopic.getNodeId());
+        if (node == null) {
+            messagesRejected.increment();
+            unknownDevices.increment();
+            log.debug("Ignoring telemetry from unregistered device {} in community {}",
+                    telemetryTopic.getNodeId(), telemetryTopic.getDeptId());
+            return;
+        }
+        if (!node.isOperational()) {
+            messagesRejected.increment();
+            inactiveDevices.increment();
+            log.debug("Ignoring telemetry from {} device {} in community {}", node.getStatus(),
+                    telemetryTopic.getNodeId(), telemetryTopic.getDeptId());
+            return;
+        }
+        lastSeenService.touch(node.getDeviceId(), receivedAt);
+        RegisteredDevice device = node;
+        if (telemetryTopic.getSubDeviceId() != null) {
+            device = deviceRegistry.findByTopic(telemetryTopic.getDeptId(), telemetryTopic.getSubDeviceId());
+            if (device == null) {
+                messagesRejected.increment();
+                unknownDevices.increment();
+                log.debug("Ignoring telemetry from unregistered sub-device {} of node {} in community {}",
+                        telemetryTopic.getSubDeviceId(), telemetryTopic.getNodeId(), telemetryTopic.getDeptId());
+                return;
+            }
+            if (!device.isOperational()) {
+                messagesRejected.increment();
+                inactiveDevices.increment();
+                log.debug("Ignoring telemetry from {} sub-device {} of node {} in community {}", device.getStatus(),
+                        telemetryTopic.getSubDeviceId(), telemetryTopic.getNodeId(), telemetryTopic.getDeptId());
+                return;
+            }
+            lastSeenService.touch(device.getDeviceId(), receivedAt);
+        }
+        SparkplugMessageType messageType = telemetryTopic.getMessageType();
+        if (messageType == SparkplugMessageType.NDEATH) {
+            aliasRegistry.onNodeDeath(node);
+        }
+        if (!messageType.carriesSamples()) {
+            log.debug("Received {} from node {} in community {}", telemetryTopic.getMessageType(),
+                    telemetryTopic.getNodeId(), telemetryTopic.getDeptId());
+            return;
+        }
+
+        SparkplugPayload decoded;
+        long decodeStart = System.nanoTime();
+        try {
+            decoded = decoders.get().decode(payload);
+        } catch (IllegalArgumentException e) {
+            messagesRejected.increment();
+            log.warn("Invalid Sparkplug B payload on topic {}: {}", topic, e.getMessage());
+            return;
+        }
+        long deptId = node.getDeptId();
+        latencyRecorder.record(deptId, LatencyStage.DECODE, (System.nanoTime() - decodeStart) / 1000);
+        if (decoded.getTimestamp() != SparkplugPayload.ABSENT) {
+            latencyRecorder.record(deptId, LatencyStage.RECEIVE, (receivedAt - decoded.getTimestamp()) * 1000);
+        }
+        if (messageType.isBirth()) {
+            aliasRegistry.onBirth(node, messageType == SparkplugMessageType.NBIRTH, decoded.getMetrics());
+        }
+
+        long payloadTime = decoded.getTimestamp() != SparkplugPayload.ABSENT ? decoded.getTimestamp() : receivedAt;
+        int communityId = (int) deptId;
+        String deviceId = device.getDeviceIdText();
+        SensorDataRecord record = scratchRecords.get();
+        record.setReceivedAt(receivedAt);
+        for (SparkplugPayload.Metric metric : decoded.getMetrics()) {
+            String name = metric.getName();
+            MetricDataType declaredType = null;
+            SparkplugAlias alias = null;
+            if (name == null) {
+                alias = metric.getAlias() != SparkplugPayload.ABSENT
+                        ? aliasRegistry.resolve(node, metric.getAlias()) : null;
+                if (alias == null) {
+                    unresolvedAliases.increment();
+                    continue;
+                }
+                name = alias.getMetricName();
+                declaredType = alias.getDataType();
+            }
+            if (isControlMetric(name)) {
+                continue;
+            }
+            ResolvedMetric definition = alias != null
+                    ? metricDefinitionCache.resolve(deptId, alias) : metricDefinitionCache.resolve(deptId, name);
+            long time = metric.getTimestamp() != SparkplugPayload.ABSENT ? metric.getTimestamp() : payloadTime;
+            if (sampleDeduplicator.isDuplicate(device, name, time)) {
+                continue;
+            }
+            if (declaredType == null && definition != null) {
+                declaredType = definition.getDataType();
+            }
+            MetricDataType type = TypedValueDecoder.resolveType(metric, declaredType);
+            boolean numeric = TypedValueDecoder.isNumeric(type);
+            double value = numeric ? TypedValueDecoder.toDouble(type, metric.getRawValue()) : 0.0;
+            int version = definition != null ? definition.getVersion() : 0;
+            short quality = SensorQuality.fromSparkplug(metric.getQuality());
+            if (numeric) {
+                quality = anomalyDetector.assess(device, name, time, value, quality);
+            }
+            record.set(time, communityId, deviceId, name, value, numeric, version, quality);
+            if (sensorDataSink.offer(record)) {
+                // Only remembered once accepted, so a redelivery of a dropped sample gets through
+                sampleDeduplicator.record(device, name, time);
+                samplesAccepted.increment();
+                if (numeric) {
+                    anomalyDetector.accept(device, name, time, value, quality);
+                }
+                if (!numeric && metric.getStringValue() != null) {
+                    textWriter.offer(time, communityId, deviceId, name, metric.getStringValue(), version, quality);
+                }
+                latestValueStore.update(device, name, time, value, numeric, version, quality);
+            }
+        }
+        latencyRecorder.record(deptId, LatencyStage.ENQUEUE, (System.nanoTime() - startNanos) / 1000);
+    }
+
+    @Override
+    public long getMessagesReceived() {
+        return messagesReceived.sum();
+    }
+
+    @Override
+    public long getSamplesAccepted() {
+        return samplesAccepted.sum();
+    }
+
+    @Override
+    public long getMessagesRejected() {
+        return messagesRejected.sum();
+    }
+
+    /**
+     * Returns the number of messages rejected because the device is not registered.
+     *
+     * @return the unknown device message count
+     */
+    public long getUnknownDevices() {
+        return unknownDevices.sum();
+    }
+
+    /**
+     * Returns the number of messages rejected because the device is not active.
+     *
+     * @return the inactive device message count
+     */
+    public long getInactiveDevices() {
+        return inactiveDevices.sum();
+    }
+
+    /**
+     * Returns the number of alias-only metrics that could not be mapped to a name;
+     * each miss may trigger a rebirth request.
+     *
+     * @return the unresolved alias count
+     */
+    public long getUnresolvedAliases() {
+        return unresolvedAliases.sum();
+    }
+
+    private static boolean isControlMetric(String name) {
+        return BD_SEQ.equals(name) || name.startsWith(NODE_CONTROL_PREFIX) || name.startsWith(DEVICE_CONTROL_PREFIX);
+    }
+}
@@ -0,0 +1,132 @@
+package community.waterlevel.iot.module.ingestion.support;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable open-addressing map from primitive {@code long} keys to objects.
+ *
+ * <p>Lookups neither box the key nor allocate, which makes the map suitable for
+ * per-sample lookups on the ingest hot path. Updates are done copy-on-write with
+ * {@link #with} / {@link #without} and published through a volatile field by the owner.
+ *
+ * @param <V> the value type
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+public final class LongObjectMap<V> {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final LongObjectMap<?> EMPTY_MAP = new LongObjectMap<>(new long[0], new Object[0], 0);
+
+    private final long[] keys;
+    private final Object[] values;
+    private final int size;
+    private final int mask;
+    private final int shift;
+
+    private LongObjectMap(long[] keys, Object[] values, int size) {
+        this.keys = keys;
+        this.values = values;
+        this.size = size;
+        this.mask = keys.length - 1;
+        this.shift = keys.length == 0 ? 0 : 64 - Integer.numberOfTrailingZeros(keys.length);
+    }
+
+    /**
+     * Returns the empty map.
+     */
+    @SuppressWarnings("unchecked")
+    public static <V> LongObjectMap<V> empty() {
+        return (LongObjectMap<V>) EMPTY_MAP;
+    }
+
+    /**
+     * Builds a map holding the given entries. {@code Long.MIN_VALUE} is not a valid key.
+     *
+     * @param source the entries
+     * @return the map
+     */
+    public static <V> LongObjectMap<V> of(Map<Long, V> source) {
+        if (source.isEmpty()) {
+            return empty();
+        }
+        int tableSize = Math.max(8, Integer.highestOneBit(source.size() * 2 - 1) << 1);
+        long[] keys = new long[tableSize];
+        Arrays.fill(keys, EMPTY);
+        LongObjectMap<V> map = new LongObjectMap<>(keys, new Object[tableSize], source.size());
+        for (Map.Entry<Long, V> entry : source.entrySet()) {
+            map.insert(entry.getKey(), entry.getValue());
+        }
+        return map;
+    }
+
+    /**
+     * Returns the value mapped to {@code key}, or null.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        if (size == 0) {
+            return null;
+        }
+        int i = index(key);
+        long k;
+        while ((k = keys[i]) != EMPTY) {
+            if (k == key) {
+                return (V) values[i];
+            }
+            i = (i + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Returns a copy of this map with {@code key} mapped to {@code value}.
+     */
+    public LongObjectMap<V> with(long key, V value) {
+        Map<Long, V> copy = toMap();
+        copy.put(key, value);
+        return of(copy);
+    }
+
+    /**
+     * Returns a copy of this map without {@code key}.
+     */
+    public LongObjectMap<V> without(long key) {
+        Map<Long, V> copy = toMap();
+        copy.remove(key);
+        return of(copy);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the entries as a new mutable map.
+     */
+    @SuppressWarnings("unchecked")
+    public Map<Long, V> toMap() {
+        Map<Long, V> map = new HashMap<>(size * 2);
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                map.put(keys[i], (V) values[i]);
+            }
+        }
+        return map;
+    }
+
+    private int index(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+
+    private void insert(long key, Object value) {
+        int i = index(key);
+        while (keys[i] != EMPTY && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+    }
+}
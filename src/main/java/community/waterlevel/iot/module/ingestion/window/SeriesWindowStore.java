@@ -0,0 +1,286 @@
+package community.waterlevel.iot.module.ingestion.window;
+
+import community.waterlevel.iot.config.property.IngestionProperties;
+import community.waterlevel.iot.module.ingestion.model.SensorDataRecord;
+import community.waterlevel.iot.module.ingestion.model.enums.SensorQuality;
+import community.waterlevel.iot.module.ingestion.model.enums.WindowStatistic;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.VarHandle;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process sliding-window statistics of device metric series.
+ *
+ * <p>Every series of a metric listed in {@code ingestion.windows.metrics} gets one
+ * {@link SlidingWindow} per length in {@code ingestion.windows.window-seconds}, updated in
+ * O(1) per sample. Derived signals such as the water level rise per 10 minutes are thus
+ * available without querying {@code sensor_data}: the alert engine evaluates rules on
+ * them and the latest-value API returns them.
+ *
+ * <p>Concurrency: {@link #update} is called by a single writer, the alert engine thread,
+ * which sees the samples of each device in time order. After each update the writer
+ * publishes the statistics of the series under a sequence lock; readers copy them with
+ * {@link #read} and retry when a write overlapped the copy. Samples without a value,
+ * of {@code BAD} quality or older than the newest one of the series are ignored.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Component
+public class SeriesWindowStore {
+
+    private static final int FIELDS = 5;
+    private static final int COUNT = 0;
+    private static final short BAD = SensorQuality.BAD.getCode();
+
+    private final boolean enabled;
+    private final Set<String> metricNames;
+    private final long[] windowMs;
+    private final String[] labels;
+    private final int minSamples;
+    private final int maxSamples;
+
+    private final Map<String, Map<String, Series>> devices = new ConcurrentHashMap<>();
+    private final AtomicInteger seriesCount = new AtomicInteger();
+
+    public SeriesWindowStore(IngestionProperties properties, MeterRegistry meterRegistry) {
+        IngestionProperties.WindowConfig config = properties.getWindows();
+        this.enabled = config.isEnabled();
+        this.metricNames = Set.copyOf(config.getMetrics());
+        List<Integer> seconds = config.getWindowSeconds().stream().distinct().sorted().toList();
+        this.windowMs = new long[seconds.size()];
+        this.labels = new String[seconds.size()];
+        for (int w = 0; w < windowMs.length; w++) {
+            windowMs[w] = seconds.get(w) * 1000L;
+            labels[w] = label(seconds.get(w));
+        }
+        this.minSamples = config.getMinSamples();
+        this.maxSamples = config.getMaxSamples();
+        Gauge.builder("ingestion.windows.series", seriesCount, AtomicInteger::get)
+                .description("Series with sliding-window statistics")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Adds a sample to the windows of its series.
+     *
+     * @param record the sample
+     * @return the series, or null if the metric has no windows or the sample was ignored
+     */
+    public Series update(SensorDataRecord record) {
+        if (!enabled || !record.isValuePresent() || record.getQuality() == BAD
+                || !metricNames.contains(record.getMetricName())) {
+            return null;
+        }
+        Map<String, Series> metrics = devices.get(record.getDeviceId());
+        if (metrics == null) {
+            metrics = devices.computeIfAbsent(record.getDeviceId(), k -> new ConcurrentHashMap<>());
+        }
+        Series series = metrics.get(record.getMetricName());
+        if (series == null) {
+            series = new Series(windowMs, maxSamples, minSamples);
+            metrics.put(record.getMetricName(), series);
+            seriesCount.incrementAndGet();
+        }
+        return series.add(record.getTime(), record.getMetricValue()) ? series : null;
+    }
+
+    /**
+     * Copies the statistics of one series.
+     *
+     * @param deviceId   the device identifier
+     * @param metricName the metric name
+     * @param target     receives the statistics; reused across calls
+     * @return {@code false} when the series has no windows
+     */
+    public boolean read(String deviceId, String metricName, Stats target) {
+        Map<String, Series> metrics = devices.get(deviceId);
+        Series series = metrics != null ? metrics.get(metricName) : null;
+        if (series == null) {
+            return false;
+        }
+        series.copyTo(target);
+        return true;
+    }
+
+    /**
+     * Returns the index of a window length.
+     *
+     * @param seconds the window length in seconds
+     * @return the index, or -1 if no window has that length
+     */
+    public int windowIndex(int seconds) {
+        for (int w = 0; w < windowMs.length; w++) {
+            if (windowMs[w] == seconds * 1000L) {
+                return w;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns whether sliding windows are maintained at all.
+     *
+     * @return the value of {@code ingestion.windows.enabled}
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns whether series of the metric get sliding windows.
+     *
+     * @param metricName the metric name
+     * @return true if the metric is configured
+     */
+    public boolean hasWindows(String metricName) {
+        return enabled && metricNames.contains(metricName);
+    }
+
+    /**
+     * Returns the window labels ({@code 10m}, {@code 1h}, ...) in index order.
+     *
+     * @return the labels
+     */
+    public String[] getLabels() {
+        return labels.clone();
+    }
+
+    /**
+     * Creates a reusable target for {@link #read}.
+     *
+     * @return a new, empty target
+     */
+    public Stats newStats() {
+        return new Stats(windowMs.length);
+    }
+
+    private static String label(int seconds) {
+        if (seconds % 86400 == 0) {
+            return seconds / 86400 + "d";
+        }
+        if (seconds % 3600 == 0) {
+            return seconds / 3600 + "h";
+        }
+        if (seconds % 60 == 0) {
+            return seconds / 60 + "m";
+        }
+        return seconds + "s";
+    }
+
+    /**
+     * Reusable copy of the statistics of one series, indexed by window. Values are NaN
+     * when not available; the rate needs {@code ingestion.windows.min-samples} samples.
+     */
+    public static final class Stats {
+        public long time;
+        public final int[] counts;
+        public final double[] means;
+        public final double[] mins;
+        public final double[] maxs;
+        public final double[] rates;
+
+        private Stats(int windows) {
+            counts = new int[windows];
+            means = new double[windows];
+            mins = new double[windows];
+            maxs = new double[windows];
+            rates = new double[windows];
+        }
+    }
+
+    /**
+     * Windows of one series. The windows are only touched by the writer; readers see the
+     * statistics published after each sample, guarded by a sequence lock (odd while
+     * writing).
+     */
+    public static final class Series {
+
+        private final SlidingWindow[] windows;
+        private final int minSamples;
+        private final AtomicInteger sequence = new AtomicInteger();
+        private final double[] published;
+        private long time;
+
+        private Series(long[] windowMs, int maxSamples, int minSamples) {
+            this.windows = new SlidingWindow[windowMs.length];
+            for (int w = 0; w < windows.length; w++) {
+                windows[w] = new SlidingWindow(windowMs[w], maxSamples);
+            }
+            this.minSamples = minSamples;
+            this.published = new double[windowMs.length * FIELDS];
+        }
+
+        /**
+         * Returns a statistic of one window. Only to be called by the writer.
+         *
+         * @param window    the window index
+         * @param statistic the statistic
+         * @return the value, or NaN when not available
+         */
+        public double statistic(int window, WindowStatistic statistic) {
+            SlidingWindow w = windows[window];
+            switch (statistic) {
+                case MEAN:
+                    return w.mean();
+                case MIN:
+                    return w.min();
+                case MAX:
+                    return w.max();
+                default:
+                    return w.count() >= minSamples ? w.ratePerWindow() : Double.NaN;
+            }
+        }
+
+        private boolean add(long time, double value) {
+            if (!windows[0].add(time, value)) {
+                return false;
+            }
+            for (int w = 1; w < windows.length; w++) {
+                windows[w].add(time, value);
+            }
+            sequence.incrementAndGet();
+            this.time = time;
+            for (int w = 0; w < windows.length; w++) {
+                int offset = w * FIELDS;
+                published[offset + COUNT] = windows[w].count();
+                published[offset + 1 + WindowStatistic.MEAN.ordinal()] = statistic(w, WindowStatistic.MEAN);
+                published[offset + 1 + WindowStatistic.MIN.ordinal()] = statistic(w, WindowStatistic.MIN);
+                published[offset + 1 + WindowStatistic.MAX.ordinal()] = statistic(w, WindowStatistic.MAX);
+                published[offset + 1 + WindowStatistic.RATE.ordinal()] = statistic(w, WindowStatistic.RATE);
+            }
+            sequence.incrementAndGet();
+            return true;
+        }
+
+        private void copyTo(Stats target) {
+            while (true) {
+                int before = sequence.get();
+                if ((before & 1) != 0) {
+                    Thread.onSpinWait();
+                    continue;
+                }
+                target.time = time;
+                for (int w = 0; w < target.counts.length; w++) {
+                    int offset = w * FIELDS;
+                    target.counts[w] = (int) published[offset + COUNT];
+                    target.means[w] = published[offset + 1 + WindowStatistic.MEAN.ordinal()];
+                    target.mins[w] = published[offset + 1 + WindowStatistic.MIN.ordinal()];
+                    target.maxs[w] = published[offset + 1 + WindowStatistic.MAX.ordinal()];
+                    target.rates[w] = published[offset + 1 + WindowStatistic.RATE.ordinal()];
+                }
+                VarHandle.acquireFence();
+                if (sequence.get() == before) {
+                    return;
+                }
+            }
+        }
+    }
+}
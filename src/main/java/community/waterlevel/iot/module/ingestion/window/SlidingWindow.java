@@ -0,0 +1,261 @@
+package community.waterlevel.iot.module.ingestion.window;
+
+/**
+ * Time-based sliding window over one numeric series with O(1) amortized updates.
+ *
+ * <p>Samples are kept in a circular buffer so that they can be evicted once they fall
+ * out of the window. Alongside it the window maintains:
+ * <ul>
+ *   <li>running sums of the values and of the regression terms (t, t^2, t*v), giving the
+ *       mean and the least-squares slope without a pass over the samples</li>
+ *   <li>two monotonic deques of sample sequence numbers whose fronts are the current
+ *       minimum and maximum</li>
+ * </ul>
+ * Times enter the regression in seconds relative to a base time. When the newest sample
+ * is more than two window lengths past the base, the sums are recomputed from the
+ * buffer relative to the oldest sample, which bounds both cancellation and drift; this
+ * happens at most once per window length of samples.
+ *
+ * <p>The buffer starts small and doubles up to {@code maxSamples}; beyond that the
+ * oldest sample is evicted early. Samples older than the newest one are rejected.
+ *
+ * <p>Not thread-safe.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+public final class SlidingWindow {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final long windowMs;
+    private final int maxSamples;
+
+    private long[] times;
+    private double[] values;
+    private long[] minDeque;
+    private long[] maxDeque;
+    private int mask;
+
+    // Sequence numbers: samples [tail, head) are live, at index seq & mask.
+    private long head;
+    private long tail;
+    private long minFirst;
+    private long minLast;
+    private long maxFirst;
+    private long maxLast;
+
+    private long base;
+    private double sumV;
+    private double sumT;
+    private double sumTT;
+    private double sumTV;
+    private long truncated;
+
+    /**
+     * @param windowMs   the window length in milliseconds
+     * @param maxSamples the maximum number of samples held; rounded up to a power of two
+     */
+    public SlidingWindow(long windowMs, int maxSamples) {
+        this.windowMs = windowMs;
+        this.maxSamples = Integer.highestOneBit(Math.max(INITIAL_CAPACITY, maxSamples) - 1) << 1;
+        int capacity = Math.min(INITIAL_CAPACITY, this.maxSamples);
+        this.times = new long[capacity];
+        this.values = new double[capacity];
+        this.minDeque = new long[capacity];
+        this.maxDeque = new long[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Adds a sample and evicts the samples that fell out of the window.
+     *
+     * @param time  the sample time in epoch milliseconds
+     * @param value the sample value
+     * @return {@code false} if the sample is older than the newest one and was ignored
+     */
+    public boolean add(long time, double value) {
+        if (head != tail && time < times[(int) ((head - 1) & mask)]) {
+            return false;
+        }
+        long horizon = time - windowMs;
+        while (head != tail && times[(int) (tail & mask)] <= horizon) {
+            evictOldest();
+        }
+        if (head - tail == times.length) {
+            if (times.length < maxSamples) {
+                grow();
+            } else {
+                evictOldest();
+                truncated++;
+            }
+        }
+        if (head == tail) {
+            base = time;
+        }
+
+        int index = (int) (head & mask);
+        times[index] = time;
+        values[index] = value;
+        double t = (time - base) / 1000.0;
+        sumV += value;
+        sumT += t;
+        sumTT += t * t;
+        sumTV += t * value;
+
+        while (maxLast != maxFirst && values[(int) (maxDeque[(int) ((maxLast - 1) & mask)] & mask)] <= value) {
+            maxLast--;
+        }
+        maxDeque[(int) (maxLast++ & mask)] = head;
+        while (minLast != minFirst && values[(int) (minDeque[(int) ((minLast - 1) & mask)] & mask)] >= value) {
+            minLast--;
+        }
+        minDeque[(int) (minLast++ & mask)] = head;
+        head++;
+
+        if (time - base > 2 * windowMs) {
+            rebase();
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of samples in the window.
+     *
+     * @return the sample count
+     */
+    public int count() {
+        return (int) (head - tail);
+    }
+
+    /**
+     * Returns the time of the newest sample.
+     *
+     * @return the time in epoch milliseconds, or {@code Long.MIN_VALUE} when empty
+     */
+    public long newestTime() {
+        return head != tail ? times[(int) ((head - 1) & mask)] : Long.MIN_VALUE;
+    }
+
+    /**
+     * Returns the mean of the samples in the window.
+     *
+     * @return the mean, or NaN when empty
+     */
+    public double mean() {
+        return head != tail ? sumV / (head - tail) : Double.NaN;
+    }
+
+    /**
+     * Returns the smallest sample in the window.
+     *
+     * @return the minimum, or NaN when empty
+     */
+    public double min() {
+        return head != tail ? values[(int) (minDeque[(int) (minFirst & mask)] & mask)] : Double.NaN;
+    }
+
+    /**
+     * Returns the largest sample in the window.
+     *
+     * @return the maximum, or NaN when empty
+     */
+    public double max() {
+        return head != tail ? values[(int) (maxDeque[(int) (maxFirst & mask)] & mask)] : Double.NaN;
+    }
+
+    /**
+     * Returns the least-squares slope of the samples in the window.
+     *
+     * @return the slope in value units per second, or NaN with fewer than two distinct times
+     */
+    public double slopePerSecond() {
+        long n = head - tail;
+        if (n < 2) {
+            return Double.NaN;
+        }
+        double denominator = n * sumTT - sumT * sumT;
+        if (denominator <= 0) {
+            return Double.NaN;
+        }
+        return (n * sumTV - sumT * sumV) / denominator;
+    }
+
+    /**
+     * Returns the rate of change over the window length, {@link #slopePerSecond()}
+     * times the window length.
+     *
+     * @return the change per window, or NaN with fewer than two distinct times
+     */
+    public double ratePerWindow() {
+        return slopePerSecond() * (windowMs / 1000.0);
+    }
+
+    /**
+     * Returns the number of samples evicted early because the window was full.
+     *
+     * @return the truncated sample count
+     */
+    public long getTruncated() {
+        return truncated;
+    }
+
+    private void evictOldest() {
+        int index = (int) (tail & mask);
+        if (head - tail == 1) {
+            sumV = sumT = sumTT = sumTV = 0;
+        } else {
+            double t = (times[index] - base) / 1000.0;
+            double v = values[index];
+            sumV -= v;
+            sumT -= t;
+            sumTT -= t * t;
+            sumTV -= t * v;
+        }
+        if (maxDeque[(int) (maxFirst & mask)] == tail) {
+            maxFirst++;
+        }
+        if (minDeque[(int) (minFirst & mask)] == tail) {
+            minFirst++;
+        }
+        tail++;
+    }
+
+    private void rebase() {
+        base = times[(int) (tail & mask)];
+        sumV = sumT = sumTT = sumTV = 0;
+        for (long seq = tail; seq != head; seq++) {
+            int index = (int) (seq & mask);
+            double t = (times[index] - base) / 1000.0;
+            double v = values[index];
+            sumV += v;
+            sumT += t;
+            sumTT += t * t;
+            sumTV += t * v;
+        }
+    }
+
+    private void grow() {
+        int capacity = times.length * 2;
+        int newMask = capacity - 1;
+        long[] newTimes = new long[capacity];
+        double[] newValues = new double[capacity];
+        for (long seq = tail; seq != head; seq++) {
+            newTimes[(int) (seq & newMask)] = times[(int) (seq & mask)];
+            newValues[(int) (seq & newMask)] = values[(int) (seq & mask)];
+        }
+        minDeque = regrow(minDeque, minFirst, minLast, newMask);
+        maxDeque = regrow(maxDeque, maxFirst, maxLast, newMask);
+        times = newTimes;
+        values = newValues;
+        mask = newMask;
+    }
+
+    private long[] regrow(long[] deque, long first, long last, int newMask) {
+        long[] grown = new long[newMask + 1];
+        for (long i = first; i != last; i++) {
+            grown[(int) (i & newMask)] = deque[(int) (i & mask)];
+        }
+        return grown;
+    }
+}
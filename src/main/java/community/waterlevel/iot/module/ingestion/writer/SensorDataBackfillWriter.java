@@ -0,0 +1,288 @@
+package community.waterlevel.iot.module.ingestion.writer;
+
+import community.waterlevel.iot.config.property.IngestionProperties;
+import community.waterlevel.iot.module.ingestion.model.SensorDataRecord;
+import community.waterlevel.iot.module.ingestion.model.event.SensorDataBackfilledEvent;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Background writer for late samples, i.e. samples that arrived behind the reordering
+ * watermark of their device.
+ *
+ * <p>Late samples are kept off the main {@link SensorDataBatchWriter} path so that its
+ * batches stay in time order and only touch the newest chunks. They are queued here,
+ * collected for up to {@code ingestion.backfill.flush-interval-ms}, sorted by hypertable
+ * chunk, device and time, and written one chunk per transaction: each group of rows
+ * falling into the same {@code ingestion.backfill.chunk-interval-ms} bucket is copied
+ * through the staging table with {@code ON CONFLICT DO NOTHING}, since late samples are
+ * often redeliveries of rows already stored. Every committed chunk publishes a
+ * {@link SensorDataBackfilledEvent} with its time range so stale rollups get refreshed.
+ *
+ * <p>A chunk that fails to write is retried like in {@link SensorDataBatchWriter}: after
+ * a backoff doubling from {@code ingestion.writer.retry-backoff-ms} up to
+ * {@code max-retry-backoff-ms}, while late samples keep queueing (and are dropped once
+ * the queue is full). It is only given up on when the database rejects it with a
+ * constraint violation or when the writer is stopping.
+ *
+ * <p>Metrics: {@code ingestion.backfill.rows{result=written|retried|failed|dropped}},
+ * {@code ingestion.backfill.chunk.batches} and {@code ingestion.backfill.queue}.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Slf4j
+@Component
+public class SensorDataBackfillWriter implements SmartLifecycle {
+
+    private final DataSource dataSource;
+    private final IngestionProperties.BackfillConfig config;
+    private final IngestionProperties.WriterConfig retryConfig;
+    private final BlockingQueue<SensorDataRecord> queue;
+    private final SensorDataCopier copier = new SensorDataCopier();
+    private final Comparator<SensorDataRecord> chunkOrder;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final LongAdder rowsWritten = new LongAdder();
+    private final LongAdder rowsRetried = new LongAdder();
+    private final LongAdder rowsFailed = new LongAdder();
+    private final LongAdder rowsDropped = new LongAdder();
+    private final LongAdder chunkBatches = new LongAdder();
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public SensorDataBackfillWriter(DataSource dataSource, IngestionProperties properties,
+                                    MeterRegistry meterRegistry, ApplicationEventPublisher eventPublisher) {
+        this.dataSource = dataSource;
+        this.eventPublisher = eventPublisher;
+        this.config = properties.getBackfill();
+        this.retryConfig = properties.getWriter();
+        this.queue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+        this.chunkOrder = Comparator.comparingLong(this::chunkOf)
+                .thenComparing(SensorDataRecord::getDeviceId)
+                .thenComparingLong(SensorDataRecord::getTime);
+
+        FunctionCounter.builder("ingestion.backfill.rows", rowsWritten, LongAdder::sum)
+                .tag("result", "written").register(meterRegistry);
+        FunctionCounter.builder("ingestion.backfill.rows", rowsRetried, LongAdder::sum)
+                .tag("result", "retried").register(meterRegistry);
+        FunctionCounter.builder("ingestion.backfill.rows", rowsFailed, LongAdder::sum)
+                .tag("result", "failed").register(meterRegistry);
+        FunctionCounter.builder("ingestion.backfill.rows", rowsDropped, LongAdder::sum)
+                .tag("result", "dropped").register(meterRegistry);
+        FunctionCounter.builder("ingestion.backfill.chunk.batches", chunkBatches, LongAdder::sum)
+                .description("Single-chunk transactions written by the backfill writer")
+                .register(meterRegistry);
+        Gauge.builder("ingestion.backfill.queue", queue, BlockingQueue::size)
+                .description("Late samples waiting for the backfill writer")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues a late sample. The record is copied, so callers may reuse it.
+     *
+     * @param record the late sample
+     * @return {@code false} if the queue is full and the sample was dropped
+     */
+    public boolean offer(SensorDataRecord record) {
+        SensorDataRecord copy = new SensorDataRecord();
+        copy.copyFrom(record);
+        if (queue.offer(copy)) {
+            return true;
+        }
+        rowsDropped.increment();
+        return false;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        worker = new Thread(this::runLoop, "sensor-data-backfill");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        log.info("sensor_data backfill writer stopped (written={}, failed={}, dropped={})",
+                rowsWritten.sum(), rowsFailed.sum(), rowsDropped.sum());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts before and stops after the reordering stage feeding it.
+     */
+    @Override
+    public int getPhase() {
+        return DEFAULT_PHASE - 2048;
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten.sum();
+    }
+
+    public long getRowsFailed() {
+        return rowsFailed.sum();
+    }
+
+    public long getRowsDropped() {
+        return rowsDropped.sum();
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    private void runLoop() {
+        List<SensorDataRecord> pending = new ArrayList<>();
+        long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(config.getFlushIntervalMs());
+        while (running) {
+            try {
+                SensorDataRecord first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                pending.add(first);
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (pending.size() < config.getBatchSize()) {
+                    queue.drainTo(pending, config.getBatchSize() - pending.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (pending.size() >= config.getBatchSize() || remaining <= 0) {
+                        break;
+                    }
+                    SensorDataRecord next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    pending.add(next);
+                }
+            } catch (InterruptedException e) {
+                running = false;
+            }
+            flush(pending);
+            pending.clear();
+        }
+        // Write whatever is still queued.
+        while (queue.drainTo(pending, config.getBatchSize()) > 0) {
+            flush(pending);
+            pending.clear();
+        }
+    }
+
+    private void flush(List<SensorDataRecord> pending) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        pending.sort(chunkOrder);
+        SensorDataRecord[] rows = pending.toArray(new SensorDataRecord[0]);
+        int from = 0;
+        while (from < rows.length) {
+            long chunk = chunkOf(rows[from]);
+            int to = from + 1;
+            while (to < rows.length && chunkOf(rows[to]) == chunk) {
+                to++;
+            }
+            writeChunk(rows, from, to - from);
+            from = to;
+        }
+    }
+
+    /**
+     * Writes one chunk in its own transaction, retrying with backoff until it is written,
+     * rejected by the database or the writer stops.
+     */
+    private void writeChunk(SensorDataRecord[] rows, int from, int count) {
+        long backoffMs = retryConfig.getRetryBackoffMs();
+        while (true) {
+            try {
+                copyChunk(rows, from, count);
+                rowsWritten.add(count);
+                chunkBatches.increment();
+                publishBackfilled(rows, from, count);
+                return;
+            } catch (SQLException | RuntimeException e) {
+                if (!running || SensorDataCopier.isConstraintViolation(e)) {
+                    rowsFailed.add(count);
+                    log.error("Failed to backfill {} sensor_data rows from {}", count,
+                            Instant.ofEpochMilli(rows[from].getTime()), e);
+                    return;
+                }
+                rowsRetried.add(count);
+                log.warn("Failed to backfill {} sensor_data rows from {}, retrying in {} ms: {}", count,
+                        Instant.ofEpochMilli(rows[from].getTime()), backoffMs, e.getMessage());
+                try {
+                    TimeUnit.MILLISECONDS.sleep(backoffMs);
+                } catch (InterruptedException ie) {
+                    running = false;
+                }
+                backoffMs = Math.min(backoffMs * 2, retryConfig.getMaxRetryBackoffMs());
+            }
+        }
+    }
+
+    private void copyChunk(SensorDataRecord[] rows, int from, int count) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                copier.copyViaStaging(connection, rows, from, count);
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                copier.cancel();
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    private void publishBackfilled(SensorDataRecord[] rows, int from, int count) {
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int i = from; i < from + count; i++) {
+            min = Math.min(min, rows[i].getTime());
+            max = Math.max(max, rows[i].getTime());
+        }
+        try {
+            eventPublisher.publishEvent(new SensorDataBackfilledEvent(min, max, count));
+        } catch (RuntimeException e) {
+            log.warn("Backfill event listener failed: {}", e.getMessage());
+        }
+    }
+
+    private long chunkOf(SensorDataRecord record) {
+        return Math.floorDiv(record.getTime(), config.getChunkIntervalMs());
+    }
+}
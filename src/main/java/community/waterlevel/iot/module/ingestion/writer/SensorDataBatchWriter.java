@@ -0,0 +1,359 @@
+package community.waterlevel.iot.module.ingestion.writer;
+
+import community.waterlevel.iot.config.property.IngestionProperties;
+import community.waterlevel.iot.module.ingestion.buffer.SensorDataRingBuffer;
+import community.waterlevel.iot.module.ingestion.latency.IngestionLatencyRecorder;
+import community.waterlevel.iot.module.ingestion.model.SensorDataRecord;
+import community.waterlevel.iot.module.ingestion.model.enums.LatencyStage;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Background writer persisting sensor samples into the {@code sensor_data} hypertable
+ * with PostgreSQL binary {@code COPY}.
+ *
+ * <p>Reads from {@link SensorDataRingBuffer} so that MQTT callback threads never wait
+ * on JDBC. A single writer thread copies samples into a pre-allocated batch and
+ * flushes when the batch reaches the current target size or when the oldest pending
+ * row has waited {@code ingestion.writer.max-latency-ms}.
+ *
+ * <p>Each flush borrows a connection from the Druid pool and streams the batch with
+ * {@code COPY ... (FORMAT binary)} straight into {@code sensor_data}. Duplicates are
+ * normally removed upstream by {@code SampleDeduplicator}, so this fast path needs no
+ * conflict handling. If a batch still violates the primary key (SQLState 23505, e.g. a
+ * redelivery older than the dedup window), the transaction is rolled back and the batch
+ * is copied into a session-local staging table and moved into {@code sensor_data} with
+ * {@code ON CONFLICT DO NOTHING}. With {@code ingestion.writer.direct-copy=false} every
+ * batch takes the staging path.
+ *
+ * <p>The target batch size adapts to the observed flush latency: it is halved when a
+ * flush exceeds {@code target-flush-latency-ms} or fails, and grows by a quarter while
+ * full batches complete in under half of it.
+ *
+ * <p>A flush that fails (pool timeout, failover, statement timeout) keeps its rows and
+ * writes them again, in chunks of the reduced target size, after a backoff doubling
+ * from {@code ingestion.writer.retry-backoff-ms} up to {@code max-retry-backoff-ms}.
+ * Meanwhile nothing is read from the ring, so its overflow policy applies backpressure.
+ * Rows are only given up on, and counted as failed, when the database rejects them with
+ * a constraint violation or when the writer is stopping.
+ *
+ * <p>After each commit, the receive-to-commit and sample-to-commit latency of every row
+ * is recorded in {@link IngestionLatencyRecorder} ({@code commit} and {@code end_to_end}
+ * stages; the latter is the {@code ingestion_time - time} gap of {@code sensor_data}).
+ *
+ * <p>Metrics: {@code ingestion.writer.flush.size}, {@code ingestion.writer.flush.latency},
+ * {@code ingestion.writer.rows.per.second}, {@code ingestion.writer.batch.size},
+ * {@code ingestion.writer.lag}, {@code ingestion.writer.rows{result=written|retried|failed}} and
+ * {@code ingestion.writer.conflict.fallbacks}.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Slf4j
+@Component
+public class SensorDataBatchWriter implements SmartLifecycle {
+
+    private static final long RATE_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final DataSource dataSource;
+    private final IngestionProperties.WriterConfig config;
+    private final SensorDataRingBuffer ringBuffer;
+    private final IngestionLatencyRecorder latencyRecorder;
+    private final SensorDataRingBuffer.Reader reader;
+    private final SensorDataRecord[] batch;
+    private final SensorDataCopier copier = new SensorDataCopier();
+
+    private final LongAdder rowsWritten = new LongAdder();
+    private final LongAdder rowsRetried = new LongAdder();
+    private final LongAdder rowsFailed = new LongAdder();
+    private final LongAdder conflictFallbacks = new LongAdder();
+
+    private final DistributionSummary flushSize;
+    private final Timer flushLatency;
+
+    private volatile int targetBatchSize;
+    private volatile double rowsPerSecond;
+    private long rateWindowStart;
+    private long rateWindowRows;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public SensorDataBatchWriter(DataSource dataSource, SensorDataRingBuffer ringBuffer,
+                                 IngestionProperties properties, IngestionLatencyRecorder latencyRecorder,
+                                 MeterRegistry meterRegistry) {
+        this.dataSource = dataSource;
+        this.config = properties.getWriter();
+        this.ringBuffer = ringBuffer;
+        this.latencyRecorder = latencyRecorder;
+        this.reader = ringBuffer.newReader("sensor-data-writer");
+        this.batch = new SensorDataRecord[config.getMaxBatchSize()];
+        for (int i = 0; i < batch.length; i++) {
+            batch[i] = new SensorDataRecord();
+        }
+        this.targetBatchSize = clamp(config.getBatchSize());
+
+        this.flushSize = DistributionSummary.builder("ingestion.writer.flush.size")
+                .description("Rows per sensor_data COPY flush")
+                .baseUnit("rows")
+                .register(meterRegistry);
+        this.flushLatency = Timer.builder("ingestion.writer.flush.latency")
+                .description("Duration of a sensor_data COPY flush")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("ingestion.writer.rows.per.second", this, w -> w.rowsPerSecond)
+                .description("sensor_data rows written per second")
+                .register(meterRegistry);
+        Gauge.builder("ingestion.writer.batch.size", this, w -> w.targetBatchSize)
+                .description("Current adaptive batch size target")
+                .register(meterRegistry);
+        Gauge.builder("ingestion.writer.lag", reader, SensorDataRingBuffer.Reader::available)
+                .description("Rows published to the ring but not yet read by the writer")
+                .register(meterRegistry);
+        FunctionCounter.builder("ingestion.writer.rows", rowsWritten, LongAdder::sum)
+                .tag("result", "written").register(meterRegistry);
+        FunctionCounter.builder("ingestion.writer.rows", rowsRetried, LongAdder::sum)
+                .tag("result", "retried").register(meterRegistry);
+        FunctionCounter.builder("ingestion.writer.rows", rowsFailed, LongAdder::sum)
+                .tag("result", "failed").register(meterRegistry);
+        FunctionCounter.builder("ingestion.writer.conflict.fallbacks", conflictFallbacks, LongAdder::sum)
+                .description("Batches retried through the staging table after a primary key conflict")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        worker = new Thread(this::runLoop, "sensor-data-writer");
+        worker.setDaemon(true);
+        worker.start();
+        log.info("sensor_data batch writer started (batchSize={}, maxLatencyMs={})",
+                targetBatchSize, config.getMaxLatencyMs());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        log.info("sensor_data batch writer stopped (written={}, failed={}, lost={})",
+                rowsWritten.sum(), rowsFailed.sum(), reader.getLost());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts before and stops after the MQTT subscriber so that no accepted
+     * sample is lost on shutdown.
+     */
+    @Override
+    public int getPhase() {
+        return DEFAULT_PHASE - 2048;
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten.sum();
+    }
+
+    public long getRowsFailed() {
+        return rowsFailed.sum();
+    }
+
+    public long getConflictFallbacks() {
+        return conflictFallbacks.sum();
+    }
+
+    public long getLag() {
+        return reader.available();
+    }
+
+    public int getTargetBatchSize() {
+        return targetBatchSize;
+    }
+
+    private void runLoop() {
+        long maxLatencyNanos = TimeUnit.MILLISECONDS.toNanos(config.getMaxLatencyMs());
+        int count = 0;
+        long deadline = 0;
+        rateWindowStart = System.nanoTime();
+
+        while (running) {
+            try {
+                int batchSize = targetBatchSize;
+                if (count == 0) {
+                    if (!reader.await(maxLatencyNanos)) {
+                        updateRate(0, System.nanoTime());
+                        continue;
+                    }
+                    deadline = System.nanoTime() + maxLatencyNanos;
+                }
+                count += reader.drainTo(batch, count, batchSize - count);
+                if (count < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining > 0 && reader.await(remaining)) {
+                        continue;
+                    }
+                }
+                write(count, count >= batchSize);
+                count = 0;
+            } catch (InterruptedException e) {
+                running = false;
+            }
+        }
+        // Flush everything still held in the ring or the spill queue.
+        while (true) {
+            ringBuffer.drainSpill();
+            count += reader.drainTo(batch, count, batch.length - count);
+            if (count == 0) {
+                break;
+            }
+            write(count, false);
+            count = 0;
+        }
+    }
+
+    /**
+     * Writes the first {@code count} rows of the batch, retrying failed chunks with
+     * backoff until they are written, rejected by the database or the writer stops.
+     */
+    private void write(int count, boolean full) {
+        int offset = 0;
+        long backoffMs = config.getRetryBackoffMs();
+        while (offset < count) {
+            int chunk = Math.min(count - offset, targetBatchSize);
+            try {
+                flush(offset, chunk, full && chunk == count);
+                offset += chunk;
+                backoffMs = config.getRetryBackoffMs();
+            } catch (SQLException | RuntimeException e) {
+                if (!running || SensorDataCopier.isConstraintViolation(e)) {
+                    rowsFailed.add(chunk);
+                    log.error("Discarding {} sensor_data rows", chunk, e);
+                    offset += chunk;
+                    continue;
+                }
+                targetBatchSize = clamp(targetBatchSize / 2);
+                rowsRetried.add(chunk);
+                log.warn("Failed to write {} sensor_data rows, retrying in {} ms with batch size {}: {}",
+                        chunk, backoffMs, targetBatchSize, e.getMessage());
+                try {
+                    TimeUnit.MILLISECONDS.sleep(backoffMs);
+                } catch (InterruptedException ie) {
+                    running = false;
+                }
+                backoffMs = Math.min(backoffMs * 2, config.getMaxRetryBackoffMs());
+            }
+        }
+    }
+
+    private void flush(int offset, int count, boolean full) throws SQLException {
+        long start = System.nanoTime();
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                if (!config.isDirectCopy() || !copyDirect(connection, offset, count)) {
+                    copier.copyViaStaging(connection, batch, offset, count);
+                }
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                copier.cancel();
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+        rowsWritten.add(count);
+        recordLatency(offset, count, System.currentTimeMillis());
+        long elapsed = System.nanoTime() - start;
+        flushSize.record(count);
+        flushLatency.record(elapsed, TimeUnit.NANOSECONDS);
+        updateRate(count, start + elapsed);
+        adapt(elapsed, full);
+    }
+
+    /**
+     * Copies the batch straight into {@code sensor_data}.
+     *
+     * @return {@code false} if the batch hit a primary key conflict; the transaction
+     *         has then been rolled back
+     */
+    private boolean copyDirect(Connection connection, int offset, int count) throws SQLException {
+        if (copier.copyDirect(connection, batch, offset, count)) {
+            return true;
+        }
+        conflictFallbacks.increment();
+        log.debug("Batch of {} rows hit a primary key conflict, retrying through staging", count);
+        return false;
+    }
+
+    private void recordLatency(int offset, int count, long committedAt) {
+        if (!latencyRecorder.isEnabled()) {
+            return;
+        }
+        for (int i = offset; i < offset + count; i++) {
+            SensorDataRecord r = batch[i];
+            long communityId = r.getCommunityId();
+            if (r.getReceivedAt() > 0) {
+                latencyRecorder.record(communityId, LatencyStage.COMMIT, (committedAt - r.getReceivedAt()) * 1000);
+            }
+            latencyRecorder.record(communityId, LatencyStage.END_TO_END, (committedAt - r.getTime()) * 1000);
+        }
+    }
+
+    /**
+     * Multiplicative decrease when a flush is slower than the target, gradual growth
+     * while full batches complete comfortably within it.
+     */
+    private void adapt(long elapsedNanos, boolean full) {
+        long target = TimeUnit.MILLISECONDS.toNanos(config.getTargetFlushLatencyMs());
+        int current = targetBatchSize;
+        int next = current;
+        if (elapsedNanos > target) {
+            next = clamp(current / 2);
+        } else if (full && elapsedNanos < target / 2) {
+            next = clamp(current + Math.max(1, current / 4));
+        }
+        if (next != current) {
+            targetBatchSize = next;
+            log.debug("sensor_data batch size {} -> {} (flush took {} ms)", current, next,
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        }
+    }
+
+    private void updateRate(int rows, long now) {
+        rateWindowRows += rows;
+        long elapsed = now - rateWindowStart;
+        if (elapsed >= RATE_WINDOW_NANOS) {
+            rowsPerSecond = rateWindowRows * 1e9 / elapsed;
+            rateWindowRows = 0;
+            rateWindowStart = now;
+        }
+    }
+
+    private int clamp(int batchSize) {
+        return Math.max(config.getMinBatchSize(), Math.min(config.getMaxBatchSize(), batchSize));
+    }
+}
@@ -0,0 +1,141 @@
+package community.waterlevel.iot.module.ingestion.writer;
+
+import community.waterlevel.iot.module.ingestion.model.SensorDataRecord;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Streams batches of {@link SensorDataRecord} into {@code sensor_data} with binary {@code COPY}.
+ *
+ * <p>Two strategies are offered, both running inside the caller's transaction:
+ * <ul>
+ *   <li>{@link #copyDirect}: {@code COPY} straight into {@code sensor_data}; a primary key
+ *       conflict rolls the transaction back and is reported to the caller</li>
+ *   <li>{@link #copyViaStaging}: {@code COPY} into a session-local staging table, then
+ *       {@code INSERT ... ON CONFLICT DO NOTHING}</li>
+ * </ul>
+ *
+ * <p>Wraps a {@link PgBinaryCopyEncoder}, so an instance is owned by one writer thread.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+public class SensorDataCopier {
+
+    private static final String COLUMNS =
+            "time, community_id, device_id, metric_name, metric_value, metric_version, quality";
+    private static final int COLUMN_COUNT = 7;
+
+    private static final String CREATE_STAGING_SQL = "CREATE TEMP TABLE IF NOT EXISTS sensor_data_staging "
+            + "(LIKE sensor_data INCLUDING DEFAULTS) ON COMMIT DELETE ROWS";
+    private static final String COPY_DIRECT_SQL = "COPY sensor_data (" + COLUMNS + ") FROM STDIN (FORMAT binary)";
+    private static final String COPY_STAGING_SQL =
+            "COPY sensor_data_staging (" + COLUMNS + ") FROM STDIN (FORMAT binary)";
+    private static final String MERGE_SQL = "INSERT INTO sensor_data (" + COLUMNS + ") SELECT " + COLUMNS
+            + " FROM sensor_data_staging ON CONFLICT DO NOTHING";
+    private static final String UNIQUE_VIOLATION = "23505";
+    private static final String INTEGRITY_CONSTRAINT_VIOLATION_CLASS = "23";
+
+    private final PgBinaryCopyEncoder encoder = new PgBinaryCopyEncoder();
+
+    /**
+     * Reports whether a write failed because the database rejected the rows (SQLState
+     * class 23), i.e. writing them again cannot succeed.
+     *
+     * @param failure the exception thrown by a write
+     * @return {@code true} for an integrity constraint violation
+     */
+    public static boolean isConstraintViolation(Throwable failure) {
+        for (Throwable t = failure; t != null; t = t.getCause()) {
+            if (t instanceof SQLException sql && sql.getSQLState() != null
+                    && sql.getSQLState().startsWith(INTEGRITY_CONSTRAINT_VIOLATION_CLASS)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Copies rows straight into {@code sensor_data}.
+     *
+     * @param connection a connection with auto-commit disabled
+     * @param rows       the rows
+     * @param offset     index of the first row to copy
+     * @param count      number of rows to copy
+     * @return {@code false} if the rows hit a primary key conflict; the transaction
+     *         has then been rolled back
+     * @throws SQLException on any other database error
+     */
+    public boolean copyDirect(Connection connection, SensorDataRecord[] rows, int offset, int count)
+            throws SQLException {
+        try {
+            encode(connection, COPY_DIRECT_SQL, rows, offset, count);
+            return true;
+        } catch (SQLException e) {
+            if (!UNIQUE_VIOLATION.equals(e.getSQLState())) {
+                throw e;
+            }
+            encoder.cancel();
+            connection.rollback();
+            return false;
+        }
+    }
+
+    /**
+     * Copies rows into {@code sensor_data} through the staging table, skipping rows
+     * whose primary key already exists.
+     *
+     * @param connection a connection with auto-commit disabled
+     * @param rows       the rows
+     * @param offset     index of the first row to copy
+     * @param count      number of rows to copy
+     * @throws SQLException on database errors
+     */
+    public void copyViaStaging(Connection connection, SensorDataRecord[] rows, int offset, int count)
+            throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_STAGING_SQL);
+        }
+        encode(connection, COPY_STAGING_SQL, rows, offset, count);
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate(MERGE_SQL);
+        }
+    }
+
+    /**
+     * Aborts a {@code COPY} left open by a failed call; safe to call at any time.
+     */
+    public void cancel() {
+        encoder.cancel();
+    }
+
+    private void encode(Connection connection, String copySql, SensorDataRecord[] rows, int offset, int count)
+            throws SQLException {
+        CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+        encoder.begin(copyManager.copyIn(copySql));
+        for (int i = offset, end = offset + count; i < end; i++) {
+            SensorDataRecord r = rows[i];
+            encoder.startRow(COLUMN_COUNT);
+            encoder.timestamptz(r.getTime());
+            encoder.int4(r.getCommunityId());
+            encoder.text(r.getDeviceId());
+            encoder.text(r.getMetricName());
+            if (r.isValuePresent()) {
+                encoder.float8(r.getMetricValue());
+            } else {
+                encoder.writeNull();
+            }
+            if (r.getMetricVersion() > 0) {
+                encoder.int4(r.getMetricVersion());
+            } else {
+                encoder.writeNull();
+            }
+            encoder.int2(r.getQuality());
+        }
+        encoder.end();
+    }
+}
@@ -0,0 +1,24 @@
+package community.waterlevel.iot.module.ingestion.writer;
+
+import community.waterlevel.iot.module.ingestion.model.SensorDataRecord;
+
+/**
+ * Destination for decoded sensor samples.
+ *
+ * <p>Implementations must not block the caller on database I/O; the caller is
+ * typically an MQTT client callback thread.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ * @see community.waterlevel.iot.module.ingestion.buffer.SensorDataRingBuffer
+ */
+public interface SensorDataSink {
+
+    /**
+     * Hands a record over for persistence.
+     *
+     * @param record the record to persist
+     * @return {@code true} if accepted, {@code false} if it was dropped
+     */
+    boolean offer(SensorDataRecord record);
+}
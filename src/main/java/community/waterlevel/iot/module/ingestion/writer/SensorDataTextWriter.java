@@ -0,0 +1,250 @@
+package community.waterlevel.iot.module.ingestion.writer;
+
+import community.waterlevel.iot.config.property.IngestionProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Background writer for non-numeric metric values into {@code sensor_data_text}.
+ *
+ * <p>{@code sensor_data} only holds numbers; a String sample is written there with a
+ * null value by the main path and its value is queued here. Such samples are rare
+ * (states, firmware versions, error codes), so they are collected for up to
+ * {@code ingestion.text.flush-interval-ms} and inserted with a JDBC batch and
+ * {@code ON CONFLICT DO NOTHING} rather than through the COPY path.
+ *
+ * <p>A batch that fails to write is retried like in {@link SensorDataBatchWriter}: after
+ * a backoff doubling from {@code ingestion.writer.retry-backoff-ms} up to
+ * {@code max-retry-backoff-ms}, while new values keep queueing (and are dropped once the
+ * queue is full). It is only given up on when the database rejects it with a
+ * constraint violation or when the writer is stopping.
+ *
+ * <p>Metrics: {@code ingestion.text.rows{result=written|retried|failed|dropped}} and
+ * {@code ingestion.text.queue}.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Slf4j
+@Component
+public class SensorDataTextWriter implements SmartLifecycle {
+
+    private static final String INSERT_SQL = "INSERT INTO sensor_data_text "
+            + "(time, community_id, device_id, metric_name, metric_value, metric_version, quality) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?) ON CONFLICT DO NOTHING";
+
+    private final DataSource dataSource;
+    private final IngestionProperties.TextConfig config;
+    private final IngestionProperties.WriterConfig retryConfig;
+    private final BlockingQueue<TextSample> queue;
+
+    private final LongAdder rowsWritten = new LongAdder();
+    private final LongAdder rowsRetried = new LongAdder();
+    private final LongAdder rowsFailed = new LongAdder();
+    private final LongAdder rowsDropped = new LongAdder();
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public SensorDataTextWriter(DataSource dataSource, IngestionProperties properties, MeterRegistry meterRegistry) {
+        this.dataSource = dataSource;
+        this.config = properties.getText();
+        this.retryConfig = properties.getWriter();
+        this.queue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+
+        FunctionCounter.builder("ingestion.text.rows", rowsWritten, LongAdder::sum)
+                .tag("result", "written").register(meterRegistry);
+        FunctionCounter.builder("ingestion.text.rows", rowsRetried, LongAdder::sum)
+                .tag("result", "retried").register(meterRegistry);
+        FunctionCounter.builder("ingestion.text.rows", rowsFailed, LongAdder::sum)
+                .tag("result", "failed").register(meterRegistry);
+        FunctionCounter.builder("ingestion.text.rows", rowsDropped, LongAdder::sum)
+                .tag("result", "dropped").register(meterRegistry);
+        Gauge.builder("ingestion.text.queue", queue, BlockingQueue::size)
+                .description("Non-numeric values waiting for the text writer")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues a non-numeric value. Always {@code true} when the writer is disabled.
+     *
+     * @param time        the sample time in epoch milliseconds
+     * @param communityId the community id
+     * @param deviceId    the device id
+     * @param metricName  the metric name
+     * @param value       the value; null values are ignored
+     * @param version     the metric definition version, 0 when unknown
+     * @param quality     the sample quality
+     * @return {@code false} if the queue is full and the value was dropped
+     */
+    public boolean offer(long time, int communityId, String deviceId, String metricName, String value,
+                         int version, short quality) {
+        if (!config.isEnabled() || value == null) {
+            return true;
+        }
+        if (value.length() > config.getMaxLength()) {
+            value = value.substring(0, config.getMaxLength());
+        }
+        if (queue.offer(new TextSample(time, communityId, deviceId, metricName, value, version, quality))) {
+            return true;
+        }
+        rowsDropped.increment();
+        return false;
+    }
+
+    @Override
+    public void start() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::runLoop, "sensor-data-text");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts before and stops after the ingestion feeding it.
+     */
+    @Override
+    public int getPhase() {
+        return DEFAULT_PHASE - 2048;
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten.sum();
+    }
+
+    public long getRowsDropped() {
+        return rowsDropped.sum();
+    }
+
+    private void runLoop() {
+        List<TextSample> pending = new ArrayList<>();
+        long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(config.getFlushIntervalMs());
+        while (running) {
+            try {
+                TextSample first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                pending.add(first);
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (pending.size() < config.getBatchSize()) {
+                    queue.drainTo(pending, config.getBatchSize() - pending.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (pending.size() >= config.getBatchSize() || remaining <= 0) {
+                        break;
+                    }
+                    TextSample next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    pending.add(next);
+                }
+            } catch (InterruptedException e) {
+                running = false;
+            }
+            flush(pending);
+            pending.clear();
+        }
+        // Write whatever is still queued.
+        while (queue.drainTo(pending, config.getBatchSize()) > 0) {
+            flush(pending);
+            pending.clear();
+        }
+    }
+
+    /**
+     * Writes a batch, retrying with backoff until it is written, rejected by the
+     * database or the writer stops.
+     */
+    private void flush(List<TextSample> pending) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        long backoffMs = retryConfig.getRetryBackoffMs();
+        while (true) {
+            try {
+                insert(pending);
+                rowsWritten.add(pending.size());
+                return;
+            } catch (SQLException | RuntimeException e) {
+                if (!running || SensorDataCopier.isConstraintViolation(e)) {
+                    rowsFailed.add(pending.size());
+                    log.error("Failed to write {} sensor_data_text rows", pending.size(), e);
+                    return;
+                }
+                rowsRetried.add(pending.size());
+                log.warn("Failed to write {} sensor_data_text rows, retrying in {} ms: {}", pending.size(),
+                        backoffMs, e.getMessage());
+                try {
+                    TimeUnit.MILLISECONDS.sleep(backoffMs);
+                } catch (InterruptedException ie) {
+                    running = false;
+                }
+                backoffMs = Math.min(backoffMs * 2, retryConfig.getMaxRetryBackoffMs());
+            }
+        }
+    }
+
+    private void insert(List<TextSample> pending) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(INSERT_SQL)) {
+            for (TextSample sample : pending) {
+                statement.setTimestamp(1, new Timestamp(sample.time()));
+                statement.setInt(2, sample.communityId());
+                statement.setString(3, sample.deviceId());
+                statement.setString(4, sample.metricName());
+                statement.setString(5, sample.value());
+                if (sample.version() > 0) {
+                    statement.setInt(6, sample.version());
+                } else {
+                    statement.setNull(6, Types.INTEGER);
+                }
+                statement.setShort(7, sample.quality());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private record TextSample(long time, int communityId, String deviceId, String metricName, String value,
+                              int version, short quality) {
+    }
+}
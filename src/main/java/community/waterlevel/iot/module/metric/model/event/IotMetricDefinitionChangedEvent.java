@@ -0,0 +1,44 @@
+package community.waterlevel.iot.module.metric.model.event;
+
+import lombok.Data;
+
+/**
+ * IotMetricDefinitionChangedEvent is published after an IoT metric definition is
+ * created, updated or (soft) deleted.
+ * <p>
+ * It identifies the affected definition and its department so that in-memory
+ * definition caches can refresh exactly that entry.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Data
+public class IotMetricDefinitionChangedEvent {
+
+    /**
+     * Identifier of the metric definition that changed.
+     */
+    private Long metricId;
+
+    /**
+     * Department owning the metric definition.
+     */
+    private Long deptId;
+
+    /**
+     * Event occurrence timestamp (epoch milliseconds).
+     */
+    private long timestamp;
+
+    /**
+     * Creates a change event for the given metric definition.
+     *
+     * @param metricId the metric definition identifier
+     * @param deptId   the owning department identifier
+     */
+    public IotMetricDefinitionChangedEvent(Long metricId, Long deptId) {
+        this.metricId = metricId;
+        this.deptId = deptId;
+        this.timestamp = System.currentTimeMillis();
+    }
+}
@@ -6,6 +6,7 @@ import community.waterlevel.iot.module.metric.model.entity.IotMetricDefinition;
 import community.waterlevel.iot.module.metric.model.enums.MetricDataType;
 import community.waterlevel.iot.module.metric.model.enums.MetricUnit;
 import community.waterlevel.iot.module.metric.model.enums.PhysicalQuantity;
+import community.waterlevel.iot.module.metric.model.event.IotMetricDefinitionChangedEvent;
 import community.waterlevel.iot.module.metric.model.form.IotMetricDefinitionCreateForm;
 import community.waterlevel.iot.module.metric.model.form.IotMetricDefinitionUpdateForm;
 import community.waterlevel.iot.module.metric.repository.IotMetricDefinitionRepository;
@@ -13,6 +14,7 @@ import community.waterlevel.iot.module.metric.service.IotMetricDefinitionService
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -68,6 +70,7 @@ import java.util.Optional;
 public class IotMetricDefinitionServiceImpl implements IotMetricDefinitionService {
 
     private final IotMetricDefinitionRepository repository;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Creates a new IoT metric definition with comprehensive validation and department scoping.
@@ -126,6 +129,7 @@ public class IotMetricDefinitionServiceImpl implements IotMetricDefinitionServic
         entity.setUpdatedAt(LocalDateTime.now());
 
         IotMetricDefinition saved = repository.save(entity);
+        eventPublisher.publishEvent(new IotMetricDefinitionChangedEvent(saved.getId(), deptId));
         log.info("Successfully created IoT metric definition with ID: {}", saved.getId());
         return saved;
     }
@@ -202,6 +206,7 @@ public class IotMetricDefinitionServiceImpl implements IotMetricDefinitionServic
         entity.setUpdatedAt(LocalDateTime.now());
 
         IotMetricDefinition saved = repository.save(entity);
+        eventPublisher.publishEvent(new IotMetricDefinitionChangedEvent(saved.getId(), deptId));
         log.info("Successfully updated IoT metric definition with ID: {}", saved.getId());
         return saved;
     }
@@ -244,6 +249,7 @@ public class IotMetricDefinitionServiceImpl implements IotMetricDefinitionServic
         entity.setIsActive(false);
         entity.setUpdatedAt(LocalDateTime.now());
         repository.save(entity);
+        eventPublisher.publishEvent(new IotMetricDefinitionChangedEvent(id, deptId));
 
         log.info("Successfully soft deleted IoT metric definition with ID: {}", id);
     }
@@ -0,0 +1,112 @@
+package community.waterlevel.iot.module.sensordata.controller;
+
+import community.waterlevel.iot.common.annotation.Log;
+import community.waterlevel.iot.common.enums.LogModuleEnum;
+import community.waterlevel.iot.common.result.Result;
+import community.waterlevel.iot.module.sensordata.export.SensorDataSeriesArrowWriter;
+import community.waterlevel.iot.module.sensordata.model.SensorDataExport;
+import community.waterlevel.iot.module.sensordata.model.query.SensorDataExportQuery;
+import community.waterlevel.iot.module.sensordata.model.query.SensorDataSeriesQuery;
+import community.waterlevel.iot.module.sensordata.model.vo.SensorDataSeriesVO;
+import community.waterlevel.iot.module.sensordata.service.SensorDataExportService;
+import community.waterlevel.iot.module.sensordata.service.SensorDataSeriesService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
+
+/**
+ * SensorDataController is a REST controller for reading telemetry stored in
+ * {@code sensor_data}.
+ * <p>
+ * Series are bucketed and aggregated in the database and read from the coarsest
+ * continuous aggregate that matches the requested bucket width. Devices must belong
+ * to communities within the caller's data scope. Series reads are not audited with
+ * {@code @Log} because dashboards poll them. Analytics clients can request series as
+ * Apache Arrow instead of JSON. Raw rows can be exported as CSV or XLSX; exports are
+ * streamed, so their size is not bounded by the heap.
+ * </p>
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Tag(name = "12.Sensor Data Controller")
+@RestController
+@RequestMapping("/api/v1/sensor-data")
+@RequiredArgsConstructor
+public class SensorDataController {
+
+    private final SensorDataSeriesService sensorDataSeriesService;
+    private final SensorDataExportService sensorDataExportService;
+
+    /**
+     * Retrieves bucketed series of device metrics.
+     *
+     * <p>
+     * Example: {@code GET /api/v1/sensor-data/series?deviceIds=...&metricNames=water_level
+     * &from=2026-10-09T00:00:00Z&to=2026-10-16T00:00:00Z&interval=5m&aggregates=avg,max&fill=locf}
+     * </p>
+     *
+     * @param query the devices, metrics, range, bucket width, aggregates and gap filling
+     * @return Result containing one series per device and metric
+     */
+    @Operation(summary = "Retrieves bucketed sensor data series")
+    @GetMapping("/series")
+    public Result<List<SensorDataSeriesVO>> getSeries(@Valid SensorDataSeriesQuery query) {
+        return Result.success(sensorDataSeriesService.getSeries(query));
+    }
+
+    /**
+     * Retrieves bucketed series of device metrics as an Apache Arrow IPC stream, selected
+     * with {@code Accept: application/vnd.apache.arrow.stream}.
+     *
+     * <p>
+     * Takes the same parameters as the JSON variant and returns the points as one
+     * columnar table; see {@link SensorDataSeriesArrowWriter} for the schema. Errors are
+     * reported as JSON, so clients should also accept {@code application/json}.
+     * </p>
+     *
+     * @param query the devices, metrics, range, bucket width, aggregates and gap filling
+     * @return the stream
+     */
+    @Operation(summary = "Retrieves bucketed sensor data series as Apache Arrow")
+    @GetMapping(value = "/series", produces = SensorDataSeriesArrowWriter.MEDIA_TYPE)
+    public ResponseEntity<StreamingResponseBody> getSeriesArrow(@Valid SensorDataSeriesQuery query) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(SensorDataSeriesArrowWriter.MEDIA_TYPE))
+                .body(sensorDataSeriesService.getSeriesArrow(query));
+    }
+
+    /**
+     * Exports raw sensor data as a file download.
+     *
+     * <p>
+     * The response is written asynchronously from a database cursor; its duration is
+     * bounded by {@code spring.mvc.async.request-timeout}.
+     * </p>
+     *
+     * @param query the devices, metrics, range and format (csv or xlsx)
+     * @return the file, streamed
+     */
+    @Operation(summary = "Exports raw sensor data as CSV or XLSX")
+    @GetMapping("/export")
+    @Log(value = "Export sensor data", module = LogModuleEnum.OTHER)
+    public ResponseEntity<StreamingResponseBody> export(@Valid SensorDataExportQuery query) {
+        SensorDataExport export = sensorDataExportService.export(query);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(export.getFormat().getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(export.getFileName()).build().toString())
+                .body(export.getBody());
+    }
+}
@@ -0,0 +1,78 @@
+package community.waterlevel.iot.module.sensordata.export;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Encodes epoch milliseconds as fixed-width ISO-8601 UTC text,
+ * {@code yyyy-MM-ddTHH:mm:ss.SSSZ}, without creating objects per call.
+ *
+ * <p>The date part is cached for the current day; exported rows are in time order, so
+ * it is recomputed about once per device and day. Not thread-safe.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+final class IsoTimeEncoder {
+
+    /**
+     * Length of the encoded text.
+     */
+    static final int LENGTH = 24;
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    private final byte[] datePrefix = new byte[11];
+    private long day = Long.MIN_VALUE;
+
+    /**
+     * Encodes a time into {@code dst} as ASCII.
+     *
+     * @param timeMs epoch milliseconds, years 0000 to 9999
+     * @param dst    destination buffer
+     * @param offset position of the first byte
+     * @return the position after the last byte
+     */
+    int encode(long timeMs, byte[] dst, int offset) {
+        long epochDay = Math.floorDiv(timeMs, MILLIS_PER_DAY);
+        if (epochDay != day) {
+            byte[] date = (LocalDate.ofEpochDay(epochDay) + "T").getBytes(StandardCharsets.US_ASCII);
+            System.arraycopy(date, 0, datePrefix, 0, datePrefix.length);
+            day = epochDay;
+        }
+        System.arraycopy(datePrefix, 0, dst, offset, datePrefix.length);
+        int p = offset + datePrefix.length;
+        int millisOfDay = (int) (timeMs - epochDay * MILLIS_PER_DAY);
+        int seconds = millisOfDay / 1000;
+        p = twoDigits(seconds / 3600, dst, p);
+        dst[p++] = ':';
+        p = twoDigits(seconds / 60 % 60, dst, p);
+        dst[p++] = ':';
+        p = twoDigits(seconds % 60, dst, p);
+        dst[p++] = '.';
+        int millis = millisOfDay % 1000;
+        dst[p++] = (byte) ('0' + millis / 100);
+        dst[p++] = (byte) ('0' + millis / 10 % 10);
+        dst[p++] = (byte) ('0' + millis % 10);
+        dst[p++] = 'Z';
+        return p;
+    }
+
+    /**
+     * Encodes a time as a string.
+     *
+     * @param timeMs epoch milliseconds
+     * @return the ISO-8601 text
+     */
+    String format(long timeMs) {
+        byte[] text = new byte[LENGTH];
+        encode(timeMs, text, 0);
+        return new String(text, StandardCharsets.US_ASCII);
+    }
+
+    private static int twoDigits(int value, byte[] dst, int p) {
+        dst[p] = (byte) ('0' + value / 10);
+        dst[p + 1] = (byte) ('0' + value % 10);
+        return p + 2;
+    }
+}
@@ -0,0 +1,133 @@
+package community.waterlevel.iot.module.sensordata.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link SensorDataExportWriter} producing UTF-8 CSV.
+ *
+ * <p>Rows are encoded straight into a byte buffer that is written to the stream when
+ * full. Device ids and metric names repeat on every row, so their encoded (and, where
+ * needed, quoted) bytes are cached; numbers are formatted through a reused
+ * {@link StringBuilder}. Apart from the cache, which is cleared when it holds
+ * {@value #MAX_CACHED_TEXTS} entries, nothing is allocated per row except by
+ * {@code StringBuilder.append(double)}.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+public class SensorDataCsvWriter implements SensorDataExportWriter {
+
+    private static final byte[] HEADER = "time,community_id,device_id,metric_name,metric_value,quality\n"
+            .getBytes(StandardCharsets.US_ASCII);
+    private static final int MAX_CACHED_TEXTS = 10_000;
+    private static final int MAX_NUMBER_LENGTH = 32;
+
+    private final OutputStream out;
+    private final byte[] buffer;
+    private final IsoTimeEncoder timeEncoder = new IsoTimeEncoder();
+    private final StringBuilder number = new StringBuilder(MAX_NUMBER_LENGTH);
+    private final Map<String, byte[]> texts = new HashMap<>();
+    private int position;
+
+    /**
+     * Creates a writer and writes the header line.
+     *
+     * @param out        the output stream
+     * @param bufferSize size of the write buffer in bytes
+     * @throws IOException if the output stream fails
+     */
+    public SensorDataCsvWriter(OutputStream out, int bufferSize) throws IOException {
+        this.out = out;
+        this.buffer = new byte[Math.max(bufferSize, 1024)];
+        write(HEADER);
+    }
+
+    @Override
+    public void writeRow(long timeMs, long communityId, String deviceId, String metricName, double value,
+                         boolean present, int quality) throws IOException {
+        ensure(IsoTimeEncoder.LENGTH + 1);
+        position = timeEncoder.encode(timeMs, buffer, position);
+        buffer[position++] = ',';
+        number.setLength(0);
+        writeNumber(number.append(communityId));
+        write(',');
+        write(encoded(deviceId));
+        write(',');
+        write(encoded(metricName));
+        write(',');
+        if (present) {
+            number.setLength(0);
+            writeNumber(number.append(value));
+        }
+        write(',');
+        number.setLength(0);
+        writeNumber(number.append(quality));
+        write('\n');
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+        out.flush();
+    }
+
+    private void writeNumber(StringBuilder digits) throws IOException {
+        int length = digits.length();
+        ensure(length);
+        for (int i = 0; i < length; i++) {
+            buffer[position++] = (byte) digits.charAt(i);
+        }
+    }
+
+    private void write(int b) throws IOException {
+        ensure(1);
+        buffer[position++] = (byte) b;
+    }
+
+    private void write(byte[] bytes) throws IOException {
+        if (bytes.length > buffer.length) {
+            finish();
+            out.write(bytes);
+            return;
+        }
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    private void ensure(int length) throws IOException {
+        if (position + length > buffer.length) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+    private byte[] encoded(String text) {
+        byte[] bytes = texts.get(text);
+        if (bytes == null) {
+            if (texts.size() >= MAX_CACHED_TEXTS) {
+                texts.clear();
+            }
+            bytes = escape(text).getBytes(StandardCharsets.UTF_8);
+            texts.put(text, bytes);
+        }
+        return bytes;
+    }
+
+    /**
+     * Quotes a field containing a separator, quote or line break (RFC 4180).
+     */
+    private static String escape(String text) {
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
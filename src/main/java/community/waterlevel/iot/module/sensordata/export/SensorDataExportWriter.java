@@ -0,0 +1,38 @@
+package community.waterlevel.iot.module.sensordata.export;
+
+import java.io.IOException;
+
+/**
+ * Writes exported sensor data rows to an output stream in one file format.
+ *
+ * <p>Implementations keep a bounded amount of state, so memory use does not depend on
+ * the number of rows. Columns: time (ISO-8601, UTC), community_id, device_id,
+ * metric_name, metric_value (empty when non-numeric) and quality.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+public interface SensorDataExportWriter {
+
+    /**
+     * Writes one row.
+     *
+     * @param timeMs      sample time (epoch milliseconds)
+     * @param communityId community of the sample
+     * @param deviceId    device identifier
+     * @param metricName  metric name
+     * @param value       metric value, ignored when {@code present} is false
+     * @param present     whether the sample has a numeric value
+     * @param quality     quality code (0=Good, 1=Uncertain, 2=Bad)
+     * @throws IOException if the output stream fails, e.g. the client disconnected
+     */
+    void writeRow(long timeMs, long communityId, String deviceId, String metricName, double value,
+                  boolean present, int quality) throws IOException;
+
+    /**
+     * Completes the file and flushes it; the output stream is left open.
+     *
+     * @throws IOException if the output stream fails
+     */
+    void finish() throws IOException;
+}
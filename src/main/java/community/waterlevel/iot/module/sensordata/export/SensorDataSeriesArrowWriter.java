@@ -0,0 +1,243 @@
+package community.waterlevel.iot.module.sensordata.export;
+
+import community.waterlevel.iot.module.sensordata.model.SeriesPlan;
+import community.waterlevel.iot.module.sensordata.model.SeriesPointHandler;
+import community.waterlevel.iot.module.sensordata.model.enums.SensorDataAggregate;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.util.AutoCloseables;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.TimeStampMilliTZVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.dictionary.Dictionary;
+import org.apache.arrow.vector.dictionary.DictionaryProvider;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.types.FloatingPointPrecision;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.DictionaryEncoding;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.springframework.util.StreamUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes sensor data series as an Apache Arrow IPC stream
+ * ({@value #MEDIA_TYPE}).
+ *
+ * <p>The stream holds one table in long form, one row per point, ordered by device,
+ * metric and time:
+ * <ul>
+ *   <li>{@code device_id}, {@code metric_name}: dictionary-encoded strings (int32
+ *   indexes), so each identifier is sent once per response;</li>
+ *   <li>{@code time}: bucket start, {@code timestamp[ms, UTC]};</li>
+ *   <li>one nullable {@code float64} column per requested aggregate, named after it.</li>
+ * </ul>
+ * The schema metadata carries {@code interval_ms} and {@code source}, as in the JSON
+ * response. Points are copied into primitive vectors as they arrive and sent as a
+ * record batch every {@code batchSize} rows, so at most one batch is held in memory.
+ *
+ * <p>Not thread-safe; one writer per response. {@link #onPoint} reports write failures
+ * as {@link UncheckedIOException}.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+public class SensorDataSeriesArrowWriter implements SeriesPointHandler, Closeable {
+
+    /**
+     * Media type of Arrow IPC streams.
+     */
+    public static final String MEDIA_TYPE = "application/vnd.apache.arrow.stream";
+
+    private static final ArrowType INDEX_TYPE = new ArrowType.Int(32, true);
+
+    private final BufferAllocator allocator;
+    private final VarCharVector deviceDictionary;
+    private final VarCharVector metricDictionary;
+    private final VectorSchemaRoot root;
+    private final ArrowStreamWriter writer;
+    private final IntVector deviceVector;
+    private final IntVector metricVector;
+    private final TimeStampMilliTZVector timeVector;
+    private final Float8Vector[] valueVectors;
+    private final Map<String, Integer> deviceIndexes;
+    private final Map<String, Integer> metricIndexes;
+    private final int batchSize;
+
+    private String lastDeviceId;
+    private int lastDeviceIndex;
+    private String lastMetricName;
+    private int lastMetricIndex;
+    private int rows;
+    private long points;
+
+    /**
+     * Creates a writer; nothing is written before {@link #start()}.
+     *
+     * @param out         the destination; it is not closed
+     * @param plan        the plan of the series
+     * @param deviceIds   device identifiers as stored in {@code sensor_data.device_id}
+     * @param metricNames metric names
+     * @param aggregates  the aggregates of each point, in order
+     * @param batchSize   rows per record batch
+     */
+    public SensorDataSeriesArrowWriter(OutputStream out, SeriesPlan plan, Collection<String> deviceIds,
+                                       Collection<String> metricNames, List<SensorDataAggregate> aggregates,
+                                       int batchSize) {
+        this.batchSize = batchSize;
+        this.allocator = new RootAllocator();
+        this.deviceIndexes = new HashMap<>();
+        this.metricIndexes = new HashMap<>();
+        this.deviceDictionary = dictionary("device_id", deviceIds, deviceIndexes);
+        this.metricDictionary = dictionary("metric_name", metricNames, metricIndexes);
+        DictionaryEncoding deviceEncoding = new DictionaryEncoding(0, false, INDEX_TYPE);
+        DictionaryEncoding metricEncoding = new DictionaryEncoding(1, false, INDEX_TYPE);
+        DictionaryProvider.MapDictionaryProvider dictionaries = new DictionaryProvider.MapDictionaryProvider();
+        dictionaries.put(new Dictionary(deviceDictionary, deviceEncoding));
+        dictionaries.put(new Dictionary(metricDictionary, metricEncoding));
+
+        List<Field> fields = new ArrayList<>(aggregates.size() + 3);
+        fields.add(new Field("device_id", new FieldType(false, INDEX_TYPE, deviceEncoding), null));
+        fields.add(new Field("metric_name", new FieldType(false, INDEX_TYPE, metricEncoding), null));
+        fields.add(new Field("time",
+                FieldType.notNullable(new ArrowType.Timestamp(TimeUnit.MILLISECOND, "UTC")), null));
+        for (SensorDataAggregate aggregate : aggregates) {
+            fields.add(new Field(aggregate.name().toLowerCase(),
+                    FieldType.nullable(new ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE)), null));
+        }
+        Schema schema = new Schema(fields, Map.of(
+                "interval_ms", Long.toString(plan.getBucketMs()),
+                "source", plan.getRollup().getRelation()));
+
+        this.root = VectorSchemaRoot.create(schema, allocator);
+        this.deviceVector = (IntVector) root.getVector(0);
+        this.metricVector = (IntVector) root.getVector(1);
+        this.timeVector = (TimeStampMilliTZVector) root.getVector(2);
+        this.valueVectors = new Float8Vector[aggregates.size()];
+        for (int i = 0; i < valueVectors.length; i++) {
+            valueVectors[i] = (Float8Vector) root.getVector(i + 3);
+        }
+        for (FieldVector vector : root.getFieldVectors()) {
+            vector.setInitialCapacity(batchSize);
+            vector.allocateNew();
+        }
+        this.writer = new ArrowStreamWriter(root, dictionaries, Channels.newChannel(StreamUtils.nonClosing(out)));
+    }
+
+    /**
+     * Writes the schema and the dictionaries.
+     *
+     * @throws IOException if the destination fails
+     */
+    public void start() throws IOException {
+        writer.start();
+    }
+
+    @Override
+    public void onPoint(String deviceId, String metricName, long timeMs, double[] values) {
+        if (!deviceId.equals(lastDeviceId)) {
+            Integer index = deviceIndexes.get(deviceId);
+            if (index == null) {
+                return;
+            }
+            lastDeviceId = deviceId;
+            lastDeviceIndex = index;
+        }
+        if (!metricName.equals(lastMetricName)) {
+            Integer index = metricIndexes.get(metricName);
+            if (index == null) {
+                return;
+            }
+            lastMetricName = metricName;
+            lastMetricIndex = index;
+        }
+        int row = rows;
+        deviceVector.setSafe(row, lastDeviceIndex);
+        metricVector.setSafe(row, lastMetricIndex);
+        timeVector.setSafe(row, timeMs);
+        for (int i = 0; i < valueVectors.length; i++) {
+            double value = values[i];
+            if (Double.isNaN(value)) {
+                valueVectors[i].setNull(row);
+            } else {
+                valueVectors[i].setSafe(row, value);
+            }
+        }
+        rows = row + 1;
+        points++;
+        if (rows == batchSize) {
+            try {
+                flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Writes the pending rows and the end-of-stream marker.
+     *
+     * @throws IOException if the destination fails
+     */
+    public void finish() throws IOException {
+        if (rows > 0) {
+            flush();
+        }
+        writer.end();
+    }
+
+    /**
+     * Returns the number of points written.
+     *
+     * @return the point count
+     */
+    public long getPoints() {
+        return points;
+    }
+
+    /**
+     * Releases the Arrow buffers.
+     */
+    @Override
+    public void close() {
+        try {
+            AutoCloseables.close(writer, root, deviceDictionary, metricDictionary, allocator);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to release Arrow buffers", e);
+        }
+    }
+
+    private void flush() throws IOException {
+        root.setRowCount(rows);
+        writer.writeBatch();
+        rows = 0;
+    }
+
+    private VarCharVector dictionary(String name, Collection<String> values, Map<String, Integer> indexes) {
+        VarCharVector vector = new VarCharVector(name, allocator);
+        vector.allocateNew(values.size());
+        int i = 0;
+        for (String value : values) {
+            vector.setSafe(i, value.getBytes(StandardCharsets.UTF_8));
+            indexes.put(value, i++);
+        }
+        vector.setValueCount(i);
+        return vector;
+    }
+}
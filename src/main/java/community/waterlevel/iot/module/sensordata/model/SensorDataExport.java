@@ -0,0 +1,36 @@
+package community.waterlevel.iot.module.sensordata.model;
+
+import community.waterlevel.iot.module.sensordata.model.enums.SensorDataExportFormat;
+import lombok.Getter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * An authorized sensor data export, ready to be streamed to the client.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Getter
+public class SensorDataExport {
+
+    /**
+     * File format.
+     */
+    private final SensorDataExportFormat format;
+
+    /**
+     * Suggested file name, including the extension.
+     */
+    private final String fileName;
+
+    /**
+     * Writes the file; runs on an MVC async thread after the handler has returned.
+     */
+    private final StreamingResponseBody body;
+
+    public SensorDataExport(SensorDataExportFormat format, String fileName, StreamingResponseBody body) {
+        this.format = format;
+        this.fileName = fileName;
+        this.body = body;
+    }
+}
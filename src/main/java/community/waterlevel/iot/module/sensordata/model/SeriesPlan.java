@@ -0,0 +1,56 @@
+package community.waterlevel.iot.module.sensordata.model;
+
+import community.waterlevel.iot.module.sensordata.model.enums.SensorDataRollup;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * How a sensor data series is read: the time range, the bucket width of the returned
+ * points and the relation the buckets are aggregated from.
+ *
+ * <p>{@code from} is aligned down and {@code to} up to the bucket width, so the first
+ * and last buckets are complete.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Getter
+@ToString
+public class SeriesPlan {
+
+    /**
+     * Inclusive range start (epoch milliseconds), aligned to the bucket width.
+     */
+    private final long fromMs;
+
+    /**
+     * Exclusive range end (epoch milliseconds), aligned to the bucket width.
+     */
+    private final long toMs;
+
+    /**
+     * Width of one returned point in milliseconds.
+     */
+    private final long bucketMs;
+
+    /**
+     * Relation the buckets are computed from.
+     */
+    private final SensorDataRollup rollup;
+
+    public SeriesPlan(long fromMs, long toMs, long bucketMs, SensorDataRollup rollup) {
+        this.fromMs = fromMs;
+        this.toMs = toMs;
+        this.bucketMs = bucketMs;
+        this.rollup = rollup;
+    }
+
+    /**
+     * Returns the number of buckets in the range.
+     *
+     * @return the bucket count
+     */
+    public long getBucketCount() {
+        return (toMs - fromMs) / bucketMs;
+    }
+}
@@ -0,0 +1,24 @@
+package community.waterlevel.iot.module.sensordata.model;
+
+/**
+ * Receives the points of sensor data series, one call per bucket. Points arrive
+ * grouped by device and metric, each series in time order.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@FunctionalInterface
+public interface SeriesPointHandler {
+
+    /**
+     * Handles one point.
+     *
+     * @param deviceId   the device identifier as stored in {@code sensor_data.device_id}
+     * @param metricName the metric name
+     * @param timeMs     bucket start (epoch milliseconds)
+     * @param values     one value per requested aggregate, in request order; {@code NaN}
+     *                   when the bucket has no numeric sample. The array is reused for the
+     *                   next point and must not be retained.
+     */
+    void onPoint(String deviceId, String metricName, long timeMs, double[] values);
+}
@@ -0,0 +1,75 @@
+package community.waterlevel.iot.module.sensordata.model.enums;
+
+/**
+ * Enumeration of the per-bucket aggregates of a sensor data series.
+ *
+ * <p>Each aggregate has one SQL expression over raw {@code sensor_data} samples and one
+ * that re-aggregates rollup rows; both give the same result for the same samples.
+ * Non-numeric samples ({@code metric_value IS NULL}) are ignored by every aggregate.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+public enum SensorDataAggregate {
+
+    /**
+     * Mean value.
+     */
+    AVG("avg(metric_value)", "sum(sum_value) / NULLIF(sum(sample_count), 0)"),
+
+    /**
+     * Minimum value.
+     */
+    MIN("min(metric_value)", "min(min_value)"),
+
+    /**
+     * Maximum value.
+     */
+    MAX("max(metric_value)", "max(max_value)"),
+
+    /**
+     * Value of the newest sample.
+     */
+    LAST("last(metric_value, time)", "last(last_value, last_time)"),
+
+    /**
+     * Number of numeric samples.
+     */
+    COUNT("count(metric_value)", "sum(sample_count)");
+
+    private final String rawExpression;
+    private final String rollupExpression;
+
+    SensorDataAggregate(String rawExpression, String rollupExpression) {
+        this.rawExpression = rawExpression;
+        this.rollupExpression = rollupExpression;
+    }
+
+    /**
+     * Returns the SQL expression computing this aggregate from the given relation.
+     *
+     * @param rollup the relation the series is read from
+     * @return the SQL expression
+     */
+    public String expression(SensorDataRollup rollup) {
+        return rollup == SensorDataRollup.RAW ? rawExpression : rollupExpression;
+    }
+
+    /**
+     * Case-insensitive conversion from a request parameter.
+     *
+     * @param name the aggregate name, e.g. {@code avg}
+     * @return the aggregate, or null if unknown
+     */
+    public static SensorDataAggregate fromString(String name) {
+        if (name == null) {
+            return null;
+        }
+        for (SensorDataAggregate aggregate : values()) {
+            if (aggregate.name().equalsIgnoreCase(name.trim())) {
+                return aggregate;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,64 @@
+package community.waterlevel.iot.module.sensordata.model.enums;
+
+/**
+ * Enumeration of the file formats sensor data can be exported to.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+public enum SensorDataExportFormat {
+
+    /**
+     * Comma-separated values, UTF-8, one header line.
+     */
+    CSV("text/csv;charset=UTF-8", "csv"),
+
+    /**
+     * Office Open XML workbook, split into sheets of at most 1,048,575 rows.
+     */
+    XLSX("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "xlsx");
+
+    private final String contentType;
+    private final String extension;
+
+    SensorDataExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    /**
+     * Returns the response content type.
+     *
+     * @return the MIME type
+     */
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * Returns the file name extension, without the dot.
+     *
+     * @return the extension
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Case-insensitive conversion from a request parameter.
+     *
+     * @param name the format name, e.g. {@code csv}
+     * @return the format, or null if unknown
+     */
+    public static SensorDataExportFormat fromString(String name) {
+        if (name == null) {
+            return null;
+        }
+        for (SensorDataExportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name.trim())) {
+                return format;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,82 @@
+package community.waterlevel.iot.module.sensordata.model.enums;
+
+/**
+ * Enumeration of the relations a sensor data series can be read from.
+ *
+ * <p>{@link #RAW} is the {@code sensor_data} hypertable; the others are the continuous
+ * aggregates created by {@code step_7_create_sensor_data_rollups.sql}, each holding one
+ * row per device, metric and bucket. Constants are ordered from finest to coarsest.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+public enum SensorDataRollup {
+
+    /**
+     * Raw samples.
+     */
+    RAW("sensor_data", "time", 0L),
+
+    /**
+     * 1-minute rollup.
+     */
+    MINUTE("sensor_data_1m", "bucket", 60_000L),
+
+    /**
+     * 1-hour rollup.
+     */
+    HOUR("sensor_data_1h", "bucket", 3_600_000L),
+
+    /**
+     * 1-day rollup (UTC days).
+     */
+    DAY("sensor_data_1d", "bucket", 86_400_000L);
+
+    private final String relation;
+    private final String timeColumn;
+    private final long widthMs;
+
+    SensorDataRollup(String relation, String timeColumn, long widthMs) {
+        this.relation = relation;
+        this.timeColumn = timeColumn;
+        this.widthMs = widthMs;
+    }
+
+    /**
+     * Returns the table or view name.
+     *
+     * @return the relation name
+     */
+    public String getRelation() {
+        return relation;
+    }
+
+    /**
+     * Returns the column holding the sample time or bucket start.
+     *
+     * @return the column name
+     */
+    public String getTimeColumn() {
+        return timeColumn;
+    }
+
+    /**
+     * Returns the bucket width in milliseconds, 0 for raw samples.
+     *
+     * @return the bucket width
+     */
+    public long getWidthMs() {
+        return widthMs;
+    }
+
+    /**
+     * Whether a series bucketed by {@code bucketMs} can be computed exactly from this
+     * relation, i.e. the bucket width is a multiple of the rollup width.
+     *
+     * @param bucketMs the series bucket width in milliseconds
+     * @return {@code true} if every series bucket covers whole rollup buckets
+     */
+    public boolean supports(long bucketMs) {
+        return widthMs == 0 || (bucketMs >= widthMs && bucketMs % widthMs == 0);
+    }
+}
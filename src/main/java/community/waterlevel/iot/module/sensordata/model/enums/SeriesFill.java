@@ -0,0 +1,86 @@
+package community.waterlevel.iot.module.sensordata.model.enums;
+
+/**
+ * Enumeration of how buckets without samples are returned in a sensor data series.
+ *
+ * <p>Every mode except {@link #NONE} buckets with {@code time_bucket_gapfill}, so the
+ * series has exactly one point per bucket of the range. Counts of empty buckets are
+ * always 0; {@link #LOCF} and {@link #INTERPOLATE} apply to the value aggregates only.
+ * Gaps before the first sample of the range stay empty.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+public enum SeriesFill {
+
+    /**
+     * Only buckets holding samples are returned.
+     */
+    NONE,
+
+    /**
+     * Empty buckets are returned with null values.
+     */
+    NULL,
+
+    /**
+     * Empty buckets carry the previous bucket's value (last observation carried forward).
+     */
+    LOCF,
+
+    /**
+     * Empty buckets are linearly interpolated between their neighbours.
+     */
+    INTERPOLATE;
+
+    /**
+     * Whether the series is bucketed with {@code time_bucket_gapfill}.
+     *
+     * @return {@code true} for every mode except {@link #NONE}
+     */
+    public boolean isGapfill() {
+        return this != NONE;
+    }
+
+    /**
+     * Wraps the SQL expression of an aggregate with the gap-filling function of this mode.
+     *
+     * @param aggregate  the aggregate
+     * @param expression its SQL expression
+     * @return the wrapped expression
+     */
+    public String apply(SensorDataAggregate aggregate, String expression) {
+        if (this == NONE) {
+            return expression;
+        }
+        if (aggregate == SensorDataAggregate.COUNT) {
+            return "COALESCE(" + expression + ", 0)";
+        }
+        switch (this) {
+            case LOCF:
+                return "locf(" + expression + ")";
+            case INTERPOLATE:
+                return "interpolate(" + expression + ")";
+            default:
+                return expression;
+        }
+    }
+
+    /**
+     * Case-insensitive conversion from a request parameter.
+     *
+     * @param name the mode name, e.g. {@code locf}
+     * @return the mode, or null if unknown
+     */
+    public static SeriesFill fromString(String name) {
+        if (name == null) {
+            return null;
+        }
+        for (SeriesFill fill : values()) {
+            if (fill.name().equalsIgnoreCase(name.trim())) {
+                return fill;
+            }
+        }
+        return null;
+    }
+}
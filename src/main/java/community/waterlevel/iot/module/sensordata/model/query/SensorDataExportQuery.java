@@ -0,0 +1,61 @@
+package community.waterlevel.iot.module.sensordata.model.query;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Query object for exporting raw sensor data.
+ *
+ * <p>Rows are exported per device, each device in time order. Times are ISO-8601
+ * instants, e.g. {@code 2026-07-01T00:00:00+08:00}.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ * @see community.waterlevel.iot.module.sensordata.service.SensorDataExportService#export(SensorDataExportQuery)
+ */
+@Schema(description = "Sensor data export query object")
+@Data
+public class SensorDataExportQuery {
+
+    /**
+     * Devices to export.
+     */
+    @Schema(description = "Device IDs")
+    @NotEmpty
+    private List<UUID> deviceIds;
+
+    /**
+     * Metrics to export; all metrics when empty.
+     */
+    @Schema(description = "Metric names (all when empty)", example = "water_level")
+    private List<String> metricNames;
+
+    /**
+     * Inclusive range start.
+     */
+    @Schema(description = "Range start (ISO-8601)", example = "2026-07-01T00:00:00+08:00")
+    @NotNull
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private Instant from;
+
+    /**
+     * Exclusive range end.
+     */
+    @Schema(description = "Range end (ISO-8601)", example = "2026-10-01T00:00:00+08:00")
+    @NotNull
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private Instant to;
+
+    /**
+     * File format: csv or xlsx. Defaults to csv.
+     */
+    @Schema(description = "Format: csv|xlsx", example = "csv")
+    private String format;
+}
@@ -0,0 +1,86 @@
+package community.waterlevel.iot.module.sensordata.model.query;
+
+import community.waterlevel.iot.module.sensordata.support.LttbDownsampler;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Query object for reading bucketed sensor data series.
+ *
+ * <p>One series is returned for every combination of the requested devices and
+ * metrics. Times are ISO-8601 instants, e.g. {@code 2026-10-09T00:00:00+08:00}.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ * @see community.waterlevel.iot.module.sensordata.service.SensorDataSeriesService#getSeries(SensorDataSeriesQuery)
+ */
+@Schema(description = "Sensor data series query object")
+@Data
+public class SensorDataSeriesQuery {
+
+    /**
+     * Devices to read.
+     */
+    @Schema(description = "Device IDs")
+    @NotEmpty
+    private List<UUID> deviceIds;
+
+    /**
+     * Metrics to read, e.g. {@code water_level}.
+     */
+    @Schema(description = "Metric names", example = "water_level")
+    @NotEmpty
+    private List<String> metricNames;
+
+    /**
+     * Inclusive range start.
+     */
+    @Schema(description = "Range start (ISO-8601)", example = "2026-10-09T00:00:00+08:00")
+    @NotNull
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private Instant from;
+
+    /**
+     * Exclusive range end.
+     */
+    @Schema(description = "Range end (ISO-8601)", example = "2026-10-16T00:00:00+08:00")
+    @NotNull
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private Instant to;
+
+    /**
+     * Bucket width, e.g. {@code 30s}, {@code 5m}, {@code 1h}, {@code 1d}. Derived from
+     * the range when absent; widened when the series would exceed the point limit.
+     */
+    @Schema(description = "Bucket width: <n>ms|s|m|h|d|w", example = "5m")
+    private String interval;
+
+    /**
+     * Aggregates computed per bucket: avg, min, max, last, count. Defaults to avg.
+     */
+    @Schema(description = "Aggregates: avg|min|max|last|count", example = "avg")
+    private List<String> aggregates;
+
+    /**
+     * Gap filling: none, null, locf or interpolate. Defaults to none.
+     */
+    @Schema(description = "Gap filling: none|null|locf|interpolate", example = "none")
+    private String fill;
+
+    /**
+     * Maximum points per series. Series are read at the finest resolution allowed (or at
+     * {@link #interval}) and reduced to this many points with LTTB, which keeps peaks
+     * that wider buckets would average away. JSON responses only.
+     */
+    @Schema(description = "Maximum points per series, downsampled with LTTB", example = "1000")
+    @Min(LttbDownsampler.MIN_THRESHOLD)
+    private Integer maxPoints;
+}
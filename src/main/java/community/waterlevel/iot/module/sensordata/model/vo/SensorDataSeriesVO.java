@@ -0,0 +1,71 @@
+package community.waterlevel.iot.module.sensordata.model.vo;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * View Object (VO) for one bucketed sensor data series.
+ *
+ * <p>Points are returned column-wise: {@code times[i]} is the start of bucket {@code i}
+ * and {@code values.get(aggregate)[i]} its value, null when the bucket holds no numeric
+ * sample. Downsampled series keep a subset of the buckets, so their times are no
+ * longer evenly spaced.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Data
+@Schema(description = "Bucketed sensor data series")
+public class SensorDataSeriesVO {
+
+    /**
+     * Device identifier.
+     */
+    @Schema(description = "Device ID")
+    private UUID deviceId;
+
+    /**
+     * Community (department) the device belongs to.
+     */
+    @Schema(description = "Department ID")
+    private Long deptId;
+
+    /**
+     * Metric name.
+     */
+    @Schema(description = "Metric name")
+    private String metricName;
+
+    /**
+     * Bucket width in milliseconds.
+     */
+    @Schema(description = "Bucket width (ms)")
+    private long intervalMs;
+
+    /**
+     * Relation the buckets were computed from: sensor_data, sensor_data_1m, _1h or _1d.
+     */
+    @Schema(description = "Source relation")
+    private String source;
+
+    /**
+     * Whether the buckets were reduced with LTTB.
+     */
+    @Schema(description = "Whether the points were downsampled with LTTB")
+    private boolean downsampled;
+
+    /**
+     * Bucket start times (epoch milliseconds).
+     */
+    @Schema(description = "Bucket start times (epoch ms)")
+    private long[] times;
+
+    /**
+     * Values per aggregate name, aligned with {@link #times}.
+     */
+    @Schema(description = "Values per aggregate, aligned with times")
+    private Map<String, Double[]> values;
+}
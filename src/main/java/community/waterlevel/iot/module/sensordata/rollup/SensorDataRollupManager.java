@@ -0,0 +1,169 @@
+package community.waterlevel.iot.module.sensordata.rollup;
+
+import community.waterlevel.iot.config.property.SensorDataProperties;
+import community.waterlevel.iot.module.ingestion.model.event.SensorDataBackfilledEvent;
+import community.waterlevel.iot.module.sensordata.model.enums.SensorDataRollup;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps track of the sensor data continuous aggregates.
+ *
+ * <p>On startup the rollups present in the database are detected, so queries are never
+ * routed to a view that does not exist (e.g. before {@code step_7} has been applied).
+ * Rollups are otherwise maintained by their TimescaleDB refresh policies, whose windows
+ * only cover recent buckets. Late samples written by the backfill writer can be older;
+ * their time ranges are collected from {@link SensorDataBackfilledEvent}s and refreshed
+ * every {@code sensor-data.rollup.refresh-interval-ms}, finest rollup first because each
+ * level is aggregated from the previous one.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Slf4j
+@Component
+public class SensorDataRollupManager implements SmartLifecycle {
+
+    private static final String SELECT_ROLLUPS = "SELECT view_name FROM timescaledb_information.continuous_aggregates";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SensorDataProperties.RollupConfig config;
+
+    private volatile Set<SensorDataRollup> available = EnumSet.noneOf(SensorDataRollup.class);
+    private long dirtyFromMs = Long.MAX_VALUE;
+    private long dirtyToMs = Long.MIN_VALUE;
+
+    private ScheduledExecutorService scheduler;
+    private volatile boolean running;
+
+    public SensorDataRollupManager(JdbcTemplate jdbcTemplate, SensorDataProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.config = properties.getRollup();
+    }
+
+    /**
+     * Whether queries may read the given relation. Raw samples are always available.
+     *
+     * @param rollup the relation
+     * @return {@code true} if the relation exists and rollup routing is enabled
+     */
+    public boolean isAvailable(SensorDataRollup rollup) {
+        return rollup == SensorDataRollup.RAW || (config.isEnabled() && available.contains(rollup));
+    }
+
+    /**
+     * Detects the continuous aggregates present in the database.
+     *
+     * @return the rollups found
+     */
+    public Set<SensorDataRollup> detect() {
+        Set<SensorDataRollup> found = EnumSet.noneOf(SensorDataRollup.class);
+        for (String view : jdbcTemplate.queryForList(SELECT_ROLLUPS, String.class)) {
+            for (SensorDataRollup rollup : SensorDataRollup.values()) {
+                if (rollup != SensorDataRollup.RAW && rollup.getRelation().equals(view)) {
+                    found.add(rollup);
+                }
+            }
+        }
+        available = found;
+        return found;
+    }
+
+    /**
+     * Records the time range of backfilled samples for the next refresh.
+     *
+     * @param event the backfill event
+     */
+    @EventListener
+    public synchronized void onBackfilled(SensorDataBackfilledEvent event) {
+        dirtyFromMs = Math.min(dirtyFromMs, event.getFromMs());
+        dirtyToMs = Math.max(dirtyToMs, event.getToMs());
+    }
+
+    /**
+     * Refreshes every available rollup over the ranges recorded since the previous call.
+     * Buckets not yet closed are left to the refresh policies.
+     *
+     * @return {@code true} if a range was refreshed
+     */
+    public boolean refresh() {
+        long from;
+        long to;
+        synchronized (this) {
+            if (dirtyFromMs > dirtyToMs) {
+                return false;
+            }
+            from = dirtyFromMs;
+            to = dirtyToMs;
+            dirtyFromMs = Long.MAX_VALUE;
+            dirtyToMs = Long.MIN_VALUE;
+        }
+        long now = System.currentTimeMillis();
+        try {
+            for (SensorDataRollup rollup : available) {
+                long width = rollup.getWidthMs();
+                long start = Math.floorDiv(from, width) * width;
+                long end = Math.min(Math.floorDiv(to, width) * width + width, Math.floorDiv(now, width) * width);
+                if (start < end) {
+                    jdbcTemplate.update("CALL refresh_continuous_aggregate('" + rollup.getRelation()
+                                    + "', CAST(? AS timestamptz), CAST(? AS timestamptz))",
+                            new Timestamp(start), new Timestamp(end));
+                }
+            }
+            log.debug("Refreshed sensor data rollups from {} to {}", from, to);
+            return true;
+        } catch (RuntimeException e) {
+            // Keep the range for the next attempt
+            onBackfilled(new SensorDataBackfilledEvent(from, to, 0));
+            throw e;
+        }
+    }
+
+    @Override
+    public void start() {
+        try {
+            log.info("Sensor data rollups available: {}", detect());
+        } catch (Exception e) {
+            log.warn("Could not detect sensor data rollups, series are read from sensor_data: {}", e.getMessage());
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "sensor-data-rollup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = config.getRefreshIntervalMs();
+        scheduler.scheduleWithFixedDelay(this::refreshQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            log.error("Sensor data rollup refresh failed", e);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package community.waterlevel.iot.module.sensordata.rollup;
+
+import community.waterlevel.iot.common.exception.BusinessException;
+import community.waterlevel.iot.common.result.ResultCode;
+import community.waterlevel.iot.config.property.SensorDataProperties;
+import community.waterlevel.iot.module.sensordata.model.SeriesPlan;
+import community.waterlevel.iot.module.sensordata.model.enums.SensorDataRollup;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Chooses the bucket width and source relation of a sensor data series.
+ *
+ * <p>The bucket width is the requested interval as given, unless the series would then
+ * exceed {@code sensor-data.series.max-points} points. Otherwise, and when no interval
+ * is requested, it is the range divided by {@code sensor-data.series.default-points}
+ * (or {@code max-points}) rounded up to the next step of a calendar-friendly ladder
+ * (1 s ... 1 week). The series is then read from the coarsest
+ * available rollup whose buckets tile the series buckets exactly, falling back to raw
+ * samples. A one-year chart at 10,000 points gets 1-hour buckets read from
+ * {@code sensor_data_1h}: 8,760 rows per series.
+ *
+ * <p>Buckets are aligned to {@link #BUCKET_ORIGIN_MS}, the default origin of
+ * {@code time_bucket} and {@code time_bucket_gapfill}, so week buckets start on Mondays.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Component
+@RequiredArgsConstructor
+public class SensorDataRollupRouter {
+
+    private static final long SECOND = 1000L;
+    private static final long MINUTE = 60 * SECOND;
+    private static final long HOUR = 60 * MINUTE;
+    private static final long DAY = 24 * HOUR;
+    private static final long WEEK = 7 * DAY;
+
+    /**
+     * Bucket origin: 2000-01-03T00:00:00Z, a Monday.
+     */
+    public static final long BUCKET_ORIGIN_MS = 946_857_600_000L;
+
+    private static final long[] BUCKET_LADDER = {
+            SECOND, 5 * SECOND, 10 * SECOND, 15 * SECOND, 30 * SECOND,
+            MINUTE, 5 * MINUTE, 10 * MINUTE, 15 * MINUTE, 30 * MINUTE,
+            HOUR, 2 * HOUR, 3 * HOUR, 6 * HOUR, 12 * HOUR,
+            DAY, WEEK
+    };
+
+    private final SensorDataProperties properties;
+    private final SensorDataRollupManager rollupManager;
+
+    /**
+     * Plans a series query.
+     *
+     * @param fromMs     inclusive range start (epoch milliseconds)
+     * @param toMs       exclusive range end (epoch milliseconds)
+     * @param intervalMs requested bucket width in milliseconds, or null to derive it from the range
+     * @return the plan
+     * @throws BusinessException if the range is empty or the interval is not positive
+     */
+    public SeriesPlan plan(long fromMs, long toMs, Long intervalMs) {
+        if (toMs <= fromMs) {
+            throw new BusinessException(ResultCode.REQUEST_PARAMETER_VALUE_EXCEEDS_ALLOWED_RANGE,
+                    "The end of the range must be after its start");
+        }
+        if (intervalMs != null && intervalMs <= 0) {
+            throw new BusinessException(ResultCode.REQUEST_PARAMETER_VALUE_EXCEEDS_ALLOWED_RANGE,
+                    "The interval must be positive");
+        }
+        SensorDataProperties.SeriesConfig config = properties.getSeries();
+        long range = toMs - fromMs;
+        long minBucket = ceilDiv(range, config.getMaxPoints());
+        long bucket;
+        if (intervalMs != null && intervalMs >= minBucket) {
+            bucket = intervalMs;
+        } else {
+            long derived = intervalMs != null ? minBucket : ceilDiv(range, config.getDefaultPoints());
+            bucket = roundUp(Math.max(derived, minBucket));
+        }
+
+        SensorDataRollup source = SensorDataRollup.RAW;
+        for (SensorDataRollup rollup : SensorDataRollup.values()) {
+            if (rollup.supports(bucket) && rollupManager.isAvailable(rollup)) {
+                source = rollup;
+            }
+        }
+        long from = Math.floorDiv(fromMs - BUCKET_ORIGIN_MS, bucket) * bucket + BUCKET_ORIGIN_MS;
+        long to = ceilDiv(toMs - BUCKET_ORIGIN_MS, bucket) * bucket + BUCKET_ORIGIN_MS;
+        return new SeriesPlan(from, to, bucket, source);
+    }
+
+    /**
+     * Parses a bucket width such as {@code 500ms}, {@code 30s}, {@code 5m}, {@code 1h},
+     * {@code 1d} or {@code 1w}. A bare number is taken as milliseconds.
+     *
+     * @param interval the interval, or null
+     * @return the width in milliseconds, or null if {@code interval} is blank
+     * @throws BusinessException if the interval cannot be parsed
+     */
+    public static Long parseInterval(String interval) {
+        if (interval == null || interval.isBlank()) {
+            return null;
+        }
+        String text = interval.trim().toLowerCase();
+        int end = 0;
+        while (end < text.length() && Character.isDigit(text.charAt(end))) {
+            end++;
+        }
+        if (end == 0 || end > 12) {
+            throw new BusinessException(ResultCode.PARAMETER_FORMAT_MISMATCH, "Invalid interval: " + interval);
+        }
+        long amount = Long.parseLong(text.substring(0, end));
+        long unit;
+        switch (text.substring(end)) {
+            case "":
+            case "ms":
+                unit = 1;
+                break;
+            case "s":
+                unit = SECOND;
+                break;
+            case "m":
+                unit = MINUTE;
+                break;
+            case "h":
+                unit = HOUR;
+                break;
+            case "d":
+                unit = DAY;
+                break;
+            case "w":
+                unit = WEEK;
+                break;
+            default:
+                throw new BusinessException(ResultCode.PARAMETER_FORMAT_MISMATCH, "Invalid interval: " + interval);
+        }
+        return amount * unit;
+    }
+
+    /**
+     * Rounds a bucket width up to the ladder; widths above it are rounded up to whole weeks.
+     */
+    private static long roundUp(long bucketMs) {
+        for (long step : BUCKET_LADDER) {
+            if (bucketMs <= step) {
+                return step;
+            }
+        }
+        return ceilDiv(bucketMs, WEEK) * WEEK;
+    }
+
+    private static long ceilDiv(long x, long y) {
+        return -Math.floorDiv(-x, y);
+    }
+}
@@ -0,0 +1,27 @@
+package community.waterlevel.iot.module.sensordata.service;
+
+import community.waterlevel.iot.module.sensordata.model.SensorDataExport;
+import community.waterlevel.iot.module.sensordata.model.query.SensorDataExportQuery;
+
+/**
+ * Service interface for exporting raw sensor data to files.
+ *
+ * <p>Exports are streamed from a database cursor to the response, so memory use does
+ * not depend on the number of rows exported.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+public interface SensorDataExportService {
+
+    /**
+     * Validates and authorizes an export. Must be called on the request thread; the
+     * returned body performs the database reads when the response is written.
+     *
+     * @param query the devices, metrics, range and format
+     * @return the export
+     * @throws community.waterlevel.iot.common.exception.BusinessException if a device is
+     *         unknown or outside the caller's data scope, or a parameter is invalid
+     */
+    SensorDataExport export(SensorDataExportQuery query);
+}
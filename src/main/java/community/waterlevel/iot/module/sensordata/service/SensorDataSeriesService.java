@@ -0,0 +1,74 @@
+package community.waterlevel.iot.module.sensordata.service;
+
+import community.waterlevel.iot.module.sensordata.model.SeriesPlan;
+import community.waterlevel.iot.module.sensordata.model.SeriesPointHandler;
+import community.waterlevel.iot.module.sensordata.model.enums.SensorDataAggregate;
+import community.waterlevel.iot.module.sensordata.model.enums.SeriesFill;
+import community.waterlevel.iot.module.sensordata.model.query.SensorDataSeriesQuery;
+import community.waterlevel.iot.module.sensordata.model.vo.SensorDataSeriesVO;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Service interface for reading bucketed sensor data series.
+ *
+ * <p>Series are read from the coarsest continuous aggregate that can produce the
+ * requested buckets, so the rows scanned grow with the number of points returned
+ * rather than with the number of raw samples in the range.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+public interface SensorDataSeriesService {
+
+    /**
+     * Returns the series of the requested devices and metrics.
+     *
+     * @param query the query parameters
+     * @return one series per device and metric, in request order
+     * @throws community.waterlevel.iot.common.exception.BusinessException if a device is
+     *         unknown or outside the caller's data scope, or a parameter is invalid
+     */
+    List<SensorDataSeriesVO> getSeries(SensorDataSeriesQuery query);
+
+    /**
+     * Returns the series of the requested devices and metrics as an Apache Arrow IPC
+     * stream. Must be called on the request thread; the returned body reads the database
+     * when the response is written.
+     *
+     * @param query the query parameters
+     * @return the body writing the stream
+     * @throws community.waterlevel.iot.common.exception.BusinessException if a device is
+     *         unknown or outside the caller's data scope, or a parameter is invalid
+     * @see community.waterlevel.iot.module.sensordata.export.SensorDataSeriesArrowWriter
+     */
+    StreamingResponseBody getSeriesArrow(SensorDataSeriesQuery query);
+
+    /**
+     * Plans a series query: bucket width, aligned range and source relation.
+     *
+     * @param fromMs     inclusive range start (epoch milliseconds)
+     * @param toMs       exclusive range end (epoch milliseconds)
+     * @param intervalMs requested bucket width in milliseconds, or null to derive it from the range
+     * @return the plan
+     */
+    SeriesPlan plan(long fromMs, long toMs, Long intervalMs);
+
+    /**
+     * Streams the buckets of the given device metrics without permission checks.
+     *
+     * @param plan         the plan returned by {@link #plan}
+     * @param deviceIds    device identifiers as stored in {@code sensor_data.device_id}
+     * @param metricNames  metric names
+     * @param communityIds communities the rows must belong to, or null for all
+     * @param aggregates   the aggregates computed per bucket
+     * @param fill         how empty buckets are returned
+     * @param handler      receives the points
+     * @return the number of points read
+     */
+    long query(SeriesPlan plan, Collection<String> deviceIds, Collection<String> metricNames,
+               Collection<Long> communityIds, List<SensorDataAggregate> aggregates, SeriesFill fill,
+               SeriesPointHandler handler);
+}
@@ -0,0 +1,155 @@
+package community.waterlevel.iot.module.sensordata.service.impl;
+
+import community.waterlevel.iot.common.exception.BusinessException;
+import community.waterlevel.iot.common.result.ResultCode;
+import community.waterlevel.iot.config.property.SensorDataProperties;
+import community.waterlevel.iot.module.ingestion.model.RegisteredDevice;
+import community.waterlevel.iot.module.sensordata.export.SensorDataCsvWriter;
+import community.waterlevel.iot.module.sensordata.export.SensorDataExportWriter;
+import community.waterlevel.iot.module.sensordata.export.SensorDataXlsxWriter;
+import community.waterlevel.iot.module.sensordata.model.SensorDataExport;
+import community.waterlevel.iot.module.sensordata.model.enums.SensorDataExportFormat;
+import community.waterlevel.iot.module.sensordata.model.query.SensorDataExportQuery;
+import community.waterlevel.iot.module.sensordata.service.SensorDataExportService;
+import community.waterlevel.iot.module.sensordata.support.SensorDataDeviceResolver;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streaming implementation of {@link SensorDataExportService}.
+ *
+ * <p>Devices are read one after another with a forward-only cursor: the connection is
+ * taken out of auto-commit and the statement given {@code sensor-data.export.fetch-size},
+ * so the PostgreSQL driver fetches that many rows at a time instead of the whole result.
+ * Each device is ordered by time, which the {@code (device_id, time)} index provides
+ * without a sort. Rows go straight to a {@link SensorDataExportWriter}; nothing is
+ * collected in between. A client disconnect surfaces as an {@link IOException} from the
+ * writer and ends the export.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Slf4j
+@Service
+public class SensorDataExportServiceImpl implements SensorDataExportService {
+
+    private static final DateTimeFormatter FILE_DATE = DateTimeFormatter.ofPattern("yyyyMMdd").withZone(ZoneOffset.UTC);
+
+    private final DataSource dataSource;
+    private final SensorDataDeviceResolver deviceResolver;
+    private final SensorDataProperties.ExportConfig config;
+
+    public SensorDataExportServiceImpl(DataSource dataSource, SensorDataDeviceResolver deviceResolver,
+                                       SensorDataProperties properties) {
+        this.dataSource = dataSource;
+        this.deviceResolver = deviceResolver;
+        this.config = properties.getExport();
+    }
+
+    @Override
+    public SensorDataExport export(SensorDataExportQuery query) {
+        SensorDataExportFormat format = SensorDataExportFormat.CSV;
+        if (query.getFormat() != null && !query.getFormat().isBlank()) {
+            format = SensorDataExportFormat.fromString(query.getFormat());
+            if (format == null) {
+                throw new BusinessException(ResultCode.PARAMETER_FORMAT_MISMATCH, "Unknown format: " + query.getFormat());
+            }
+        }
+        if (!query.getTo().isAfter(query.getFrom())) {
+            throw new BusinessException(ResultCode.REQUEST_PARAMETER_VALUE_EXCEEDS_ALLOWED_RANGE,
+                    "The end of the range must be after its start");
+        }
+        Set<Long> permitted = deviceResolver.getPermittedDeptIds();
+        List<RegisteredDevice> devices = deviceResolver.resolve(query.getDeviceIds());
+        Set<String> metricNames = query.getMetricNames() != null && !query.getMetricNames().isEmpty()
+                ? new LinkedHashSet<>(query.getMetricNames()) : null;
+
+        Instant from = query.getFrom();
+        Instant to = query.getTo();
+        String fileName = "sensor-data-" + FILE_DATE.format(from) + "-" + FILE_DATE.format(to) + "."
+                + format.getExtension();
+        SensorDataExportFormat exportFormat = format;
+        return new SensorDataExport(format, fileName,
+                out -> write(exportFormat, devices, metricNames, permitted, from, to, out));
+    }
+
+    private void write(SensorDataExportFormat format, List<RegisteredDevice> devices, Set<String> metricNames,
+                       Set<Long> communityIds, Instant from, Instant to, OutputStream out) throws IOException {
+        long started = System.nanoTime();
+        long rows = 0;
+        SensorDataExportWriter writer = format == SensorDataExportFormat.XLSX
+                ? new SensorDataXlsxWriter(out, config.getXlsxBatchSize())
+                : new SensorDataCsvWriter(out, config.getBufferSize());
+        String sql = buildSql(metricNames != null, communityIds != null);
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY)) {
+                statement.setFetchSize(config.getFetchSize());
+                for (RegisteredDevice device : devices) {
+                    String deviceId = device.getDeviceIdText();
+                    int index = 1;
+                    statement.setString(index++, deviceId);
+                    statement.setTimestamp(index++, Timestamp.from(from));
+                    statement.setTimestamp(index++, Timestamp.from(to));
+                    if (metricNames != null) {
+                        statement.setArray(index++, connection.createArrayOf("text", metricNames.toArray()));
+                    }
+                    if (communityIds != null) {
+                        statement.setArray(index, connection.createArrayOf("bigint", communityIds.toArray()));
+                    }
+                    try (ResultSet rs = statement.executeQuery()) {
+                        while (rs.next()) {
+                            double value = rs.getDouble(4);
+                            boolean present = !rs.wasNull();
+                            writer.writeRow(rs.getLong(1), rs.getLong(2), deviceId, rs.getString(3), value, present,
+                                    rs.getShort(5));
+                            rows++;
+                        }
+                    }
+                }
+                writer.finish();
+            } finally {
+                connection.rollback();
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            log.error("Sensor data export failed after {} rows", rows, e);
+            throw new IOException("Sensor data export failed", e);
+        } catch (IOException e) {
+            log.warn("Sensor data export aborted after {} rows: {}", rows, e.getMessage());
+            throw e;
+        }
+        log.info("Exported {} sensor data rows of {} devices as {} in {} ms", rows, devices.size(), format,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    private static String buildSql(boolean filterMetrics, boolean filterCommunities) {
+        StringBuilder sql = new StringBuilder("SELECT CAST(EXTRACT(EPOCH FROM time) * 1000 AS bigint), community_id, "
+                + "metric_name, metric_value, quality FROM sensor_data WHERE device_id = ? AND time >= ? AND time < ?");
+        if (filterMetrics) {
+            sql.append(" AND metric_name = ANY(?)");
+        }
+        if (filterCommunities) {
+            sql.append(" AND community_id = ANY(?)");
+        }
+        return sql.append(" ORDER BY time, metric_name").toString();
+    }
+}
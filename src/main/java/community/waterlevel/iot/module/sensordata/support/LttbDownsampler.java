@@ -0,0 +1,134 @@
+package community.waterlevel.iot.module.sensordata.support;
+
+/**
+ * Largest-Triangle-Three-Buckets (LTTB) downsampling of time series.
+ *
+ * <p>Keeps the first and last point and, from each of {@code threshold - 2} equal
+ * buckets in between, the point forming the largest triangle with the previously kept
+ * point and the average of the next bucket. Peaks and troughs survive, which bucket
+ * averages flatten; a flood crest drawn from 1,000 LTTB points looks like the crest
+ * drawn from 50,000 samples.
+ *
+ * <p>Works on primitive arrays and returns the indexes of the kept points, so a series
+ * with several value columns is reduced once and every column is compacted with the
+ * same indexes ({@link #compact}). Nothing is allocated per point.
+ *
+ * <p>{@code NaN} values (empty buckets) are never kept unless a whole bucket is empty,
+ * in which case its first point is kept so the gap stays visible.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+public final class LttbDownsampler {
+
+    /**
+     * Smallest useful threshold: first point, one bucket, last point.
+     */
+    public static final int MIN_THRESHOLD = 3;
+
+    private LttbDownsampler() {
+    }
+
+    /**
+     * Selects the points to keep.
+     *
+     * @param times     point times, ascending
+     * @param values    point values; {@code NaN} for no value
+     * @param size      number of points in {@code times} and {@code values}
+     * @param threshold number of points to keep, at least {@value #MIN_THRESHOLD}
+     * @param selected  receives the kept indexes in ascending order; at least
+     *                  {@code min(size, threshold)} long
+     * @return the number of indexes written to {@code selected}
+     */
+    public static int select(long[] times, double[] values, int size, int threshold, int[] selected) {
+        if (threshold < MIN_THRESHOLD) {
+            throw new IllegalArgumentException("threshold must be at least " + MIN_THRESHOLD);
+        }
+        if (size <= threshold) {
+            for (int i = 0; i < size; i++) {
+                selected[i] = i;
+            }
+            return size;
+        }
+
+        long origin = times[0];
+        double every = (double) (size - 2) / (threshold - 2);
+        int count = 0;
+        int a = 0;
+        selected[count++] = a;
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            // Average of the next bucket (the last point for the last bucket)
+            int nextStart = (int) ((bucket + 1) * every) + 1;
+            int nextEnd = Math.min((int) ((bucket + 2) * every) + 1, size);
+            double avgX = 0;
+            double avgY = 0;
+            int n = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                double y = values[i];
+                if (!Double.isNaN(y)) {
+                    avgX += times[i] - origin;
+                    avgY += y;
+                    n++;
+                }
+            }
+            double ax = times[a] - origin;
+            double ay = values[a];
+            if (n > 0) {
+                avgX /= n;
+                avgY /= n;
+            } else {
+                avgX = times[nextStart] - origin;
+                avgY = Double.isNaN(ay) ? 0 : ay;
+            }
+            if (Double.isNaN(ay)) {
+                ay = avgY;
+            }
+
+            int start = (int) (bucket * every) + 1;
+            int end = (int) ((bucket + 1) * every) + 1;
+            int kept = start;
+            double maxArea = -1;
+            for (int i = start; i < end; i++) {
+                double y = values[i];
+                if (Double.isNaN(y)) {
+                    continue;
+                }
+                double area = Math.abs((ax - avgX) * (y - ay) - (ax - (times[i] - origin)) * (avgY - ay));
+                if (area > maxArea) {
+                    maxArea = area;
+                    kept = i;
+                }
+            }
+            selected[count++] = kept;
+            a = kept;
+        }
+        selected[count++] = size - 1;
+        return count;
+    }
+
+    /**
+     * Moves the selected points of a column to its front, in place.
+     *
+     * @param column   the column
+     * @param selected indexes returned by {@link #select}
+     * @param count    number of indexes
+     */
+    public static void compact(long[] column, int[] selected, int count) {
+        for (int i = 0; i < count; i++) {
+            column[i] = column[selected[i]];
+        }
+    }
+
+    /**
+     * Moves the selected points of a column to its front, in place.
+     *
+     * @param column   the column
+     * @param selected indexes returned by {@link #select}
+     * @param count    number of indexes
+     */
+    public static void compact(double[] column, int[] selected, int count) {
+        for (int i = 0; i < count; i++) {
+            column[i] = column[selected[i]];
+        }
+    }
+}
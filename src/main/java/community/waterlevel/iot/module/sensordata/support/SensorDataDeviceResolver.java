@@ -0,0 +1,67 @@
+package community.waterlevel.iot.module.sensordata.support;
+
+import community.waterlevel.iot.common.exception.BusinessException;
+import community.waterlevel.iot.common.result.ResultCode;
+import community.waterlevel.iot.core.aspect.DataPermissionFilterFactory;
+import community.waterlevel.iot.module.ingestion.model.RegisteredDevice;
+import community.waterlevel.iot.module.ingestion.registry.DeviceRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Resolves the devices of a sensor data request and enforces the caller's data scope.
+ *
+ * <p>Devices come from {@link DeviceRegistry}; the permitted communities from
+ * {@link DataPermissionFilterFactory#getPermittedDeptIds()}. Both must be evaluated on
+ * the request thread, which holds the security context.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Component
+@RequiredArgsConstructor
+public class SensorDataDeviceResolver {
+
+    private final DeviceRegistry deviceRegistry;
+    private final DataPermissionFilterFactory dataPermissionFilterFactory;
+
+    /**
+     * Resolves devices, dropping duplicates and keeping request order.
+     *
+     * @param deviceIds the requested device identifiers
+     * @return the devices
+     * @throws BusinessException if a device is unknown or outside the caller's data scope
+     */
+    public List<RegisteredDevice> resolve(Collection<UUID> deviceIds) {
+        Set<Long> permitted = getPermittedDeptIds();
+        Set<UUID> distinct = new LinkedHashSet<>(deviceIds);
+        List<RegisteredDevice> devices = new ArrayList<>(distinct.size());
+        for (UUID deviceId : distinct) {
+            RegisteredDevice device = deviceRegistry.findById(deviceId);
+            if (device == null) {
+                throw new BusinessException(ResultCode.USER_REQUEST_PARAMETER_ERROR, "Unknown device: " + deviceId);
+            }
+            if (permitted != null && !permitted.contains(device.getDeptId())) {
+                throw new BusinessException(ResultCode.ACCESS_UNAUTHORIZED);
+            }
+            devices.add(device);
+        }
+        return devices;
+    }
+
+    /**
+     * Returns the communities the caller may read, used to filter rows as well.
+     *
+     * @return the permitted community identifiers, or null if unrestricted
+     */
+    public Set<Long> getPermittedDeptIds() {
+        return dataPermissionFilterFactory.getPermittedDeptIds();
+    }
+}
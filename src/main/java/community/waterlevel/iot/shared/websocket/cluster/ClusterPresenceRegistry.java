@@ -0,0 +1,376 @@
+package community.waterlevel.iot.shared.websocket.cluster;
+
+import community.waterlevel.iot.config.property.WebSocketClusterProperties;
+import community.waterlevel.iot.shared.websocket.model.PresenceChangedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.messaging.simp.user.SimpSubscription;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.AbstractSubProtocolEvent;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Cluster-wide view of the users connected to the STOMP endpoint and of the
+ * destinations they subscribe to.
+ *
+ * <p>Each node publishes its local state, taken from {@link SimpUserRegistry}, to Redis:
+ * <ul>
+ *   <li>{@code {prefix}nodes} - sorted set of node ids scored by their last heartbeat</li>
+ *   <li>{@code {prefix}users:{nodeId}} - usernames with a session on the node</li>
+ *   <li>{@code {prefix}destinations:{nodeId}} - destinations subscribed on the node</li>
+ * </ul>
+ * The sets are replaced atomically (written under a staging key and renamed) and expire
+ * after {@code websocket.cluster.presence.ttl-ms}, so a node that dies without cleaning
+ * up drops out on its own. A node republishes every heartbeat interval and, shortly after
+ * a local connect, disconnect or subscription change, also announces the change on
+ * {@code {prefix}presence} so that the other nodes reread the state right away instead
+ * of at their next heartbeat.
+ *
+ * <p>From the state of the other live nodes the registry derives the cluster-wide
+ * online user count, published as {@link PresenceChangedEvent} when it changes, and the
+ * remote users and destinations that {@link RedisStompRelay} relays messages for.
+ *
+ * <p>With {@code websocket.cluster.enabled=false} nothing is written to Redis and every
+ * view is the local one.
+ *
+ * <p>Metrics: {@code websocket.cluster.nodes} and {@code websocket.cluster.online.users}.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Slf4j
+@Component
+public class ClusterPresenceRegistry implements SmartLifecycle, MessageListener {
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectProvider<SimpUserRegistry> userRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+    private final WebSocketClusterProperties.PresenceConfig config;
+    private final boolean enabled;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final String keyPrefix;
+    private final String nodesKey;
+    private final String channel;
+
+    private final AtomicBoolean syncScheduled = new AtomicBoolean();
+    private final AtomicBoolean refreshScheduled = new AtomicBoolean();
+
+    private volatile Set<String> localUsers = Set.of();
+    private volatile Set<String> remoteUsers = Set.of();
+    private volatile Set<String> remoteDestinations = Set.of();
+    private volatile int onlineUserCount;
+    private volatile int nodeCount = 1;
+
+    private ScheduledExecutorService scheduler;
+    private RedisMessageListenerContainer listenerContainer;
+    private volatile boolean running;
+
+    public ClusterPresenceRegistry(StringRedisTemplate redisTemplate, ObjectProvider<SimpUserRegistry> userRegistry,
+                                   ApplicationEventPublisher eventPublisher, WebSocketClusterProperties properties,
+                                   MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.userRegistry = userRegistry;
+        this.eventPublisher = eventPublisher;
+        this.config = properties.getPresence();
+        this.enabled = properties.isEnabled();
+        this.keyPrefix = properties.getKeyPrefix();
+        this.nodesKey = keyPrefix + "nodes";
+        this.channel = keyPrefix + "presence";
+
+        Gauge.builder("websocket.cluster.nodes", this, r -> r.nodeCount)
+                .description("Live nodes serving the STOMP endpoint")
+                .register(meterRegistry);
+        Gauge.builder("websocket.cluster.online.users", this, ClusterPresenceRegistry::getOnlineUserCount)
+                .description("Distinct users connected to any node")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Schedules the publication of the local state after a session or subscription change.
+     *
+     * @param event the session event
+     */
+    @EventListener({SessionConnectedEvent.class, SessionDisconnectEvent.class, SessionSubscribeEvent.class,
+            SessionUnsubscribeEvent.class})
+    public void onSessionChanged(AbstractSubProtocolEvent event) {
+        if (running && syncScheduled.compareAndSet(false, true)) {
+            scheduler.schedule(() -> syncQuietly(true), config.getSyncDelayMs(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Rereads the state of the other nodes when one of them announces a change.
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String sender = new String(message.getBody(), StandardCharsets.UTF_8);
+        if (running && !nodeId.equals(sender) && refreshScheduled.compareAndSet(false, true)) {
+            scheduler.execute(this::refreshQuietly);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the identifier of this node, unique per process start.
+     *
+     * @return the node id
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Returns the number of distinct users connected to any node.
+     *
+     * @return the online user count
+     */
+    public int getOnlineUserCount() {
+        if (!enabled) {
+            SimpUserRegistry registry = userRegistry.getIfAvailable();
+            return registry != null ? registry.getUserCount() : 0;
+        }
+        return onlineUserCount;
+    }
+
+    /**
+     * Returns whether a user has a session on any node.
+     *
+     * @param username the username
+     * @return true if the user is connected
+     */
+    public boolean isOnline(String username) {
+        SimpUserRegistry registry = userRegistry.getIfAvailable();
+        SimpUser user = registry != null ? registry.getUser(username) : null;
+        return (user != null && user.hasSessions()) || remoteUsers.contains(username);
+    }
+
+    /**
+     * Returns whether a user has a session on another node.
+     *
+     * @param username the username
+     * @return true if messages to the user must be relayed
+     */
+    public boolean isOnlineElsewhere(String username) {
+        return remoteUsers.contains(username);
+    }
+
+    /**
+     * Returns whether a destination is subscribed on another node.
+     *
+     * @param destination the destination
+     * @return true if messages to the destination must be relayed
+     */
+    public boolean hasRemoteSubscribers(String destination) {
+        return remoteDestinations.contains(destination);
+    }
+
+    /**
+     * Returns the destinations subscribed on any node.
+     *
+     * @return the local destinations joined with those of the other nodes
+     */
+    public Set<String> getSubscribedDestinations() {
+        Set<String> destinations = new HashSet<>(remoteDestinations);
+        SimpUserRegistry registry = userRegistry.getIfAvailable();
+        if (registry != null) {
+            for (SimpSubscription subscription : registry.findSubscriptions(s -> true)) {
+                destinations.add(subscription.getDestination());
+            }
+        }
+        return destinations;
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "websocket-presence");
+            thread.setDaemon(true);
+            return thread;
+        });
+        listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(redisTemplate.getRequiredConnectionFactory());
+        listenerContainer.addMessageListener(this, new ChannelTopic(channel));
+        listenerContainer.afterPropertiesSet();
+        listenerContainer.start();
+        running = true;
+        long interval = config.getHeartbeatIntervalMs();
+        scheduler.scheduleWithFixedDelay(() -> syncQuietly(false), 0, interval, TimeUnit.MILLISECONDS);
+        log.info("WebSocket presence started (node {})", nodeId);
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        scheduler.shutdownNow();
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection c = (StringRedisConnection) connection;
+                c.zRem(nodesKey, nodeId);
+                c.del(usersKey(nodeId), destinationsKey(nodeId));
+                c.publish(channel, nodeId);
+                return null;
+            });
+        } catch (RuntimeException e) {
+            log.warn("Could not remove presence of node {}; it expires in {} ms", nodeId, config.getTtlMs());
+        }
+        try {
+            listenerContainer.destroy();
+        } catch (Exception e) {
+            log.debug("Failed to stop presence listener: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void syncQuietly(boolean announce) {
+        try {
+            sync(announce);
+        } catch (RuntimeException e) {
+            log.warn("Presence sync failed: {}", e.getMessage());
+        }
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.warn("Presence refresh failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Publishes the local users and destinations, then rereads the other nodes.
+     */
+    private void sync(boolean announce) {
+        syncScheduled.set(false);
+        Set<String> users = new HashSet<>();
+        Set<String> destinations = new HashSet<>();
+        SimpUserRegistry registry = userRegistry.getIfAvailable();
+        if (registry != null) {
+            for (SimpUser user : registry.getUsers()) {
+                if (user.hasSessions()) {
+                    users.add(user.getName());
+                }
+            }
+            for (SimpSubscription subscription : registry.findSubscriptions(s -> true)) {
+                destinations.add(subscription.getDestination());
+            }
+        }
+        long now = System.currentTimeMillis();
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection c = (StringRedisConnection) connection;
+            replaceSet(c, usersKey(nodeId), users);
+            replaceSet(c, destinationsKey(nodeId), destinations);
+            c.zAdd(nodesKey, now, nodeId);
+            if (announce) {
+                c.publish(channel, nodeId);
+            }
+            return null;
+        });
+        localUsers = users;
+        refresh();
+    }
+
+    /**
+     * Rereads the users and destinations of the other live nodes and drops the nodes
+     * whose heartbeat expired.
+     */
+    private void refresh() {
+        refreshScheduled.set(false);
+        long now = System.currentTimeMillis();
+        redisTemplate.opsForZSet().removeRangeByScore(nodesKey, 0, now - config.getTtlMs());
+        Set<String> nodes = redisTemplate.opsForZSet().range(nodesKey, 0, -1);
+        List<String> others = nodes == null ? List.of() : nodes.stream().filter(n -> !n.equals(nodeId)).toList();
+
+        Set<String> users = new HashSet<>();
+        Set<String> destinations = new HashSet<>();
+        if (!others.isEmpty()) {
+            List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection c = (StringRedisConnection) connection;
+                for (String node : others) {
+                    c.sMembers(usersKey(node));
+                    c.sMembers(destinationsKey(node));
+                }
+                return null;
+            });
+            for (int i = 0; i < results.size(); i++) {
+                if (results.get(i) instanceof Collection<?> members) {
+                    Set<String> target = i % 2 == 0 ? users : destinations;
+                    for (Object member : members) {
+                        target.add(String.valueOf(member));
+                    }
+                }
+            }
+        }
+        remoteUsers = users;
+        remoteDestinations = destinations;
+        nodeCount = others.size() + 1;
+
+        Set<String> online = new HashSet<>(users);
+        online.addAll(localUsers);
+        if (online.size() != onlineUserCount) {
+            onlineUserCount = online.size();
+            eventPublisher.publishEvent(new PresenceChangedEvent(onlineUserCount));
+        }
+    }
+
+    private void replaceSet(StringRedisConnection c, String key, Set<String> members) {
+        if (members.isEmpty()) {
+            c.del(key);
+            return;
+        }
+        String staging = key + ":staging";
+        c.del(staging);
+        c.sAdd(staging, members.toArray(String[]::new));
+        c.pExpire(staging, config.getTtlMs());
+        c.rename(staging, key);
+    }
+
+    private String usersKey(String node) {
+        return keyPrefix + "users:" + node;
+    }
+
+    private String destinationsKey(String node) {
+        return keyPrefix + "destinations:" + node;
+    }
+}
@@ -0,0 +1,328 @@
+package community.waterlevel.iot.shared.websocket.cluster;
+
+import community.waterlevel.iot.config.property.WebSocketClusterProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Relays {@code /topic} and {@code /user} broker messages to the other nodes through
+ * Redis pub/sub, so that a client receives a message whichever node it is connected to.
+ *
+ * <p>The relay is registered as an interceptor of the broker channel
+ * ({@code WebSocketConfig#configureBrokerChannel}). Every message sent there is
+ * delivered locally as before; it is additionally queued for the other nodes only if
+ * {@link ClusterPresenceRegistry} reports a remote subscriber of the topic or a remote
+ * session of the user. A single publisher thread drains the queue, packs the messages
+ * into batches of at most {@code websocket.cluster.relay.batch-size} messages and
+ * {@code max-batch-bytes} payload bytes, and publishes all batches of a drain in one
+ * pipelined round trip on {@code {prefix}relay}. The cost on the sending node is thus
+ * one PUBLISH per batch rather than one per message and node, and traffic for
+ * destinations nobody else listens to never leaves the node.
+ *
+ * <p>Receiving nodes skip their own batches and resend each message to their broker
+ * channel marked with {@link #RELAYED_HEADER}, which keeps it from being relayed again.
+ * Delivery is at most once: messages published while a node is disconnected from Redis
+ * or beyond {@code queue-capacity} are delivered only locally.
+ *
+ * <p>Metrics: {@code websocket.relay.published}, {@code websocket.relay.batches},
+ * {@code websocket.relay.received}, {@code websocket.relay.dropped} and
+ * {@code websocket.relay.queue.size}.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Slf4j
+@Component
+public class RedisStompRelay implements ChannelInterceptor, MessageListener, SmartLifecycle {
+
+    /**
+     * Header marking messages that are not relayed: those received from another node
+     * and those every node sends itself ({@link #localOnly()}).
+     */
+    public static final String RELAYED_HEADER = "clusterRelayed";
+
+    private static final byte FORMAT_VERSION = 1;
+    private static final String TOPIC_PREFIX = "/topic/";
+    private static final String USER_PREFIX = "/user/";
+
+    private final StringRedisTemplate redisTemplate;
+    private final ClusterPresenceRegistry presence;
+    private final MessageChannel brokerChannel;
+    private final WebSocketClusterProperties.RelayConfig config;
+    private final boolean enabled;
+    private final String channel;
+    private final BlockingQueue<Outbound> queue;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    private RedisMessageListenerContainer listenerContainer;
+    private Thread publisher;
+    private volatile boolean running;
+
+    public RedisStompRelay(StringRedisTemplate redisTemplate, ClusterPresenceRegistry presence,
+                           @Lazy @Qualifier("brokerChannel") MessageChannel brokerChannel,
+                           WebSocketClusterProperties properties, MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.presence = presence;
+        this.brokerChannel = brokerChannel;
+        this.config = properties.getRelay();
+        this.enabled = properties.isEnabled();
+        this.channel = properties.getKeyPrefix() + "relay";
+        this.queue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+
+        FunctionCounter.builder("websocket.relay.published", published, LongAdder::sum)
+                .description("Broker messages published to the other nodes")
+                .register(meterRegistry);
+        FunctionCounter.builder("websocket.relay.batches", batches, LongAdder::sum)
+                .description("Relay batches published to Redis")
+                .register(meterRegistry);
+        FunctionCounter.builder("websocket.relay.received", received, LongAdder::sum)
+                .description("Broker messages received from the other nodes")
+                .register(meterRegistry);
+        FunctionCounter.builder("websocket.relay.dropped", dropped, LongAdder::sum)
+                .description("Broker messages delivered locally only because the relay was full or failed")
+                .register(meterRegistry);
+        Gauge.builder("websocket.relay.queue.size", queue, BlockingQueue::size)
+                .description("Broker messages waiting to be relayed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns headers for a message that every node sends to its own clients, such as
+     * a cluster-wide count, and that must therefore not be relayed.
+     *
+     * @return mutable message headers to pass to {@code SimpMessagingTemplate#convertAndSend}
+     */
+    public static MessageHeaders localOnly() {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create();
+        accessor.setHeader(RELAYED_HEADER, Boolean.TRUE);
+        accessor.setLeaveMutable(true);
+        return accessor.getMessageHeaders();
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel messageChannel) {
+        if (!running) {
+            return message;
+        }
+        MessageHeaders headers = message.getHeaders();
+        if (SimpMessageHeaderAccessor.getMessageType(headers) != SimpMessageType.MESSAGE
+                || headers.containsKey(RELAYED_HEADER)) {
+            return message;
+        }
+        String destination = SimpMessageHeaderAccessor.getDestination(headers);
+        if (destination == null || !hasRemoteRecipients(destination)) {
+            return message;
+        }
+        byte[] payload;
+        if (message.getPayload() instanceof byte[] bytes) {
+            payload = bytes;
+        } else if (message.getPayload() instanceof String text) {
+            payload = text.getBytes(StandardCharsets.UTF_8);
+        } else {
+            log.debug("Not relaying {} payload to {}", message.getPayload().getClass().getSimpleName(), destination);
+            return message;
+        }
+        Object contentType = headers.get(MessageHeaders.CONTENT_TYPE);
+        if (!queue.offer(new Outbound(destination, contentType != null ? contentType.toString() : "", payload))) {
+            dropped.increment();
+        }
+        return message;
+    }
+
+    @Override
+    public void onMessage(org.springframework.data.redis.connection.Message message, byte[] pattern) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(message.getBody()))) {
+            if (in.readByte() != FORMAT_VERSION) {
+                log.warn("Ignoring relay batch with unknown format");
+                return;
+            }
+            if (presence.getNodeId().equals(in.readUTF())) {
+                return;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String destination = in.readUTF();
+                String contentType = in.readUTF();
+                byte[] payload = new byte[in.readInt()];
+                in.readFully(payload);
+                brokerChannel.send(toMessage(destination, contentType, payload));
+            }
+            received.add(count);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to deliver relay batch: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(redisTemplate.getRequiredConnectionFactory());
+        listenerContainer.addMessageListener(this, new ChannelTopic(channel));
+        listenerContainer.afterPropertiesSet();
+        listenerContainer.start();
+        running = true;
+        publisher = new Thread(this::runPublisher, "websocket-relay");
+        publisher.setDaemon(true);
+        publisher.start();
+        log.info("WebSocket relay started on channel {}", channel);
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        publisher.interrupt();
+        try {
+            publisher.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            listenerContainer.destroy();
+        } catch (Exception e) {
+            log.debug("Failed to stop relay listener: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private boolean hasRemoteRecipients(String destination) {
+        if (destination.startsWith(TOPIC_PREFIX)) {
+            return presence.hasRemoteSubscribers(destination);
+        }
+        if (destination.startsWith(USER_PREFIX)) {
+            int end = destination.indexOf('/', USER_PREFIX.length());
+            return end > 0 && presence.isOnlineElsewhere(
+                    destination.substring(USER_PREFIX.length(), end).replace("%2F", "/"));
+        }
+        return false;
+    }
+
+    private void runPublisher() {
+        List<Outbound> pending = new ArrayList<>();
+        while (running) {
+            try {
+                Outbound first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                pending.add(first);
+                queue.drainTo(pending);
+                publish(pending);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                dropped.add(pending.size());
+                log.warn("Failed to relay {} messages: {}", pending.size(), e.getMessage());
+            } finally {
+                pending.clear();
+            }
+        }
+    }
+
+    /**
+     * Packs the messages into batches and publishes them in one pipelined round trip.
+     */
+    private void publish(List<Outbound> messages) {
+        List<byte[]> frames = new ArrayList<>();
+        int from = 0;
+        while (from < messages.size()) {
+            int to = from;
+            long bytes = 0;
+            while (to < messages.size() && to - from < config.getBatchSize()
+                    && (to == from || bytes + messages.get(to).payload().length <= config.getMaxBatchBytes())) {
+                bytes += messages.get(to).payload().length;
+                to++;
+            }
+            frames.add(encode(messages, from, to));
+            from = to;
+        }
+        byte[] channelBytes = channel.getBytes(StandardCharsets.UTF_8);
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (byte[] frame : frames) {
+                connection.publish(channelBytes, frame);
+            }
+            return null;
+        });
+        published.add(messages.size());
+        batches.add(frames.size());
+    }
+
+    private byte[] encode(List<Outbound> messages, int from, int to) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(buffer)) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeUTF(presence.getNodeId());
+            out.writeInt(to - from);
+            for (int i = from; i < to; i++) {
+                Outbound message = messages.get(i);
+                out.writeUTF(message.destination());
+                out.writeUTF(message.contentType());
+                out.writeInt(message.payload().length);
+                out.write(message.payload());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static Message<byte[]> toMessage(String destination, String contentType, byte[] payload) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setDestination(destination);
+        if (!contentType.isEmpty()) {
+            accessor.setContentType(MimeTypeUtils.parseMimeType(contentType));
+        }
+        accessor.setHeader(RELAYED_HEADER, Boolean.TRUE);
+        return MessageBuilder.createMessage(payload, accessor.getMessageHeaders());
+    }
+
+    private record Outbound(String destination, String contentType, byte[] payload) {
+    }
+}
@@ -0,0 +1,30 @@
+package community.waterlevel.iot.shared.websocket.model;
+
+import lombok.Data;
+
+/**
+ * PresenceChangedEvent is published when the number of users connected to the
+ * cluster changed.
+ * <p>
+ * Listeners push the new online count to clients.
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Data
+public class PresenceChangedEvent {
+
+    /**
+     * Number of distinct users connected to any node.
+     */
+    private int onlineUserCount;
+
+    /**
+     * Creates an event for the given count.
+     *
+     * @param onlineUserCount the cluster-wide online user count
+     */
+    public PresenceChangedEvent(int onlineUserCount) {
+        this.onlineUserCount = onlineUserCount;
+    }
+}
@@ -0,0 +1,66 @@
+package community.waterlevel.iot.system.controller;
+
+import community.waterlevel.iot.common.result.Result;
+import community.waterlevel.iot.system.model.vo.IngestionLatencyVO;
+import community.waterlevel.iot.system.service.IngestionLatencyService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * IngestionLatencyController is a REST controller that exposes the latency of the
+ * telemetry ingestion pipeline to administrators.
+ * <p>
+ * Latency is broken down per community and per stage (broker receive, dispatch, decode,
+ * enqueue, database commit and end-to-end), so operators can see where telemetry
+ * latency accumulates under load. The same data is exported to Prometheus under
+ * {@code ingestion_latency_seconds}.
+ * </p>
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Tag(name = "11.Ingestion Latency Controller")
+@RestController
+@RequestMapping("/api/v1/ingestion/latency")
+@RequiredArgsConstructor
+public class IngestionLatencyController {
+
+    private final IngestionLatencyService ingestionLatencyService;
+
+    /**
+     * Retrieves the latency summaries of the ingestion stages.
+     *
+     * @param communityId optional community (dept) ID filter
+     * @param stage       optional stage filter
+     * @return Result containing the latency summaries
+     */
+    @Operation(summary = "Retrieves ingestion latency per community and stage")
+    @GetMapping
+    @PreAuthorize("@ss.hasPerm('sys:ingestion:latency')")
+    public Result<List<IngestionLatencyVO>> getLatency(
+            @Parameter(description = "Community (dept) ID") @RequestParam(required = false) Long communityId,
+            @Parameter(description = "Stage: receive|dispatch|decode|enqueue|commit|end_to_end")
+            @RequestParam(required = false) String stage) {
+        List<IngestionLatencyVO> result = ingestionLatencyService.getLatency(communityId, stage);
+        return Result.success(result);
+    }
+
+    /**
+     * Restarts the latency totals.
+     *
+     * @return Result indicating success
+     */
+    @Operation(summary = "Resets the ingestion latency totals")
+    @DeleteMapping
+    @PreAuthorize("@ss.hasPerm('sys:ingestion:latency')")
+    public Result<Void> resetLatency() {
+        ingestionLatencyService.resetLatency();
+        return Result.success();
+    }
+}
@@ -0,0 +1,82 @@
+package community.waterlevel.iot.system.model.vo;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * View object representing the latency of one telemetry ingestion stage for API responses.
+ * <p>
+ * Holds the percentiles of the most recent measurement window and of everything recorded
+ * since startup or the last reset, for one community or for all communities together.
+ * Latencies are in milliseconds.
+ * </p>
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Schema(description = "Ingestion latency VO")
+@Getter
+@Setter
+public class IngestionLatencyVO {
+
+    /**
+     * The community (dept) ID; null for the aggregate and overflow entries.
+     */
+    @Schema(description = "Community (dept) ID; null for the aggregate and overflow entries")
+    private Long communityId;
+
+    /**
+     * The scope of the entry: {@code all}, {@code community} or {@code other}.
+     */
+    @Schema(description = "Scope", allowableValues = {"all", "community", "other"})
+    private String scope;
+
+    /**
+     * The pipeline stage.
+     */
+    @Schema(description = "Stage", allowableValues = {"receive", "dispatch", "decode", "enqueue", "commit", "end_to_end"})
+    private String stage;
+
+    /**
+     * Latency over the most recent window.
+     */
+    @Schema(description = "Latency over the most recent window")
+    private Summary window;
+
+    /**
+     * Latency since startup or the last reset.
+     */
+    @Schema(description = "Latency since startup or the last reset")
+    private Summary total;
+
+    /**
+     * Latency distribution summary in milliseconds.
+     */
+    @Schema(description = "Latency summary (ms)")
+    @Getter
+    @Setter
+    public static class Summary {
+
+        @Schema(description = "Sample count")
+        private Long count;
+
+        @Schema(description = "Mean")
+        private Double mean;
+
+        @Schema(description = "50th percentile")
+        private Double p50;
+
+        @Schema(description = "90th percentile")
+        private Double p90;
+
+        @Schema(description = "99th percentile")
+        private Double p99;
+
+        @Schema(description = "99.9th percentile")
+        private Double p999;
+
+        @Schema(description = "Maximum")
+        private Double max;
+    }
+}
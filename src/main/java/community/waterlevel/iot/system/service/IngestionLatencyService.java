@@ -0,0 +1,33 @@
+package community.waterlevel.iot.system.service;
+
+import community.waterlevel.iot.system.model.vo.IngestionLatencyVO;
+
+import java.util.List;
+
+/**
+ * Service interface for inspecting telemetry ingestion latency.
+ * <p>
+ * Exposes the per-community, per-stage latency histograms recorded by the ingestion
+ * pipeline to the administration interface.
+ * </p>
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+public interface IngestionLatencyService {
+
+    /**
+     * Retrieves the latency summaries of the ingestion stages.
+     *
+     * @param communityId optional community (dept) ID; null returns every community
+     *                    together with the aggregate
+     * @param stage       optional stage filter, e.g. {@code commit}
+     * @return the latency summaries
+     */
+    List<IngestionLatencyVO> getLatency(Long communityId, String stage);
+
+    /**
+     * Restarts the totals of every latency summary.
+     */
+    void resetLatency();
+}
@@ -0,0 +1,70 @@
+package community.waterlevel.iot.system.service.impl;
+
+import community.waterlevel.iot.module.ingestion.latency.IngestionLatencyRecorder;
+import community.waterlevel.iot.module.ingestion.latency.LatencyHistogram;
+import community.waterlevel.iot.system.model.vo.IngestionLatencyVO;
+import community.waterlevel.iot.system.service.IngestionLatencyService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Implementation of {@link IngestionLatencyService} backed by {@link IngestionLatencyRecorder}.
+ * <p>
+ * Summaries are converted from microseconds to milliseconds. They reflect the last
+ * window roll of the recorder, so values are at most {@code ingestion.latency.interval-ms} old.
+ * </p>
+ *
+ * @author Chang Xiu-Wen, AI-Enhanced
+ * @since 2026/10/16
+ */
+@Service
+@RequiredArgsConstructor
+public class IngestionLatencyServiceImpl implements IngestionLatencyService {
+
+    private final IngestionLatencyRecorder latencyRecorder;
+
+    @Override
+    public List<IngestionLatencyVO> getLatency(Long communityId, String stage) {
+        List<IngestionLatencyVO> result = new ArrayList<>();
+        for (IngestionLatencyRecorder.StageSnapshot snapshot : latencyRecorder.snapshot()) {
+            if (communityId != null && !communityId.equals(snapshot.communityId)) {
+                continue;
+            }
+            if (stage != null && !stage.equalsIgnoreCase(snapshot.stage.getTag())) {
+                continue;
+            }
+            IngestionLatencyVO vo = new IngestionLatencyVO();
+            vo.setCommunityId(snapshot.communityId);
+            vo.setScope(snapshot.aggregate ? "all" : snapshot.communityId != null ? "community" : "other");
+            vo.setStage(snapshot.stage.getTag());
+            vo.setWindow(toSummary(snapshot.window));
+            vo.setTotal(toSummary(snapshot.total));
+            result.add(vo);
+        }
+        return result;
+    }
+
+    @Override
+    public void resetLatency() {
+        latencyRecorder.reset();
+    }
+
+    private static IngestionLatencyVO.Summary toSummary(LatencyHistogram.Summary source) {
+        IngestionLatencyVO.Summary summary = new IngestionLatencyVO.Summary();
+        summary.setCount(source.count);
+        summary.setMean(toMillis(source.mean));
+        summary.setP50(toMillis(source.p50));
+        summary.setP90(toMillis(source.p90));
+        summary.setP99(toMillis(source.p99));
+        summary.setP999(toMillis(source.p999));
+        summary.setMax(toMillis(source.max));
+        return summary;
+    }
+
+    private static double toMillis(double micros) {
+        return Math.round(micros) / 1000.0;
+    }
+}
@@ -3,11 +3,15 @@ package community.waterlevel.iot.system.service.impl;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import community.waterlevel.iot.shared.websocket.cluster.ClusterPresenceRegistry;
+import community.waterlevel.iot.shared.websocket.cluster.RedisStompRelay;
+import community.waterlevel.iot.shared.websocket.model.PresenceChangedEvent;
 import community.waterlevel.iot.system.model.event.DictEvent;
 import community.waterlevel.iot.system.service.WebSocketService;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
@@ -23,6 +27,11 @@ import java.util.stream.Collectors;
  * and dictionary event notifications. It integrates with Spring's messaging infrastructure and supports
  * both targeted and broadcast messaging for real-time communication.
  * </p>
+ * <p>
+ * With {@code websocket.cluster.enabled} the online count and status cover the users of
+ * every node, as tracked by {@link ClusterPresenceRegistry}, and the count is pushed
+ * when the cluster-wide value changes.
+ * </p>
  *
  * @author Ray.Hao
  * @since 3.0.0
@@ -38,10 +47,12 @@ public class WebSocketServiceImpl implements WebSocketService {
 
     private SimpMessagingTemplate messagingTemplate;
     private final ObjectMapper objectMapper;
+    private final ClusterPresenceRegistry clusterPresence;
 
     @Autowired
-    public WebSocketServiceImpl(ObjectMapper objectMapper) {
+    public WebSocketServiceImpl(ObjectMapper objectMapper, ClusterPresenceRegistry clusterPresence) {
         this.objectMapper = objectMapper;
+        this.clusterPresence = clusterPresence;
     }
 
     @Autowired(required = false)
@@ -94,7 +105,7 @@ public class WebSocketServiceImpl implements WebSocketService {
      * @return the number of online users
      */
     public int getOnlineUserCount() {
-        return onlineUsers.size();
+        return clusterPresence.isEnabled() ? clusterPresence.getOnlineUserCount() : onlineUsers.size();
     }
 
     /**
@@ -104,7 +115,8 @@ public class WebSocketServiceImpl implements WebSocketService {
      * @return true if the user is online, false otherwise
      */
     public boolean isUserOnline(String username) {
-        return onlineUsers.containsKey(username);
+        return onlineUsers.containsKey(username)
+                || (clusterPresence.isEnabled() && clusterPresence.isOnline(username));
     }
 
     /**
@@ -113,7 +125,17 @@ public class WebSocketServiceImpl implements WebSocketService {
     public void notifyOnlineUsersChange() {
         log.info(
                 "Manually trigger the notification of the number of online users, the current number of online users：{}",
-                onlineUsers.size());
+                getOnlineUserCount());
+        sendOnlineUserCount();
+    }
+
+    /**
+     * Pushes the online user count when the cluster-wide count changed.
+     *
+     * @param event the presence change
+     */
+    @EventListener
+    public void onPresenceChanged(PresenceChangedEvent event) {
         sendOnlineUserCount();
     }
 
@@ -124,8 +146,13 @@ public class WebSocketServiceImpl implements WebSocketService {
         }
 
         try {
-            int count = onlineUsers.size();
-            messagingTemplate.convertAndSend("/topic/online-count", count);
+            int count = getOnlineUserCount();
+            if (clusterPresence.isEnabled()) {
+                // every node pushes the same cluster-wide count to its own clients
+                messagingTemplate.convertAndSend("/topic/online-count", count, RedisStompRelay.localOnly());
+            } else {
+                messagingTemplate.convertAndSend("/topic/online-count", count);
+            }
             log.debug("Number of online users sent: {}", count);
         } catch (Exception e) {
             log.error("Failed to send the number of online users.", e);
@@ -138,6 +165,10 @@ public class WebSocketServiceImpl implements WebSocketService {
                     "The message template has not been initialized, so the number of online users cannot be notified.");
             return;
         }
+        if (clusterPresence.isEnabled()) {
+            // pushed on PresenceChangedEvent once the change reached the cluster
+            return;
+        }
         sendOnlineUserCount();
     }
 